@@ -92,7 +92,7 @@ class Charset88591 extends CharsetASCII {
              */
             if ((ch & 0xff00) != 0) {
                 source.position((i + 1) - source.arrayOffset());
-                target.position(i + offset);
+                target.position((i + offset) - target.arrayOffset());
                 return encodeMalformedOrUnmappable(source, ch, flush);
             } else
                 return null;
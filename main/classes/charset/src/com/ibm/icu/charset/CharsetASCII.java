@@ -125,8 +125,8 @@ class CharsetASCII extends CharsetICU {
              * early termination of the loop
              */
             if ((ch & 0x80) != 0) {
-                source.position(i + 1);
-                target.position(i + offset);
+                source.position((i + 1) - source.arrayOffset());
+                target.position((i + offset) - target.arrayOffset());
                 return decodeMalformedOrUnmappable(ch);
             } else
                 return null;
@@ -287,7 +287,7 @@ class CharsetASCII extends CharsetICU {
              */
             if ((ch & 0xff80) != 0) {
                 source.position((i + 1) - source.arrayOffset());
-                target.position(i + offset);
+                target.position((i + offset) - target.arrayOffset());
                 return encodeMalformedOrUnmappable(source, ch, flush);
             } else
                 return null;
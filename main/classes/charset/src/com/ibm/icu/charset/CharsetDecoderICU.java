@@ -179,6 +179,20 @@ public abstract class CharsetDecoderICU extends CharsetDecoder{
         }
     }
 
+    /**
+     * Sets the replacement, the error actions and the callbacks to those of the other decoder.
+     * The callbacks are copied as well because a REPLACE action is stored as
+     * a substitution callback, while the public action is set to IGNORE.
+     */
+    void copyErrorHandlingFrom(CharsetDecoderICU other) {
+        replaceWith(other.replacement());
+        onMalformedInput(other.malformedInputAction());
+        onUnmappableCharacter(other.unmappableCharacterAction());
+        onMalformedInput = other.onMalformedInput;
+        onUnmappableCharacter = other.onUnmappableCharacter;
+        toUContext = other.toUContext;
+    }
+
     private static CharsetCallback.Decoder getCallback(CodingErrorAction action){
         if(action==CodingErrorAction.REPLACE){
             return CharsetCallback.TO_U_CALLBACK_SUBSTITUTE;
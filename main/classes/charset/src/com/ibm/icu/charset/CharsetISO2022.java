@@ -279,7 +279,8 @@ class CharsetISO2022 extends CharsetICU {
         /* convert the Unicode code point in c into codepage bytes */
         table = sharedData.mbcs.fromUnicodeTable;
         /* get the byte for the output */
-        value = CharsetMBCS.MBCS_SINGLE_RESULT_FROM_U(table, sharedData.mbcs.fromUnicodeChars, c);
+        value = CharsetMBCS.MBCS_SINGLE_RESULT_FROM_U(table, sharedData.mbcs.fromUnicodeChars,
+                sharedData.mbcs.fromUnicodeCharsBuffer, c);
         /* get the byte for the output */
         retval[0] = value & 0xff;
         if (value >= 0xf00) {
@@ -23,6 +23,7 @@ import java.util.Locale;
 
 import com.ibm.icu.charset.UConverterSharedData.UConverterType;
 import com.ibm.icu.impl.ICUBinary;
+import com.ibm.icu.impl.ICUConfig;
 import com.ibm.icu.impl.ICUData;
 import com.ibm.icu.impl.InvalidFormatException;
 import com.ibm.icu.lang.UCharacter;
@@ -35,6 +36,17 @@ class CharsetMBCS extends CharsetICU {
     UConverterSharedData sharedData = null;
     private static final int MAX_VERSION_LENGTH = 4;
 
+    /**
+     * Default for whether the large MBCS result tables are read-only views into the loaded
+     * (possibly memory-mapped) data rather than copies in Java arrays.
+     * See ICUConfig.properties.
+     */
+    static final boolean DEFAULT_ZERO_COPY_TABLES = ICUConfig.get(
+            "com.ibm.icu.charset.CharsetMBCS.zeroCopyTables", "false").equals("true");
+
+    /* shared data cache key suffix for converters loaded with zero-copy tables */
+    private static final String ZERO_COPY_TABLES_KEY_SUFFIX = "/zeroCopyTables";
+
     // these variables are used in getUnicodeSet() and may be changed in future
     // typedef enum UConverterSetFilter {
       static final int UCNV_SET_FILTER_NONE = 1;
@@ -73,7 +85,7 @@ class CharsetMBCS extends CharsetICU {
 
         int stateTable[/* countStates */][/* 256 */];
         int swapLFNLStateTable[/* countStates */][/* 256 */]; /* for swaplfnl */
-        char unicodeCodeUnits[/* countUnicodeResults */];
+        char[] unicodeCodeUnits; /* countUnicodeResults */
         MBCSToUFallback toUFallbacks[/* countToUFallbacks */];
 
         /* fromUnicode */
@@ -81,10 +93,17 @@ class CharsetMBCS extends CharsetICU {
         int fromUnicodeTableInts[];  // stage1 and stage2 together as int[]
         // Exactly one of the fromUnicode(Type) tables is not null,
         // depending on the outputType.
-        byte fromUnicodeBytes[];
-        char fromUnicodeChars[];
-        int fromUnicodeInts[];
-        char swapLFNLFromUnicodeChars[]; /* for swaplfnl */
+        byte[] fromUnicodeBytes;
+        char[] fromUnicodeChars;
+        int[] fromUnicodeInts;
+        char[] swapLFNLFromUnicodeChars; /* for swaplfnl */
+        // With zero-copy tables, the result tables are read-only views into the loaded data
+        // instead of arrays, and the corresponding arrays are null.
+        // See UConverterDataReader.readMBCSTable().
+        CharBuffer unicodeCodeUnitsBuffer;
+        ByteBuffer fromUnicodeBytesBuffer;
+        CharBuffer fromUnicodeCharsBuffer;
+        IntBuffer fromUnicodeIntsBuffer;
         int fromUBytesLength;
         short outputType, unicodeMask;
 
@@ -109,19 +128,44 @@ class CharsetMBCS extends CharsetICU {
             mbcsIndex = null;
         }
 
+        /**
+         * Shallow copy, like the memcpy() of the base table in ucnvmbcs.cpp.
+         * The arrays are shared.
+         */
+        UConverterMBCSTable(UConverterMBCSTable t) {
+            countStates = t.countStates;
+            dbcsOnlyState = t.dbcsOnlyState;
+            stateTableOwned = t.stateTableOwned;
+            countToUFallbacks = t.countToUFallbacks;
+            stateTable = t.stateTable;
+            swapLFNLStateTable = t.swapLFNLStateTable;
+            unicodeCodeUnits = t.unicodeCodeUnits;
+            unicodeCodeUnitsBuffer = t.unicodeCodeUnitsBuffer;
+            toUFallbacks = t.toUFallbacks;
+            fromUnicodeTable = t.fromUnicodeTable;
+            fromUnicodeTableInts = t.fromUnicodeTableInts;
+            fromUnicodeBytes = t.fromUnicodeBytes;
+            fromUnicodeChars = t.fromUnicodeChars;
+            fromUnicodeInts = t.fromUnicodeInts;
+            swapLFNLFromUnicodeChars = t.swapLFNLFromUnicodeChars;
+            fromUnicodeBytesBuffer = t.fromUnicodeBytesBuffer;
+            fromUnicodeCharsBuffer = t.fromUnicodeCharsBuffer;
+            fromUnicodeIntsBuffer = t.fromUnicodeIntsBuffer;
+            fromUBytesLength = t.fromUBytesLength;
+            outputType = t.outputType;
+            unicodeMask = t.unicodeMask;
+            swapLFNLName = t.swapLFNLName;
+            baseSharedData = t.baseSharedData;
+            extIndexes = t.extIndexes;
+            mbcsIndex = t.mbcsIndex;
+            utf8Friendly = t.utf8Friendly;
+            maxFastUChar = t.maxFastUChar;
+            asciiRoundtrips = t.asciiRoundtrips;
+        }
+
         boolean hasSupplementary() {
             return (unicodeMask & UConverterConstants.HAS_SUPPLEMENTARY) != 0;
         }
-
-        /*
-         * UConverterMBCSTable(UConverterMBCSTable t) { countStates = t.countStates; dbcsOnlyState = t.dbcsOnlyState;
-         * stateTableOwned = t.stateTableOwned; countToUFallbacks = t.countToUFallbacks; stateTable = t.stateTable;
-         * swapLFNLStateTable = t.swapLFNLStateTable; unicodeCodeUnits = t.unicodeCodeUnits; toUFallbacks =
-         * t.toUFallbacks; fromUnicodeTable = t.fromUnicodeTable; fromUnicodeBytes = t.fromUnicodeBytes;
-         * swapLFNLFromUnicodeChars = t.swapLFNLFromUnicodeChars; fromUBytesLength = t.fromUBytesLength; outputType =
-         * t.outputType; unicodeMask = t.unicodeMask; swapLFNLName = t.swapLFNLName; baseSharedData = t.baseSharedData;
-         * extIndexes = t.extIndexes; }
-         */
     }
 
     /* Constants used in MBCS data header */
@@ -168,6 +212,15 @@ class CharsetMBCS extends CharsetICU {
 
     public CharsetMBCS(String icuCanonicalName, String javaCanonicalName, String[] aliases, String classPath,
             ClassLoader loader) throws InvalidFormatException {
+        this(icuCanonicalName, javaCanonicalName, aliases, classPath, loader, DEFAULT_ZERO_COPY_TABLES);
+    }
+
+    /**
+     * @param zeroCopyTables if true, then the large result tables are read-only views into the loaded data,
+     *        otherwise they are copied into arrays
+     */
+    CharsetMBCS(String icuCanonicalName, String javaCanonicalName, String[] aliases, String classPath,
+            ClassLoader loader, boolean zeroCopyTables) throws InvalidFormatException {
         super(icuCanonicalName, javaCanonicalName, aliases);
 
         /* See if the icuCanonicalName contains certain option information. */
@@ -178,13 +231,15 @@ class CharsetMBCS extends CharsetICU {
         }
 
         // now try to load the data
-        sharedData = loadConverter(1, icuCanonicalName, classPath, loader);
+        sharedData = loadConverter(1, icuCanonicalName, classPath, loader, zeroCopyTables);
 
         maxBytesPerChar = sharedData.staticData.maxBytesPerChar;
         minBytesPerChar = sharedData.staticData.minBytesPerChar;
         maxCharsPerByte = 1;
         fromUSubstitution = sharedData.staticData.subChar;
-        subChar = sharedData.staticData.subChar;
+        // Copy subChar because implReplaceWith() modifies it,
+        // and the shared data may be shared with other Charset instances.
+        subChar = sharedData.staticData.subChar.clone();
         subCharLen = sharedData.staticData.subCharLen;
         subChar1 = sharedData.staticData.subChar1;
         fromUSubstitution = new byte[sharedData.staticData.subCharLen];
@@ -198,8 +253,26 @@ class CharsetMBCS extends CharsetICU {
         this(icuCanonicalName, javaCanonicalName, aliases, ICUData.ICU_BUNDLE, null);
     }
 
-    private UConverterSharedData loadConverter(int nestedLoads, String myName, String classPath, ClassLoader loader)
-            throws InvalidFormatException {
+    private UConverterSharedData loadConverter(int nestedLoads, String myName, String classPath, ClassLoader loader,
+            boolean zeroCopyTables) throws InvalidFormatException {
+        if (loader != null || !ICUData.ICU_BUNDLE.equals(classPath)) {
+            /* application-provided converters are not currently cached */
+            return createConverterFromFile(nestedLoads, myName, classPath, loader, zeroCopyTables);
+        }
+        /* the two table modes do not share data */
+        String key = zeroCopyTables ? myName + ZERO_COPY_TABLES_KEY_SUFFIX : myName;
+        UConverterSharedData data = UConverterSharedData.getSharedConverterData(key);
+        if (data == null) {
+            /* not cached, we need to stream it in from file */
+            data = createConverterFromFile(nestedLoads, myName, classPath, loader, zeroCopyTables);
+            /* share it with other Charset instances */
+            data = UConverterSharedData.shareConverterData(key, data);
+        }
+        return data;
+    }
+
+    private UConverterSharedData createConverterFromFile(int nestedLoads, String myName, String classPath,
+            ClassLoader loader, boolean zeroCopyTables) throws InvalidFormatException {
         boolean noFromU = false;
         // Read converter data from file
         UConverterStaticData staticData = new UConverterStaticData();
@@ -314,7 +387,7 @@ class CharsetMBCS extends CharsetICU {
             }
 
             // agljport:fix args.size=sizeof(UConverterLoadArgs);
-            baseSharedData = loadConverter(2, baseName, classPath, loader);
+            baseSharedData = loadConverter(2, baseName, classPath, loader, zeroCopyTables);
 
             if (baseSharedData.staticData.conversionType != UConverterType.MBCS
                     || baseSharedData.mbcs.baseSharedData != null) {
@@ -322,10 +395,11 @@ class CharsetMBCS extends CharsetICU {
                 throw new InvalidFormatException();
             }
 
-            /* copy the base table data */
-            // agljport:comment deep copy in C changes mbcs through local reference mbcsTable; in java we probably don't
-            // need the deep copy so can just make sure mbcs and its local reference both refer to the same new object
-            mbcsTable = data.mbcs = baseSharedData.mbcs;
+            /*
+             * copy the base table data;
+             * the base shared data may be cached and shared, so it must not be modified
+             */
+            mbcsTable = data.mbcs = new UConverterMBCSTable(baseSharedData.mbcs);
 
             /* overwrite values with relevant ones for the extension converter */
             mbcsTable.baseSharedData = baseSharedData;
@@ -434,7 +508,7 @@ class CharsetMBCS extends CharsetICU {
                 mbcsTable.unicodeMask = UConverterConstants.HAS_SUPPLEMENTARY | UConverterConstants.HAS_SURROGATES;
             }
             try {
-                reader.readMBCSTable(header, mbcsTable);
+                reader.readMBCSTable(header, mbcsTable, zeroCopyTables);
             } catch (IOException e) {
                 throw new InvalidFormatException();
             }
@@ -701,11 +775,13 @@ class CharsetMBCS extends CharsetICU {
         int[] codePoints = new int[32];
         int[] row;
         char[] unicodeCodeUnits;
+        CharBuffer unicodeCodeUnitsBuffer;
         int anyCodePoints;
         int b, limit;
 
         row = mbcsTable.stateTable[state];
         unicodeCodeUnits = mbcsTable.unicodeCodeUnits;
+        unicodeCodeUnitsBuffer = mbcsTable.unicodeCodeUnitsBuffer;
 
         value<<=8;
         anyCodePoints = -1; /* becomes non-negative if there is a mapping */
@@ -742,7 +818,7 @@ class CharsetMBCS extends CharsetICU {
                     c = MBCS_ENTRY_FINAL_VALUE_16(entry);
                 } else if (action == MBCS_STATE_VALID_16) {
                     int finalOffset = offset+MBCS_ENTRY_FINAL_VALUE_16(entry);
-                    c = unicodeCodeUnits[finalOffset];
+                    c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, finalOffset);
                     if (c < 0xfffe) {
                         /* output BMP code point */
                     } else {
@@ -750,15 +826,16 @@ class CharsetMBCS extends CharsetICU {
                     }
                 } else if (action == MBCS_STATE_VALID_16_PAIR) {
                     int finalOffset = offset+MBCS_ENTRY_FINAL_VALUE_16(entry);
-                    c = unicodeCodeUnits[finalOffset++];
+                    c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, finalOffset++);
                     if (c < 0xd800) {
                         /* output BMP code point below 0xd800 */
                     } else if (c <= 0xdbff) {
                         /* output roundtrip or fallback supplementary code point */
-                        c = ((c&0x3ff)<<10)+unicodeCodeUnits[finalOffset]+(0x10000-0xdc00);
+                        c = ((c&0x3ff)<<10)+getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, finalOffset)
+                                +(0x10000-0xdc00);
                     } else if (c == 0xe000) {
                         /* output roundtrip BMP code point above 0xd800 or fallback BMP code point */
-                        c = unicodeCodeUnits[finalOffset];
+                        c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, finalOffset);
                     } else {
                         c = UConverterConstants.U_SENTINEL;
                     }
@@ -871,9 +948,9 @@ class CharsetMBCS extends CharsetICU {
             /* do this because double-checked locking is broken */
             boolean isCached;
 
-            // agljport:todo umtx_lock(NULL);
-            isCached = mbcsTable.swapLFNLStateTable != null;
-            // agljport:todo umtx_unlock(NULL);
+            synchronized (mbcsTable) {
+                isCached = mbcsTable.swapLFNLStateTable != null;
+            }
 
             if (!isCached) {
                 try {
@@ -966,7 +1043,9 @@ class CharsetMBCS extends CharsetICU {
         table = mbcsTable.fromUnicodeTable;
         int[] tableInts = sharedData.mbcs.fromUnicodeTableInts;
         char[] chars = mbcsTable.fromUnicodeChars;
+        CharBuffer charsBuffer = mbcsTable.fromUnicodeCharsBuffer;
         char[] results = chars;
+        CharBuffer resultsBuffer = charsBuffer;
 
         /*
          * Check that this is an EBCDIC table with SBCS portion -
@@ -981,20 +1060,20 @@ class CharsetMBCS extends CharsetICU {
         }
 
         if (mbcsTable.outputType == MBCS_OUTPUT_1) {
-            if (!(EBCDIC_RT_LF == MBCS_SINGLE_RESULT_FROM_U(table, results, U_LF) &&
-                  EBCDIC_RT_NL == MBCS_SINGLE_RESULT_FROM_U(table, results, U_NL))) {
+            if (!(EBCDIC_RT_LF == MBCS_SINGLE_RESULT_FROM_U(table, results, resultsBuffer, U_LF) &&
+                  EBCDIC_RT_NL == MBCS_SINGLE_RESULT_FROM_U(table, results, resultsBuffer, U_NL))) {
                 return false;
             }
         } else /* MBCS_OUTPUT_2_SISO */ {
             stage2Entry = MBCS_STAGE_2_FROM_U(table, tableInts, U_LF);
             if (!(MBCS_FROM_U_IS_ROUNDTRIP(stage2Entry, U_LF) &&
-                  EBCDIC_LF == MBCS_VALUE_2_FROM_STAGE_2(chars, stage2Entry, U_LF))) {
+                  EBCDIC_LF == MBCS_VALUE_2_FROM_STAGE_2(chars, charsBuffer, stage2Entry, U_LF))) {
                 return false;
             }
 
             stage2Entry = MBCS_STAGE_2_FROM_U(table, tableInts, U_NL);
             if (!(MBCS_FROM_U_IS_ROUNDTRIP(stage2Entry, U_NL) &&
-                  EBCDIC_NL == MBCS_VALUE_2_FROM_STAGE_2(chars, stage2Entry, U_NL))) {
+                  EBCDIC_NL == MBCS_VALUE_2_FROM_STAGE_2(chars, charsBuffer, stage2Entry, U_NL))) {
                 return false;
             }
         }
@@ -1034,8 +1113,13 @@ class CharsetMBCS extends CharsetICU {
         newStateTable[0][EBCDIC_NL] = MBCS_ENTRY_FINAL(0, MBCS_STATE_VALID_DIRECT_16, U_LF);
 
         /* copy and modify the from-Unicode result table */
-        char[] newResults = new char[chars.length];
-        System.arraycopy(chars, 0, newResults, 0, chars.length);
+        char[] newResults;
+        if (chars != null) {
+            newResults = chars.clone();
+        } else {
+            newResults = new char[charsBuffer.limit()];
+            charsBuffer.duplicate().get(newResults);
+        }
         /* conveniently, the table access macros work on the left side of expressions */
         if (mbcsTable.outputType == MBCS_OUTPUT_1) {
             MBCS_SINGLE_RESULT_FROM_U_SET(table, newResults, U_LF, EBCDIC_RT_NL);
@@ -1051,10 +1135,12 @@ class CharsetMBCS extends CharsetICU {
         /* set the canonical converter name */
         newName = icuCanonicalName.concat(UConverterConstants.OPTION_SWAP_LFNL_STRING);
 
-        if (mbcsTable.swapLFNLStateTable == null) {
-            mbcsTable.swapLFNLStateTable = newStateTable;
-            mbcsTable.swapLFNLFromUnicodeChars = newResults;
-            mbcsTable.swapLFNLName = newName;
+        synchronized (mbcsTable) {
+            if (mbcsTable.swapLFNLStateTable == null) {
+                mbcsTable.swapLFNLStateTable = newStateTable;
+                mbcsTable.swapLFNLFromUnicodeChars = newResults;
+                mbcsTable.swapLFNLName = newName;
+            }
         }
         return true;
     }
@@ -1258,11 +1344,27 @@ class CharsetMBCS extends CharsetICU {
         return MBCS_ENTRY_FINAL_VALUE_16(mbcs.stateTable[0][b]);
     }
 
+    /*
+     * Result table access: The array if there is one,
+     * otherwise the zero-copy buffer (see UConverterMBCSTable).
+     */
+    static char getChar(char[] array, CharBuffer buffer, int i) {
+        return array != null ? array[i] : buffer.get(i);
+    }
+
+    static byte getByte(byte[] array, ByteBuffer buffer, int i) {
+        return array != null ? array[i] : buffer.get(i);
+    }
+
+    static int getInt(int[] array, IntBuffer buffer, int i) {
+        return array != null ? array[i] : buffer.get(i);
+    }
+
     /* single-byte fromUnicode: get the 16-bit result word */
-    static char MBCS_SINGLE_RESULT_FROM_U(char[] table, char[] results, int c) {
+    static char MBCS_SINGLE_RESULT_FROM_U(char[] table, char[] results, CharBuffer resultsBuffer, int c) {
         int i1 = table[c >>> 10] + ((c >>> 4) & 0x3f);
         int i = table[i1] + (c & 0xf);
-        return results[i];
+        return getChar(results, resultsBuffer, i);
     }
 
     /* single-byte fromUnicode: set the 16-bit result word with newValue*/
@@ -1282,9 +1384,9 @@ class CharsetMBCS extends CharsetICU {
         return (((stage2Entry) & (1 << (16 + ((c) & 0xf)))) != 0);
     }
 
-    static char MBCS_VALUE_2_FROM_STAGE_2(char[] chars, int stage2Entry, int c) {
+    static char MBCS_VALUE_2_FROM_STAGE_2(char[] chars, CharBuffer charsBuffer, int stage2Entry, int c) {
         int i = 16 * (stage2Entry & UConverterConstants.UNSIGNED_SHORT_MASK) + (c & 0xf);
-        return chars[i];
+        return getChar(chars, charsBuffer, i);
     }
 
     static void MBCS_VALUE_2_FROM_STAGE_2_SET(char[] chars, int stage2Entry, int c, int newValue) {
@@ -1292,9 +1394,9 @@ class CharsetMBCS extends CharsetICU {
         chars[i] = (char) newValue;
     }
 
-    private static int MBCS_VALUE_4_FROM_STAGE_2(int[] ints, int stage2Entry, int c) {
+    private static int MBCS_VALUE_4_FROM_STAGE_2(int[] ints, IntBuffer intsBuffer, int stage2Entry, int c) {
         int i = 16 * (stage2Entry & UConverterConstants.UNSIGNED_SHORT_MASK) + (c & 0xf);
-        return ints[i];
+        return getInt(ints, intsBuffer, i);
     }
 
     static int MBCS_POINTER_3_FROM_STAGE_2(byte[] bytes, int stage2Entry, int c) {
@@ -1452,28 +1554,28 @@ class CharsetMBCS extends CharsetICU {
 
     /* get the pointer to an extension array from indexes[index] */
     static Buffer ARRAY(ByteBuffer indexes, int index, Class<?> itemType) {
-        int oldpos = indexes.position();
         Buffer b;
 
         // TODO: It is very inefficient to create Buffer objects for each array access.
         // We should create an inner class Extensions (or sibling class CharsetMBCSExtensions)
         // which has buffers for the arrays, together with the code that works with them.
-        indexes.position(indexes.getInt(index << 2));
+        // Do not move the position of the indexes buffer itself:
+        // It is shared by all encoders and decoders of the converters with this shared data.
+        ByteBuffer array = indexes.duplicate().order(indexes.order());
+        array.position(indexes.getInt(index << 2));
         if (itemType == int.class)
-            b = indexes.asIntBuffer();
+            b = array.asIntBuffer();
         else if (itemType == char.class)
-            b = indexes.asCharBuffer();
+            b = array.asCharBuffer();
         else if (itemType == short.class)
-            b = indexes.asShortBuffer();
+            b = array.asShortBuffer();
         else
             // default or (itemType == byte.class)
-            b = indexes.slice();
-        indexes.position(oldpos);
+            b = array.slice();
         return b;
     }
 
     private static int GET_MAX_BYTES_PER_UCHAR(ByteBuffer indexes) {
-        indexes.position(0);
         return indexes.getInt(EXT_COUNT_BYTES) & 0xff;
     }
 
@@ -1621,7 +1723,13 @@ class CharsetMBCS extends CharsetICU {
                 : sharedData.mbcs.outputType == MBCS_OUTPUT_DBCS_ONLY ? 1 : -1;
     }
 
+    /* number of units that the bulk conversion paths copy at a time for non-array buffers */
+    private static final int BULK_LENGTH = 256;
+
     class CharsetDecoderMBCS extends CharsetDecoderICU {
+        /* scratch arrays for singleToBMPRun() with non-array buffers */
+        private byte[] bulkBytes;
+        private char[] bulkChars;
 
         CharsetDecoderMBCS(CharsetICU cs) {
             super(cs);
@@ -2005,6 +2113,7 @@ class CharsetMBCS extends CharsetICU {
             int sourceArrayIndex, sourceArrayIndexStart;
             int stateTable[][/* 256 */];
             char[] unicodeCodeUnits;
+            CharBuffer unicodeCodeUnitsBuffer;
 
             int offset;
             byte state;
@@ -2047,6 +2156,7 @@ class CharsetMBCS extends CharsetICU {
                 stateTable = sharedData.mbcs.stateTable;
             }
             unicodeCodeUnits = sharedData.mbcs.unicodeCodeUnits;
+            unicodeCodeUnitsBuffer = sharedData.mbcs.unicodeCodeUnitsBuffer;
 
             /* get the converter state from UConverter */
             offset = toUnicodeStatus;
@@ -2082,48 +2192,81 @@ class CharsetMBCS extends CharsetICU {
 
                 if (byteIndex == 0) {
                     /* optimized loop for 1/2-byte input and BMP output */
-                    // agljport:todo see ucnvmbcs.c for deleted block
-                    do {
-                        entry = stateTable[state][source.get(sourceArrayIndex)&UConverterConstants.UNSIGNED_BYTE_MASK];
-                        if (MBCS_ENTRY_IS_TRANSITION(entry)) {
-                            state = (byte)MBCS_ENTRY_TRANSITION_STATE(entry);
-                            offset = MBCS_ENTRY_TRANSITION_OFFSET(entry);
-                            ++sourceArrayIndex;
-                            if (sourceArrayIndex < source.limit()
-                                    && MBCS_ENTRY_IS_FINAL(entry = stateTable[state][source.get(sourceArrayIndex)&UConverterConstants.UNSIGNED_BYTE_MASK])
-                                    && MBCS_ENTRY_FINAL_ACTION(entry) == MBCS_STATE_VALID_16
-                                    && (c = unicodeCodeUnits[offset + MBCS_ENTRY_FINAL_VALUE_16(entry)]) < 0xfffe) {
+                    if (offsets == null) {
+                        do {
+                            entry = stateTable[state][source.get(sourceArrayIndex)&UConverterConstants.UNSIGNED_BYTE_MASK];
+                            if (MBCS_ENTRY_IS_TRANSITION(entry)) {
+                                state = (byte)MBCS_ENTRY_TRANSITION_STATE(entry);
+                                offset = MBCS_ENTRY_TRANSITION_OFFSET(entry);
                                 ++sourceArrayIndex;
-                                target.put(c);
-                                if (offsets != null) {
-                                    offsets.put(sourceIndex);
-                                    sourceIndex = (nextSourceIndex += 2);
+                                if (sourceArrayIndex < source.limit()
+                                        && MBCS_ENTRY_IS_FINAL(entry = stateTable[state][source.get(sourceArrayIndex)&UConverterConstants.UNSIGNED_BYTE_MASK])
+                                        && MBCS_ENTRY_FINAL_ACTION(entry) == MBCS_STATE_VALID_16
+                                        && (c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer,
+                                                offset + MBCS_ENTRY_FINAL_VALUE_16(entry))) < 0xfffe) {
+                                    ++sourceArrayIndex;
+                                    target.put(c);
+                                    state = (byte)MBCS_ENTRY_FINAL_STATE(entry); /* typically 0 */
+                                    offset = 0;
+                                } else {
+                                    /* set the state and leave the optimized loop */
+                                    ++nextSourceIndex;
+                                    bytes[0] = source.get(sourceArrayIndex - 1);
+                                    byteIndex = 1;
+                                    break;
                                 }
-                                state = (byte)MBCS_ENTRY_FINAL_STATE(entry); /* typically 0 */
-                                offset = 0;
                             } else {
-                                /* set the state and leave the optimized loop */
-                                ++nextSourceIndex;
-                                bytes[0] = source.get(sourceArrayIndex - 1);
-                                byteIndex = 1;
-                                break;
+                                if (MBCS_ENTRY_FINAL_IS_VALID_DIRECT_16(entry)) {
+                                    /* output BMP code point */
+                                    ++sourceArrayIndex;
+                                    target.put(MBCS_ENTRY_FINAL_VALUE_16(entry));
+                                    state = (byte)MBCS_ENTRY_FINAL_STATE(entry); /* typically 0 */
+                                } else {
+                                    /* leave the optimized loop */
+                                    break;
+                                }
                             }
-                        } else {
-                            if (MBCS_ENTRY_FINAL_IS_VALID_DIRECT_16(entry)) {
-                                /* output BMP code point */
+                        } while (sourceArrayIndex < source.limit() && target.hasRemaining());
+                    } else /* offsets != null */ {
+                        do {
+                            entry = stateTable[state][source.get(sourceArrayIndex)&UConverterConstants.UNSIGNED_BYTE_MASK];
+                            if (MBCS_ENTRY_IS_TRANSITION(entry)) {
+                                state = (byte)MBCS_ENTRY_TRANSITION_STATE(entry);
+                                offset = MBCS_ENTRY_TRANSITION_OFFSET(entry);
                                 ++sourceArrayIndex;
-                                target.put(MBCS_ENTRY_FINAL_VALUE_16(entry));
-                                if (offsets != null) {
+                                if (sourceArrayIndex < source.limit()
+                                        && MBCS_ENTRY_IS_FINAL(entry = stateTable[state][source.get(sourceArrayIndex)&UConverterConstants.UNSIGNED_BYTE_MASK])
+                                        && MBCS_ENTRY_FINAL_ACTION(entry) == MBCS_STATE_VALID_16
+                                        && (c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer,
+                                                offset + MBCS_ENTRY_FINAL_VALUE_16(entry))) < 0xfffe) {
+                                    ++sourceArrayIndex;
+                                    target.put(c);
                                     offsets.put(sourceIndex);
-                                    sourceIndex = ++nextSourceIndex;
+                                    sourceIndex = (nextSourceIndex += 2);
+                                    state = (byte)MBCS_ENTRY_FINAL_STATE(entry); /* typically 0 */
+                                    offset = 0;
+                                } else {
+                                    /* set the state and leave the optimized loop */
+                                    ++nextSourceIndex;
+                                    bytes[0] = source.get(sourceArrayIndex - 1);
+                                    byteIndex = 1;
+                                    break;
                                 }
-                                state = (byte)MBCS_ENTRY_FINAL_STATE(entry); /* typically 0 */
                             } else {
-                                /* leave the optimized loop */
-                                break;
+                                if (MBCS_ENTRY_FINAL_IS_VALID_DIRECT_16(entry)) {
+                                    /* output BMP code point */
+                                    ++sourceArrayIndex;
+                                    target.put(MBCS_ENTRY_FINAL_VALUE_16(entry));
+                                    offsets.put(sourceIndex);
+                                    sourceIndex = ++nextSourceIndex;
+                                    state = (byte)MBCS_ENTRY_FINAL_STATE(entry); /* typically 0 */
+                                } else {
+                                    /* leave the optimized loop */
+                                    break;
+                                }
                             }
-                        }
-                    } while (sourceArrayIndex < source.limit() && target.hasRemaining());
+                        } while (sourceArrayIndex < source.limit() && target.hasRemaining());
+                    }
                     /*
                      * these tests and break statements could be put inside the loop if C had "break outerLoop" like
                      * Java
@@ -2164,7 +2307,7 @@ class CharsetMBCS extends CharsetICU {
                 action = (byte)MBCS_ENTRY_FINAL_ACTION(entry);
                 if (action == MBCS_STATE_VALID_16) {
                     offset += MBCS_ENTRY_FINAL_VALUE_16(entry);
-                    c = unicodeCodeUnits[offset];
+                    c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, offset);
                     if (c < 0xfffe) {
                         /* output BMP code point */
                         target.put(c);
@@ -2194,7 +2337,7 @@ class CharsetMBCS extends CharsetICU {
                     byteIndex = 0;
                 } else if (action == MBCS_STATE_VALID_16_PAIR) {
                     offset += MBCS_ENTRY_FINAL_VALUE_16(entry);
-                    c = unicodeCodeUnits[offset++];
+                    c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, offset++);
                     if (c < 0xd800) {
                         /* output BMP code point below 0xd800 */
                         target.put(c);
@@ -2210,13 +2353,13 @@ class CharsetMBCS extends CharsetICU {
                         }
                         byteIndex = 0;
                         if (target.hasRemaining()) {
-                            target.put(unicodeCodeUnits[offset]);
+                            target.put(getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, offset));
                             if (offsets != null) {
                                 offsets.put(sourceIndex);
                             }
                         } else {
                             /* target overflow */
-                            charErrorBufferArray[0] = unicodeCodeUnits[offset];
+                            charErrorBufferArray[0] = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, offset);
                             charErrorBufferLength = 1;
                             cr[0] = CoderResult.OVERFLOW;
 
@@ -2225,7 +2368,7 @@ class CharsetMBCS extends CharsetICU {
                         }
                     } else if (isFallbackUsed() ? (c & 0xfffe) == 0xe000 : c == 0xe000) {
                         /* output roundtrip BMP code point above 0xd800 or fallback BMP code point */
-                        target.put(unicodeCodeUnits[offset]);
+                        target.put(getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, offset));
                         if (offsets != null) {
                             offsets.put(sourceIndex);
                         }
@@ -2395,6 +2538,15 @@ class CharsetMBCS extends CharsetICU {
 
             /* conversion loop */
             while (targetCapacity > 0 && sourceArrayIndex < source.limit()) {
+                /* convert the run of direct BMP mappings in bulk; the offsets are counted from lastSource */
+                length = singleToBMPRun(stateTable[0], source, sourceArrayIndex, target,
+                        Math.min(targetCapacity, source.limit() - sourceArrayIndex));
+                sourceArrayIndex += length;
+                targetCapacity -= length;
+                if (targetCapacity == 0 || sourceArrayIndex >= source.limit()) {
+                    break;
+                }
+
                 entry = stateTable[0][source.get(sourceArrayIndex++) & UConverterConstants.UNSIGNED_BYTE_MASK];
                 /* MBCS_ENTRY_IS_FINAL(entry) */
 
@@ -2485,6 +2637,55 @@ class CharsetMBCS extends CharsetICU {
             return cr[0];
         }
 
+        /*
+         * Converts up to length bytes starting at sourceIndex with the single-byte state table row, as long as they
+         * map directly to BMP code points, and writes the results to the target. Uses the backing arrays if there are
+         * any, or else bulk transfers through scratch arrays. Does not change the source position.
+         *
+         * @return the number of bytes converted
+         */
+        private int singleToBMPRun(int[] row, ByteBuffer source, int sourceIndex, CharBuffer target, int length) {
+            int count = 0;
+            int entry;
+            if (source.hasArray() && target.hasArray()) {
+                byte[] sourceArray = source.array();
+                int sourceArrayOffset = source.arrayOffset() + sourceIndex;
+                char[] targetArray = target.array();
+                int targetArrayOffset = target.arrayOffset() + target.position();
+                while (count < length && MBCS_ENTRY_FINAL_IS_VALID_DIRECT_16(
+                        entry = row[sourceArray[sourceArrayOffset + count] & UConverterConstants.UNSIGNED_BYTE_MASK])) {
+                    targetArray[targetArrayOffset + count++] = MBCS_ENTRY_FINAL_VALUE_16(entry);
+                }
+                target.position(target.position() + count);
+            } else {
+                if (bulkBytes == null) {
+                    bulkBytes = new byte[BULK_LENGTH];
+                    bulkChars = new char[BULK_LENGTH];
+                }
+                int oldPosition = source.position();
+                source.position(sourceIndex);
+                /* start small so that frequent short runs do not copy much more than they convert */
+                int chunk = 16;
+                while (count < length) {
+                    int n = Math.min(length - count, chunk);
+                    chunk = Math.min(2 * chunk, BULK_LENGTH);
+                    source.get(bulkBytes, 0, n);
+                    int i = 0;
+                    while (i < n && MBCS_ENTRY_FINAL_IS_VALID_DIRECT_16(
+                            entry = row[bulkBytes[i] & UConverterConstants.UNSIGNED_BYTE_MASK])) {
+                        bulkChars[i++] = MBCS_ENTRY_FINAL_VALUE_16(entry);
+                    }
+                    target.put(bulkChars, 0, i);
+                    count += i;
+                    if (i < n) {
+                        break;
+                    }
+                }
+                source.position(oldPosition);
+            }
+            return count;
+        }
+
         /* This version of cnvMBCSToUnicodeWithOffsets() is optimized for single-byte, single-state codepages. */
         private CoderResult cnvMBCSSingleToUnicodeWithOffsets(ByteBuffer source, CharBuffer target, IntBuffer offsets,
                 boolean flush) {
@@ -2675,6 +2876,7 @@ class CharsetMBCS extends CharsetICU {
             /* set up the local pointers */
             int[][] stateTable = sharedData.mbcs.stateTable;
             char[] unicodeCodeUnits = sharedData.mbcs.unicodeCodeUnits;
+            CharBuffer unicodeCodeUnitsBuffer = sharedData.mbcs.unicodeCodeUnitsBuffer;
 
             /* converter state */
             int offset = 0;
@@ -2706,7 +2908,7 @@ class CharsetMBCS extends CharsetICU {
                     action = MBCS_ENTRY_FINAL_ACTION(entry);
                     if (action == MBCS_STATE_VALID_16) {
                         offset += MBCS_ENTRY_FINAL_VALUE_16(entry);
-                        c = unicodeCodeUnits[offset];
+                        c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, offset);
                         if (c != 0xfffe) {
                             /* done */
                         } else if (isToUUseFallback()) {
@@ -2718,15 +2920,16 @@ class CharsetMBCS extends CharsetICU {
                         c = MBCS_ENTRY_FINAL_VALUE_16(entry);
                     } else if (action == MBCS_STATE_VALID_16_PAIR) {
                         offset += MBCS_ENTRY_FINAL_VALUE_16(entry);
-                        c = unicodeCodeUnits[offset++];
+                        c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, offset++);
                         if (c < 0xd800) {
                             /* output BMP code point below 0xd800 */
                         } else if (isToUUseFallback() ? c <= 0xdfff : c <= 0xdbff) {
                             /* output roundtrip or fallback supplementary code point */
-                            c = (((c & 0x3ff) << 10) + unicodeCodeUnits[offset] + (0x10000 - 0xdc00));
+                            c = (((c & 0x3ff) << 10) + getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, offset)
+                                    + (0x10000 - 0xdc00));
                         } else if (isToUUseFallback() ? (c & 0xfffe) == 0xe000 : c == 0xe000) {
                             /* output roundtrip BMP code point above 0xd800 or fallback BMP code point */
-                            c = unicodeCodeUnits[offset];
+                            c = getChar(unicodeCodeUnits, unicodeCodeUnitsBuffer, offset);
                         } else if (c == 0xffff) {
                             return 0xffff;
                         } else {
@@ -2830,6 +3033,9 @@ class CharsetMBCS extends CharsetICU {
 
     class CharsetEncoderMBCS extends CharsetEncoderICU {
         private boolean allowReplacementChanges = false;
+        /* scratch arrays for singleFromBMPRun() with non-array buffers */
+        private char[] bulkChars;
+        private byte[] bulkBytes;
 
         CharsetEncoderMBCS(CharsetICU cs) {
             super(cs, fromUSubstitution);
@@ -2855,6 +3061,9 @@ class CharsetMBCS extends CharsetICU {
             byte[] pArray, bytes;
             char[] chars;
             int[] ints;
+            ByteBuffer bytesBuffer;
+            CharBuffer charsBuffer;
+            IntBuffer intsBuffer;
             int pArrayIndex, outputType, c;
             int prevSourceIndex, sourceIndex, nextSourceIndex;
             int stage2Entry = 0, value = 0, length = 0, prevLength;
@@ -2901,11 +3110,15 @@ class CharsetMBCS extends CharsetICU {
                 sourceArrayIndex = source.position();
 
                 bytes = sharedData.mbcs.fromUnicodeBytes;
+                bytesBuffer = sharedData.mbcs.fromUnicodeBytesBuffer;
                 ints = sharedData.mbcs.fromUnicodeInts;
+                intsBuffer = sharedData.mbcs.fromUnicodeIntsBuffer;
                 if ((options & UConverterConstants.OPTION_SWAP_LFNL) != 0) {
                     chars = sharedData.mbcs.swapLFNLFromUnicodeChars;
+                    charsBuffer = null;
                 } else {
                     chars = sharedData.mbcs.fromUnicodeChars;
+                    charsBuffer = sharedData.mbcs.fromUnicodeCharsBuffer;
                 }
 
                 // asciiRoundtrips = sharedData.mbcs.asciiRoundtrips;
@@ -3070,7 +3283,7 @@ class CharsetMBCS extends CharsetICU {
                                  * callback function changed it for its output.
                                  */
                                 fromUnicodeStatus = prevLength; /* save the old state */
-                                value = MBCS_VALUE_2_FROM_STAGE_2(chars, stage2Entry, c);
+                                value = MBCS_VALUE_2_FROM_STAGE_2(chars, charsBuffer, stage2Entry, c);
                                 if (value <= 0xff) {
                                     if (value == 0 && MBCS_FROM_U_IS_ROUNDTRIP(stage2Entry, c) == false) {
                                         /* no mapping, leave value==0 */
@@ -3108,7 +3321,7 @@ class CharsetMBCS extends CharsetICU {
                                 break;
                             case MBCS_OUTPUT_DBCS_ONLY:
                                 /* table with single-byte results, but only DBCS mappings used */
-                                value = MBCS_VALUE_2_FROM_STAGE_2(chars, stage2Entry, c);
+                                value = MBCS_VALUE_2_FROM_STAGE_2(chars, charsBuffer, stage2Entry, c);
                                 if (value <= 0xff) {
                                     /* no mapping or SBCS result, not taken for DBCS-only */
                                     value = stage2Entry = 0; /* stage2Entry=0 to reset roundtrip flags */
@@ -3120,9 +3333,12 @@ class CharsetMBCS extends CharsetICU {
                             case MBCS_OUTPUT_3:
                                 pArray = bytes;
                                 pArrayIndex = MBCS_POINTER_3_FROM_STAGE_2(bytes, stage2Entry, c);
-                                value = ((pArray[pArrayIndex] & UConverterConstants.UNSIGNED_BYTE_MASK) << 16)
-                                        | ((pArray[pArrayIndex + 1] & UConverterConstants.UNSIGNED_BYTE_MASK) << 8)
-                                        | (pArray[pArrayIndex + 2] & UConverterConstants.UNSIGNED_BYTE_MASK);
+                                value = ((getByte(pArray, bytesBuffer, pArrayIndex)
+                                                & UConverterConstants.UNSIGNED_BYTE_MASK) << 16)
+                                        | ((getByte(pArray, bytesBuffer, pArrayIndex + 1)
+                                                & UConverterConstants.UNSIGNED_BYTE_MASK) << 8)
+                                        | (getByte(pArray, bytesBuffer, pArrayIndex + 2)
+                                                & UConverterConstants.UNSIGNED_BYTE_MASK);
                                 if (value <= 0xff) {
                                     length = 1;
                                 } else if (value <= 0xffff) {
@@ -3132,7 +3348,7 @@ class CharsetMBCS extends CharsetICU {
                                 }
                                 break;
                             case MBCS_OUTPUT_4:
-                                value = MBCS_VALUE_4_FROM_STAGE_2(ints, stage2Entry, c);
+                                value = MBCS_VALUE_4_FROM_STAGE_2(ints, intsBuffer, stage2Entry, c);
                                 if (value < 0) {
                                     // Half of the 4-byte values look negative in a signed int.
                                     length = 4;
@@ -3147,7 +3363,7 @@ class CharsetMBCS extends CharsetICU {
                                 }
                                 break;
                             case MBCS_OUTPUT_3_EUC:
-                                value = MBCS_VALUE_2_FROM_STAGE_2(chars, stage2Entry, c);
+                                value = MBCS_VALUE_2_FROM_STAGE_2(chars, charsBuffer, stage2Entry, c);
                                 /* EUC 16-bit fixed-length representation */
                                 if (value <= 0xff) {
                                     length = 1;
@@ -3164,9 +3380,12 @@ class CharsetMBCS extends CharsetICU {
                             case MBCS_OUTPUT_4_EUC:
                                 pArray = bytes;
                                 pArrayIndex = MBCS_POINTER_3_FROM_STAGE_2(bytes, stage2Entry, c);
-                                value = ((pArray[pArrayIndex] & UConverterConstants.UNSIGNED_BYTE_MASK) << 16)
-                                        | ((pArray[pArrayIndex + 1] & UConverterConstants.UNSIGNED_BYTE_MASK) << 8)
-                                        | (pArray[pArrayIndex + 2] & UConverterConstants.UNSIGNED_BYTE_MASK);
+                                value = ((getByte(pArray, bytesBuffer, pArrayIndex)
+                                                & UConverterConstants.UNSIGNED_BYTE_MASK) << 16)
+                                        | ((getByte(pArray, bytesBuffer, pArrayIndex + 1)
+                                                & UConverterConstants.UNSIGNED_BYTE_MASK) << 8)
+                                        | (getByte(pArray, bytesBuffer, pArrayIndex + 2)
+                                                & UConverterConstants.UNSIGNED_BYTE_MASK);
                                 /* EUC 16-bit fixed-length representation applied to the first two bytes */
                                 if (value <= 0xff) {
                                     length = 1;
@@ -3221,31 +3440,40 @@ class CharsetMBCS extends CharsetICU {
                             /* write the output character bytes from value and length */
                             /* from the first if in the loop we know that targetCapacity>0 */
                             if (length <= target.remaining()) {
-                                switch (length) {
-                                /* each branch falls through to the next one */
-                                case 4:
-                                    target.put((byte) (value >>> 24));
-                                    if (offsets != null) {
-                                        offsets.put(sourceIndex);
+                                if (offsets == null) {
+                                    switch (length) {
+                                    /* each branch falls through to the next one */
+                                    case 4:
+                                        target.put((byte) (value >>> 24));
+                                    case 3:
+                                        target.put((byte) (value >>> 16));
+                                    case 2:
+                                        target.put((byte) (value >>> 8));
+                                    case 1:
+                                        target.put((byte) value);
+                                    default:
+                                        /* will never occur */
+                                        break;
                                     }
-                                case 3:
-                                    target.put((byte) (value >>> 16));
-                                    if (offsets != null) {
+                                } else {
+                                    switch (length) {
+                                    /* each branch falls through to the next one */
+                                    case 4:
+                                        target.put((byte) (value >>> 24));
                                         offsets.put(sourceIndex);
-                                    }
-                                case 2:
-                                    target.put((byte) (value >>> 8));
-                                    if (offsets != null) {
+                                    case 3:
+                                        target.put((byte) (value >>> 16));
                                         offsets.put(sourceIndex);
-                                    }
-                                case 1:
-                                    target.put((byte) value);
-                                    if (offsets != null) {
+                                    case 2:
+                                        target.put((byte) (value >>> 8));
+                                        offsets.put(sourceIndex);
+                                    case 1:
+                                        target.put((byte) value);
                                         offsets.put(sourceIndex);
+                                    default:
+                                        /* will never occur */
+                                        break;
                                     }
-                                default:
-                                    /* will never occur */
-                                    break;
                                 }
                             } else {
                                 int errorBufferArrayIndex;
@@ -3396,7 +3624,8 @@ class CharsetMBCS extends CharsetICU {
 
                 /* convert the Unicode code point in c into codepage bytes (same as in _MBCSFromUnicodeWithOffsets) */
                 if (sharedData.mbcs.outputType == MBCS_OUTPUT_1) {
-                    value = MBCS_SINGLE_RESULT_FROM_U(table, sharedData.mbcs.fromUnicodeChars, c);
+                    value = MBCS_SINGLE_RESULT_FROM_U(table, sharedData.mbcs.fromUnicodeChars,
+                            sharedData.mbcs.fromUnicodeCharsBuffer, c);
                     /* is this code point assigned, or do we use fallbacks? */
                     if (isUseFallback ? value >= 0x800 : value >= 0xc00) {
                         pValue[0] = value & 0xff;
@@ -3409,7 +3638,8 @@ class CharsetMBCS extends CharsetICU {
                     /* get the bytes and the length for the output */
                     switch (sharedData.mbcs.outputType) {
                     case MBCS_OUTPUT_2:
-                        value = MBCS_VALUE_2_FROM_STAGE_2(sharedData.mbcs.fromUnicodeChars, stage2Entry, c);
+                        value = MBCS_VALUE_2_FROM_STAGE_2(sharedData.mbcs.fromUnicodeChars,
+                                sharedData.mbcs.fromUnicodeCharsBuffer, stage2Entry, c);
                         if (value <= 0xff) {
                             length = 1;
                         } else {
@@ -3431,10 +3661,11 @@ class CharsetMBCS extends CharsetICU {
                     // break;
                     case MBCS_OUTPUT_3:
                         byte[] bytes = sharedData.mbcs.fromUnicodeBytes;
+                        ByteBuffer bytesBuffer = sharedData.mbcs.fromUnicodeBytesBuffer;
                         p = CharsetMBCS.MBCS_POINTER_3_FROM_STAGE_2(bytes, stage2Entry, c);
-                        value = ((bytes[p] & UConverterConstants.UNSIGNED_BYTE_MASK)<<16) |
-                            ((bytes[p+1] & UConverterConstants.UNSIGNED_BYTE_MASK)<<8) |
-                            (bytes[p+2] & UConverterConstants.UNSIGNED_BYTE_MASK);
+                        value = ((getByte(bytes, bytesBuffer, p) & UConverterConstants.UNSIGNED_BYTE_MASK)<<16) |
+                            ((getByte(bytes, bytesBuffer, p+1) & UConverterConstants.UNSIGNED_BYTE_MASK)<<8) |
+                            (getByte(bytes, bytesBuffer, p+2) & UConverterConstants.UNSIGNED_BYTE_MASK);
                         if (value <= 0xff) {
                             length = 1;
                         } else if (value <= 0xffff) {
@@ -3992,6 +4223,7 @@ class CharsetMBCS extends CharsetICU {
             int targetCapacity, length;
             char[] table;
             char[] results;
+            CharBuffer resultsBuffer;
 
             int c, sourceIndex;
             char value, minValue;
@@ -4003,8 +4235,10 @@ class CharsetMBCS extends CharsetICU {
 
             if ((options & UConverterConstants.OPTION_SWAP_LFNL) != 0) {
                 results = sharedData.mbcs.swapLFNLFromUnicodeChars;
+                resultsBuffer = null;
             } else {
                 results = sharedData.mbcs.fromUnicodeChars;
+                resultsBuffer = sharedData.mbcs.fromUnicodeCharsBuffer;
             }
 
             if (useFallback) {
@@ -4041,6 +4275,16 @@ class CharsetMBCS extends CharsetICU {
 
             if (doloop) {
                 while (targetCapacity > 0) {
+                    /* convert the run of assigned BMP characters in bulk; the offsets are counted from lastSource */
+                    length = singleFromBMPRun(table, results, resultsBuffer, minValue, source, sourceArrayIndex,
+                            target, Math.min(targetCapacity, source.limit() - sourceArrayIndex));
+                    sourceArrayIndex += length;
+                    targetCapacity -= length;
+                    if (targetCapacity == 0 || sourceArrayIndex >= source.limit()) {
+                        c = 0;
+                        break;
+                    }
+
                     /*
                      * Get a correct Unicode code point: a single UChar for a BMP code point or a matched surrogate pair
                      * for a "supplementary code point".
@@ -4051,7 +4295,7 @@ class CharsetMBCS extends CharsetICU {
                      * them in that case. This speeds up the conversion of assigned characters.
                      */
                     /* convert the Unicode code point in c into codepage bytes */
-                    value = MBCS_SINGLE_RESULT_FROM_U(table, results, c);
+                    value = MBCS_SINGLE_RESULT_FROM_U(table, results, resultsBuffer, c);
 
                     /* is this code point assigned, or do we use fallbacks? */
                     if (value >= minValue) {
@@ -4147,6 +4391,57 @@ class CharsetMBCS extends CharsetICU {
             return cr[0];
         }
 
+        /*
+         * Converts up to length UChars starting at sourceIndex with the single-byte fromUnicode table, as long as they
+         * have results of at least minValue, and writes the bytes to the target. Surrogates never reach minValue in
+         * this table. Uses the backing arrays if there are any, or else bulk transfers through scratch arrays. Does not
+         * change the source position.
+         *
+         * @return the number of UChars converted
+         */
+        private int singleFromBMPRun(char[] table, char[] results, CharBuffer resultsBuffer, char minValue,
+                CharBuffer source, int sourceIndex, ByteBuffer target, int length) {
+            int count = 0;
+            char value;
+            if (source.hasArray() && target.hasArray()) {
+                char[] sourceArray = source.array();
+                int sourceArrayOffset = source.arrayOffset() + sourceIndex;
+                byte[] targetArray = target.array();
+                int targetArrayOffset = target.arrayOffset() + target.position();
+                while (count < length && (value = MBCS_SINGLE_RESULT_FROM_U(
+                        table, results, resultsBuffer, sourceArray[sourceArrayOffset + count])) >= minValue) {
+                    targetArray[targetArrayOffset + count++] = (byte) value;
+                }
+                target.position(target.position() + count);
+            } else {
+                if (bulkChars == null) {
+                    bulkChars = new char[BULK_LENGTH];
+                    bulkBytes = new byte[BULK_LENGTH];
+                }
+                int oldPosition = source.position();
+                source.position(sourceIndex);
+                /* start small so that frequent short runs do not copy much more than they convert */
+                int chunk = 16;
+                while (count < length) {
+                    int n = Math.min(length - count, chunk);
+                    chunk = Math.min(2 * chunk, BULK_LENGTH);
+                    source.get(bulkChars, 0, n);
+                    int i = 0;
+                    while (i < n && (value = MBCS_SINGLE_RESULT_FROM_U(
+                            table, results, resultsBuffer, bulkChars[i])) >= minValue) {
+                        bulkBytes[i++] = (byte) value;
+                    }
+                    target.put(bulkBytes, 0, i);
+                    count += i;
+                    if (i < n) {
+                        break;
+                    }
+                }
+                source.position(oldPosition);
+            }
+            return count;
+        }
+
         /* This version of ucnv_MBCSFromUnicodeWithOffsets() is optimized for single-byte codepages. */
         private CoderResult cnvMBCSSingleFromUnicodeWithOffsets(CharBuffer source, ByteBuffer target,
                 IntBuffer offsets, boolean flush) {
@@ -4157,6 +4452,7 @@ class CharsetMBCS extends CharsetICU {
 
             char[] table;
             char[] results;
+            CharBuffer resultsBuffer;
 
             int c;
             int sourceIndex, nextSourceIndex;
@@ -4171,8 +4467,10 @@ class CharsetMBCS extends CharsetICU {
 
             if ((options & UConverterConstants.OPTION_SWAP_LFNL) != 0) {
                 results = sharedData.mbcs.swapLFNLFromUnicodeChars;
+                resultsBuffer = null;
             } else {
                 results = sharedData.mbcs.fromUnicodeChars;
+                resultsBuffer = sharedData.mbcs.fromUnicodeCharsBuffer;
             }
 
             if (useFallback) {
@@ -4253,7 +4551,7 @@ class CharsetMBCS extends CharsetICU {
                         }
 
                         /* convert the Unicode code point in c into codepage bytes */
-                        value = MBCS_SINGLE_RESULT_FROM_U(table, results, c);
+                        value = MBCS_SINGLE_RESULT_FROM_U(table, results, resultsBuffer, c);
 
                         /* is this code point assigned, or do we use fallbacks? */
                         if (value >= minValue) {
@@ -4306,6 +4604,7 @@ class CharsetMBCS extends CharsetICU {
 
             char[] table;
             char[] chars;
+            CharBuffer charsBuffer;
 
             int c, sourceIndex, nextSourceIndex;
 
@@ -4325,8 +4624,10 @@ class CharsetMBCS extends CharsetICU {
 
             if ((options & UConverterConstants.OPTION_SWAP_LFNL) != 0) {
                 chars = sharedData.mbcs.swapLFNLFromUnicodeChars;
+                charsBuffer = null;
             } else {
                 chars = sharedData.mbcs.fromUnicodeChars;
+                charsBuffer = sharedData.mbcs.fromUnicodeCharsBuffer;
             }
 
             /* get the converter state from UConverter */
@@ -4355,6 +4656,17 @@ class CharsetMBCS extends CharsetICU {
 
             if (doloop) {
                 while (!doread || sourceArrayIndex < source.limit()) {
+                    if (doread && offsets == null) {
+                        /* convert the run of roundtrip BMP characters on the backing arrays */
+                        length = doubleFromBMPRun(table, tableInts, chars, charsBuffer, source, sourceArrayIndex,
+                                target);
+                        if (length > 0) {
+                            sourceArrayIndex += length;
+                            sourceIndex = (nextSourceIndex += length);
+                            continue;
+                        }
+                    }
+
                     /*
                      * This following test is to see if available input would overflow the output. It does not catch
                      * output of more than one byte that overflows as a result of a multi-byte character or callback
@@ -4407,7 +4719,7 @@ class CharsetMBCS extends CharsetICU {
 
                         /* get the bytes and the length for the output */
                         /* MBCS_OUTPUT_2 */
-                        value = MBCS_VALUE_2_FROM_STAGE_2(chars, stage2Entry, c);
+                        value = MBCS_VALUE_2_FROM_STAGE_2(chars, charsBuffer, stage2Entry, c);
                         if (value <= 0xff) {
                             length = 1;
                         } else {
@@ -4487,6 +4799,51 @@ class CharsetMBCS extends CharsetICU {
             return cr[0];
         }
 
+        /*
+         * Converts UChars starting at sourceIndex with the MBCS_OUTPUT_2 fromUnicode tables, as long as they are
+         * non-surrogates with roundtrip mappings that fit into the target, and writes the bytes to the target. Only
+         * works on the backing arrays; returns 0 for other buffers. Does not change the source position.
+         *
+         * @return the number of UChars converted
+         */
+        private int doubleFromBMPRun(char[] table, int[] tableInts, char[] chars, CharBuffer charsBuffer,
+                CharBuffer source, int sourceIndex, ByteBuffer target) {
+            if (!source.hasArray() || !target.hasArray()) {
+                return 0;
+            }
+            char[] sourceArray = source.array();
+            int sourceArrayOffset = source.arrayOffset();
+            int s = sourceArrayOffset + sourceIndex;
+            int sourceArrayLimit = sourceArrayOffset + source.limit();
+            byte[] targetArray = target.array();
+            int targetArrayOffset = target.arrayOffset();
+            int t = targetArrayOffset + target.position();
+            int targetArrayLimit = targetArrayOffset + target.limit();
+            int c, stage2Entry, value;
+            while (s < sourceArrayLimit && t < targetArrayLimit) {
+                c = sourceArray[s];
+                if (UTF16.isSurrogate((char) c)) {
+                    break;
+                }
+                stage2Entry = MBCS_STAGE_2_FROM_U(table, tableInts, c);
+                if (!MBCS_FROM_U_IS_ROUNDTRIP(stage2Entry, c)) {
+                    break;
+                }
+                value = MBCS_VALUE_2_FROM_STAGE_2(chars, charsBuffer, stage2Entry, c);
+                if (value <= 0xff) {
+                    targetArray[t++] = (byte) value;
+                } else if ((t + 1) < targetArrayLimit) {
+                    targetArray[t++] = (byte) (value >>> 8);
+                    targetArray[t++] = (byte) value;
+                } else {
+                    break;
+                }
+                ++s;
+            }
+            target.position(t - targetArrayOffset);
+            return s - sourceArrayOffset - sourceIndex;
+        }
+
         private final class SideEffectsSingleBMP {
             int c, sourceArrayIndex;
 
@@ -4786,6 +5143,7 @@ class CharsetMBCS extends CharsetICU {
             char stage2, stage3;
             char minValue;
             char[] results = mbcsTable.fromUnicodeChars;
+            CharBuffer resultsBuffer = mbcsTable.fromUnicodeCharsBuffer;
 
             if(which==ROUNDTRIP_SET) {
                 /* use only roundtrips */
@@ -4804,7 +5162,7 @@ class CharsetMBCS extends CharsetICU {
                             /*read the stage 3 block */
                             stage3 = (char)st3;
                             do {
-                                if(results[stage3++]>=minValue){
+                                if(getChar(results, resultsBuffer, stage3++)>=minValue){
                                      setFillIn.add(c);
                                 }
                             }while((++c&0xf) !=0);
@@ -4826,6 +5184,9 @@ class CharsetMBCS extends CharsetICU {
             bytes = mbcsTable.fromUnicodeBytes;
             char[] chars = mbcsTable.fromUnicodeChars;
             int[] ints = mbcsTable.fromUnicodeInts;
+            ByteBuffer bytesBuffer = mbcsTable.fromUnicodeBytesBuffer;
+            CharBuffer charsBuffer = mbcsTable.fromUnicodeCharsBuffer;
+            IntBuffer intsBuffer = mbcsTable.fromUnicodeIntsBuffer;
             useFallBack = (which == ROUNDTRIP_AND_FALLBACK_SET);
             switch(mbcsTable.outputType) {
             case MBCS_OUTPUT_3:
@@ -4862,13 +5223,15 @@ class CharsetMBCS extends CharsetICU {
                                         int b =0;
                                         switch(st3Multiplier) {
                                         case 4:
-                                            b = ints[stage3 / 4];
+                                            b = getInt(ints, intsBuffer, stage3 / 4);
                                             break;
                                         case 3:
-                                            b |= bytes[stage3] | bytes[stage3 + 1] | bytes[stage3 + 2];
+                                            b |= getByte(bytes, bytesBuffer, stage3) |
+                                                getByte(bytes, bytesBuffer, stage3 + 1) |
+                                                getByte(bytes, bytesBuffer, stage3 + 2);
                                             break;
                                         case 2:
-                                            b = chars[stage3 / 2];
+                                            b = getChar(chars, charsBuffer, stage3 / 2);
                                             break;
                                         default:
                                             break;
@@ -4884,7 +5247,7 @@ class CharsetMBCS extends CharsetICU {
                             case UCNV_SET_FILTER_DBCS_ONLY:
                                 /* Ignore single bytes results (<0x100). */
                                 do {
-                                    if(((st3&1) != 0 || useFallBack) && chars[stage3 / 2] >= 0x100){
+                                    if(((st3&1) != 0 || useFallBack) && getChar(chars, charsBuffer, stage3 / 2) >= 0x100){
                                         setFillIn.add(c);
                                     }
                                     st3>>=1;
@@ -4895,7 +5258,7 @@ class CharsetMBCS extends CharsetICU {
                                 /* only add code points that map to CNS 11643 planes 1&2 for non-EXT ISO-2202-CN. */
                                 do {
                                     if(((st3&1) != 0 || useFallBack) &&
-                                            ((value= (UConverterConstants.UNSIGNED_BYTE_MASK & bytes[stage3]))==0x81 || value==0x82) ){
+                                            ((value= (UConverterConstants.UNSIGNED_BYTE_MASK & getByte(bytes, bytesBuffer, stage3)))==0x81 || value==0x82) ){
                                         setFillIn.add(c);
                                     }
                                     st3>>=1;
@@ -4905,7 +5268,7 @@ class CharsetMBCS extends CharsetICU {
                             case UCNV_SET_FILTER_SJIS:
                                 /* only add code points that map tp Shift-JIS codes corrosponding to JIS X 0280. */
                                 do{
-                                    if(((st3&1) != 0 || useFallBack) && (value=chars[stage3 / 2])>=0x8140 && value<=0xeffc){
+                                    if(((st3&1) != 0 || useFallBack) && (value=getChar(chars, charsBuffer, stage3 / 2))>=0x8140 && value<=0xeffc){
                                         setFillIn.add(c);
                                     }
                                     st3>>=1;
@@ -4916,7 +5279,7 @@ class CharsetMBCS extends CharsetICU {
                                 /* only add code points that maps to ISO 2022 GR 94 DBCS codes*/
                                 do {
                                     if(((st3&1) != 0 || useFallBack) &&
-                                            (UConverterConstants.UNSIGNED_SHORT_MASK & ((value=chars[stage3 / 2])- 0xa1a1))<=(0xfefe - 0xa1a1) &&
+                                            (UConverterConstants.UNSIGNED_SHORT_MASK & ((value=getChar(chars, charsBuffer, stage3 / 2))- 0xa1a1))<=(0xfefe - 0xa1a1) &&
                                             (UConverterConstants.UNSIGNED_BYTE_MASK & (value - 0xa1)) <= (0xfe - 0xa1)){
                                         setFillIn.add(c);
                                     }
@@ -4928,7 +5291,7 @@ class CharsetMBCS extends CharsetICU {
                                 /*Only add code points that are suitable for HZ DBCS*/
                                 do {
                                     if( ((st3&1) != 0 || useFallBack) &&
-                                            (UConverterConstants.UNSIGNED_SHORT_MASK & ((value=chars[stage3 / 2])-0xa1a1))<=(0xfdfe - 0xa1a1) &&
+                                            (UConverterConstants.UNSIGNED_SHORT_MASK & ((value=getChar(chars, charsBuffer, stage3 / 2))-0xa1a1))<=(0xfdfe - 0xa1a1) &&
                                             (UConverterConstants.UNSIGNED_BYTE_MASK & (value - 0xa1)) <= (0xfe - 0xa1)){
                                         setFillIn.add(c);
                                     }
@@ -0,0 +1,302 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.charset;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import com.ibm.icu.impl.ParallelTasks;
+
+/**
+ * {@icu} Decodes large byte buffers by splitting them into chunks that are decoded in parallel.
+ *
+ * <p>The input is split only where the decoder is known to be back in its initial state,
+ * so that the result is the same as from {@link CharsetDecoder#decode(ByteBuffer)},
+ * including the handling of malformed and unmappable input.
+ * Safe split points depend on the charset:
+ * <ul>
+ *   <li>US-ASCII, ISO-8859-1 and single-byte table-based charsets: anywhere.
+ *   <li>UTF-8 and CESU-8: before an ASCII byte.
+ *   <li>UTF-16BE/LE and UTF-32BE/LE: at a code unit boundary,
+ *       but not before a trail surrogate or a byte order mark.
+ *   <li>Other table-based charsets without shift states (for example EUC-JP, Shift_JIS, GBK, Big5, GB18030):
+ *       after a line feed byte, if the charset's state table shows that a line feed always
+ *       ends a byte sequence.
+ * </ul>
+ * Stateful charsets (ISO-2022, HZ, UTF-7, SCSU, BOCU-1, EBCDIC with shift states, etc.),
+ * UTF-16 and UTF-32 with byte order detection, and charsets not implemented by ICU4J
+ * are decoded sequentially, as are inputs without split points.
+ *
+ * <p>Each chunk after the first is decoded by a new decoder of the same charset,
+ * with the same replacement, error actions and ICU callbacks as the given decoder.
+ * Custom callbacks must therefore be safe for concurrent use.
+ *
+ * @draft ICU 58
+ * @provisional This API might change or be removed in a future release.
+ */
+public final class CharsetParallelDecoder {
+    /**
+     * Minimum number of input bytes per decoding task.
+     */
+    private static final int MIN_CHUNK_LENGTH = 0x10000;
+
+    private static final byte LF = 0x0a;
+
+    private CharsetParallelDecoder() {}
+
+    /**
+     * Decodes the remaining bytes of the input buffer, like {@link CharsetDecoder#decode(ByteBuffer)}.
+     * Chunks of the input are decoded by tasks run on the executor.
+     *
+     * <p>The decoder is reset and used for the first chunk.
+     * On success, the input buffer's position is set to its limit.
+     * If malformed or unmappable input is reported, then the exception is for the first such error
+     * in the input, and the input buffer's position is set to the start of that error.
+     *
+     * @param decoder the decoder for the first chunk, and the template for the decoders of the other chunks
+     * @param in the input bytes
+     * @param executor runs the tasks; if null, then the input is decoded in the calling thread
+     * @return a new buffer with the decoded characters, flipped for reading
+     * @throws CharacterCodingException if the decoder reports malformed or unmappable input
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static CharBuffer decode(CharsetDecoder decoder, ByteBuffer in, ExecutorService executor)
+            throws CharacterCodingException {
+        int start = in.position();
+        int limit = in.limit();
+        Splitter splitter = executor != null && decoder instanceof CharsetDecoderICU ?
+                getSplitter(decoder.charset()) : null;
+        int numChunks = splitter == null ? 1 : ParallelTasks.getNumChunks(limit - start, MIN_CHUNK_LENGTH);
+        if (numChunks <= 1) {
+            return decoder.decode(in);
+        }
+
+        // Find split points near the even boundaries. A chunk without a split point
+        // before the next boundary is merged with the following one.
+        List<Chunk> chunks = new ArrayList<Chunk>(numChunks);
+        int chunkStart = start;
+        for (int i = 1; i < numChunks; ++i) {
+            int boundary = start + (int)((long)(limit - start) * i / numChunks);
+            int nextBoundary = start + (int)((long)(limit - start) * (i + 1) / numChunks);
+            int split = splitter.findSplit(in, Math.max(boundary, chunkStart + 1), nextBoundary);
+            if (split > chunkStart) {
+                chunks.add(new Chunk(in, chunkStart, split));
+                chunkStart = split;
+            }
+        }
+        chunks.add(new Chunk(in, chunkStart, limit));
+        if (chunks.size() == 1) {
+            return decoder.decode(in);
+        }
+
+        chunks.get(0).decoder = decoder;
+        Charset cs = decoder.charset();
+        for (int i = 1; i < chunks.size(); ++i) {
+            CharsetDecoderICU d = (CharsetDecoderICU)cs.newDecoder();
+            d.copyErrorHandlingFrom((CharsetDecoderICU)decoder);
+            chunks.get(i).decoder = d;
+        }
+        ParallelTasks.invokeAll(executor, chunks);
+
+        int length = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.error != null) {
+                in.position(chunk.errorPosition);
+                throw chunk.error;
+            }
+            length += chunk.result.remaining();
+        }
+        CharBuffer out = CharBuffer.allocate(length);
+        for (Chunk chunk : chunks) {
+            out.put(chunk.result);
+        }
+        out.flip();
+        in.position(limit);
+        return out;
+    }
+
+    /**
+     * Decodes one chunk of the input.
+     * Errors are recorded rather than thrown so that the caller can report the first one in input order.
+     */
+    private static final class Chunk implements Callable<Void> {
+        Chunk(ByteBuffer in, int start, int limit) {
+            ByteBuffer dup = in.duplicate();
+            dup.limit(limit).position(start);
+            this.in = dup.slice();
+            this.start = start;
+        }
+
+        public Void call() {
+            try {
+                result = decoder.decode(in);
+            } catch (CharacterCodingException e) {
+                error = e;
+                errorPosition = start + in.position();
+            }
+            return null;
+        }
+
+        final ByteBuffer in;
+        final int start;
+        CharsetDecoder decoder;
+        CharBuffer result;
+        CharacterCodingException error;
+        int errorPosition;
+    }
+
+    /**
+     * Finds positions in the input where a decoder in its initial state
+     * produces the same output as a decoder that has read all of the preceding input.
+     */
+    private static abstract class Splitter {
+        /**
+         * Returns the first split point p with start&lt;=p&lt;limit, or -1 if there is none.
+         * start is greater than the input's position.
+         */
+        abstract int findSplit(ByteBuffer in, int start, int limit);
+    }
+
+    private static final Splitter ANYWHERE = new Splitter() {
+        @Override
+        int findSplit(ByteBuffer in, int start, int limit) {
+            return start;
+        }
+    };
+
+    /**
+     * UTF-8 and CESU-8: An ASCII byte is never part of a multi-byte sequence,
+     * and it ends any incomplete sequence before it.
+     */
+    private static final Splitter BEFORE_ASCII = new Splitter() {
+        @Override
+        int findSplit(ByteBuffer in, int start, int limit) {
+            for (int i = start; i < limit; ++i) {
+                if (in.get(i) >= 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    };
+
+    /**
+     * Table-based charsets where a line feed byte in any state ends a byte sequence
+     * and returns to the initial state.
+     */
+    private static final Splitter AFTER_LINE_FEED = new Splitter() {
+        @Override
+        int findSplit(ByteBuffer in, int start, int limit) {
+            for (int i = start; i < limit; ++i) {
+                if (in.get(i - 1) == LF) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    };
+
+    /**
+     * Endian-specified UTF-16 and UTF-32.
+     * The decoders check the first code unit for a byte order mark,
+     * so a chunk must not start with U+FEFF or U+FFFE in either byte order.
+     */
+    private static final class CodeUnitSplitter extends Splitter {
+        CodeUnitSplitter(int unitLength, boolean isBigEndian) {
+            this.unitLength = unitLength;
+            this.isBigEndian = isBigEndian;
+        }
+
+        @Override
+        int findSplit(ByteBuffer in, int start, int limit) {
+            int i = start + (unitLength - (start - in.position()) % unitLength) % unitLength;
+            for (; i < limit && i + unitLength <= in.limit(); i += unitLength) {
+                int c = 0;
+                for (int j = 0; j < unitLength; ++j) {
+                    int b = in.get(isBigEndian ? i + j : i + unitLength - 1 - j) & 0xff;
+                    c = (c << 8) | b;
+                }
+                if (c == 0xfeff || (unitLength == 2 ? c == 0xfffe || (c & 0xfc00) == 0xdc00 : c == 0xfffe0000)) {
+                    continue;
+                }
+                return i;
+            }
+            return -1;
+        }
+
+        private final int unitLength;
+        private final boolean isBigEndian;
+    }
+
+    private static Splitter getSplitter(Charset cs) {
+        if (cs instanceof CharsetASCII) {
+            // Also ISO-8859-1.
+            return ANYWHERE;
+        } else if (cs instanceof CharsetUTF8) {
+            return BEFORE_ASCII;
+        } else if (cs instanceof CharsetUTF16BE || cs instanceof CharsetUTF16LE) {
+            return new CodeUnitSplitter(2, cs instanceof CharsetUTF16BE);
+        } else if (cs instanceof CharsetUTF32BE || cs instanceof CharsetUTF32LE) {
+            return new CodeUnitSplitter(4, cs instanceof CharsetUTF32BE);
+        } else if (cs instanceof CharsetMBCS) {
+            return getMBCSSplitter(((CharsetMBCS)cs).sharedData.mbcs);
+        }
+        return null;
+    }
+
+    private static Splitter getMBCSSplitter(CharsetMBCS.UConverterMBCSTable mbcs) {
+        switch (mbcs.outputType) {
+        case CharsetMBCS.MBCS_OUTPUT_1:
+        case CharsetMBCS.MBCS_OUTPUT_2:
+        case CharsetMBCS.MBCS_OUTPUT_3:
+        case CharsetMBCS.MBCS_OUTPUT_4:
+        case CharsetMBCS.MBCS_OUTPUT_3_EUC:
+        case CharsetMBCS.MBCS_OUTPUT_4_EUC:
+            break;
+        default:
+            // Shift states, or DBCS-only.
+            return null;
+        }
+        if (mbcs.dbcsOnlyState != 0) {
+            return null;
+        }
+        int[][] stateTable = mbcs.stateTable;
+        int countStates = mbcs.countStates;
+        if (countStates == 1) {
+            // Single-byte charset: every byte is a complete character.
+            boolean allFinal = true;
+            for (int b = 0; b < 256; ++b) {
+                if (!isResettingFinal(stateTable[0][b])) {
+                    allFinal = false;
+                    break;
+                }
+            }
+            if (allFinal) {
+                return ANYWHERE;
+            }
+        }
+        for (int state = 0; state < countStates; ++state) {
+            if (!isResettingFinal(stateTable[state][LF])) {
+                return null;
+            }
+        }
+        return AFTER_LINE_FEED;
+    }
+
+    /**
+     * Returns true if the state table entry ends a byte sequence (validly or not)
+     * and returns to the initial state.
+     */
+    private static boolean isResettingFinal(int entry) {
+        return CharsetMBCS.MBCS_ENTRY_IS_FINAL(entry) && CharsetMBCS.MBCS_ENTRY_FINAL_STATE(entry) == 0
+                && CharsetMBCS.MBCS_ENTRY_FINAL_ACTION(entry) != CharsetMBCS.MBCS_STATE_CHANGE_ONLY;
+    }
+}
@@ -18,6 +18,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.ibm.icu.impl.ICUData;
 import com.ibm.icu.impl.InvalidFormatException;
 
 
@@ -329,4 +330,78 @@ public final class CharsetProviderICU extends CharsetProvider{
         }
         return names;
     }
+
+    /**
+     * Removes the conversion table data of all converters from the cache.
+     * Charset objects are not affected; they keep their table data.
+     * Charsets created later reload the table data of their converters.
+     *
+     * <p>The conversion tables loaded from the ICU data are cached,
+     * so that Charsets for the same converter share the same table data
+     * which is loaded and parsed only once.
+     * The Java garbage collector may release cached tables that are not used by any Charset.
+     * Tables loaded via {@link #charsetForName(String, String, ClassLoader)} are not cached.
+     *
+     * @return the number of removed cache entries
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static int flushCache() {
+        return UConverterSharedData.flushCache();
+    }
+
+    /**
+     * Returns how many times the conversion table data of a converter was found in the cache.
+     * @return the number of cache hits since the class was loaded
+     * @see #flushCache()
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static long getCacheHitCount() {
+        return UConverterSharedData.getCacheHitCount();
+    }
+
+    /**
+     * Returns how many times the conversion table data of a converter was not found in the cache
+     * and had to be loaded.
+     * @return the number of cache misses since the class was loaded
+     * @see #flushCache()
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static long getCacheMissCount() {
+        return UConverterSharedData.getCacheMissCount();
+    }
+
+    /**
+     * Constructs a Charset for the given MBCS charset name, like {@link #charsetForName(String)},
+     * with its large mapping tables either copied into arrays (the default)
+     * or left as read-only views into the loaded data.
+     * See com.ibm.icu.charset.CharsetMBCS.zeroCopyTables in ICUConfig.properties.
+     * @param charsetName charset name
+     * @param zeroCopyTables true for read-only views into the loaded data
+     * @return Charset object for the given charset name, null if unsupported or not an MBCS charset
+     * @internal
+     * @deprecated This API is ICU internal only.
+     */
+    @Deprecated
+    public static Charset getMBCSCharset(String charsetName, boolean zeroCopyTables) {
+        try {
+            String optionsString = "";
+            if (charsetName.endsWith(UConverterConstants.OPTION_SWAP_LFNL_STRING)) {
+                optionsString = UConverterConstants.OPTION_SWAP_LFNL_STRING;
+                charsetName = charsetName.substring(0, charsetName.length() - optionsString.length());
+            }
+            String icuCanonicalName = getICUCanonicalName(charsetName);
+            if (icuCanonicalName == null || icuCanonicalName.length() == 0) {
+                icuCanonicalName = charsetName;
+            }
+            return new CharsetMBCS(icuCanonicalName + optionsString, getJavaCanonicalName(icuCanonicalName),
+                    getAliases(icuCanonicalName), ICUData.ICU_BUNDLE, null, zeroCopyTables);
+        } catch (UnsupportedCharsetException ex) {
+        } catch (IOException ex) {
+        } catch (InvalidFormatException ex) {
+        }
+        return null;
+    }
 }
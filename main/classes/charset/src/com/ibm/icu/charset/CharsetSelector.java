@@ -196,22 +196,192 @@ public final class CharsetSelector {
      * @stable ICU 4.2
      */
     public List<String> selectForString(CharSequence unicodeText) {
-        int columns = (encodings.length + 31) / 32;
-        int[] mask = new int[columns];
-        for (int i = 0; i < columns; i++) {
-            mask[i] = - 1; // set each bit to 1
-                           // Note: All integers are signed in Java, assigning
-                           // 2 ^ 32 -1 to mask is wrong!
+        return newSelection().append(unicodeText).getCharsets();
+    }
+
+    /**
+     * Create an empty incremental selection. Text can be appended to it in
+     * pieces, and the charsets that can map all of the text appended so far
+     * can be queried at any time, so that a charset can be chosen for a large
+     * or streamed document in the same pass that produces it.
+     *
+     * @return a new selection, for which all charsets of this selector can
+     *         still be used.
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public Selection newSelection() {
+        return new Selection();
+    }
+
+    /**
+     * The state of an incremental charset selection, created by
+     * {@link CharsetSelector#newSelection()}. A Selection is not safe for
+     * concurrent use by multiple threads.
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public final class Selection {
+        private final int columns;
+        private final int[] mask;
+        // Intersecting the mask with a row again cannot change it, so rows that
+        //   have been intersected already are skipped: the row of the previous
+        //   code point, which is the same for runs of similar characters, and
+        //   with several columns of masks, any row marked in rowsDone.
+        private int lastPvIndex;
+        private final int[] rowsDone;   // One bit per row of pv, or null.
+        // A lead surrogate at the end of the text appended so far, or 0.
+        private char pendingLead;
+        // True if no charset can map the text appended so far.
+        private boolean empty;
+
+        private Selection() {
+            columns = (encodings.length + 31) / 32;
+            mask = new int[columns];
+            rowsDone = columns > 1 ? new int[(pv.length / columns + 31) / 32] : null;
+            reset();
+        }
+
+        /**
+         * Append text to the selection. Surrogate pairs may be split between
+         * the pieces of text.
+         *
+         * @param text the text to append
+         * @return this selection
+         *
+         * @draft ICU 58
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Selection append(CharSequence text) {
+            return append(text, 0, text.length());
+        }
+
+        /**
+         * Append part of a text to the selection. Surrogate pairs may be split
+         * between the pieces of text.
+         *
+         * @param text the text to append a part of
+         * @param start the index of the first char to append
+         * @param end the index after the last char to append
+         * @return this selection
+         * @throws IndexOutOfBoundsException if start or end are out of bounds
+         *
+         * @draft ICU 58
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Selection append(CharSequence text, int start, int end) {
+            if (start < 0 || start > end || end > text.length()) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (empty) {
+                return this;
+            }
+            int index = start;
+            if (pendingLead != 0 && index < end) {
+                char lead = pendingLead;
+                pendingLead = 0;
+                char trail = text.charAt(index);
+                if (UTF16.isTrailSurrogate(trail)) {
+                    ++index;
+                    if (intersect(trie.getCodePointValue(Character.toCodePoint(lead, trail)))) {
+                        return this;
+                    }
+                } else if (intersect(trie.getCodePointValue(lead))) {
+                    return this;
+                }
+            }
+            while (index < end) {
+                char c = text.charAt(index++);
+                int pvIndex;
+                if (!UTF16.isSurrogate(c)) {
+                    pvIndex = trie.getBMPValue(c);
+                } else if (!UTF16.isLeadSurrogate(c)) {
+                    pvIndex = trie.getCodePointValue(c);
+                } else if (index < end) {
+                    char trail = text.charAt(index);
+                    if (UTF16.isTrailSurrogate(trail)) {
+                        ++index;
+                        pvIndex = trie.getCodePointValue(Character.toCodePoint(c, trail));
+                    } else {
+                        pvIndex = trie.getCodePointValue(c);
+                    }
+                } else {
+                    // The trail surrogate may come with the next piece of text.
+                    pendingLead = c;
+                    break;
+                }
+                if (intersect(pvIndex)) {
+                    break;
+                }
+            }
+            return this;
         }
-        int index = 0;
-        while (index < unicodeText.length()) {
-            int c = UTF16.charAt(unicodeText, index);
-            int pvIndex = trie.getCodePointValue(c);
-            index += UTF16.getCharCount(c);
-            if (intersectMasks(mask, pvIndex, columns)) {
-                break;
+
+        // Intersects the mask with the row at pvIndex, unless that was done
+        //   before. Returns whether the mask has reduced to all zeros.
+        private boolean intersect(int pvIndex) {
+            if (pvIndex == lastPvIndex) {
+                return false;
+            }
+            lastPvIndex = pvIndex;
+            if (rowsDone != null) {
+                int row = pvIndex / columns;
+                int bit = 1 << (row & 31);
+                if ((rowsDone[row >> 5] & bit) != 0) {
+                    return false;
+                }
+                rowsDone[row >> 5] |= bit;
+            }
+            empty = intersectMasks(mask, pvIndex, columns);
+            return empty;
+        }
+
+        /**
+         * Get the charsets that can map all of the text appended so far,
+         * ignoring the excluded code points. A lead surrogate at the end of
+         * the text is treated as an unpaired surrogate code point, but it is
+         * still combined with a trail surrogate appended later.
+         *
+         * @return a list that contains charset names in the form of strings.
+         *         The returned encoding names and their order will be the same
+         *         as supplied when building the selector.
+         *
+         * @draft ICU 58
+         * @provisional This API might change or be removed in a future release.
+         */
+        public List<String> getCharsets() {
+            if (pendingLead == 0) {
+                return selectForMask(mask);
+            }
+            int[] result = mask.clone();
+            intersectMasks(result, trie.getCodePointValue(pendingLead), columns);
+            return selectForMask(result);
+        }
+
+        /**
+         * Reset the selection to empty text, for which all charsets of the
+         * selector can be used.
+         *
+         * @return this selection
+         *
+         * @draft ICU 58
+         * @provisional This API might change or be removed in a future release.
+         */
+        public Selection reset() {
+            for (int i = 0; i < columns; i++) {
+                mask[i] = -1; // set each bit to 1
+            }
+            if (rowsDone != null) {
+                for (int i = 0; i < rowsDone.length; i++) {
+                    rowsDone[i] = 0;
+                }
             }
+            lastPvIndex = -1;
+            pendingLead = 0;
+            empty = false;
+            return this;
         }
-        return selectForMask(mask);
     }
 }
@@ -9,6 +9,7 @@
 package com.ibm.icu.charset;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.CharBuffer;
 import java.nio.IntBuffer;
 import java.nio.charset.CharsetDecoder;
@@ -164,6 +165,10 @@ class CharsetUTF16 extends CharsetICU {
             char char16;
 
             while (true) {
+                if (toULength == 0 && offsets == null) {
+                    decodeFast(source, target);
+                }
+
                 while (toULength < 2) {
                     if (!source.hasRemaining())
                         return CoderResult.UNDERFLOW;
@@ -195,6 +200,69 @@ class CharsetUTF16 extends CharsetICU {
             }
         }
 
+        /*
+         * Converts the code units up to the next one that needs the general loop:
+         * an unpaired or incomplete surrogate, or a BOM for UTF-16BE/LE,version=1.
+         * Works on the backing arrays, or with bulk transfers for direct buffers.
+         * Does not write offsets.
+         */
+        private void decodeFast(ByteBuffer source, CharBuffer target) {
+            boolean checkBOM = isEndianSpecified && version == 1;
+            if (source.hasArray() && target.hasArray()) {
+                byte[] sourceArray = source.array();
+                int sourceOffset = source.arrayOffset();
+                int sourceIndex = sourceOffset + source.position();
+                // the last index where a whole code unit starts
+                int sourceLimit = sourceOffset + source.limit() - 1;
+
+                char[] targetArray = target.array();
+                int targetOffset = target.arrayOffset();
+                int targetIndex = targetOffset + target.position();
+                int targetLimit = targetOffset + target.limit();
+
+                int hi = actualEndianXOR, lo = actualEndianXOR ^ 1;
+                while (sourceIndex < sourceLimit && targetIndex < targetLimit) {
+                    char c = (char) (((sourceArray[sourceIndex + hi] & UConverterConstants.UNSIGNED_BYTE_MASK) << 8)
+                            | (sourceArray[sourceIndex + lo] & UConverterConstants.UNSIGNED_BYTE_MASK));
+                    if (UTF16.isSurrogate(c)) {
+                        char trail;
+                        if (UTF16.isLeadSurrogate(c) && (sourceIndex + 2) < sourceLimit
+                                && (targetIndex + 1) < targetLimit
+                                && UTF16.isTrailSurrogate(trail = (char) (
+                                        ((sourceArray[sourceIndex + 2 + hi] & UConverterConstants.UNSIGNED_BYTE_MASK) << 8)
+                                        | (sourceArray[sourceIndex + 2 + lo] & UConverterConstants.UNSIGNED_BYTE_MASK)))) {
+                            targetArray[targetIndex++] = c;
+                            targetArray[targetIndex++] = trail;
+                            sourceIndex += 4;
+                            continue;
+                        }
+                        break;
+                    } else if (checkBOM && (c == 0xfeff || c == 0xfffe)) {
+                        break;
+                    }
+                    targetArray[targetIndex++] = c;
+                    sourceIndex += 2;
+                }
+                source.position(sourceIndex - sourceOffset);
+                target.position(targetIndex - targetOffset);
+            } else {
+                // Let a view buffer assemble the code units, then copy them in bulk.
+                ByteBuffer bytes = source.duplicate();
+                bytes.order(actualEndianXOR == ENDIAN_XOR_BE ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+                CharBuffer units = bytes.asCharBuffer();
+                int length = Math.min(units.remaining(), target.remaining());
+                int i = 0;
+                char c;
+                while (i < length && !UTF16.isSurrogate(c = units.get(i))
+                        && !(checkBOM && (c == 0xfeff || c == 0xfffe))) {
+                    ++i;
+                }
+                units.limit(i);
+                target.put(units);
+                source.position(source.position() + 2 * i);
+            }
+        }
+
         private final CoderResult decodeTrail(ByteBuffer source, CharBuffer target, IntBuffer offsets, char lead) {
             if (!UTF16.isLeadSurrogate(lead)) {
                 // 2 bytes, lead malformed
@@ -280,6 +348,10 @@ class CharsetUTF16 extends CharsetICU {
             }
 
             while (true) {
+                if (offsets == null) {
+                    encodeFast(source, target);
+                }
+
                 if (!source.hasRemaining())
                     return CoderResult.UNDERFLOW;
                 if (!target.hasRemaining())
@@ -291,6 +363,56 @@ class CharsetUTF16 extends CharsetICU {
             }
         }
 
+        /*
+         * Converts the code units up to the next surrogate or the end of either buffer,
+         * on the backing arrays, or with bulk transfers for direct buffers.
+         * Surrogates are left for encodeChar() which pairs them.
+         * Does not write offsets.
+         */
+        private void encodeFast(CharBuffer source, ByteBuffer target) {
+            if (source.hasArray() && target.hasArray()) {
+                char[] sourceArray = source.array();
+                int sourceOffset = source.arrayOffset();
+                int sourceIndex = sourceOffset + source.position();
+                int sourceLimit = sourceOffset + source.limit();
+
+                byte[] targetArray = target.array();
+                int targetOffset = target.arrayOffset();
+                int targetIndex = targetOffset + target.position();
+                // the last index where a whole code unit fits
+                int targetLimit = targetOffset + target.limit() - 1;
+
+                int hi = endianXOR, lo = endianXOR ^ 1;
+                char c;
+                while (sourceIndex < sourceLimit && targetIndex < targetLimit
+                        && !UTF16.isSurrogate(c = sourceArray[sourceIndex])) {
+                    targetArray[targetIndex + hi] = (byte) (c >>> 8);
+                    targetArray[targetIndex + lo] = (byte) c;
+                    targetIndex += 2;
+                    ++sourceIndex;
+                }
+                source.position(sourceIndex - sourceOffset);
+                target.position(targetIndex - targetOffset);
+            } else {
+                // Find the surrogate-free prefix, then let a view buffer write it in bulk.
+                int start = source.position();
+                int length = Math.min(source.remaining(), target.remaining() / 2);
+                int i = 0;
+                while (i < length && !UTF16.isSurrogate(source.get(start + i))) {
+                    ++i;
+                }
+                if (i > 0) {
+                    ByteBuffer bytes = target.duplicate();
+                    bytes.order(endianXOR == ENDIAN_XOR_BE ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+                    CharBuffer run = source.duplicate();
+                    run.limit(start + i);
+                    bytes.asCharBuffer().put(run);
+                    source.position(start + i);
+                    target.position(target.position() + 2 * i);
+                }
+            }
+        }
+
         private final CoderResult encodeChar(CharBuffer source, ByteBuffer target, IntBuffer offsets, char ch) {
             int sourceIndex = source.position() - 1;
             CoderResult cr;
@@ -9,12 +9,14 @@
 package com.ibm.icu.charset;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.CharBuffer;
 import java.nio.IntBuffer;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 
+import com.ibm.icu.lang.UCharacter;
 import com.ibm.icu.text.UTF16;
 import com.ibm.icu.text.UnicodeSet;
 
@@ -126,6 +128,10 @@ class CharsetUTF32 extends CharsetICU {
             int char32;
 
             while (true) {
+                if (toULength == 0 && offsets == null) {
+                    decodeFast(source, target);
+                }
+
                 while (toULength < 4) {
                     if (!source.hasRemaining())
                         return CoderResult.UNDERFLOW;
@@ -163,6 +169,70 @@ class CharsetUTF32 extends CharsetICU {
                 }
             }
         }
+
+        /*
+         * Converts the code points up to the next illegal one or the end of either buffer,
+         * on the backing arrays, or via a view buffer for direct buffers.
+         * Does not write offsets.
+         */
+        private void decodeFast(ByteBuffer source, CharBuffer target) {
+            if (source.hasArray() && target.hasArray()) {
+                byte[] sourceArray = source.array();
+                int sourceOffset = source.arrayOffset();
+                int sourceIndex = sourceOffset + source.position();
+                // the last index where a whole code unit starts
+                int sourceLimit = sourceOffset + source.limit() - 3;
+
+                char[] targetArray = target.array();
+                int targetOffset = target.arrayOffset();
+                int targetIndex = targetOffset + target.position();
+                int targetLimit = targetOffset + target.limit();
+
+                int xor = actualEndianXOR;
+                while (sourceIndex < sourceLimit && targetIndex < targetLimit) {
+                    int char32 = (sourceArray[sourceIndex + xor] << 24)
+                            | ((sourceArray[sourceIndex + (1 ^ xor)] & UConverterConstants.UNSIGNED_BYTE_MASK) << 16)
+                            | ((sourceArray[sourceIndex + (2 ^ xor)] & UConverterConstants.UNSIGNED_BYTE_MASK) << 8)
+                            | (sourceArray[sourceIndex + (3 ^ xor)] & UConverterConstants.UNSIGNED_BYTE_MASK);
+                    if (char32 <= UConverterConstants.MAXIMUM_UCS2) {
+                        if (char32 < 0 || isSurrogate(char32)) {
+                            break;
+                        }
+                        targetArray[targetIndex++] = (char) char32;
+                    } else if (char32 <= UConverterConstants.MAXIMUM_UTF && (targetIndex + 1) < targetLimit) {
+                        targetArray[targetIndex++] = UTF16.getLeadSurrogate(char32);
+                        targetArray[targetIndex++] = UTF16.getTrailSurrogate(char32);
+                    } else {
+                        break;
+                    }
+                    sourceIndex += 4;
+                }
+                source.position(sourceIndex - sourceOffset);
+                target.position(targetIndex - targetOffset);
+            } else {
+                ByteBuffer bytes = source.duplicate();
+                bytes.order(actualEndianXOR == ENDIAN_XOR_BE ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+                IntBuffer units = bytes.asIntBuffer();
+                int length = units.remaining();
+                int i = 0;
+                while (i < length) {
+                    int char32 = units.get(i);
+                    if (char32 <= UConverterConstants.MAXIMUM_UCS2) {
+                        if (char32 < 0 || isSurrogate(char32) || !target.hasRemaining()) {
+                            break;
+                        }
+                        target.put((char) char32);
+                    } else if (char32 <= UConverterConstants.MAXIMUM_UTF && target.remaining() >= 2) {
+                        target.put(UTF16.getLeadSurrogate(char32));
+                        target.put(UTF16.getTrailSurrogate(char32));
+                    } else {
+                        break;
+                    }
+                    ++i;
+                }
+                source.position(source.position() + 4 * i);
+            }
+        }
     }
 
     class CharsetEncoderUTF32 extends CharsetEncoderICU {
@@ -205,6 +275,10 @@ class CharsetUTF32 extends CharsetICU {
             }
 
             while (true) {
+                if (offsets == null) {
+                    encodeFast(source, target);
+                }
+
                 if (!source.hasRemaining())
                     return CoderResult.UNDERFLOW;
                 if (!target.hasRemaining())
@@ -216,6 +290,70 @@ class CharsetUTF32 extends CharsetICU {
             }
         }
 
+        /*
+         * Converts the code points up to the next unpaired or incomplete surrogate
+         * or the end of either buffer, on the backing arrays, or via a view buffer
+         * for direct buffers.
+         * Does not write offsets.
+         */
+        private void encodeFast(CharBuffer source, ByteBuffer target) {
+            if (source.hasArray() && target.hasArray()) {
+                char[] sourceArray = source.array();
+                int sourceOffset = source.arrayOffset();
+                int sourceIndex = sourceOffset + source.position();
+                int sourceLimit = sourceOffset + source.limit();
+
+                byte[] targetArray = target.array();
+                int targetOffset = target.arrayOffset();
+                int targetIndex = targetOffset + target.position();
+                // the last index where a whole code unit fits
+                int targetLimit = targetOffset + target.limit() - 3;
+
+                int xor = endianXOR;
+                while (sourceIndex < sourceLimit && targetIndex < targetLimit) {
+                    int char32 = sourceArray[sourceIndex];
+                    if (!UTF16.isSurrogate((char) char32)) {
+                        ++sourceIndex;
+                    } else if (UTF16.isLeadSurrogate((char) char32) && (sourceIndex + 1) < sourceLimit
+                            && UTF16.isTrailSurrogate(sourceArray[sourceIndex + 1])) {
+                        char32 = UCharacter.getCodePoint((char) char32, sourceArray[sourceIndex + 1]);
+                        sourceIndex += 2;
+                    } else {
+                        break;
+                    }
+                    targetArray[targetIndex + xor] = 0;
+                    targetArray[targetIndex + (1 ^ xor)] = (byte) (char32 >>> 16);
+                    targetArray[targetIndex + (2 ^ xor)] = (byte) (char32 >>> 8);
+                    targetArray[targetIndex + (3 ^ xor)] = (byte) char32;
+                    targetIndex += 4;
+                }
+                source.position(sourceIndex - sourceOffset);
+                target.position(targetIndex - targetOffset);
+            } else {
+                ByteBuffer bytes = target.duplicate();
+                bytes.order(endianXOR == ENDIAN_XOR_BE ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+                IntBuffer units = bytes.asIntBuffer();
+                int start = source.position();
+                int limit = source.limit();
+                int sourceIndex = start;
+                while (sourceIndex < limit && units.hasRemaining()) {
+                    int char32 = source.get(sourceIndex);
+                    if (!UTF16.isSurrogate((char) char32)) {
+                        ++sourceIndex;
+                    } else if (UTF16.isLeadSurrogate((char) char32) && (sourceIndex + 1) < limit
+                            && UTF16.isTrailSurrogate(source.get(sourceIndex + 1))) {
+                        char32 = UCharacter.getCodePoint((char) char32, source.get(sourceIndex + 1));
+                        sourceIndex += 2;
+                    } else {
+                        break;
+                    }
+                    units.put(char32);
+                }
+                source.position(sourceIndex);
+                target.position(target.position() + 4 * units.position());
+            }
+        }
+
         private final CoderResult encodeChar(CharBuffer source, ByteBuffer target, IntBuffer offsets, char ch) {
             int sourceIndex = source.position() - 1;
             CoderResult cr;
@@ -485,7 +485,12 @@ final class UConverterDataReader {
         }
     }
 
-    protected void readMBCSTable(MBCSHeader header, UConverterMBCSTable mbcsTable) throws IOException
+    /**
+     * @param zeroCopyTables if true, then the large result tables are left as
+     *        read-only views into the data buffer rather than copied into arrays
+     */
+    protected void readMBCSTable(MBCSHeader header, UConverterMBCSTable mbcsTable, boolean zeroCopyTables)
+            throws IOException
     {
         IntBuffer intBuffer = byteBuffer.asIntBuffer();
         mbcsTable.countStates = (byte) header.countStates;
@@ -506,18 +511,23 @@ final class UConverterDataReader {
         int length = intBuffer.position() * 4;
         ICUBinary.skipBytes(byteBuffer, length);
 
-        // Consider leaving some large arrays as CharBuffer/IntBuffer rather than
-        // reading them into Java arrays, to reduce initialization time and memory usage,
-        // at the cost of some performance.
-        // For example: unicodeCodeUnits, fromUnicodeTable, fromUnicodeInts.
-        // Take care not to modify the buffer contents for swaplfnl.
-        CharBuffer charBuffer = byteBuffer.asCharBuffer();
+        // The large result tables (unicodeCodeUnits and the fromUnicode results)
+        // are normally copied into Java arrays.
+        // With zeroCopyTables they are left as read-only views into the data buffer instead.
+        // The views save the copying time and heap, and for a memory-mapped data file
+        // (see ICUBinary.dataPath) the pages are shared via the page cache,
+        // at the cost of some conversion performance.
+        // The stage 1/2 tables always go into arrays: They are small and accessed for every character.
+        // The buffer contents are never modified: swaplfnl and reconstituteData() use arrays.
         length = header.offsetFromUTable - header.offsetToUCodeUnits;
         assert (length & 1) == 0;
-        mbcsTable.unicodeCodeUnits = new char[length / 2];
-        charBuffer.get(mbcsTable.unicodeCodeUnits);
-        // Skip as many bytes as we have read from the CharBuffer.
-        ICUBinary.skipBytes(byteBuffer, length);
+        if (zeroCopyTables) {
+            mbcsTable.unicodeCodeUnitsBuffer = getCharView(byteBuffer, length / 2);
+        } else {
+            mbcsTable.unicodeCodeUnits = ICUBinary.getChars(byteBuffer, length / 2, 0);
+        }
+
+        CharBuffer charBuffer = byteBuffer.asCharBuffer();
 
         length = header.offsetFromUBytes - header.offsetFromUTable;
         assert (length & 1) == 0;
@@ -553,17 +563,29 @@ final class UConverterDataReader {
             case CharsetMBCS.MBCS_OUTPUT_2:
             case CharsetMBCS.MBCS_OUTPUT_2_SISO:
             case CharsetMBCS.MBCS_OUTPUT_3_EUC:
-                mbcsTable.fromUnicodeChars = ICUBinary.getChars(
-                        byteBuffer, header.fromUBytesLength / 2, 0);
+                if (zeroCopyTables) {
+                    mbcsTable.fromUnicodeCharsBuffer = getCharView(byteBuffer, header.fromUBytesLength / 2);
+                } else {
+                    mbcsTable.fromUnicodeChars = ICUBinary.getChars(
+                            byteBuffer, header.fromUBytesLength / 2, 0);
+                }
                 break;
             case CharsetMBCS.MBCS_OUTPUT_3:
             case CharsetMBCS.MBCS_OUTPUT_4_EUC:
-                mbcsTable.fromUnicodeBytes = new byte[header.fromUBytesLength];
-                byteBuffer.get(mbcsTable.fromUnicodeBytes);
+                if (zeroCopyTables) {
+                    mbcsTable.fromUnicodeBytesBuffer = getByteView(byteBuffer, header.fromUBytesLength);
+                } else {
+                    mbcsTable.fromUnicodeBytes = new byte[header.fromUBytesLength];
+                    byteBuffer.get(mbcsTable.fromUnicodeBytes);
+                }
                 break;
             case CharsetMBCS.MBCS_OUTPUT_4:
-                mbcsTable.fromUnicodeInts = ICUBinary.getInts(
-                        byteBuffer, header.fromUBytesLength / 4, 0);
+                if (zeroCopyTables) {
+                    mbcsTable.fromUnicodeIntsBuffer = getIntView(byteBuffer, header.fromUBytesLength / 4);
+                } else {
+                    mbcsTable.fromUnicodeInts = ICUBinary.getInts(
+                            byteBuffer, header.fromUBytesLength / 4, 0);
+                }
                 break;
             default:
                 // Cannot occur, caller checked already.
@@ -576,6 +598,31 @@ final class UConverterDataReader {
         }
     }
 
+    /**
+     * Returns the next length chars as a read-only view for absolute get(index) access
+     * and skips them in the byteBuffer.
+     */
+    private static CharBuffer getCharView(ByteBuffer bytes, int length) {
+        CharBuffer view = bytes.asCharBuffer();
+        view.limit(length);
+        ICUBinary.skipBytes(bytes, length * 2);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    private static ByteBuffer getByteView(ByteBuffer bytes, int length) {
+        ByteBuffer view = bytes.duplicate();
+        view.limit(view.position() + length);
+        ICUBinary.skipBytes(bytes, length);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    private static IntBuffer getIntView(ByteBuffer bytes, int length) {
+        IntBuffer view = bytes.asIntBuffer();
+        view.limit(length);
+        ICUBinary.skipBytes(bytes, length * 4);
+        return view.slice().asReadOnlyBuffer();
+    }
+
     protected String readBaseTableName() throws IOException
     {
         char c;
@@ -8,6 +8,11 @@
  */
 package com.ibm.icu.charset;
 
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Defines the UConverterSharedData struct, the immutable, shared part of
  * UConverter.
@@ -47,6 +52,86 @@ final class UConverterSharedData {
         staticData = staticData_;
     }
 
+    /*
+     * Cache of the shared data of converters loaded from the ICU data,
+     * like the SHARED_DATA_HASHTABLE in ucnv_bld.cpp, keyed by converter name.
+     *
+     * Instead of a reference counter, each Charset holds on to its shared data,
+     * and the cache holds SoftReferences:
+     * The garbage collector may release the shared data of converters
+     * which are not used any more, and it is then reloaded when needed.
+     */
+    private static final ConcurrentHashMap<String, SoftReference<UConverterSharedData>> sharedDataCache =
+            new ConcurrentHashMap<String, SoftReference<UConverterSharedData>>();
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+
+    /**
+     * Returns the cached shared data for the converter name, or null if it is not cached.
+     */
+    static UConverterSharedData getSharedConverterData(String name)
+    {
+        SoftReference<UConverterSharedData> ref = sharedDataCache.get(name);
+        UConverterSharedData data = ref != null ? ref.get() : null;
+        if (data != null) {
+            cacheHits.incrementAndGet();
+        } else {
+            cacheMisses.incrementAndGet();
+        }
+        return data;
+    }
+
+    /**
+     * Adds the shared data to the cache.
+     * If another thread cached data for the same name in the meantime,
+     * then that data is returned instead, so that all Charset instances share the same data.
+     */
+    static UConverterSharedData shareConverterData(String name, UConverterSharedData data)
+    {
+        SoftReference<UConverterSharedData> newRef = new SoftReference<UConverterSharedData>(data);
+        for (;;) {
+            SoftReference<UConverterSharedData> ref = sharedDataCache.putIfAbsent(name, newRef);
+            if (ref == null) {
+                return data;
+            }
+            UConverterSharedData cached = ref.get();
+            if (cached != null) {
+                return cached;
+            }
+            // The cached data was released by the garbage collector.
+            if (sharedDataCache.replace(name, ref, newRef)) {
+                return data;
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the cache, like ucnv_flushCache().
+     * Charset instances keep their shared data.
+     * @return the number of removed entries
+     */
+    static int flushCache()
+    {
+        int count = 0;
+        for (Iterator<SoftReference<UConverterSharedData>> it = sharedDataCache.values().iterator();
+                it.hasNext();) {
+            it.next();
+            it.remove();
+            ++count;
+        }
+        return count;
+    }
+
+    static long getCacheHitCount()
+    {
+        return cacheHits.get();
+    }
+
+    static long getCacheMissCount()
+    {
+        return cacheMisses.get();
+    }
+
     /**
      * UConverterImpl contains all the data and functions for a converter type.
      * Its function pointers work much like a C++ vtable. Many converter types
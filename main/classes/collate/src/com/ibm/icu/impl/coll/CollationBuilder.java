@@ -95,6 +95,7 @@ public final class CollationBuilder extends CollationRuleParser.Sink {
         ownedSettings.fastLatinOptions = CollationFastLatin.getOptions(
                 tailoring.data, ownedSettings,
                 ownedSettings.fastLatinPrimaries);
+        CollationFastLatin.setScriptOptions(tailoring.data, ownedSettings);
         tailoring.setRules(ruleString);
         // In Java, we do not have a rules version.
         // In C++, the genrb build tool reads and supplies one,
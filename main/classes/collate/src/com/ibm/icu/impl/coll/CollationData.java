@@ -524,6 +524,15 @@ public final class CollationData {
      * In Java, two arrays work better.
      */
     char[] fastLatinTableHeader;
+    /**
+     * Second-tier fast tables for common Greek and Cyrillic text,
+     * indexed by CollationFastLatin.GREEK and CYRILLIC.
+     * Same data structure as the fastLatinTable, but built at runtime.
+     * Null if there is no fastLatinTable; an element is null if its table could not be built.
+     */
+    public char[][] fastScriptTables;
+    /** Header portions of the fastScriptTables. */
+    char[][] fastScriptTableHeaders;
 
     /**
      * Data for scripts and reordering groups.
@@ -1160,6 +1160,7 @@ final class CollationDataBuilder {  // not final in C++
         } else {
             fastLatinBuilder = null;
         }
+        CollationFastLatinBuilder.buildScriptTables(data);
     }
 
     protected int getCEs(CharSequence s, int start, long ces[], int cesLength) {
@@ -459,6 +459,11 @@ final class CollationDataReader /* all static */ {
         length = inIndexes[index + 1] - offset;
         ICUBinary.skipBytes(inBytes, length);
 
+        if(data != null) {
+            // The fast script tables are not stored in the data.
+            CollationFastLatinBuilder.buildScriptTables(data);
+        }
+
         CollationSettings ts = tailoring.settings.readOnly();
         int options = inIndexes[IX_OPTIONS] & 0xffff;
         char[] fastLatinPrimaries = new char[CollationFastLatin.LATIN_LIMIT];
@@ -468,7 +473,8 @@ final class CollationDataReader /* all static */ {
                 Arrays.equals(reorderCodes, ts.reorderCodes) &&
                 fastLatinOptions == ts.fastLatinOptions &&
                 (fastLatinOptions < 0 ||
-                        Arrays.equals(fastLatinPrimaries, ts.fastLatinPrimaries))) {
+                        Arrays.equals(fastLatinPrimaries, ts.fastLatinPrimaries)) &&
+                sameScriptOptions(tailoring.data, ts)) {
             return;
         }
 
@@ -488,6 +494,20 @@ final class CollationDataReader /* all static */ {
         settings.fastLatinOptions = CollationFastLatin.getOptions(
             tailoring.data, settings,
             settings.fastLatinPrimaries);
+        CollationFastLatin.setScriptOptions(tailoring.data, settings);
+    }
+
+    private static boolean sameScriptOptions(CollationData data, CollationSettings ts) {
+        char[] primaries = new char[CollationFastLatin.LATIN_LIMIT];
+        for(int script = 0; script < CollationFastLatin.NUM_SCRIPTS; ++script) {
+            int scriptOptions = CollationFastLatin.getScriptOptions(data, script, ts, primaries);
+            if(scriptOptions != ts.fastScriptOptions[script] ||
+                    (scriptOptions >= 0 &&
+                            !Arrays.equals(primaries, ts.fastScriptPrimaries[script]))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static final class IsAcceptable implements ICUBinary.Authenticate {
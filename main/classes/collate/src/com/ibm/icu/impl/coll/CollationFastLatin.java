@@ -30,7 +30,7 @@ public final class CollationFastLatin /* all static */ {
     public static final int LATIN_MAX = 0x17f;
     public static final int LATIN_LIMIT = LATIN_MAX + 1;
 
-    static final int LATIN_MAX_UTF8_LEAD = 0xc5;  // UTF-8 lead byte of LATIN_MAX
+    public static final int LATIN_MAX_UTF8_LEAD = 0xc5;  // UTF-8 lead byte of LATIN_MAX
 
     static final int PUNCT_START = 0x2000;
     static final int PUNCT_LIMIT = 0x2040;
@@ -180,6 +180,30 @@ public final class CollationFastLatin /* all static */ {
      */
     public static final int BAIL_OUT_RESULT = -2;
 
+    // Second-tier fast script tables.
+    // They use the same data structure and comparison code as the fast Latin table,
+    // but the table slots of the Latin-1 and Latin Extended-A characters
+    // (ASCII_LIMIT..LATIN_MAX) hold the characters of one other script.
+    // ASCII and the punctuation block stay in their usual slots.
+    // The script tables are built at runtime; they are not part of the data format.
+
+    /** Script table index for Greek text. */
+    public static final int GREEK = 0;
+    /** Script table index for Cyrillic text. */
+    public static final int CYRILLIC = 1;
+    public static final int NUM_SCRIPTS = 2;
+
+    static final int ASCII_LIMIT = 0x80;
+
+    // Greek and Coptic block.
+    static final int GREEK_START = 0x370;
+    static final int GREEK_LIMIT = 0x400;
+    // The Cyrillic letters used by modern Russian, Ukrainian, Belarusian, Bulgarian,
+    // Serbian and Macedonian. The rest of the block has more primary weights
+    // than the short mini primaries can hold.
+    static final int CYRILLIC_START = 0x400;
+    static final int CYRILLIC_LIMIT = 0x460;
+
     static int getCharIndex(char c) {
         if(c <= LATIN_MAX) {
             return c;
@@ -193,6 +217,81 @@ public final class CollationFastLatin /* all static */ {
         }
     }
 
+    /**
+     * Like getCharIndex(c) but for the table of the given script,
+     * or for the fast Latin table if script<0.
+     */
+    static int getCharIndex(int script, char c) {
+        if(script < 0) {
+            return getCharIndex(c);
+        } else if(c < ASCII_LIMIT) {
+            return c;
+        } else if(getScriptStart(script) <= c && c < getScriptLimit(script)) {
+            return c - getScriptStart(script) + ASCII_LIMIT;
+        } else if(PUNCT_START <= c && c < PUNCT_LIMIT) {
+            return c - (PUNCT_START - LATIN_LIMIT);
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the character for a table slot index 0..NUM_FAST_CHARS-1
+     * of the given script's table, or of the fast Latin table if script<0.
+     * Returns -1 for a script table slot without a character.
+     */
+    static int getCharFromIndex(int script, int i) {
+        if(i >= LATIN_LIMIT) {
+            return i + (PUNCT_START - LATIN_LIMIT);
+        } else if(script < 0 || i < ASCII_LIMIT) {
+            return i;
+        } else {
+            int c = i - ASCII_LIMIT + getScriptStart(script);
+            return c < getScriptLimit(script) ? c : -1;
+        }
+    }
+
+    static int getScriptStart(int script) {
+        return script == GREEK ? GREEK_START : CYRILLIC_START;
+    }
+
+    static int getScriptLimit(int script) {
+        return script == GREEK ? GREEK_LIMIT : CYRILLIC_LIMIT;
+    }
+
+    static int getScriptCode(int script) {
+        return script == GREEK ? UScript.GREEK : UScript.CYRILLIC;
+    }
+
+    /**
+     * Returns the script table index for a comparison that starts with
+     * characters c and d, or -1 if the comparison is not suitable for a script table.
+     * A negative character value stands for the end of the string.
+     * Called when the fast Latin table does not apply.
+     */
+    public static int getScript(int c, int d) {
+        int script = getScript(c);
+        if(script < 0) {
+            if(c >= ASCII_LIMIT) { return -1; }
+            script = getScript(d);
+        } else if(d >= ASCII_LIMIT && getScript(d) != script) {
+            return -1;
+        }
+        return script;
+    }
+
+    private static int getScript(int c) {
+        if(c < GREEK_START) {
+            return -1;
+        } else if(c < GREEK_LIMIT) {
+            return GREEK;
+        } else if(c < CYRILLIC_LIMIT) {
+            return CYRILLIC;
+        } else {
+            return -1;
+        }
+    }
+
     /**
      * Computes the options value for the compare functions
      * and writes the precomputed primary weights.
@@ -201,7 +300,34 @@ public final class CollationFastLatin /* all static */ {
      */
     public static int getOptions(CollationData data, CollationSettings settings,
             char[] primaries) {
-        char[] header = data.fastLatinTableHeader;
+        return getOptions(data, data.fastLatinTableHeader, data.fastLatinTable, UScript.LATIN,
+                settings, primaries);
+    }
+
+    /**
+     * Same as getOptions() but for the fast table of the given script.
+     * Returns -1 if there is no such table or it is not supported for the settings.
+     */
+    public static int getScriptOptions(CollationData data, int script,
+            CollationSettings settings, char[] primaries) {
+        if(data.fastScriptTables == null) { return -1; }
+        return getOptions(data, data.fastScriptTableHeaders[script], data.fastScriptTables[script],
+                getScriptCode(script), settings, primaries);
+    }
+
+    /**
+     * Sets the script table options and primaries of the settings,
+     * parallel to their fastLatinOptions and fastLatinPrimaries.
+     */
+    public static void setScriptOptions(CollationData data, CollationSettings settings) {
+        for(int script = 0; script < NUM_SCRIPTS; ++script) {
+            settings.fastScriptOptions[script] = getScriptOptions(
+                    data, script, settings, settings.fastScriptPrimaries[script]);
+        }
+    }
+
+    private static int getOptions(CollationData data, char[] header, char[] table, int scriptCode,
+            CollationSettings settings, char[] primaries) {
         if(header == null) { return -1; }
         assert((header[0] >> 8) == VERSION);
         if(primaries.length != LATIN_LIMIT) {
@@ -239,7 +365,7 @@ public final class CollationFastLatin /* all static */ {
                     digitStart = start;
                 } else if(start != 0) {
                     if(start < prevStart) {
-                        // The permutation affects the groups up to Latin.
+                        // The permutation affects the groups up to the table's script.
                         return -1;
                     }
                     // In the future, there might be a special group between digits & Latin.
@@ -249,20 +375,19 @@ public final class CollationFastLatin /* all static */ {
                     prevStart = start;
                 }
             }
-            long latinStart = data.getFirstPrimaryForGroup(UScript.LATIN);
-            latinStart = settings.reorder(latinStart);
-            if(latinStart < prevStart) {
+            long scriptStart = data.getFirstPrimaryForGroup(scriptCode);
+            scriptStart = settings.reorder(scriptStart);
+            if(scriptStart < prevStart) {
                 return -1;
             }
             if(afterDigitStart == 0) {
-                afterDigitStart = latinStart;
+                afterDigitStart = scriptStart;
             }
             if(!(beforeDigitStart < digitStart && digitStart < afterDigitStart)) {
                 digitsAreReordered = true;
             }
         }
 
-        char[] table = data.fastLatinTable;  // skip the header
         for(int c = 0; c < LATIN_LIMIT; ++c) {
             int p = table[c];
             if(p >= MIN_SHORT) {
@@ -285,6 +410,26 @@ public final class CollationFastLatin /* all static */ {
 
     public static int compareUTF16(char[] table, char[] primaries, int options,
             CharSequence left, CharSequence right, int startIndex) {
+        return compareUTF16(table, primaries, options, left, right, startIndex, 0, 0);
+    }
+
+    /**
+     * Same as compareUTF16() but with the fast table of the given script.
+     * The table and primaries must be the script's table and the settings' script primaries.
+     */
+    public static int compareScriptUTF16(int script, char[] table, char[] primaries, int options,
+            CharSequence left, CharSequence right, int startIndex) {
+        return compareUTF16(table, primaries, options, left, right, startIndex,
+                getScriptStart(script), getScriptLimit(script));
+    }
+
+    /**
+     * Compares with the fast Latin table if scriptStart==0,
+     * otherwise with a script table whose characters are scriptStart..scriptLimit-1.
+     */
+    private static int compareUTF16(char[] table, char[] primaries, int options,
+            CharSequence left, CharSequence right, int startIndex,
+            int scriptStart, int scriptLimit) {
         // This is a modified copy of CollationCompare.compareUpToQuaternary(),
         // optimized for common Latin text.
         // Keep them in sync!
@@ -308,10 +453,15 @@ public final class CollationFastLatin /* all static */ {
                     break;
                 }
                 int c = left.charAt(leftIndex++);
+                if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                    c = getScriptTableChar(c, scriptStart, scriptLimit);
+                }
                 if(c <= LATIN_MAX) {
                     leftPair = primaries[c];
                     if(leftPair != 0) { break; }
-                    if(c <= 0x39 && c >= 0x30 && (options & CollationSettings.NUMERIC) != 0) {
+                    if(c <= 0x39 && c >= 0x30) {
+                        // getOptions() zeroed the digit primaries
+                        // for numeric collation or for reordered digits.
                         return BAIL_OUT_RESULT;
                     }
                     leftPair = table[c];
@@ -327,7 +477,8 @@ public final class CollationFastLatin /* all static */ {
                     leftPair &= LONG_PRIMARY_MASK;
                     break;
                 } else {
-                    long pairAndInc = nextPair(table, c, leftPair, left, leftIndex);
+                    long pairAndInc = nextPair(table, c, leftPair, left, leftIndex,
+                            scriptStart, scriptLimit);
                     if(pairAndInc < 0) {
                         ++leftIndex;
                         pairAndInc = ~pairAndInc;
@@ -344,10 +495,15 @@ public final class CollationFastLatin /* all static */ {
                     break;
                 }
                 int c = right.charAt(rightIndex++);
+                if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                    c = getScriptTableChar(c, scriptStart, scriptLimit);
+                }
                 if(c <= LATIN_MAX) {
                     rightPair = primaries[c];
                     if(rightPair != 0) { break; }
-                    if(c <= 0x39 && c >= 0x30 && (options & CollationSettings.NUMERIC) != 0) {
+                    if(c <= 0x39 && c >= 0x30) {
+                        // getOptions() zeroed the digit primaries
+                        // for numeric collation or for reordered digits.
                         return BAIL_OUT_RESULT;
                     }
                     rightPair = table[c];
@@ -363,7 +519,8 @@ public final class CollationFastLatin /* all static */ {
                     rightPair &= LONG_PRIMARY_MASK;
                     break;
                 } else {
-                    long pairAndInc = nextPair(table, c, rightPair, right, rightIndex);
+                    long pairAndInc = nextPair(table, c, rightPair, right, rightIndex,
+                            scriptStart, scriptLimit);
                     if(pairAndInc < 0) {
                         ++rightIndex;
                         pairAndInc = ~pairAndInc;
@@ -405,6 +562,9 @@ public final class CollationFastLatin /* all static */ {
                         break;
                     }
                     int c = left.charAt(leftIndex++);
+                    if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                        c = getScriptTableChar(c, scriptStart, scriptLimit);
+                    }
                     if(c <= LATIN_MAX) {
                         leftPair = table[c];
                     } else if(PUNCT_START <= c && c < PUNCT_LIMIT) {
@@ -419,7 +579,8 @@ public final class CollationFastLatin /* all static */ {
                         leftPair = COMMON_SEC_PLUS_OFFSET;
                         break;
                     } else {
-                        long pairAndInc = nextPair(table, c, leftPair, left, leftIndex);
+                        long pairAndInc = nextPair(table, c, leftPair, left, leftIndex,
+                                scriptStart, scriptLimit);
                         if(pairAndInc < 0) {
                             ++leftIndex;
                             pairAndInc = ~pairAndInc;
@@ -434,6 +595,9 @@ public final class CollationFastLatin /* all static */ {
                         break;
                     }
                     int c = right.charAt(rightIndex++);
+                    if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                        c = getScriptTableChar(c, scriptStart, scriptLimit);
+                    }
                     if(c <= LATIN_MAX) {
                         rightPair = table[c];
                     } else if(PUNCT_START <= c && c < PUNCT_LIMIT) {
@@ -448,7 +612,8 @@ public final class CollationFastLatin /* all static */ {
                         rightPair = COMMON_SEC_PLUS_OFFSET;
                         break;
                     } else {
-                        long pairAndInc = nextPair(table, c, rightPair, right, rightIndex);
+                        long pairAndInc = nextPair(table, c, rightPair, right, rightIndex,
+                                scriptStart, scriptLimit);
                         if(pairAndInc < 0) {
                             ++rightIndex;
                             pairAndInc = ~pairAndInc;
@@ -489,9 +654,13 @@ public final class CollationFastLatin /* all static */ {
                         break;
                     }
                     int c = left.charAt(leftIndex++);
+                    if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                        c = getScriptTableChar(c, scriptStart, scriptLimit);
+                    }
                     leftPair = (c <= LATIN_MAX) ? table[c] : lookup(table, c);
                     if(leftPair < MIN_LONG) {
-                        long pairAndInc = nextPair(table, c, leftPair, left, leftIndex);
+                        long pairAndInc = nextPair(table, c, leftPair, left, leftIndex,
+                                scriptStart, scriptLimit);
                         if(pairAndInc < 0) {
                             ++leftIndex;
                             pairAndInc = ~pairAndInc;
@@ -507,9 +676,13 @@ public final class CollationFastLatin /* all static */ {
                         break;
                     }
                     int c = right.charAt(rightIndex++);
+                    if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                        c = getScriptTableChar(c, scriptStart, scriptLimit);
+                    }
                     rightPair = (c <= LATIN_MAX) ? table[c] : lookup(table, c);
                     if(rightPair < MIN_LONG) {
-                        long pairAndInc = nextPair(table, c, rightPair, right, rightIndex);
+                        long pairAndInc = nextPair(table, c, rightPair, right, rightIndex,
+                                scriptStart, scriptLimit);
                         if(pairAndInc < 0) {
                             ++rightIndex;
                             pairAndInc = ~pairAndInc;
@@ -552,9 +725,13 @@ public final class CollationFastLatin /* all static */ {
                     break;
                 }
                 int c = left.charAt(leftIndex++);
+                if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                    c = getScriptTableChar(c, scriptStart, scriptLimit);
+                }
                 leftPair = (c <= LATIN_MAX) ? table[c] : lookup(table, c);
                 if(leftPair < MIN_LONG) {
-                    long pairAndInc = nextPair(table, c, leftPair, left, leftIndex);
+                    long pairAndInc = nextPair(table, c, leftPair, left, leftIndex,
+                            scriptStart, scriptLimit);
                     if(pairAndInc < 0) {
                         ++leftIndex;
                         pairAndInc = ~pairAndInc;
@@ -570,9 +747,13 @@ public final class CollationFastLatin /* all static */ {
                     break;
                 }
                 int c = right.charAt(rightIndex++);
+                if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                    c = getScriptTableChar(c, scriptStart, scriptLimit);
+                }
                 rightPair = (c <= LATIN_MAX) ? table[c] : lookup(table, c);
                 if(rightPair < MIN_LONG) {
-                    long pairAndInc = nextPair(table, c, rightPair, right, rightIndex);
+                    long pairAndInc = nextPair(table, c, rightPair, right, rightIndex,
+                            scriptStart, scriptLimit);
                     if(pairAndInc < 0) {
                         ++rightIndex;
                         pairAndInc = ~pairAndInc;
@@ -618,9 +799,13 @@ public final class CollationFastLatin /* all static */ {
                     break;
                 }
                 int c = left.charAt(leftIndex++);
+                if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                    c = getScriptTableChar(c, scriptStart, scriptLimit);
+                }
                 leftPair = (c <= LATIN_MAX) ? table[c] : lookup(table, c);
                 if(leftPair < MIN_LONG) {
-                    long pairAndInc = nextPair(table, c, leftPair, left, leftIndex);
+                    long pairAndInc = nextPair(table, c, leftPair, left, leftIndex,
+                            scriptStart, scriptLimit);
                     if(pairAndInc < 0) {
                         ++leftIndex;
                         pairAndInc = ~pairAndInc;
@@ -636,9 +821,13 @@ public final class CollationFastLatin /* all static */ {
                     break;
                 }
                 int c = right.charAt(rightIndex++);
+                if(scriptStart != 0 && c >= ASCII_LIMIT) {
+                    c = getScriptTableChar(c, scriptStart, scriptLimit);
+                }
                 rightPair = (c <= LATIN_MAX) ? table[c] : lookup(table, c);
                 if(rightPair < MIN_LONG) {
-                    long pairAndInc = nextPair(table, c, rightPair, right, rightIndex);
+                    long pairAndInc = nextPair(table, c, rightPair, right, rightIndex,
+                            scriptStart, scriptLimit);
                     if(pairAndInc < 0) {
                         ++rightIndex;
                         pairAndInc = ~pairAndInc;
@@ -665,6 +854,449 @@ public final class CollationFastLatin /* all static */ {
         return Collation.EQUAL;
     }
 
+    /**
+     * Same as compareUTF16() but for UTF-8 text in left[leftStart..leftLimit[
+     * and right[rightStart..rightLimit[, starting at the equal-prefix offset startIndex
+     * from each start.
+     */
+    public static int compareUTF8(char[] table, char[] primaries, int options,
+            byte[] left, int leftStart, int leftLimit,
+            byte[] right, int rightStart, int rightLimit, int startIndex) {
+        // This is a modified copy of compareUTF16(),
+        // which is a modified copy of CollationCompare.compareUpToQuaternary().
+        // Keep them in sync!
+
+        int variableTop = options >> 16;  // see getOptions()
+        options &= 0xffff;  // needed for CollationSettings.getStrength() to work
+
+        // Check for supported characters, fetch mini CEs, and compare primaries.
+        int leftIndex = leftStart + startIndex, rightIndex = rightStart + startIndex;
+        /**
+         * Single mini CE or a pair.
+         * The current mini CE is in the lower 16 bits, the next one is in the upper 16 bits.
+         * If there is only one, then it is in the lower bits, and the upper bits are 0.
+         */
+        int leftPair = 0, rightPair = 0;
+        for(;;) {
+            // We fetch CEs until we get a non-ignorable primary or reach the end.
+            while(leftPair == 0) {
+                if(leftIndex == leftLimit) {
+                    leftPair = EOS;
+                    break;
+                }
+                int c = left[leftIndex++] & 0xff;
+                int t;
+                if(c <= 0x7f) {
+                    leftPair = primaries[c];
+                    if(leftPair != 0) { break; }
+                    if(c <= 0x39 && c >= 0x30) {
+                        // getOptions() zeroed the digit primaries
+                        // for numeric collation or for reordered digits.
+                        return BAIL_OUT_RESULT;
+                    }
+                    leftPair = table[c];
+                } else if(c <= LATIN_MAX_UTF8_LEAD && 0xc2 <= c && leftIndex != leftLimit &&
+                        0x80 <= (t = left[leftIndex] & 0xff) && t <= 0xbf) {
+                    ++leftIndex;
+                    c = ((c - 0xc2) << 6) + t;
+                    leftPair = primaries[c];
+                    if(leftPair != 0) { break; }
+                    leftPair = table[c];
+                } else {
+                    leftPair = lookupUTF8(table, c, left, leftIndex, leftLimit);
+                    if(leftPair == BAIL_OUT) { return BAIL_OUT_RESULT; }
+                    leftIndex += 2;
+                }
+                if(leftPair >= MIN_SHORT) {
+                    leftPair &= SHORT_PRIMARY_MASK;
+                    break;
+                } else if(leftPair > variableTop) {
+                    leftPair &= LONG_PRIMARY_MASK;
+                    break;
+                } else {
+                    long pairAndInc = nextPair(table, leftPair, left, leftIndex, leftLimit);
+                    leftIndex += (int)(pairAndInc >>> 32);
+                    leftPair = (int)pairAndInc;
+                    if(leftPair == BAIL_OUT) { return BAIL_OUT_RESULT; }
+                    leftPair = getPrimaries(variableTop, leftPair);
+                }
+            }
+
+            while(rightPair == 0) {
+                if(rightIndex == rightLimit) {
+                    rightPair = EOS;
+                    break;
+                }
+                int c = right[rightIndex++] & 0xff;
+                int t;
+                if(c <= 0x7f) {
+                    rightPair = primaries[c];
+                    if(rightPair != 0) { break; }
+                    if(c <= 0x39 && c >= 0x30) {
+                        // getOptions() zeroed the digit primaries
+                        // for numeric collation or for reordered digits.
+                        return BAIL_OUT_RESULT;
+                    }
+                    rightPair = table[c];
+                } else if(c <= LATIN_MAX_UTF8_LEAD && 0xc2 <= c && rightIndex != rightLimit &&
+                        0x80 <= (t = right[rightIndex] & 0xff) && t <= 0xbf) {
+                    ++rightIndex;
+                    c = ((c - 0xc2) << 6) + t;
+                    rightPair = primaries[c];
+                    if(rightPair != 0) { break; }
+                    rightPair = table[c];
+                } else {
+                    rightPair = lookupUTF8(table, c, right, rightIndex, rightLimit);
+                    if(rightPair == BAIL_OUT) { return BAIL_OUT_RESULT; }
+                    rightIndex += 2;
+                }
+                if(rightPair >= MIN_SHORT) {
+                    rightPair &= SHORT_PRIMARY_MASK;
+                    break;
+                } else if(rightPair > variableTop) {
+                    rightPair &= LONG_PRIMARY_MASK;
+                    break;
+                } else {
+                    long pairAndInc = nextPair(table, rightPair, right, rightIndex, rightLimit);
+                    rightIndex += (int)(pairAndInc >>> 32);
+                    rightPair = (int)pairAndInc;
+                    if(rightPair == BAIL_OUT) { return BAIL_OUT_RESULT; }
+                    rightPair = getPrimaries(variableTop, rightPair);
+                }
+            }
+
+            if(leftPair == rightPair) {
+                if(leftPair == EOS) { break; }
+                leftPair = rightPair = 0;
+                continue;
+            }
+            int leftPrimary = leftPair & 0xffff;
+            int rightPrimary = rightPair & 0xffff;
+            if(leftPrimary != rightPrimary) {
+                // Return the primary difference.
+                return (leftPrimary < rightPrimary) ? Collation.LESS : Collation.GREATER;
+            }
+            if(leftPair == EOS) { break; }
+            leftPair >>>= 16;
+            rightPair >>>= 16;
+        }
+        // In the following, we need to re-fetch each character because we did not buffer the CEs,
+        // but we know that the string is well-formed and
+        // only contains supported characters and mappings.
+
+        // We might skip the secondary level but continue with the case level
+        // which is turned on separately.
+        if(CollationSettings.getStrength(options) >= Collator.SECONDARY) {
+            leftIndex = leftStart + startIndex;
+            rightIndex = rightStart + startIndex;
+            leftPair = rightPair = 0;
+            for(;;) {
+                while(leftPair == 0) {
+                    if(leftIndex == leftLimit) {
+                        leftPair = EOS;
+                        break;
+                    }
+                    int c = left[leftIndex++] & 0xff;
+                    if(c <= 0x7f) {
+                        leftPair = table[c];
+                    } else if(c <= LATIN_MAX_UTF8_LEAD) {
+                        leftPair = table[((c - 0xc2) << 6) + (left[leftIndex++] & 0xff)];
+                    } else {
+                        leftPair = lookupUTF8Unsafe(table, c, left, leftIndex);
+                        leftIndex += 2;
+                    }
+                    if(leftPair >= MIN_SHORT) {
+                        leftPair = getSecondariesFromOneShortCE(leftPair);
+                        break;
+                    } else if(leftPair > variableTop) {
+                        leftPair = COMMON_SEC_PLUS_OFFSET;
+                        break;
+                    } else {
+                        long pairAndInc = nextPair(table, leftPair, left, leftIndex, leftLimit);
+                        leftIndex += (int)(pairAndInc >>> 32);
+                        leftPair = getSecondaries(variableTop, (int)pairAndInc);
+                    }
+                }
+
+                while(rightPair == 0) {
+                    if(rightIndex == rightLimit) {
+                        rightPair = EOS;
+                        break;
+                    }
+                    int c = right[rightIndex++] & 0xff;
+                    if(c <= 0x7f) {
+                        rightPair = table[c];
+                    } else if(c <= LATIN_MAX_UTF8_LEAD) {
+                        rightPair = table[((c - 0xc2) << 6) + (right[rightIndex++] & 0xff)];
+                    } else {
+                        rightPair = lookupUTF8Unsafe(table, c, right, rightIndex);
+                        rightIndex += 2;
+                    }
+                    if(rightPair >= MIN_SHORT) {
+                        rightPair = getSecondariesFromOneShortCE(rightPair);
+                        break;
+                    } else if(rightPair > variableTop) {
+                        rightPair = COMMON_SEC_PLUS_OFFSET;
+                        break;
+                    } else {
+                        long pairAndInc = nextPair(table, rightPair, right, rightIndex, rightLimit);
+                        rightIndex += (int)(pairAndInc >>> 32);
+                        rightPair = getSecondaries(variableTop, (int)pairAndInc);
+                    }
+                }
+
+                if(leftPair == rightPair) {
+                    if(leftPair == EOS) { break; }
+                    leftPair = rightPair = 0;
+                    continue;
+                }
+                int leftSecondary = leftPair & 0xffff;
+                int rightSecondary = rightPair & 0xffff;
+                if(leftSecondary != rightSecondary) {
+                    if((options & CollationSettings.BACKWARD_SECONDARY) != 0) {
+                        // Full support for backwards secondary requires backwards contraction matching
+                        // and moving backwards between merge separators.
+                        return BAIL_OUT_RESULT;
+                    }
+                    return (leftSecondary < rightSecondary) ? Collation.LESS : Collation.GREATER;
+                }
+                if(leftPair == EOS) { break; }
+                leftPair >>>= 16;
+                rightPair >>>= 16;
+            }
+        }
+
+        if((options & CollationSettings.CASE_LEVEL) != 0) {
+            boolean strengthIsPrimary = CollationSettings.getStrength(options) == Collator.PRIMARY;
+            leftIndex = leftStart + startIndex;
+            rightIndex = rightStart + startIndex;
+            leftPair = rightPair = 0;
+            for(;;) {
+                while(leftPair == 0) {
+                    if(leftIndex == leftLimit) {
+                        leftPair = EOS;
+                        break;
+                    }
+                    int c = left[leftIndex++] & 0xff;
+                    if(c <= 0x7f) {
+                        leftPair = table[c];
+                    } else if(c <= LATIN_MAX_UTF8_LEAD) {
+                        leftPair = table[((c - 0xc2) << 6) + (left[leftIndex++] & 0xff)];
+                    } else {
+                        leftPair = lookupUTF8Unsafe(table, c, left, leftIndex);
+                        leftIndex += 2;
+                    }
+                    if(leftPair < MIN_LONG) {
+                        long pairAndInc = nextPair(table, leftPair, left, leftIndex, leftLimit);
+                        leftIndex += (int)(pairAndInc >>> 32);
+                        leftPair = (int)pairAndInc;
+                    }
+                    leftPair = getCases(variableTop, strengthIsPrimary, leftPair);
+                }
+
+                while(rightPair == 0) {
+                    if(rightIndex == rightLimit) {
+                        rightPair = EOS;
+                        break;
+                    }
+                    int c = right[rightIndex++] & 0xff;
+                    if(c <= 0x7f) {
+                        rightPair = table[c];
+                    } else if(c <= LATIN_MAX_UTF8_LEAD) {
+                        rightPair = table[((c - 0xc2) << 6) + (right[rightIndex++] & 0xff)];
+                    } else {
+                        rightPair = lookupUTF8Unsafe(table, c, right, rightIndex);
+                        rightIndex += 2;
+                    }
+                    if(rightPair < MIN_LONG) {
+                        long pairAndInc = nextPair(table, rightPair, right, rightIndex, rightLimit);
+                        rightIndex += (int)(pairAndInc >>> 32);
+                        rightPair = (int)pairAndInc;
+                    }
+                    rightPair = getCases(variableTop, strengthIsPrimary, rightPair);
+                }
+
+                if(leftPair == rightPair) {
+                    if(leftPair == EOS) { break; }
+                    leftPair = rightPair = 0;
+                    continue;
+                }
+                int leftCase = leftPair & 0xffff;
+                int rightCase = rightPair & 0xffff;
+                if(leftCase != rightCase) {
+                    if((options & CollationSettings.UPPER_FIRST) == 0) {
+                        return (leftCase < rightCase) ? Collation.LESS : Collation.GREATER;
+                    } else {
+                        return (leftCase < rightCase) ? Collation.GREATER : Collation.LESS;
+                    }
+                }
+                if(leftPair == EOS) { break; }
+                leftPair >>>= 16;
+                rightPair >>>= 16;
+            }
+        }
+        if(CollationSettings.getStrength(options) <= Collator.SECONDARY) { return Collation.EQUAL; }
+
+        // Remove the case bits from the tertiary weight when caseLevel is on or caseFirst is off.
+        boolean withCaseBits = CollationSettings.isTertiaryWithCaseBits(options);
+
+        leftIndex = leftStart + startIndex;
+        rightIndex = rightStart + startIndex;
+        leftPair = rightPair = 0;
+        for(;;) {
+            while(leftPair == 0) {
+                if(leftIndex == leftLimit) {
+                    leftPair = EOS;
+                    break;
+                }
+                int c = left[leftIndex++] & 0xff;
+                if(c <= 0x7f) {
+                    leftPair = table[c];
+                } else if(c <= LATIN_MAX_UTF8_LEAD) {
+                    leftPair = table[((c - 0xc2) << 6) + (left[leftIndex++] & 0xff)];
+                } else {
+                    leftPair = lookupUTF8Unsafe(table, c, left, leftIndex);
+                    leftIndex += 2;
+                }
+                if(leftPair < MIN_LONG) {
+                    long pairAndInc = nextPair(table, leftPair, left, leftIndex, leftLimit);
+                    leftIndex += (int)(pairAndInc >>> 32);
+                    leftPair = (int)pairAndInc;
+                }
+                leftPair = getTertiaries(variableTop, withCaseBits, leftPair);
+            }
+
+            while(rightPair == 0) {
+                if(rightIndex == rightLimit) {
+                    rightPair = EOS;
+                    break;
+                }
+                int c = right[rightIndex++] & 0xff;
+                if(c <= 0x7f) {
+                    rightPair = table[c];
+                } else if(c <= LATIN_MAX_UTF8_LEAD) {
+                    rightPair = table[((c - 0xc2) << 6) + (right[rightIndex++] & 0xff)];
+                } else {
+                    rightPair = lookupUTF8Unsafe(table, c, right, rightIndex);
+                    rightIndex += 2;
+                }
+                if(rightPair < MIN_LONG) {
+                    long pairAndInc = nextPair(table, rightPair, right, rightIndex, rightLimit);
+                    rightIndex += (int)(pairAndInc >>> 32);
+                    rightPair = (int)pairAndInc;
+                }
+                rightPair = getTertiaries(variableTop, withCaseBits, rightPair);
+            }
+
+            if(leftPair == rightPair) {
+                if(leftPair == EOS) { break; }
+                leftPair = rightPair = 0;
+                continue;
+            }
+            int leftTertiary = leftPair & 0xffff;
+            int rightTertiary = rightPair & 0xffff;
+            if(leftTertiary != rightTertiary) {
+                if(CollationSettings.sortsTertiaryUpperCaseFirst(options)) {
+                    // Pass through EOS and MERGE_WEIGHT
+                    // and keep real tertiary weights larger than the MERGE_WEIGHT.
+                    // Tertiary CEs (secondary ignorables) are not supported in fast Latin.
+                    if(leftTertiary > MERGE_WEIGHT) {
+                        leftTertiary ^= CASE_MASK;
+                    }
+                    if(rightTertiary > MERGE_WEIGHT) {
+                        rightTertiary ^= CASE_MASK;
+                    }
+                }
+                return (leftTertiary < rightTertiary) ? Collation.LESS : Collation.GREATER;
+            }
+            if(leftPair == EOS) { break; }
+            leftPair >>>= 16;
+            rightPair >>>= 16;
+        }
+        if(CollationSettings.getStrength(options) <= Collator.TERTIARY) { return Collation.EQUAL; }
+
+        leftIndex = leftStart + startIndex;
+        rightIndex = rightStart + startIndex;
+        leftPair = rightPair = 0;
+        for(;;) {
+            while(leftPair == 0) {
+                if(leftIndex == leftLimit) {
+                    leftPair = EOS;
+                    break;
+                }
+                int c = left[leftIndex++] & 0xff;
+                if(c <= 0x7f) {
+                    leftPair = table[c];
+                } else if(c <= LATIN_MAX_UTF8_LEAD) {
+                    leftPair = table[((c - 0xc2) << 6) + (left[leftIndex++] & 0xff)];
+                } else {
+                    leftPair = lookupUTF8Unsafe(table, c, left, leftIndex);
+                    leftIndex += 2;
+                }
+                if(leftPair < MIN_LONG) {
+                    long pairAndInc = nextPair(table, leftPair, left, leftIndex, leftLimit);
+                    leftIndex += (int)(pairAndInc >>> 32);
+                    leftPair = (int)pairAndInc;
+                }
+                leftPair = getQuaternaries(variableTop, leftPair);
+            }
+
+            while(rightPair == 0) {
+                if(rightIndex == rightLimit) {
+                    rightPair = EOS;
+                    break;
+                }
+                int c = right[rightIndex++] & 0xff;
+                if(c <= 0x7f) {
+                    rightPair = table[c];
+                } else if(c <= LATIN_MAX_UTF8_LEAD) {
+                    rightPair = table[((c - 0xc2) << 6) + (right[rightIndex++] & 0xff)];
+                } else {
+                    rightPair = lookupUTF8Unsafe(table, c, right, rightIndex);
+                    rightIndex += 2;
+                }
+                if(rightPair < MIN_LONG) {
+                    long pairAndInc = nextPair(table, rightPair, right, rightIndex, rightLimit);
+                    rightIndex += (int)(pairAndInc >>> 32);
+                    rightPair = (int)pairAndInc;
+                }
+                rightPair = getQuaternaries(variableTop, rightPair);
+            }
+
+            if(leftPair == rightPair) {
+                if(leftPair == EOS) { break; }
+                leftPair = rightPair = 0;
+                continue;
+            }
+            int leftQuaternary = leftPair & 0xffff;
+            int rightQuaternary = rightPair & 0xffff;
+            if(leftQuaternary != rightQuaternary) {
+                return (leftQuaternary < rightQuaternary) ? Collation.LESS : Collation.GREATER;
+            }
+            if(leftPair == EOS) { break; }
+            leftPair >>>= 16;
+            rightPair >>>= 16;
+        }
+        return Collation.EQUAL;
+    }
+
+
+    /**
+     * Maps a non-ASCII character for a script table comparison:
+     * The script's characters map into the table slots after ASCII,
+     * and the Latin characters of those slots map to U+FFFD which makes the comparison bail out.
+     * All other characters are passed through.
+     */
+    private static int getScriptTableChar(int c, int scriptStart, int scriptLimit) {
+        if(scriptStart <= c && c < scriptLimit) {
+            return c - scriptStart + ASCII_LIMIT;
+        } else if(c <= LATIN_MAX) {
+            return 0xfffd;
+        } else {
+            return c;
+        }
+    }
+
     private static int lookup(char[] table, int c) {
         assert(c > LATIN_MAX);
         if(PUNCT_START <= c && c < PUNCT_LIMIT) {
@@ -682,7 +1314,8 @@ public final class CollationFastLatin /* all static */ {
      * Java returns a negative result (use the '~' operator) if sIndex is to be incremented.
      * C++ modifies sIndex.
      */
-    private static long nextPair(char[] table, int c, int ce, CharSequence s16, int sIndex) {
+    private static long nextPair(char[] table, int c, int ce, CharSequence s16, int sIndex,
+            int scriptStart, int scriptLimit) {
         if(ce >= MIN_LONG || ce < CONTRACTION) {
             return ce;  // simple or special mini CE
         } else if(ce >= EXPANSION) {
@@ -698,6 +1331,9 @@ public final class CollationFastLatin /* all static */ {
                 int c2;
                 int nextIndex = sIndex;
                 c2 = s16.charAt(nextIndex++);
+                if(scriptStart != 0 && c2 >= ASCII_LIMIT) {
+                    c2 = getScriptTableChar(c2, scriptStart, scriptLimit);
+                }
                 if(c2 > LATIN_MAX) {
                     if(PUNCT_START <= c2 && c2 < PUNCT_LIMIT) {
                         c2 = c2 - PUNCT_START + LATIN_LIMIT;  // 2000..203F -> 0180..01BF
@@ -738,6 +1374,119 @@ public final class CollationFastLatin /* all static */ {
         }
     }
 
+    private static int lookupUTF8(char[] table, int c,
+            byte[] s8, int sIndex, int sLimit) {
+        // The caller handled ASCII and valid/supported Latin.
+        assert(c > 0x7f);
+        int i2 = sIndex + 1;
+        if(i2 < sLimit) {
+            int t1 = s8[sIndex] & 0xff;
+            int t2 = s8[i2] & 0xff;
+            if(c == 0xe2 && t1 == 0x80 && 0x80 <= t2 && t2 <= 0xbf) {
+                return table[(LATIN_LIMIT - 0x80) + t2];  // 2000..203F -> 0180..01BF
+            } else if(c == 0xef && t1 == 0xbf) {
+                if(t2 == 0xbe) {
+                    return MERGE_WEIGHT;  // U+FFFE
+                } else if(t2 == 0xbf) {
+                    return MAX_SHORT | COMMON_SEC | LOWER_CASE | COMMON_TER;  // U+FFFF
+                }
+            }
+        }
+        return BAIL_OUT;
+    }
+
+    /**
+     * The caller must increment sIndex by 2 for the two trail bytes.
+     */
+    private static int lookupUTF8Unsafe(char[] table, int c, byte[] s8, int sIndex) {
+        // The caller handled ASCII and Latin.
+        // The string is well-formed and contains only supported characters.
+        assert(c > LATIN_MAX_UTF8_LEAD);
+        int t2 = s8[sIndex + 1] & 0xff;
+        if(c == 0xe2) {
+            return table[(LATIN_LIMIT - 0x80) + t2];  // 2000..203F -> 0180..01BF
+        } else if(t2 == 0xbe) {
+            return MERGE_WEIGHT;  // U+FFFE
+        } else {
+            return MAX_SHORT | COMMON_SEC | LOWER_CASE | COMMON_TER;  // U+FFFF
+        }
+    }
+
+    /**
+     * UTF-8 version of nextPair().
+     * Returns the mini CE pair in the lower 32 bits
+     * and the number of bytes by which to increment sIndex in the upper bits.
+     */
+    private static long nextPair(char[] table, int ce, byte[] s8, int sIndex, int sLimit) {
+        if(ce >= MIN_LONG || ce < CONTRACTION) {
+            return ce;  // simple or special mini CE
+        } else if(ce >= EXPANSION) {
+            int index = NUM_FAST_CHARS + (ce & INDEX_MASK);
+            return ((long)table[index + 1] << 16) | table[index];
+        } else /* ce >= CONTRACTION */ {
+            // Contraction list: Default mapping followed by
+            // 0 or more single-character contraction suffix mappings.
+            int index = NUM_FAST_CHARS + (ce & INDEX_MASK);
+            int inc = 0;  // number of bytes of the next char if it is consumed
+            if(sIndex != sLimit) {
+                // Read the next character.
+                int nextIndex = sIndex;
+                int c2 = s8[nextIndex++] & 0xff;
+                if(c2 > 0x7f) {
+                    int t;
+                    if(c2 <= LATIN_MAX_UTF8_LEAD && 0xc2 <= c2 && nextIndex != sLimit &&
+                            0x80 <= (t = s8[nextIndex] & 0xff) && t <= 0xbf) {
+                        c2 = ((c2 - 0xc2) << 6) + t;  // 0080..017F
+                        ++nextIndex;
+                    } else {
+                        int i2 = nextIndex + 1;
+                        if(i2 < sLimit) {
+                            if(c2 == 0xe2 && s8[nextIndex] == (byte)0x80 &&
+                                    0x80 <= (t = s8[i2] & 0xff) && t <= 0xbf) {
+                                c2 = (LATIN_LIMIT - 0x80) + t;  // 2000..203F -> 0180..01BF
+                            } else if(c2 == 0xef && s8[nextIndex] == (byte)0xbf &&
+                                    ((t = s8[i2] & 0xff) == 0xbe || t == 0xbf)) {
+                                c2 = -1;  // U+FFFE & U+FFFF cannot occur in contractions.
+                            } else {
+                                return BAIL_OUT;
+                            }
+                        } else {
+                            return BAIL_OUT;
+                        }
+                        nextIndex += 2;
+                    }
+                }
+                // Look for the next character in the contraction suffix list,
+                // which is in ascending order of single suffix characters.
+                int i = index;
+                int head = table[i];  // first skip the default mapping
+                int x;
+                do {
+                    i += head >> CONTR_LENGTH_SHIFT;
+                    head = table[i];
+                    x = head & CONTR_CHAR_MASK;
+                } while(x < c2);
+                if(x == c2) {
+                    index = i;
+                    inc = nextIndex - sIndex;
+                }
+            }
+            // Return the CE or CEs for the default or contraction mapping.
+            int length = table[index] >> CONTR_LENGTH_SHIFT;
+            if(length == 1) {
+                return BAIL_OUT;
+            }
+            ce = table[index + 1];
+            long result;
+            if(length == 2) {
+                result = ce;
+            } else {
+                result = ((long)table[index + 2] << 16) | ce;
+            }
+            return ((long)inc << 32) | result;
+        }
+    }
+
     private static int getPrimaries(int variableTop, int pair) {
         int ce = pair & 0xffff;
         if(ce >= MIN_SHORT) { return pair & TWO_SHORT_PRIMARIES_MASK; }
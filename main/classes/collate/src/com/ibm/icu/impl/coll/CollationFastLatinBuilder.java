@@ -13,6 +13,8 @@
 
 package com.ibm.icu.impl.coll;
 
+import java.util.Arrays;
+
 import com.ibm.icu.lang.UScript;
 import com.ibm.icu.text.Collator;
 import com.ibm.icu.util.CharsTrie;
@@ -70,8 +72,9 @@ final class CollationFastLatinBuilder {
         uniqueCEs = new UVector64();
         miniCEs = null;
         firstDigitPrimary = 0;
-        firstLatinPrimary = 0;
-        lastLatinPrimary = 0;
+        lastDigitPrimary = 0;
+        firstScriptPrimary = 0;
+        lastScriptPrimary = 0;
         firstShortPrimary = 0;
         shortPrimaryOverflow = false;
         headerLength = 0;
@@ -90,7 +93,7 @@ final class CollationFastLatinBuilder {
         if(shortPrimaryOverflow) {
             // Give digits long mini primaries,
             // so that there are more short primaries for letters.
-            firstShortPrimary = firstLatinPrimary;
+            firstShortPrimary = firstScriptPrimary;
             resetCEs();
             getCEs(data);
             encodeUniqueCEs();
@@ -113,6 +116,44 @@ final class CollationFastLatinBuilder {
         return ok;
     }
 
+    /**
+     * Builds a second-tier fast table for the given script
+     * (CollationFastLatin.GREEK or CYRILLIC) rather than the fast Latin table.
+     */
+    boolean forScriptData(CollationData data, int script) {
+        this.script = script;
+        return forData(data);
+    }
+
+    /**
+     * Builds the fast script tables for data that has a fast Latin table.
+     * Uses the base data's tables where they are the same.
+     */
+    static void buildScriptTables(CollationData data) {
+        data.fastScriptTables = null;
+        data.fastScriptTableHeaders = null;
+        if(data.fastLatinTable == null) { return; }
+        CollationData base = data.base;
+        char[][] tables = new char[CollationFastLatin.NUM_SCRIPTS][];
+        char[][] headers = new char[CollationFastLatin.NUM_SCRIPTS][];
+        for(int script = 0; script < CollationFastLatin.NUM_SCRIPTS; ++script) {
+            CollationFastLatinBuilder builder = new CollationFastLatinBuilder();
+            if(!builder.forScriptData(data, script)) { continue; }
+            char[] header = builder.getHeader();
+            char[] table = builder.getTable();
+            if(base != null && base.fastScriptTables != null &&
+                    Arrays.equals(header, base.fastScriptTableHeaders[script]) &&
+                    Arrays.equals(table, base.fastScriptTables[script])) {
+                header = base.fastScriptTableHeaders[script];
+                table = base.fastScriptTables[script];
+            }
+            headers[script] = header;
+            tables[script] = table;
+        }
+        data.fastScriptTableHeaders = headers;
+        data.fastScriptTables = tables;
+    }
+
     // C++ returns one combined array with the contents of the result buffer.
     // Java returns two arrays (header & table) because we cannot use pointer arithmetic,
     // and we do not want to index into the table with an offset.
@@ -144,9 +185,11 @@ final class CollationFastLatinBuilder {
         }
 
         firstDigitPrimary = data.getFirstPrimaryForGroup(Collator.ReorderCodes.DIGIT);
-        firstLatinPrimary = data.getFirstPrimaryForGroup(UScript.LATIN);
-        lastLatinPrimary = data.getLastPrimaryForGroup(UScript.LATIN);
-        if(firstDigitPrimary == 0 || firstLatinPrimary == 0) {
+        lastDigitPrimary = data.getLastPrimaryForGroup(Collator.ReorderCodes.DIGIT);
+        int scriptCode = script < 0 ? UScript.LATIN : CollationFastLatin.getScriptCode(script);
+        firstScriptPrimary = data.getFirstPrimaryForGroup(scriptCode);
+        lastScriptPrimary = data.getLastPrimaryForGroup(scriptCode);
+        if(firstDigitPrimary == 0 || firstScriptPrimary == 0) {
             // missing data
             return false;
         }
@@ -191,12 +234,13 @@ final class CollationFastLatinBuilder {
     }
 
     private void getCEs(CollationData data) {
-        int i = 0;
-        for(char c = 0;; ++i, ++c) {
-            if(c == CollationFastLatin.LATIN_LIMIT) {
-                c = CollationFastLatin.PUNCT_START;
-            } else if(c == CollationFastLatin.PUNCT_LIMIT) {
-                break;
+        for(int i = 0; i < CollationFastLatin.NUM_FAST_CHARS; ++i) {
+            int c = CollationFastLatin.getCharFromIndex(script, i);
+            if(c < 0) {
+                // unused script table slot
+                charCEs[i][0] = Collation.NO_CE;
+                charCEs[i][1] = 0;
+                continue;
             }
             CollationData d;
             int ce32 = data.getCE32(c);
@@ -287,8 +331,9 @@ final class CollationFastLatinBuilder {
         // We do not support an ignorable ce0 unless it is completely ignorable.
         long p0 = ce0 >>> 32;
         if(p0 == 0) { return false; }
-        // We only support primaries up to the Latin script.
-        if(p0 > lastLatinPrimary) { return false; }
+        // We only support primaries up to the Latin script,
+        // or of the special groups, digits and the script of a script table.
+        if(!isSupportedPrimary(p0)) { return false; }
         // We support non-common secondary and case weights only together with short primaries.
         int lower32_0 = (int)ce0;
         if(p0 < firstShortPrimary) {
@@ -305,6 +350,7 @@ final class CollationFastLatinBuilder {
             // and determine for both whether they are variable.
             long p1 = ce1 >>> 32;
             if(p1 == 0 ? p0 < firstShortPrimary : !inSameGroup(p0, p1)) { return false; }
+            if(p1 != 0 && script >= 0 && !isSupportedPrimary(p1)) { return false; }
             int lower32_1 = (int)ce1;
             // No tertiary CEs.
             if((lower32_1 >>> 16) == 0) { return false; }
@@ -322,6 +368,13 @@ final class CollationFastLatinBuilder {
         return true;
     }
 
+    private boolean isSupportedPrimary(long p) {
+        if(p > lastScriptPrimary) { return false; }
+        // A script table does not support the scripts between digits and its own script,
+        // so that its primaries keep their order when the script is reordered.
+        return script < 0 || p <= lastDigitPrimary || p >= firstScriptPrimary;
+    }
+
     private boolean getCEsFromContractionCE32(CollationData data, int ce32) {
         int trieIndex = Collation.indexFromCE32(ce32);
         ce32 = data.getCE32FromContexts(trieIndex);  // Default if no suffix match.
@@ -343,7 +396,7 @@ final class CollationFastLatinBuilder {
         while(suffixes.hasNext()) {
             CharsTrie.Entry entry = suffixes.next();
             CharSequence suffix = entry.chars;
-            int x = CollationFastLatin.getCharIndex(suffix.charAt(0));
+            int x = CollationFastLatin.getCharIndex(script, suffix.charAt(0));
             if(x < 0) { continue; }  // ignore anything but fast Latin text
             if(x == prevX) {
                 if(addContraction) {
@@ -693,14 +746,19 @@ final class CollationFastLatinBuilder {
     // These are constant for a given root collator.
     long[] lastSpecialPrimaries = new long[NUM_SPECIAL_GROUPS];
     private long firstDigitPrimary;
-    private long firstLatinPrimary;
-    private long lastLatinPrimary;
+    private long lastDigitPrimary;
+    // The Latin script, or the script of a script table.
+    private long firstScriptPrimary;
+    private long lastScriptPrimary;
     // This determines the first normal primary weight which is mapped to
     // a short mini primary. It must be >=firstDigitPrimary.
     private long firstShortPrimary;
 
     private boolean shortPrimaryOverflow;
 
+    /** -1 for the fast Latin table, or the CollationFastLatin script table index. */
+    private int script = -1;
+
     private StringBuilder result = new StringBuilder();
     private int headerLength;
 }
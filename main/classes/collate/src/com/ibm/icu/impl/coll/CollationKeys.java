@@ -24,7 +24,7 @@ public final class CollationKeys /* all methods are static */ {
         protected byte[] buffer_;
         // protected int capacity_; == buffer_.length
         private int appended_ = 0;
-        // not used in Java -- private int ignore_ = 0;
+        private int ignore_ = 0;
 
         public SortKeyByteSink(byte[] dest) {
             buffer_ = dest;
@@ -41,9 +41,14 @@ public final class CollationKeys /* all methods are static */ {
             appended_ = app;
         }
 
-        /* not used in Java -- public void IgnoreBytes(int numIgnore) {
+        /**
+         * Skips the next numIgnore bytes that are appended,
+         * for writing a later part of a sort key.
+         * Bytes written directly to the buffer are not affected.
+         */
+        public void IgnoreBytes(int numIgnore) {
             ignore_ = numIgnore;
-        } */
+        }
 
         /**
          * @param bytes
@@ -56,7 +61,8 @@ public final class CollationKeys /* all methods are static */ {
                 return;
             }
 
-            /* not used in Java -- if (ignore_ > 0) {
+            int start = 0;
+            if (ignore_ > 0) {
                 int ignoreRest = ignore_ - n;
                 if (ignoreRest >= 0) {
                     ignore_ = ignoreRest;
@@ -66,23 +72,23 @@ public final class CollationKeys /* all methods are static */ {
                     n = -ignoreRest;
                     ignore_ = 0;
                 }
-            } */
+            }
 
             int length = appended_;
             appended_ += n;
 
             int available = buffer_.length - length;
             if (n <= available) {
-                System.arraycopy(bytes, 0, buffer_, length, n);
+                System.arraycopy(bytes, start, buffer_, length, n);
             } else {
-                AppendBeyondCapacity(bytes, 0, n, length);
+                AppendBeyondCapacity(bytes, start, n, length);
             }
         }
 
         public void Append(int b) {
-            /* not used in Java -- if (ignore_ > 0) {
+            if (ignore_ > 0) {
                 --ignore_;
-            } else */ {
+            } else {
                 if (appended_ < buffer_.length || Resize(1, appended_)) {
                     buffer_[appended_] = (byte) b;
                 }
@@ -102,7 +108,7 @@ public final class CollationKeys /* all methods are static */ {
         }
 
         public int GetRemainingCapacity() {
-            return /* not used in Java -- ignore_ + */ buffer_.length - appended_;
+            return ignore_ + buffer_.length - appended_;
         }
 
         public boolean Overflowed() {
@@ -136,7 +142,7 @@ public final class CollationKeys /* all methods are static */ {
          * @return true if the level is to be written (the base class implementation always returns
          *         true)
          */
-        boolean needToWrite(int level) {
+        protected boolean needToWrite(int level) {
             return true;
         }
     }
@@ -98,6 +98,11 @@ public final class CollationSettings extends SharedObject {
         // Note: The reorderTable, reorderRanges, and reorderCodes need not be cloned
         // because, in Java, they only get replaced but not modified.
         newSettings.fastLatinPrimaries = fastLatinPrimaries.clone();
+        newSettings.fastScriptOptions = fastScriptOptions.clone();
+        newSettings.fastScriptPrimaries = new char[fastScriptPrimaries.length][];
+        for(int i = 0; i < fastScriptPrimaries.length; ++i) {
+            newSettings.fastScriptPrimaries[i] = fastScriptPrimaries[i].clone();
+        }
         return newSettings;
     }
 
@@ -486,4 +491,11 @@ public final class CollationSettings extends SharedObject {
     // fastLatinPrimaries.length must be equal to CollationFastLatin.LATIN_LIMIT,
     // but we do not import CollationFastLatin to reduce circular dependencies.
     public char[] fastLatinPrimaries = new char[0x180];  // mutable contents
+    /**
+     * Options for the CollationFastLatin script tables, indexed like CollationData.fastScriptTables.
+     * Each is negative if disabled.
+     */
+    public int[] fastScriptOptions = { -1, -1 };  // mutable contents
+    /** Precomputed primaries for the script tables, each like fastLatinPrimaries. */
+    public char[][] fastScriptPrimaries = new char[2][0x180];  // mutable contents
 }
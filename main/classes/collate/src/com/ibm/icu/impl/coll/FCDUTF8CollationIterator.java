@@ -0,0 +1,425 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+/*
+*******************************************************************************
+* FCDUTF8CollationIterator.java, ported from utf8collationiterator.h/.cpp
+*******************************************************************************
+*/
+
+package com.ibm.icu.impl.coll;
+
+import com.ibm.icu.impl.Normalizer2Impl;
+import com.ibm.icu.impl.UTF8;
+
+/**
+ * Incrementally checks the input text for FCD and normalizes where necessary.
+ */
+public final class FCDUTF8CollationIterator extends UTF8CollationIterator {
+    /**
+     * Partial constructor, see {@link CollationIterator#CollationIterator(CollationData)}.
+     */
+    public FCDUTF8CollationIterator(CollationData d) {
+        super(d);
+        nfcImpl = d.nfcImpl;
+    }
+
+    public FCDUTF8CollationIterator(CollationData data, boolean numeric,
+            byte[] s, int start, int p, int limit) {
+        super(data, numeric, s, start, p, limit);
+        segmentStart = p;
+        nfcImpl = data.nfcImpl;
+        state = CHECK_FWD;
+    }
+
+    @Override
+    public void resetToOffset(int newOffset) {
+        reset();
+        segmentStart = pos = start + newOffset;
+        state = CHECK_FWD;
+    }
+
+    @Override
+    public int getOffset() {
+        if(state != IN_NORMALIZED) {
+            return pos - start;
+        } else if(pos == 0) {
+            return segmentStart - start;
+        } else {
+            return segmentLimit - start;
+        }
+    }
+
+    @Override
+    public void setText(boolean numeric, byte[] s, int start, int p, int limit) {
+        super.setText(numeric, s, start, p, limit);
+        segmentStart = p;
+        state = CHECK_FWD;
+    }
+
+    @Override
+    public int nextCodePoint() {
+        int c;
+        for(;;) {
+            if(state == CHECK_FWD) {
+                if(pos == limit) {
+                    return Collation.SENTINEL_CP;
+                }
+                if((c = u8[pos]) >= 0) {
+                    ++pos;
+                    return c;
+                }
+                int length = UTF8.getSequenceLength(u8, pos, limit);
+                c = UTF8.getCodePoint(u8, pos, length);
+                pos += length > 0 ? length : -length;
+                if(CollationFCD.hasTccc(c <= 0xffff ? c : lead(c)) &&
+                        (CollationFCD.maybeTibetanCompositeVowel(c) ||
+                            (pos != limit && nextHasLccc()))) {
+                    // c is not FCD-inert, therefore it is not U+FFFD and it has a valid byte sequence
+                    // and we can use UTF8.getLength() rather than a previous-position variable.
+                    pos -= UTF8.getLength(c);
+                    nextSegment();
+                    continue;
+                }
+                return c;
+            } else if(state == IN_FCD_SEGMENT && pos != segmentLimit) {
+                return super.nextCodePoint();
+            } else if(state == IN_NORMALIZED && pos != normalized.length()) {
+                c = normalized.codePointAt(pos);
+                pos += Character.charCount(c);
+                return c;
+            } else {
+                switchToForward();
+            }
+        }
+    }
+
+    @Override
+    public int previousCodePoint() {
+        int c;
+        for(;;) {
+            if(state == CHECK_BWD) {
+                if(pos == start) {
+                    return Collation.SENTINEL_CP;
+                }
+                if((c = u8[pos - 1]) >= 0) {
+                    --pos;
+                    return c;
+                }
+                c = super.previousCodePoint();
+                if(CollationFCD.hasLccc(c <= 0xffff ? c : lead(c)) &&
+                        (CollationFCD.maybeTibetanCompositeVowel(c) ||
+                            (pos != start && previousHasTccc()))) {
+                    // c is not FCD-inert, therefore it is not U+FFFD and it has a valid byte sequence
+                    // and we can use UTF8.getLength() rather than a previous-position variable.
+                    pos += UTF8.getLength(c);
+                    previousSegment();
+                    continue;
+                }
+                return c;
+            } else if(state == IN_FCD_SEGMENT && pos != segmentStart) {
+                return super.previousCodePoint();
+            } else if(state == IN_NORMALIZED && pos != 0) {
+                c = normalized.codePointBefore(pos);
+                pos -= Character.charCount(c);
+                return c;
+            } else {
+                switchToBackward();
+            }
+        }
+    }
+
+    @Override
+    protected long handleNextCE32() {
+        int c;
+        for(;;) {
+            if(state == CHECK_FWD) {
+                if(pos == limit) {
+                    return NO_CP_AND_CE32;
+                }
+                c = u8[pos];
+                if(c >= 0) {
+                    ++pos;
+                    return makeCodePointAndCE32Pair(c, trie.getFromU16SingleLead((char)c));
+                }
+                int length = UTF8.getSequenceLength(u8, pos, limit);
+                if(length < 0) {
+                    pos -= length;
+                    return makeCodePointAndCE32Pair(0xfffd, Collation.FFFD_CE32);
+                }
+                c = UTF8.getCodePoint(u8, pos, length);
+                pos += length;
+                if(CollationFCD.hasTccc(c <= 0xffff ? c : lead(c)) &&
+                        (CollationFCD.maybeTibetanCompositeVowel(c) ||
+                            (pos != limit && nextHasLccc()))) {
+                    pos -= length;
+                    nextSegment();
+                    continue;
+                }
+                return makeCodePointAndCE32Pair(c, data.getCE32(c));
+            } else if(state == IN_FCD_SEGMENT && pos != segmentLimit) {
+                return super.handleNextCE32();
+            } else if(state == IN_NORMALIZED && pos != normalized.length()) {
+                c = normalized.charAt(pos++);
+                break;
+            } else {
+                switchToForward();
+            }
+        }
+        return makeCodePointAndCE32Pair(c, trie.getFromU16SingleLead((char)c));
+    }
+
+    @Override
+    protected char handleGetTrailSurrogate() {
+        if(state != IN_NORMALIZED) { return 0; }
+        assert(pos < normalized.length());
+        char trail;
+        if(Character.isLowSurrogate(trail = normalized.charAt(pos))) { ++pos; }
+        return trail;
+    }
+
+    /* boolean foundNULTerminator(); */
+
+    @Override
+    protected void forwardNumCodePoints(int num) {
+        // Specify the class to avoid a virtual-function indirection.
+        // In Java, we would declare this class final.
+        while(num > 0 && nextCodePoint() >= 0) {
+            --num;
+        }
+    }
+
+    @Override
+    protected void backwardNumCodePoints(int num) {
+        // Specify the class to avoid a virtual-function indirection.
+        // In Java, we would declare this class final.
+        while(num > 0 && previousCodePoint() >= 0) {
+            --num;
+        }
+    }
+
+    private static int lead(int c) {
+        return (c >> 10) + 0xd7c0;
+    }
+
+    private boolean nextHasLccc() {
+        assert(state == CHECK_FWD && pos != limit);
+        // The lowest code point with ccc!=0 is U+0300 which is CC 80 in UTF-8.
+        // CJK U+4000..U+DFFF except U+Axxx are also FCD-inert. (Lead bytes E4..ED except EA.)
+        int c = u8[pos] & 0xff;
+        if(c < 0xcc || (0xe4 <= c && c <= 0xed && c != 0xea)) { return false; }
+        c = UTF8.codePointAt(u8, pos, limit);
+        if(c > 0xffff) { c = lead(c); }
+        return CollationFCD.hasLccc(c);
+    }
+
+    private boolean previousHasTccc() {
+        assert(state == CHECK_BWD && pos != start);
+        int c = u8[pos - 1];
+        if(c >= 0) { return false; }
+        c = UTF8.codePointAt(u8, UTF8.getPreviousStart(u8, start, pos), pos);
+        if(c > 0xffff) { c = lead(c); }
+        return CollationFCD.hasTccc(c);
+    }
+
+    /**
+     * Switches to forward checking if possible.
+     */
+    private void switchToForward() {
+        assert(state == CHECK_BWD ||
+                (state == IN_FCD_SEGMENT && pos == segmentLimit) ||
+                (state == IN_NORMALIZED && pos == normalized.length()));
+        if(state == CHECK_BWD) {
+            // Turn around from backward checking.
+            segmentStart = pos;
+            if(pos == segmentLimit) {
+                state = CHECK_FWD;  // Check forward.
+            } else {  // pos < segmentLimit
+                state = IN_FCD_SEGMENT;  // Stay in FCD segment.
+            }
+        } else {
+            // Reached the end of the FCD segment.
+            if(state == IN_FCD_SEGMENT) {
+                // The input text segment is FCD, extend it forward.
+            } else {
+                // The input text segment needed to be normalized.
+                // Switch to checking forward from it.
+                segmentStart = pos = segmentLimit;
+            }
+            state = CHECK_FWD;
+        }
+    }
+
+    /**
+     * Extends the FCD text segment forward or normalizes around pos.
+     * To be called when state == CHECK_FWD && pos != limit.
+     */
+    private void nextSegment() {
+        assert(state == CHECK_FWD && pos != limit);
+        // The input text [segmentStart..pos[ passes the FCD check.
+        int segStart = pos;
+        // Collect the characters being checked, in case they need to be normalized.
+        if(checked == null) {
+            checked = new StringBuilder();
+        } else {
+            checked.setLength(0);
+        }
+        int prevCC = 0;
+        for(;;) {
+            // Fetch the next character and its fcd16 value.
+            int cpStart = pos;
+            int c = super.nextCodePoint();
+            int fcd16 = nfcImpl.getFCD16(c);
+            int leadCC = fcd16 >> 8;
+            if(leadCC == 0 && cpStart != segStart) {
+                // FCD boundary before this character.
+                pos = cpStart;
+                break;
+            }
+            checked.appendCodePoint(c);
+            if(leadCC != 0 && (prevCC > leadCC || CollationFCD.isFCD16OfTibetanCompositeVowel(fcd16))) {
+                // Fails FCD check. Find the next FCD boundary and normalize.
+                while(pos != limit) {
+                    cpStart = pos;
+                    c = super.nextCodePoint();
+                    if(nfcImpl.getFCD16(c) <= 0xff) {
+                        pos = cpStart;
+                        break;
+                    }
+                    checked.appendCodePoint(c);
+                }
+                normalize(checked);
+                segmentStart = segStart;
+                segmentLimit = pos;
+                state = IN_NORMALIZED;
+                pos = 0;
+                return;
+            }
+            prevCC = fcd16 & 0xff;
+            if(pos == limit || prevCC == 0) {
+                // FCD boundary after the last character.
+                break;
+            }
+        }
+        segmentLimit = pos;
+        pos = segStart;
+        assert(pos != segmentLimit);
+        state = IN_FCD_SEGMENT;
+    }
+
+    /**
+     * Switches to backward checking.
+     */
+    private void switchToBackward() {
+        assert(state == CHECK_FWD ||
+                (state == IN_FCD_SEGMENT && pos == segmentStart) ||
+                (state == IN_NORMALIZED && pos == 0));
+        if(state == CHECK_FWD) {
+            // Turn around from forward checking.
+            segmentLimit = pos;
+            if(pos == segmentStart) {
+                state = CHECK_BWD;  // Check backward.
+            } else {  // pos > segmentStart
+                state = IN_FCD_SEGMENT;  // Stay in FCD segment.
+            }
+        } else {
+            // Reached the start of the FCD segment.
+            if(state == IN_FCD_SEGMENT) {
+                // The input text segment is FCD, extend it backward.
+            } else {
+                // The input text segment needed to be normalized.
+                // Switch to checking backward from it.
+                segmentLimit = pos = segmentStart;
+            }
+            state = CHECK_BWD;
+        }
+    }
+
+    /**
+     * Extends the FCD text segment backward or normalizes around pos.
+     * To be called when state == CHECK_BWD && pos != start.
+     */
+    private void previousSegment() {
+        assert(state == CHECK_BWD && pos != start);
+        // The input text [pos..segmentLimit[ passes the FCD check.
+        int segLimit = pos;
+        // Collect the characters being checked, in case they need to be normalized.
+        if(checked == null) {
+            checked = new StringBuilder();
+        } else {
+            checked.setLength(0);
+        }
+        int nextCC = 0;
+        for(;;) {
+            // Fetch the previous character and its fcd16 value.
+            int cpLimit = pos;
+            int c = super.previousCodePoint();
+            int fcd16 = nfcImpl.getFCD16(c);
+            int trailCC = fcd16 & 0xff;
+            if(trailCC == 0 && cpLimit != segLimit) {
+                // FCD boundary after this character.
+                pos = cpLimit;
+                break;
+            }
+            checked.appendCodePoint(c);
+            if(trailCC != 0 && ((nextCC != 0 && trailCC > nextCC) ||
+                                CollationFCD.isFCD16OfTibetanCompositeVowel(fcd16))) {
+                // Fails FCD check. Find the previous FCD boundary and normalize.
+                while(fcd16 > 0xff && pos != start) {
+                    cpLimit = pos;
+                    c = super.previousCodePoint();
+                    fcd16 = nfcImpl.getFCD16(c);
+                    if(fcd16 == 0) {
+                        pos = cpLimit;
+                        break;
+                    }
+                    checked.appendCodePoint(c);
+                }
+                // StringBuilder.reverse() keeps surrogate pairs in order.
+                checked.reverse();
+                normalize(checked);
+                segmentLimit = segLimit;
+                segmentStart = pos;
+                state = IN_NORMALIZED;
+                pos = normalized.length();
+                return;
+            }
+            nextCC = fcd16 >> 8;
+            if(pos == start || nextCC == 0) {
+                // FCD boundary before the following character.
+                break;
+            }
+        }
+        segmentStart = pos;
+        pos = segLimit;
+        assert(pos != segmentStart);
+        state = IN_FCD_SEGMENT;
+    }
+
+    private void normalize(CharSequence s) {
+        if(normalized == null) {
+            normalized = new StringBuilder();
+        }
+        // NFD without argument checking.
+        nfcImpl.decompose(s, normalized);
+    }
+
+    /**
+     * The input text u8[start..limit[ passes the FCD check before segmentStart
+     * (CHECK_FWD) or after segmentLimit (CHECK_BWD),
+     * or is being processed in the FCD segment [segmentStart..segmentLimit[
+     * (IN_FCD_SEGMENT), or that segment was normalized into the normalized buffer
+     * and pos is an index into that buffer (IN_NORMALIZED).
+     */
+    private static final int CHECK_FWD = 0;
+    private static final int CHECK_BWD = 1;
+    private static final int IN_FCD_SEGMENT = 2;
+    private static final int IN_NORMALIZED = 3;
+
+    private int segmentStart;
+    private int segmentLimit;
+    private final Normalizer2Impl nfcImpl;
+    /** Characters being checked, in case they need to be normalized. */
+    private StringBuilder checked;
+    private StringBuilder normalized;
+    private int state;
+}
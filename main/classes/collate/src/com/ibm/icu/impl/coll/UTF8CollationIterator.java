@@ -0,0 +1,150 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+/*
+*******************************************************************************
+* UTF8CollationIterator.java, ported from utf8collationiterator.h/.cpp
+*******************************************************************************
+*/
+
+package com.ibm.icu.impl.coll;
+
+import com.ibm.icu.impl.UTF8;
+
+/**
+ * UTF-8 collation element and character iterator.
+ * Handles normalized UTF-8 text in a byte array range.
+ * Unnormalized text is handled by a subclass.
+ * Ill-formed byte sequences are treated as U+FFFD.
+ */
+public class UTF8CollationIterator extends CollationIterator {
+    /**
+     * Partial constructor, see {@link CollationIterator#CollationIterator(CollationData)}.
+     */
+    public UTF8CollationIterator(CollationData d) {
+        super(d);
+    }
+
+    public UTF8CollationIterator(CollationData d, boolean numeric, byte[] s, int start, int p, int limit) {
+        super(d, numeric);
+        u8 = s;
+        this.start = start;
+        pos = p;
+        this.limit = limit;
+    }
+
+    @Override
+    public void resetToOffset(int newOffset) {
+        reset();
+        pos = start + newOffset;
+    }
+
+    @Override
+    public int getOffset() {
+        return pos - start;
+    }
+
+    /**
+     * Sets the text to s[start..limit[ and the iteration position to p.
+     * Prefix matching can look back into the text before p.
+     */
+    public void setText(boolean numeric, byte[] s, int start, int p, int limit) {
+        reset(numeric);
+        u8 = s;
+        this.start = start;
+        pos = p;
+        this.limit = limit;
+    }
+
+    @Override
+    public int nextCodePoint() {
+        if(pos == limit) {
+            return Collation.SENTINEL_CP;
+        }
+        int c = u8[pos];
+        if(c >= 0) {
+            ++pos;
+            return c;
+        }
+        int length = UTF8.getSequenceLength(u8, pos, limit);
+        c = UTF8.getCodePoint(u8, pos, length);
+        pos += length > 0 ? length : -length;
+        return c;
+    }
+
+    @Override
+    public int previousCodePoint() {
+        if(pos == start) {
+            return Collation.SENTINEL_CP;
+        }
+        int c = u8[pos - 1];
+        if(c >= 0) {
+            --pos;
+            return c;
+        }
+        int p = UTF8.getPreviousStart(u8, start, pos);
+        c = UTF8.codePointAt(u8, p, pos);
+        pos = p;
+        return c;
+    }
+
+    @Override
+    protected long handleNextCE32() {
+        if(pos == limit) {
+            return NO_CP_AND_CE32;
+        }
+        // Inline decoding of the common one- to three-byte sequences.
+        int c = u8[pos++] & 0xff;
+        if(c < 0x80) {
+            return makeCodePointAndCE32Pair(c, trie.getFromU16SingleLead((char)c));
+        }
+        int t1, t2;
+        if(0xc2 <= c && c < 0xe0 && pos != limit && UTF8.isTrail(t1 = u8[pos])) {
+            // U+0080..U+07FF
+            c = ((c & 0x1f) << 6) | (t1 & 0x3f);
+            ++pos;
+            return makeCodePointAndCE32Pair(c, trie.getFromU16SingleLead((char)c));
+        } else if(0xe0 <= c && c <= 0xef && (pos + 1) < limit &&
+                UTF8.isTrail(t1 = u8[pos]) && UTF8.isTrail(t2 = u8[pos + 1]) &&
+                (c != 0xe0 || (t1 & 0x3f) >= 0x20) && (c != 0xed || (t1 & 0x3f) < 0x20)) {
+            // U+0800..U+FFFF except surrogates
+            c = ((c & 0xf) << 12) | ((t1 & 0x3f) << 6) | (t2 & 0x3f);
+            pos += 2;
+            return makeCodePointAndCE32Pair(c, trie.getFromU16SingleLead((char)c));
+        } else {
+            // Supplementary code points and ill-formed sequences.
+            int length = UTF8.getSequenceLength(u8, --pos, limit);
+            c = UTF8.getCodePoint(u8, pos, length);
+            pos += length > 0 ? length : -length;
+            return makeCodePointAndCE32Pair(c, data.getCE32(c));
+        }
+    }
+
+    /* boolean foundNULTerminator(); */
+
+    @Override
+    protected boolean forbidSurrogateCodePoints() {
+        return true;
+    }
+
+    @Override
+    protected void forwardNumCodePoints(int num) {
+        while(num > 0 && pos != limit) {
+            int length = UTF8.getSequenceLength(u8, pos, limit);
+            pos += length > 0 ? length : -length;
+            --num;
+        }
+    }
+
+    @Override
+    protected void backwardNumCodePoints(int num) {
+        while(num > 0 && pos != start) {
+            pos = UTF8.getPreviousStart(u8, start, pos);
+            --num;
+        }
+    }
+
+    protected byte[] u8;
+    protected int start;
+    protected int pos;
+    protected int limit;
+}
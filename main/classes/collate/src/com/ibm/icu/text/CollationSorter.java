@@ -0,0 +1,370 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import com.ibm.icu.impl.ParallelTasks;
+
+/**
+ * {@icu} Sorts strings in collation order via their sort keys.
+ *
+ * <p>Sorting with a Collator as the Comparator performs O(n log n) string comparisons,
+ * each of which iterates over collation elements.
+ * This class instead generates each sort key exactly once
+ * (see {@link RuleBasedCollator#getRawCollationKeys(CharSequence[], int, int, RawCollationKey, int[])})
+ * and then sorts the keys with a byte-wise radix sort.
+ * When an ExecutorService is supplied, both the key generation and
+ * the sorting of the key buckets are split into tasks that run on it.
+ *
+ * <p>The result is the same as from {@link java.util.Arrays#sort(Object[], java.util.Comparator)}
+ * with the collator: The sort is stable, and strings whose sort keys are equal keep their relative order.
+ * Null strings are not supported.
+ *
+ * <p>The collator is not modified. If it is not frozen, then each task uses its own clone of it.
+ *
+ * @draft ICU 58
+ * @provisional This API might change or be removed in a future release.
+ */
+public final class CollationSorter {
+    /**
+     * Minimum number of strings per key generation task.
+     */
+    private static final int MIN_CHUNK_LENGTH = 1024;
+    /**
+     * Ranges up to this length are sorted by insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    /**
+     * Number of radix sort levels (key bytes) before falling back to merge sort.
+     * Bounds the recursion depth for many strings with very long common key prefixes.
+     */
+    private static final int MAX_RADIX_DEPTH = 64;
+    /**
+     * Number of leading key bytes by which the calling thread splits the strings
+     * into buckets that are sorted in parallel.
+     */
+    private static final int MAX_SPLIT_DEPTH = 2;
+
+    private CollationSorter() {}
+
+    /**
+     * Sorts the array in collation order, in the calling thread.
+     *
+     * @param a the strings to be sorted
+     * @param coll the collator
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static <T extends CharSequence> void sort(T[] a, RuleBasedCollator coll) {
+        sort(a, coll, null);
+    }
+
+    /**
+     * Sorts the array in collation order.
+     * Sort key generation and sorting are split into tasks run on the executor.
+     *
+     * @param a the strings to be sorted
+     * @param coll the collator
+     * @param executor runs the tasks; if null, then the array is sorted in the calling thread
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static <T extends CharSequence> void sort(T[] a, RuleBasedCollator coll, ExecutorService executor) {
+        if (a.length < 2) {
+            return;
+        }
+        int[] order = getSortedOrder(a, coll, executor);
+        T[] unsorted = a.clone();
+        for (int i = 0; i < a.length; ++i) {
+            a[i] = unsorted[order[i]];
+        }
+    }
+
+    /**
+     * Sorts the list in collation order.
+     * Sort key generation and sorting are split into tasks run on the executor.
+     *
+     * @param list the strings to be sorted; must support {@link ListIterator#set(Object)}
+     * @param coll the collator
+     * @param executor runs the tasks; if null, then the list is sorted in the calling thread
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static <T extends CharSequence> void sort(List<T> list, RuleBasedCollator coll,
+            ExecutorService executor) {
+        if (list.size() < 2) {
+            return;
+        }
+        CharSequence[] a = list.toArray(new CharSequence[list.size()]);
+        int[] order = getSortedOrder(a, coll, executor);
+        ListIterator<T> iter = list.listIterator();
+        for (int i = 0; i < a.length; ++i) {
+            iter.next();
+            @SuppressWarnings("unchecked")
+            T s = (T)a[order[i]];
+            iter.set(s);
+        }
+    }
+
+    /**
+     * Sort keys for all of the strings, concatenated.
+     * Each key is terminated by a zero byte, and that is its only zero byte.
+     */
+    private static final class SortKeys {
+        SortKeys(byte[] bytes, int[] starts) {
+            this.bytes = bytes;
+            this.starts = starts;
+        }
+
+        /**
+         * Returns the key byte at the given depth.
+         * The key must not end before that depth.
+         */
+        int byteAt(int i, int depth) {
+            return bytes[starts[i] + depth] & 0xff;
+        }
+
+        /**
+         * Compares two keys starting at the given depth.
+         * The keys must be equal before that depth and must not end before it.
+         */
+        int compare(int i, int j, int depth) {
+            int p = starts[i] + depth;
+            int q = starts[j] + depth;
+            for (;;) {
+                int b = bytes[p++] & 0xff;
+                int c = bytes[q++] & 0xff;
+                if (b != c) {
+                    return b - c;
+                } else if (b == 0) {
+                    return 0;
+                }
+            }
+        }
+
+        final byte[] bytes;
+        final int[] starts;
+    }
+
+    /**
+     * Returns the indexes of the strings in sorted order.
+     */
+    private static int[] getSortedOrder(CharSequence[] a, RuleBasedCollator coll, ExecutorService executor) {
+        SortKeys keys = getSortKeys(a, coll, executor);
+        int n = a.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; ++i) {
+            order[i] = i;
+        }
+        int[] temp = new int[n];
+        int numChunks = executor == null ? 1 : ParallelTasks.getNumChunks(n, MIN_CHUNK_LENGTH);
+        if (numChunks == 1) {
+            radixSort(keys, order, temp, 0, n, 0);
+            return order;
+        }
+        // Distribute the strings by their leading key bytes in the calling thread,
+        // then sort the buckets in parallel.
+        // Buckets are disjoint ranges of order[] and temp[].
+        int splitLength = n / numChunks;
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        List<int[]> ranges = new ArrayList<int[]>();
+        ranges.add(new int[] { 0, n, 0 });
+        // Small buckets are grouped into tasks of about splitLength strings.
+        List<int[]> group = new ArrayList<int[]>();
+        int groupLength = 0;
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.remove(ranges.size() - 1);
+            int start = range[0];
+            int limit = range[1];
+            int depth = range[2];
+            if (limit - start > splitLength && depth < MAX_SPLIT_DEPTH) {
+                int[] bucketLimits = distribute(keys, order, temp, start, limit, depth);
+                // Skip bucket 0: Those keys ended and are equal.
+                int bucketStart = start + bucketLimits[0];
+                for (int b = 1; b < 256; ++b) {
+                    int bucketLimit = start + bucketLimits[b];
+                    if (bucketLimit - bucketStart > 1) {
+                        ranges.add(new int[] { bucketStart, bucketLimit, depth + 1 });
+                    }
+                    bucketStart = bucketLimit;
+                }
+            } else {
+                group.add(range);
+                groupLength += limit - start;
+                if (groupLength >= splitLength) {
+                    tasks.add(new RadixSortTask(keys, order, temp, group));
+                    group = new ArrayList<int[]>();
+                    groupLength = 0;
+                }
+            }
+        }
+        if (!group.isEmpty()) {
+            tasks.add(new RadixSortTask(keys, order, temp, group));
+        }
+        ParallelTasks.invokeAll(executor, tasks);
+        return order;
+    }
+
+    /**
+     * Sorts a group of disjoint ranges of the order array.
+     */
+    private static final class RadixSortTask implements Callable<Void> {
+        RadixSortTask(SortKeys keys, int[] order, int[] temp, List<int[]> ranges) {
+            this.keys = keys;
+            this.order = order;
+            this.temp = temp;
+            this.ranges = ranges;
+        }
+
+        public Void call() {
+            for (int[] range : ranges) {
+                radixSort(keys, order, temp, range[0], range[1], range[2]);
+            }
+            return null;
+        }
+
+        private final SortKeys keys;
+        private final int[] order;
+        private final int[] temp;
+        private final List<int[]> ranges;
+    }
+
+    private static SortKeys getSortKeys(final CharSequence[] a, RuleBasedCollator coll,
+            ExecutorService executor) {
+        int n = a.length;
+        int numChunks = executor == null ? 1 : ParallelTasks.getNumChunks(n, MIN_CHUNK_LENGTH);
+        if (numChunks == 1) {
+            int[] starts = new int[n + 1];
+            RawCollationKey keys = coll.getRawCollationKeys(a, 0, n, null, starts);
+            return new SortKeys(keys.bytes, starts);
+        }
+        final int[] chunkStarts = new int[numChunks + 1];
+        final int[][] chunkOffsets = new int[numChunks][];
+        List<Callable<RawCollationKey>> tasks = new ArrayList<Callable<RawCollationKey>>(numChunks);
+        for (int c = 0; c < numChunks; ++c) {
+            final int start = (int)((long)n * c / numChunks);
+            final int limit = (int)((long)n * (c + 1) / numChunks);
+            final int[] offsets = chunkOffsets[c] = new int[limit - start + 1];
+            final RuleBasedCollator chunkColl = coll.isFrozen() ? coll : coll.cloneAsThawed();
+            chunkStarts[c] = start;
+            tasks.add(new Callable<RawCollationKey>() {
+                public RawCollationKey call() {
+                    return chunkColl.getRawCollationKeys(a, start, limit, null, offsets);
+                }
+            });
+        }
+        chunkStarts[numChunks] = n;
+        List<RawCollationKey> chunkKeys = ParallelTasks.invokeAll(executor, tasks);
+        // Concatenate the chunks' keys.
+        long length = 0;
+        for (RawCollationKey keys : chunkKeys) {
+            length += keys.size;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("total sort key length exceeds 2GB");
+        }
+        byte[] bytes = new byte[(int)length];
+        int[] starts = new int[n + 1];
+        int base = 0;
+        for (int c = 0; c < numChunks; ++c) {
+            RawCollationKey keys = chunkKeys.get(c);
+            System.arraycopy(keys.bytes, 0, bytes, base, keys.size);
+            int[] offsets = chunkOffsets[c];
+            for (int i = chunkStarts[c], j = 0; i < chunkStarts[c + 1]; ++i, ++j) {
+                starts[i] = base + offsets[j];
+            }
+            base += keys.size;
+        }
+        starts[n] = base;
+        return new SortKeys(bytes, starts);
+    }
+
+    /**
+     * Stably distributes order[start..limit[ by the key byte at the given depth.
+     *
+     * @return the limit of each byte value's bucket, relative to start
+     */
+    private static int[] distribute(SortKeys keys, int[] order, int[] temp, int start, int limit, int depth) {
+        int[] counts = new int[257];
+        for (int i = start; i < limit; ++i) {
+            ++counts[keys.byteAt(order[i], depth) + 1];
+        }
+        for (int b = 0; b < 256; ++b) {
+            counts[b + 1] += counts[b];
+        }
+        // Now counts[b] is the start of the bucket for byte value b.
+        for (int i = start; i < limit; ++i) {
+            int k = order[i];
+            temp[start + counts[keys.byteAt(k, depth)]++] = k;
+        }
+        // Now counts[b] is the limit of the bucket for byte value b.
+        System.arraycopy(temp, start, order, start, limit - start);
+        return counts;
+    }
+
+    /**
+     * Stable MSD radix sort of order[start..limit[
+     * whose keys are all equal before the given depth.
+     */
+    private static void radixSort(SortKeys keys, int[] order, int[] temp, int start, int limit, int depth) {
+        if (limit - start <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, order, start, limit, depth);
+            return;
+        } else if (depth >= MAX_RADIX_DEPTH) {
+            mergeSort(keys, order, temp, start, limit, depth);
+            return;
+        }
+        int[] bucketLimits = distribute(keys, order, temp, start, limit, depth);
+        // Skip bucket 0: Those keys ended and are equal.
+        int bucketStart = start + bucketLimits[0];
+        for (int b = 1; b < 256; ++b) {
+            int bucketLimit = start + bucketLimits[b];
+            if (bucketLimit - bucketStart > 1) {
+                radixSort(keys, order, temp, bucketStart, bucketLimit, depth + 1);
+            }
+            bucketStart = bucketLimit;
+        }
+    }
+
+    private static void mergeSort(SortKeys keys, int[] order, int[] temp, int start, int limit, int depth) {
+        if (limit - start <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, order, start, limit, depth);
+            return;
+        }
+        int middle = (start + limit) >>> 1;
+        mergeSort(keys, order, temp, start, middle, depth);
+        mergeSort(keys, order, temp, middle, limit, depth);
+        if (keys.compare(order[middle - 1], order[middle], depth) <= 0) {
+            return;  // already in order
+        }
+        System.arraycopy(order, start, temp, start, limit - start);
+        int i = start, j = middle, k = start;
+        while (i < middle && j < limit) {
+            // Take from the right half only if strictly less, for stability.
+            order[k++] = keys.compare(temp[j], temp[i], depth) < 0 ? temp[j++] : temp[i++];
+        }
+        while (i < middle) {
+            order[k++] = temp[i++];
+        }
+        while (j < limit) {
+            order[k++] = temp[j++];
+        }
+    }
+
+    private static void insertionSort(SortKeys keys, int[] order, int start, int limit, int depth) {
+        for (int i = start + 1; i < limit; ++i) {
+            int k = order[i];
+            int j = i - 1;
+            while (j >= start && keys.compare(order[j], k, depth) > 0) {
+                order[j + 1] = order[j];
+                --j;
+            }
+            order[j + 1] = k;
+        }
+    }
+}
@@ -13,12 +13,13 @@ import java.lang.reflect.Method;
 import java.text.CharacterIterator;
 import java.text.ParseException;
 import java.util.Arrays;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.ibm.icu.impl.ClassLoaderUtil;
 import com.ibm.icu.impl.Normalizer2Impl;
 import com.ibm.icu.impl.Normalizer2Impl.ReorderingBuffer;
+import com.ibm.icu.impl.UTF8;
 import com.ibm.icu.impl.Utility;
 import com.ibm.icu.impl.coll.BOCSU;
 import com.ibm.icu.impl.coll.Collation;
@@ -33,10 +34,14 @@ import com.ibm.icu.impl.coll.CollationRoot;
 import com.ibm.icu.impl.coll.CollationSettings;
 import com.ibm.icu.impl.coll.CollationTailoring;
 import com.ibm.icu.impl.coll.ContractionsAndExpansions;
+import com.ibm.icu.impl.coll.FCDIterCollationIterator;
 import com.ibm.icu.impl.coll.FCDUTF16CollationIterator;
+import com.ibm.icu.impl.coll.FCDUTF8CollationIterator;
+import com.ibm.icu.impl.coll.IterCollationIterator;
 import com.ibm.icu.impl.coll.SharedObject;
 import com.ibm.icu.impl.coll.TailoredSet;
 import com.ibm.icu.impl.coll.UTF16CollationIterator;
+import com.ibm.icu.impl.coll.UTF8CollationIterator;
 import com.ibm.icu.lang.UScript;
 import com.ibm.icu.util.ULocale;
 import com.ibm.icu.util.VersionInfo;
@@ -308,7 +313,7 @@ public final class RuleBasedCollator extends Collator {
      */
     @Override
     public boolean isFrozen() {
-        return frozenLock != null;
+        return frozenBuffers != null;
     }
 
     /**
@@ -319,10 +324,13 @@ public final class RuleBasedCollator extends Collator {
     @Override
     public Collator freeze() {
         if (!isFrozen()) {
-            frozenLock = new ReentrantLock();
-            if (collationBuffer == null) {
-                collationBuffer = new CollationBuffer(data);
+            AtomicReferenceArray<CollationBuffer> buffers =
+                    new AtomicReferenceArray<CollationBuffer>(frozenBufferPoolSize());
+            if (collationBuffer != null) {
+                buffers.set(0, collationBuffer);
+                collationBuffer = null;
             }
+            frozenBuffers = buffers;
         }
         return this;
     }
@@ -340,7 +348,7 @@ public final class RuleBasedCollator extends Collator {
             // except in cases where we can't
             result.settings = settings.clone();
             result.collationBuffer = null;
-            result.frozenLock = null;
+            result.frozenBuffers = null;
             return result;
         } catch (CloneNotSupportedException e) {
             // Clone is implemented
@@ -940,6 +948,7 @@ public final class RuleBasedCollator extends Collator {
     private void setFastLatinOptions(CollationSettings ownedSettings) {
         ownedSettings.fastLatinOptions = CollationFastLatin.getOptions(
                 data, ownedSettings, ownedSettings.fastLatinPrimaries);
+        CollationFastLatin.setScriptOptions(data, ownedSettings);
     }
 
     // public getters --------------------------------------------------------
@@ -1099,6 +1108,236 @@ public final class RuleBasedCollator extends Collator {
         }
     }
 
+    /**
+     * {@icu} Gets the simpler form of a CollationKey for the UTF-8 text in source[start..limit[
+     * and stores the result into the user provided argument key.
+     * This is equivalent to calling {@link #getRawCollationKey(String, RawCollationKey)}
+     * with the decoded string, without creating the string.
+     * Ill-formed UTF-8 byte sequences are treated as U+FFFD.
+     *
+     * @param source UTF-8 text
+     * @param start index of the first byte of the text
+     * @param limit index after the last byte of the text
+     * @param key output RawCollationKey to store results
+     * @return If key is null, a new instance of RawCollationKey will be created and returned, otherwise the user
+     *         provided key will be returned.
+     * @throws IllegalArgumentException if the range is out of bounds
+     * @see #getRawCollationKey(String, RawCollationKey)
+     * @see #compareUTF8(byte[], int, int, byte[], int, int)
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public RawCollationKey getRawCollationKeyUTF8(byte[] source, int start, int limit, RawCollationKey key) {
+        checkUTF8Range(source, start, limit);
+        if (key == null) {
+            key = new RawCollationKey(2 * (limit - start) + 10);
+        } else if (key.bytes == null) {
+            key.bytes = new byte[2 * (limit - start) + 10];
+        }
+        CollationBuffer buffer = null;
+        try {
+            buffer = getCollationBuffer();
+            CollationKeyByteSink sink = new CollationKeyByteSink(key);
+            writeSortKeyUTF8(source, start, limit, sink, buffer);
+            key.size = sink.NumberOfBytesAppended();
+        } finally {
+            releaseCollationBuffer(buffer);
+        }
+        return key;
+    }
+
+    private static void checkUTF8Range(byte[] s, int start, int limit) {
+        if (start < 0 || start > limit || limit > s.length) {
+            throw new IllegalArgumentException("Illegal range [" + start + ", " + limit + ")");
+        }
+    }
+
+    /**
+     * {@icu} Writes the sort keys for a range of strings one after another into one byte array.
+     * This is equivalent to calling {@link #getRawCollationKey(String, RawCollationKey)}
+     * for each string, but it sets up the collation iterators only once
+     * and does not allocate a byte array per key.
+     *
+     * <p>The key for sources[start + i] is written to
+     * keys.bytes[offsets[i]..offsets[i + 1]-1] including its terminating zero byte,
+     * and keys.size is set to the total length of all of the keys.
+     * Sort keys can be compared with each other via unsigned byte comparisons.
+     *
+     * @param sources the strings to be transformed into sort keys
+     * @param start index of the first string in sources
+     * @param limit index after the last string in sources
+     * @param keys output RawCollationKey to store all of the keys; its byte array is grown as necessary
+     * @param offsets receives the limit-start+1 key boundaries in keys.bytes
+     * @return If keys is null, a new instance of RawCollationKey will be created and returned,
+     *         otherwise the user provided keys will be returned.
+     * @throws IllegalArgumentException if the range is out of bounds or offsets is too short
+     * @see #getRawCollationKey(String, RawCollationKey)
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public RawCollationKey getRawCollationKeys(CharSequence[] sources, int start, int limit,
+            RawCollationKey keys, int[] offsets) {
+        if (start < 0 || start > limit || limit > sources.length) {
+            throw new IllegalArgumentException("Illegal range [" + start + ", " + limit + ")");
+        }
+        return getRawCollationKeys(Arrays.asList(sources).subList(start, limit), keys, offsets);
+    }
+
+    /**
+     * {@icu} Writes the sort keys for a list of strings one after another into one byte array.
+     * See {@link #getRawCollationKeys(CharSequence[], int, int, RawCollationKey, int[])}.
+     *
+     * @param sources the strings to be transformed into sort keys
+     * @param keys output RawCollationKey to store all of the keys; its byte array is grown as necessary
+     * @param offsets receives the sources.size()+1 key boundaries in keys.bytes
+     * @return If keys is null, a new instance of RawCollationKey will be created and returned,
+     *         otherwise the user provided keys will be returned.
+     * @throws IllegalArgumentException if offsets is too short
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public RawCollationKey getRawCollationKeys(List<? extends CharSequence> sources,
+            RawCollationKey keys, int[] offsets) {
+        int count = sources.size();
+        if (offsets.length <= count) {
+            throw new IllegalArgumentException("offsets.length must be greater than the number of strings");
+        }
+        if (keys == null) {
+            keys = new RawCollationKey(simpleKeysLengthEstimate(sources));
+        } else if (keys.bytes == null) {
+            keys.bytes = new byte[simpleKeysLengthEstimate(sources)];
+        }
+        CollationBuffer buffer = null;
+        try {
+            buffer = getCollationBuffer();
+            CollationKeyByteSink sink = new CollationKeyByteSink(keys);
+            offsets[0] = 0;
+            for (int i = 0; i < count;) {
+                writeSortKey(sources.get(i), sink, buffer);
+                offsets[++i] = sink.NumberOfBytesAppended();
+            }
+            keys.size = sink.NumberOfBytesAppended();
+        } finally {
+            releaseCollationBuffer(buffer);
+        }
+        return keys;
+    }
+
+    /**
+     * {@icu} Gets the next count bytes of the sort key for the text of the iterator.
+     * Sort key parts can be used instead of complete sort keys for incremental,
+     * prefix-bounded comparisons, for example in range scans over an index
+     * of very long strings: A caller can fetch and compare only as many
+     * sort key bytes as needed to decide the order.
+     *
+     * <p>For the first part of a sort key, state[0] and state[1] must be 0.
+     * This method updates the state so that the next call with the same
+     * iterator text and state continues where this one stopped.
+     * The iterator is reset to its start as needed; its index on return is undefined.
+     *
+     * <p>Concatenating all of the parts yields the same bytes as
+     * {@link #getRawCollationKey(String, RawCollationKey)} except for the terminating 00 byte.
+     * After the last key byte, the remainder of dest is filled with 00 bytes,
+     * and further calls return 0.
+     *
+     * <p>The primary level of the first part is computed only as far as necessary,
+     * so that the first few bytes of a long string's key are cheap.
+     * Parts of higher levels require iterating over the whole text again.
+     *
+     * @param iter the text; the same text must be passed with each call for one sort key
+     * @param state two ints of state between calls
+     * @param dest receives up to count sort key bytes starting at dest[0]
+     * @param count the number of bytes to write
+     * @return the number of sort key bytes written to dest;
+     *         less than count only when the end of the sort key has been reached
+     * @throws IllegalArgumentException if iter or state is null, state.length&lt;2,
+     *         count&lt;0 or dest is shorter than count
+     * @see #getRawCollationKey(String, RawCollationKey)
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int nextSortKeyPart(UCharacterIterator iter, int[] state, byte[] dest, int count) {
+        if (iter == null || state == null || state.length < 2 || count < 0 ||
+                (count > 0 && (dest == null || dest.length < count))) {
+            throw new IllegalArgumentException("Illegal nextSortKeyPart() argument");
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        // The sink capacity is the array length.
+        byte[] part = dest.length == count ? dest : new byte[count];
+        FixedSortKeyByteSink sink = new FixedSortKeyByteSink(part);
+        sink.IgnoreBytes(state[1]);
+        iter.setToStart();
+
+        int level = state[0];
+        if (level <= Collation.QUATERNARY_LEVEL) {
+            boolean numeric = settings.readOnly().isNumeric();
+            PartLevelCallback callback = new PartLevelCallback(sink);
+            CollationIterator ci;
+            if(settings.readOnly().dontCheckFCD()) {
+                ci = new IterCollationIterator(data, numeric, iter);
+            } else {
+                ci = new FCDIterCollationIterator(data, numeric, iter, 0);
+            }
+            CollationKeys.writeSortKeyUpToQuaternary(
+                    ci, data.compressibleBytes, settings.readOnly(),
+                    sink, level, callback, false);
+            if (sink.NumberOfBytesAppended() > count) {
+                state[0] = callback.getLevel();
+                state[1] = callback.getLevelCapacity();
+                return copySortKeyPart(part, dest, count);
+            }
+            // All of the normal levels are done.
+            if (settings.readOnly().getStrength() == IDENTICAL) {
+                level = Collation.IDENTICAL_LEVEL;
+                iter.setToStart();
+            }
+            // else fall through to setting ZERO_LEVEL
+        }
+
+        if (level == Collation.IDENTICAL_LEVEL) {
+            int levelCapacity = sink.GetRemainingCapacity();
+            StringBuilder s = new StringBuilder();
+            for (;;) {
+                int c = iter.next();
+                if (c < 0) {
+                    break;
+                }
+                s.append((char)c);
+            }
+            // writeIdenticalLevel() writes directly into a growable key,
+            // so we write the whole level there and append the part that is needed.
+            RawCollationKey identical = new RawCollationKey(s.length() + 10);
+            CollationKeyByteSink identicalSink = new CollationKeyByteSink(identical);
+            writeIdenticalLevel(s, identicalSink);
+            sink.Append(identical.bytes, identicalSink.NumberOfBytesAppended());
+            if (sink.NumberOfBytesAppended() > count) {
+                state[0] = level;
+                state[1] = levelCapacity;
+                return copySortKeyPart(part, dest, count);
+            }
+        }
+
+        // ZERO_LEVEL: Fill the remainder of dest with 00 bytes.
+        state[0] = Collation.ZERO_LEVEL;
+        state[1] = 0;
+        int length = sink.NumberOfBytesAppended();
+        for (int i = length; i < count; ++i) {
+            part[i] = 0;
+        }
+        copySortKeyPart(part, dest, count);
+        return length;
+    }
+
+    private static int copySortKeyPart(byte[] part, byte[] dest, int count) {
+        if (part != dest) {
+            System.arraycopy(part, 0, dest, 0, count);
+        }
+        return count;
+    }
+
     private static final class CollationKeyByteSink extends SortKeyByteSink {
         CollationKeyByteSink(RawCollationKey key) {
             super(key.bytes);
@@ -1135,6 +1374,67 @@ public final class RuleBasedCollator extends Collator {
         private RawCollationKey key_;
     }
 
+    /**
+     * Writes sort key bytes into a fixed-capacity array and drops the rest,
+     * for nextSortKeyPart().
+     */
+    private static final class FixedSortKeyByteSink extends SortKeyByteSink {
+        FixedSortKeyByteSink(byte[] dest) {
+            super(dest);
+        }
+
+        @Override
+        protected void AppendBeyondCapacity(byte[] bytes, int start, int n, int length) {
+            // n > 0 && appended_ > capacity_
+            // Fill the buffer completely.
+            int available = buffer_.length - length;
+            if (available > 0) {
+                System.arraycopy(bytes, start, buffer_, length, available);
+            }
+        }
+
+        @Override
+        protected boolean Resize(int appendCapacity, int length) {
+            return false;
+        }
+    }
+
+    /**
+     * Remembers the last level that is at least partially written to the sink,
+     * and the number of bytes of that level that fit, for nextSortKeyPart().
+     */
+    private static final class PartLevelCallback extends CollationKeys.LevelCallback {
+        PartLevelCallback(SortKeyByteSink s) {
+            sink = s;
+            level = Collation.PRIMARY_LEVEL;
+            levelCapacity = sink.GetRemainingCapacity();
+        }
+
+        @Override
+        protected boolean needToWrite(int l) {
+            if (!sink.Overflowed()) {
+                // Remember a level that will be at least partially written.
+                level = l;
+                levelCapacity = sink.GetRemainingCapacity();
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        int getLevel() {
+            return level;
+        }
+
+        int getLevelCapacity() {
+            return levelCapacity;
+        }
+
+        private final SortKeyByteSink sink;
+        private int level;
+        private int levelCapacity;
+    }
+
     private RawCollationKey getRawCollationKey(CharSequence source, RawCollationKey key, CollationBuffer buffer) {
         if (key == null) {
             key = new RawCollationKey(simpleKeyLengthEstimate(source));
@@ -1151,6 +1451,21 @@ public final class RuleBasedCollator extends Collator {
         return 2 * source.length() + 10;
     }
 
+    /**
+     * Initial capacity for a batch of sort keys: enough for the first few keys,
+     * but bounded so that a large batch does not preallocate a huge array.
+     * The CollationKeyByteSink grows the array as needed.
+     */
+    private int simpleKeysLengthEstimate(List<? extends CharSequence> sources) {
+        int estimate = 0;
+        for (int i = 0; i < sources.size() && estimate < MAX_KEYS_LENGTH_ESTIMATE; ++i) {
+            estimate += Math.min(simpleKeyLengthEstimate(sources.get(i)), MAX_KEYS_LENGTH_ESTIMATE);
+        }
+        return Math.min(estimate, MAX_KEYS_LENGTH_ESTIMATE);
+    }
+
+    private static final int MAX_KEYS_LENGTH_ESTIMATE = 4096;
+
     private void writeSortKey(CharSequence s, CollationKeyByteSink sink, CollationBuffer buffer) {
         boolean numeric = settings.readOnly().isNumeric();
         if(settings.readOnly().dontCheckFCD()) {
@@ -1172,6 +1487,30 @@ public final class RuleBasedCollator extends Collator {
         sink.Append(Collation.TERMINATOR_BYTE);
     }
 
+    private void writeSortKeyUTF8(byte[] s, int start, int limit,
+            CollationKeyByteSink sink, CollationBuffer buffer) {
+        buffer.initUTF8(data);
+        boolean numeric = settings.readOnly().isNumeric();
+        CollationIterator iter;
+        if(settings.readOnly().dontCheckFCD()) {
+            buffer.leftUTF8CollIter.setText(numeric, s, start, start, limit);
+            iter = buffer.leftUTF8CollIter;
+        } else {
+            buffer.leftFCDUTF8Iter.setText(numeric, s, start, start, limit);
+            iter = buffer.leftFCDUTF8Iter;
+        }
+        CollationKeys.writeSortKeyUpToQuaternary(
+                iter, data.compressibleBytes, settings.readOnly(),
+                sink, Collation.PRIMARY_LEVEL,
+                CollationKeys.SIMPLE_LEVEL_FALLBACK, true);
+        if(settings.readOnly().getStrength() == IDENTICAL) {
+            // The identical level is written from UTF-16 NFD text.
+            buffer.utf16.setLength(0);
+            writeIdenticalLevel(UTF8.appendUTF16(s, start, limit, buffer.utf16), sink);
+        }
+        sink.Append(Collation.TERMINATOR_BYTE);
+    }
+
     private void writeIdenticalLevel(CharSequence s, CollationKeyByteSink sink) {
         // NFD quick check
         int nfdQCYesLimit = data.nfcImpl.decompose(s, 0, s.length(), null);
@@ -1483,6 +1822,34 @@ public final class RuleBasedCollator extends Collator {
         return doCompare(source, target);
     }
 
+    /**
+     * {@icu} Compares two strings in UTF-8, left[leftStart..leftLimit[ and right[rightStart..rightLimit[,
+     * according to the collation rules, strength and decomposition mode for this RuleBasedCollator.
+     * This is equivalent to calling {@link #compare(String, String)} with the decoded strings,
+     * without creating the strings.
+     * Ill-formed UTF-8 byte sequences are treated as U+FFFD.
+     *
+     * @param left the source text in UTF-8
+     * @param leftStart index of the first byte of the source text
+     * @param leftLimit index after the last byte of the source text
+     * @param right the target text in UTF-8
+     * @param rightStart index of the first byte of the target text
+     * @param rightLimit index after the last byte of the target text
+     * @return Returns an integer value. Value is less than zero if source is less than target, value is zero if source
+     *         and target are equal, value is greater than zero if source is greater than target.
+     * @throws IllegalArgumentException if a range is out of bounds
+     * @see #compare(String, String)
+     * @see #getRawCollationKeyUTF8(byte[], int, int, RawCollationKey)
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int compareUTF8(byte[] left, int leftStart, int leftLimit,
+            byte[] right, int rightStart, int rightLimit) {
+        checkUTF8Range(left, leftStart, leftLimit);
+        checkUTF8Range(right, rightStart, rightLimit);
+        return doCompareUTF8(left, leftStart, leftLimit, right, rightStart, rightLimit);
+    }
+
     /**
     * Abstract iterator for identical-level string comparisons.
     * Returns FCD code points and handles temporary switching to NFD.
@@ -1588,6 +1955,51 @@ public final class RuleBasedCollator extends Collator {
         private StringBuilder str;
     }
 
+    private static final class UTF8NFDIterator extends NFDIterator {
+        UTF8NFDIterator() {}
+        void setText(byte[] text, int start, int limit) {
+            reset();
+            s = text;
+            pos = start;
+            this.limit = limit;
+        }
+
+        @Override
+        protected int nextRawCodePoint() {
+            if(pos == limit) { return Collation.SENTINEL_CP; }
+            int c = s[pos];
+            if(c >= 0) {
+                ++pos;
+                return c;
+            }
+            int length = UTF8.getSequenceLength(s, pos, limit);
+            c = UTF8.getCodePoint(s, pos, length);
+            pos += length > 0 ? length : -length;
+            return c;
+        }
+
+        private byte[] s;
+        private int pos;
+        private int limit;
+    }
+
+    private static final class FCDUTF8NFDIterator extends NFDIterator {
+        FCDUTF8NFDIterator(CollationData data) {
+            u8ci = new FCDUTF8CollationIterator(data);
+        }
+        void setText(byte[] text, int start, int limit) {
+            reset();
+            u8ci.setText(false, text, start, start, limit);
+        }
+
+        @Override
+        protected int nextRawCodePoint() {
+            return u8ci.nextCodePoint();
+        }
+
+        private FCDUTF8CollationIterator u8ci;
+    }
+
     private static final int compareNFDIter(Normalizer2Impl nfcImpl, NFDIterator left, NFDIterator right) {
         for(;;) {
             // Fetch the next FCD code point from each string.
@@ -1675,7 +2087,20 @@ public final class RuleBasedCollator extends Collator {
                                                       fastLatinOptions,
                                                       left, right, equalPrefixLength);
         } else {
-            result = CollationFastLatin.BAIL_OUT_RESULT;
+            // Greek or Cyrillic text?
+            int script = CollationFastLatin.getScript(
+                    equalPrefixLength == left.length() ? -1 : left.charAt(equalPrefixLength),
+                    equalPrefixLength == right.length() ? -1 : right.charAt(equalPrefixLength));
+            int scriptOptions;
+            if(script >= 0 && (scriptOptions = roSettings.fastScriptOptions[script]) >= 0) {
+                result = CollationFastLatin.compareScriptUTF16(script,
+                                                                data.fastScriptTables[script],
+                                                                roSettings.fastScriptPrimaries[script],
+                                                                scriptOptions,
+                                                                left, right, equalPrefixLength);
+            } else {
+                result = CollationFastLatin.BAIL_OUT_RESULT;
+            }
         }
 
         if(result == CollationFastLatin.BAIL_OUT_RESULT) {
@@ -1720,6 +2145,118 @@ public final class RuleBasedCollator extends Collator {
         }
     }
 
+    private int doCompareUTF8(byte[] left, int leftStart, int leftLimit,
+            byte[] right, int rightStart, int rightLimit) {
+        if(left == right && leftStart == rightStart && leftLimit == rightLimit) {
+            return Collation.EQUAL;
+        }
+
+        // Identical-prefix test.
+        int leftLength = leftLimit - leftStart;
+        int rightLength = rightLimit - rightStart;
+        int equalPrefixLength = 0;
+        for(;;) {
+            if(equalPrefixLength == leftLength) {
+                if(equalPrefixLength == rightLength) { return Collation.EQUAL; }
+                break;
+            } else if(equalPrefixLength == rightLength ||
+                      left[leftStart + equalPrefixLength] != right[rightStart + equalPrefixLength]) {
+                break;
+            }
+            ++equalPrefixLength;
+        }
+
+        CollationSettings roSettings = settings.readOnly();
+        boolean numeric = roSettings.isNumeric();
+        if(equalPrefixLength > 0) {
+            // Back up to the start of a partially-equal character.
+            if((equalPrefixLength != leftLength && UTF8.isTrail(left[leftStart + equalPrefixLength])) ||
+                    (equalPrefixLength != rightLength &&
+                        UTF8.isTrail(right[rightStart + equalPrefixLength]))) {
+                while(--equalPrefixLength > 0 && UTF8.isTrail(left[leftStart + equalPrefixLength])) {}
+            }
+            if(equalPrefixLength > 0 &&
+                    ((equalPrefixLength != leftLength &&
+                        data.isUnsafeBackward(
+                            UTF8.codePointAt(left, leftStart + equalPrefixLength, leftLimit), numeric)) ||
+                    (equalPrefixLength != rightLength &&
+                        data.isUnsafeBackward(
+                            UTF8.codePointAt(right, rightStart + equalPrefixLength, rightLimit), numeric)))) {
+                // Identical prefix: Back up to the start of a contraction or reordering sequence.
+                int p = leftStart + equalPrefixLength;
+                do {
+                    p = UTF8.getPreviousStart(left, leftStart, p);
+                } while(p > leftStart && data.isUnsafeBackward(UTF8.codePointAt(left, p, leftLimit), numeric));
+                equalPrefixLength = p - leftStart;
+            }
+            // See the notes in the UTF-16 version.
+        }
+
+        int result;
+        int fastLatinOptions = roSettings.fastLatinOptions;
+        if(fastLatinOptions >= 0 &&
+                (equalPrefixLength == leftLength ||
+                    (left[leftStart + equalPrefixLength] & 0xff) <= CollationFastLatin.LATIN_MAX_UTF8_LEAD) &&
+                (equalPrefixLength == rightLength ||
+                    (right[rightStart + equalPrefixLength] & 0xff) <= CollationFastLatin.LATIN_MAX_UTF8_LEAD)) {
+            result = CollationFastLatin.compareUTF8(data.fastLatinTable,
+                                                     roSettings.fastLatinPrimaries,
+                                                     fastLatinOptions,
+                                                     left, leftStart, leftLimit,
+                                                     right, rightStart, rightLimit,
+                                                     equalPrefixLength);
+        } else {
+            result = CollationFastLatin.BAIL_OUT_RESULT;
+        }
+
+        if(result == CollationFastLatin.BAIL_OUT_RESULT) {
+            CollationBuffer buffer = null;
+            try {
+                buffer = getCollationBuffer();
+                buffer.initUTF8(data);
+                if(roSettings.dontCheckFCD()) {
+                    buffer.leftUTF8CollIter.setText(numeric, left, leftStart,
+                            leftStart + equalPrefixLength, leftLimit);
+                    buffer.rightUTF8CollIter.setText(numeric, right, rightStart,
+                            rightStart + equalPrefixLength, rightLimit);
+                    result = CollationCompare.compareUpToQuaternary(
+                            buffer.leftUTF8CollIter, buffer.rightUTF8CollIter, roSettings);
+                } else {
+                    buffer.leftFCDUTF8Iter.setText(numeric, left, leftStart,
+                            leftStart + equalPrefixLength, leftLimit);
+                    buffer.rightFCDUTF8Iter.setText(numeric, right, rightStart,
+                            rightStart + equalPrefixLength, rightLimit);
+                    result = CollationCompare.compareUpToQuaternary(
+                            buffer.leftFCDUTF8Iter, buffer.rightFCDUTF8Iter, roSettings);
+                }
+            } finally {
+                releaseCollationBuffer(buffer);
+            }
+        }
+        if(result != Collation.EQUAL || roSettings.getStrength() < Collator.IDENTICAL) {
+            return result;
+        }
+
+        CollationBuffer buffer = null;
+        try {
+            buffer = getCollationBuffer();
+            buffer.initUTF8(data);
+            // Compare identical level.
+            Normalizer2Impl nfcImpl = data.nfcImpl;
+            if(roSettings.dontCheckFCD()) {
+                buffer.leftUTF8NFDIter.setText(left, leftStart + equalPrefixLength, leftLimit);
+                buffer.rightUTF8NFDIter.setText(right, rightStart + equalPrefixLength, rightLimit);
+                return compareNFDIter(nfcImpl, buffer.leftUTF8NFDIter, buffer.rightUTF8NFDIter);
+            } else {
+                buffer.leftFCDUTF8NFDIter.setText(left, leftStart + equalPrefixLength, leftLimit);
+                buffer.rightFCDUTF8NFDIter.setText(right, rightStart + equalPrefixLength, rightLimit);
+                return compareNFDIter(nfcImpl, buffer.leftFCDUTF8NFDIter, buffer.rightFCDUTF8NFDIter);
+            }
+        } finally {
+            releaseCollationBuffer(buffer);
+        }
+    }
+
     // package private constructors ------------------------------------------
 
     RuleBasedCollator(CollationTailoring t, ULocale vl) {
@@ -1754,8 +2291,28 @@ public final class RuleBasedCollator extends Collator {
 
     /**
      * Frozen state of the collator.
+     * Non-null only when frozen: a striped pool of CollationBuffers
+     * which lets concurrent threads compare without a shared lock.
+     * A slot holds null while its buffer is in use (or not yet created).
+     */
+    private AtomicReferenceArray<CollationBuffer> frozenBuffers;
+
+    /**
+     * Maximum number of slots to probe in the frozen buffer pool
+     * before allocating a new CollationBuffer.
      */
-    private Lock frozenLock;
+    private static final int FROZEN_BUFFER_PROBES = 2;
+
+    private static int frozenBufferPoolSize() {
+        // Power of two, about twice the number of processors, so that
+        // threads rarely hash to the same slot at the same time.
+        int n = 2 * Runtime.getRuntime().availableProcessors();
+        int size = 4;
+        while (size < n && size < 256) {
+            size <<= 1;
+        }
+        return size;
+    }
 
     private static final class CollationBuffer {
         private CollationBuffer(CollationData data) {
@@ -1769,6 +2326,23 @@ public final class RuleBasedCollator extends Collator {
             rightFCDUTF16NFDIter = new FCDUTF16NFDIterator();
         }
 
+        /**
+         * Creates the UTF-8 iterators on first use,
+         * so that a buffer used only for UTF-16 text does not pay for them.
+         */
+        void initUTF8(CollationData data) {
+            if(leftUTF8CollIter != null) { return; }
+            leftUTF8CollIter = new UTF8CollationIterator(data);
+            rightUTF8CollIter = new UTF8CollationIterator(data);
+            leftFCDUTF8Iter = new FCDUTF8CollationIterator(data);
+            rightFCDUTF8Iter = new FCDUTF8CollationIterator(data);
+            leftUTF8NFDIter = new UTF8NFDIterator();
+            rightUTF8NFDIter = new UTF8NFDIterator();
+            leftFCDUTF8NFDIter = new FCDUTF8NFDIterator(data);
+            rightFCDUTF8NFDIter = new FCDUTF8NFDIterator(data);
+            utf16 = new StringBuilder();
+        }
+
         UTF16CollationIterator leftUTF16CollIter;
         UTF16CollationIterator rightUTF16CollIter;
         FCDUTF16CollationIterator leftFCDUTF16Iter;
@@ -1779,6 +2353,19 @@ public final class RuleBasedCollator extends Collator {
         FCDUTF16NFDIterator leftFCDUTF16NFDIter;
         FCDUTF16NFDIterator rightFCDUTF16NFDIter;
 
+        UTF8CollationIterator leftUTF8CollIter;
+        UTF8CollationIterator rightUTF8CollIter;
+        FCDUTF8CollationIterator leftFCDUTF8Iter;
+        FCDUTF8CollationIterator rightFCDUTF8Iter;
+
+        UTF8NFDIterator leftUTF8NFDIter;
+        UTF8NFDIterator rightUTF8NFDIter;
+        FCDUTF8NFDIterator leftFCDUTF8NFDIter;
+        FCDUTF8NFDIterator rightFCDUTF8NFDIter;
+
+        /** UTF-16 text decoded from UTF-8 for the identical level of a sort key. */
+        StringBuilder utf16;
+
         RawCollationKey rawCollationKey;
     }
 
@@ -1820,7 +2407,17 @@ public final class RuleBasedCollator extends Collator {
 
     private final CollationBuffer getCollationBuffer() {
         if (isFrozen()) {
-            frozenLock.lock();
+            // Take a buffer out of this thread's slot (or a neighbor's);
+            // if they are all busy, then use a new buffer.
+            int mask = frozenBuffers.length() - 1;
+            int slot = (int)Thread.currentThread().getId();
+            for (int i = 0; i < FROZEN_BUFFER_PROBES; ++i, ++slot) {
+                CollationBuffer buffer = frozenBuffers.getAndSet(slot & mask, null);
+                if (buffer != null) {
+                    return buffer;
+                }
+            }
+            return new CollationBuffer(data);
         } else if (collationBuffer == null) {
             collationBuffer = new CollationBuffer(data);
         }
@@ -1828,8 +2425,16 @@ public final class RuleBasedCollator extends Collator {
     }
 
     private final void releaseCollationBuffer(CollationBuffer buffer) {
-        if (isFrozen()) {
-            frozenLock.unlock();
+        if (isFrozen() && buffer != null) {
+            // Return the buffer to the first free slot near this thread's slot.
+            // If none is free, then drop it.
+            int mask = frozenBuffers.length() - 1;
+            int slot = (int)Thread.currentThread().getId();
+            for (int i = 0; i < FROZEN_BUFFER_PROBES; ++i, ++slot) {
+                if (frozenBuffers.compareAndSet(slot & mask, null, buffer)) {
+                    return;
+                }
+            }
         }
     }
 
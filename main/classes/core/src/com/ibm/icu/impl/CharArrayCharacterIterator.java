@@ -0,0 +1,114 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.impl;
+
+import java.text.CharacterIterator;
+
+import com.ibm.icu.util.ICUCloneNotSupportedException;
+
+/**
+ * A java.text.CharacterIterator over a range of a char array,
+ * like java.text.StringCharacterIterator but without copying the text.
+ * The indexes are array indexes.
+ * The array contents must not be modified while the iterator is in use.
+ */
+public final class CharArrayCharacterIterator implements CharacterIterator, Cloneable {
+    private final char[] text;
+    private final int begin;
+    private final int end;
+    private int pos;
+
+    public CharArrayCharacterIterator(char[] text, int begin, int end) {
+        if (begin < 0 || end > text.length || begin > end) {
+            throw new IllegalArgumentException("begin: " + begin + " or end: "
+                                               + end + " out of range [0, "
+                                               + text.length + "]");
+        }
+        this.text = text;
+        this.begin = begin;
+        this.end = end;
+        this.pos = begin;
+    }
+
+    /**
+     * Returns the array that is iterated over. Not a copy.
+     */
+    public char[] getArray() {
+        return text;
+    }
+
+    public char first() {
+        pos = begin;
+        return current();
+    }
+
+    public char last() {
+        pos = end > begin ? end - 1 : end;
+        return current();
+    }
+
+    public char current() {
+        return pos < end ? text[pos] : DONE;
+    }
+
+    public char next() {
+        if (pos < end - 1) {
+            return text[++pos];
+        }
+        pos = end;
+        return DONE;
+    }
+
+    public char previous() {
+        if (pos > begin) {
+            return text[--pos];
+        }
+        return DONE;
+    }
+
+    public char setIndex(int position) {
+        if (position < begin || position > end) {
+            throw new IllegalArgumentException("Invalid index");
+        }
+        pos = position;
+        return current();
+    }
+
+    public int getBeginIndex() {
+        return begin;
+    }
+
+    public int getEndIndex() {
+        return end;
+    }
+
+    public int getIndex() {
+        return pos;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CharArrayCharacterIterator)) {
+            return false;
+        }
+        CharArrayCharacterIterator other = (CharArrayCharacterIterator) obj;
+        return text == other.text && begin == other.begin && end == other.end && pos == other.pos;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(text) ^ begin ^ (end << 8) ^ (pos << 16);
+    }
+
+    @Override
+    public Object clone() {
+        try {
+            return super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new ICUCloneNotSupportedException(e);
+        }
+    }
+}
@@ -156,6 +156,14 @@ public final class Norm2AllModes {
         public Normalizer.QuickCheckResult quickCheck(CharSequence s) {
             return isNormalized(s) ? Normalizer.YES : Normalizer.NO;
         }
+        @Override
+        public int spanQuickCheckYesUTF8(byte[] s, int start, int limit) {
+            if(start<0 || start>limit || limit>s.length) {
+                throw new IllegalArgumentException("Illegal range ["+start+", "+limit+")");
+            }
+            return spanQuickCheckYes(s, start, limit);
+        }
+        protected abstract int spanQuickCheckYes(byte[] s, int start, int limit);
 
         public abstract int getQuickCheck(int c);
 
@@ -181,6 +189,10 @@ public final class Norm2AllModes {
             return impl.decompose(s, 0, s.length(), null);
         }
         @Override
+        protected int spanQuickCheckYes(byte[] s, int start, int limit) {
+            return impl.decomposeQuickCheckUTF8(s, start, limit);
+        }
+        @Override
         public int getQuickCheck(int c) {
             return impl.isDecompYes(impl.getNorm16(c)) ? 1 : 0;
         }
@@ -231,6 +243,10 @@ public final class Norm2AllModes {
             return impl.composeQuickCheck(s, 0, s.length(), onlyContiguous, true)>>>1;
         }
         @Override
+        protected int spanQuickCheckYes(byte[] s, int start, int limit) {
+            return impl.composeQuickCheckUTF8(s, start, limit, onlyContiguous, true)>>>1;
+        }
+        @Override
         public int getQuickCheck(int c) {
             return impl.getCompQuickCheck(impl.getNorm16(c));
         }
@@ -267,6 +283,10 @@ public final class Norm2AllModes {
             return impl.makeFCD(s, 0, s.length(), null);
         }
         @Override
+        protected int spanQuickCheckYes(byte[] s, int start, int limit) {
+            return impl.makeFCDQuickCheckUTF8(s, start, limit);
+        }
+        @Override
         public int getQuickCheck(int c) {
             return impl.isDecompYes(impl.getNorm16(c)) ? 1 : 0;
         }
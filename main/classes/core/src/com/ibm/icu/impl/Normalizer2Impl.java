@@ -1569,6 +1569,136 @@ public final class Normalizer2Impl {
         }
     }
 
+    // UTF-8 quick checks ------------------------------------------------------ ***
+    // Same results as the UTF-16 quick checks in decompose(), composeQuickCheck() and makeFCD()
+    // with buffer==null, but with byte indexes into UTF-8 text.
+    // An ill-formed sequence ends the "yes" span because normalization replaces it with U+FFFD.
+
+    public int decomposeQuickCheckUTF8(byte[] s, int src, int limit) {
+        int minNoCP=minDecompNoCP;
+        int prevBoundary=src;
+        int prevCC=0;
+        while(src<limit) {
+            int c=s[src];
+            int length=1;
+            if(c<0) {
+                length=UTF8.getSequenceLength(s, src, limit);
+                if(length<0) {
+                    return src;  // U+FFFD has a boundary before it
+                }
+                c=UTF8.getCodePoint(s, src, length);
+            }
+            src+=length;
+            int norm16;
+            if(c<minNoCP || isMostDecompYesAndZeroCC(norm16=getNorm16(c))) {
+                prevCC=0;
+                prevBoundary=src;
+                continue;
+            }
+            if(isDecompYes(norm16)) {
+                int cc=getCCFromYesOrMaybe(norm16);
+                if(prevCC<=cc || cc==0) {
+                    prevCC=cc;
+                    if(cc<=1) {
+                        prevBoundary=src;
+                    }
+                    continue;
+                }
+            }
+            return prevBoundary;  // "no" or cc out of order
+        }
+        return src;
+    }
+
+    /**
+     * UTF-8 version of composeQuickCheck().
+     * @return bits 31..1: spanQuickCheckYes end index (==limit if "yes") and
+     *         bit 0: set if "maybe"
+     */
+    public int composeQuickCheckUTF8(byte[] s, int src, int limit,
+                                     boolean onlyContiguous, boolean doSpan) {
+        int qcResult=0;
+        int minNoMaybeCP=minCompNoMaybeCP;
+        // Start of the last character with a composition boundary before it
+        // and ccc==0 and quick check "yes".
+        int prevBoundary=src;
+        int prevCC=0;
+        while(src<limit) {
+            int c=s[src];
+            int length=1;
+            if(c<0) {
+                length=UTF8.getSequenceLength(s, src, limit);
+                if(length<0) {
+                    return src<<1;  // U+FFFD has a boundary before it
+                }
+                c=UTF8.getCodePoint(s, src, length);
+            }
+            int norm16;
+            if(c<minNoMaybeCP || isCompYesAndZeroCC(norm16=getNorm16(c))) {
+                prevBoundary=src;
+                prevCC=0;
+                src+=length;
+                continue;
+            }
+            int prevSrc=src;
+            src+=length;
+            // See composeQuickCheck().
+            if(isMaybeOrNonZeroCC(norm16)) {
+                int cc=getCCFromYesOrMaybe(norm16);
+                if( onlyContiguous &&  // FCC
+                    cc!=0 &&
+                    prevCC==0 &&
+                    prevBoundary<prevSrc &&
+                    getTrailCCFromCompYesAndZeroCC(UTF8.codePointAt(s, prevBoundary, prevSrc))>cc
+                ) {
+                    // Fails FCD test.
+                } else if(prevCC<=cc || cc==0) {
+                    prevCC=cc;
+                    if(norm16<MIN_YES_YES_WITH_CC) {
+                        if(!doSpan) {
+                            qcResult=1;
+                        } else {
+                            return prevBoundary<<1;  // spanYes does not care to know it's "maybe"
+                        }
+                    }
+                    continue;
+                }
+            }
+            return prevBoundary<<1;  // "no"
+        }
+        return (src<<1)|qcResult;  // "yes" or "maybe"
+    }
+
+    public int makeFCDQuickCheckUTF8(byte[] s, int src, int limit) {
+        // Tracks the last FCD-safe boundary, before lccc=0 or after properly-ordered tccc<=1.
+        int prevBoundary=src;
+        int prevFCD16=0;
+        while(src<limit) {
+            int c=s[src];
+            int length=1;
+            if(c<0) {
+                length=UTF8.getSequenceLength(s, src, limit);
+                if(length<0) {
+                    return src;  // U+FFFD has a boundary before it
+                }
+                c=UTF8.getCodePoint(s, src, length);
+            }
+            int fcd16=getFCD16(c);
+            if(fcd16<=0xff) {
+                // lccc==0
+                prevBoundary=src;
+            } else if((prevFCD16&0xff)>(fcd16>>8)) {
+                return prevBoundary;  // prev tccc > current lccc
+            }
+            src+=length;
+            if((fcd16&0xff)<=1) {
+                prevBoundary=src;
+            }
+            prevFCD16=fcd16;
+        }
+        return src;
+    }
+
     // Note: hasDecompBoundary() could be implemented as aliases to
     // hasFCDBoundaryBefore() and hasFCDBoundaryAfter()
     // at the cost of building the FCD trie for a decomposition normalizer.
@@ -1701,6 +1831,10 @@ public final class Normalizer2Impl {
         } else {
             c=Character.codePointAt(s, cpStart);
         }
+        return getTrailCCFromCompYesAndZeroCC(c);
+    }
+    // requires that c passes isCompYesAndZeroCC()
+    private int getTrailCCFromCompYesAndZeroCC(int c) {
         int prevNorm16=getNorm16(c);
         if(prevNorm16<=minYesNo) {
             return 0;  // yesYes and Hangul LV/LVT have ccc=tccc=0
@@ -0,0 +1,81 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.ibm.icu.util.ICUException;
+
+/**
+ * Runs independent tasks on a caller-supplied ExecutorService
+ * for the ICU utilities that split large inputs into chunks.
+ *
+ * <p>ICU4J does not create or own any threads:
+ * Without an executor, the tasks are run one after another in the calling thread.
+ * Tasks must not wait for other tasks, so that a bounded thread pool cannot deadlock.
+ */
+public final class ParallelTasks {
+    private ParallelTasks() {}
+
+    /**
+     * Returns the number of chunks into which to split an input of the given length
+     * when its processing is to be spread across the available processors.
+     *
+     * @param length input length, in arbitrary units
+     * @param minChunkLength the minimum length per chunk, to bound the per-task overhead
+     * @return the number of chunks, at least 1
+     */
+    public static int getNumChunks(long length, int minChunkLength) {
+        // A few chunks per processor even out uneven chunk costs.
+        long numChunks = Math.min(length / minChunkLength,
+                4L * Runtime.getRuntime().availableProcessors());
+        return numChunks > 1 ? (int)numChunks : 1;
+    }
+
+    /**
+     * Runs the tasks and returns their results in task order.
+     * If a task fails, then its exception is rethrown in the calling thread:
+     * Unchecked exceptions and errors as is, checked exceptions wrapped in an ICUException.
+     *
+     * @param executor runs the tasks; if null, then they are run in the calling thread
+     * @param tasks the tasks
+     * @return the task results
+     */
+    public static <V> List<V> invokeAll(ExecutorService executor, List<? extends Callable<V>> tasks) {
+        List<V> results = new ArrayList<V>(tasks.size());
+        try {
+            if (executor == null || tasks.size() <= 1) {
+                for (Callable<V> task : tasks) {
+                    results.add(task.call());
+                }
+            } else {
+                for (Future<V> future : executor.invokeAll(tasks)) {
+                    results.add(future.get());
+                }
+            }
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ICUException(e);
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+        return results;
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException)t;
+        } else if (t instanceof Error) {
+            throw (Error)t;
+        } else {
+            throw new ICUException(t);
+        }
+    }
+}
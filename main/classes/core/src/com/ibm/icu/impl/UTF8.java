@@ -0,0 +1,210 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.impl;
+
+/**
+ * Low-level code point access for UTF-8 text in byte arrays,
+ * for ICU code that processes UTF-8 without converting it to UTF-16 first.
+ *
+ * <p>Ill-formed byte sequences are handled as recommended by the Unicode Standard
+ * (and as in the W3C/WHATWG Encoding Standard):
+ * Each maximal subpart of an ill-formed sequence is treated as one U+FFFD.
+ * Surrogate code points (ED A0..BF xx) are ill-formed, each byte yielding one U+FFFD.
+ */
+public final class UTF8 {
+    private UTF8() {}
+
+    /**
+     * @param b a byte value, signed or unsigned
+     * @return true if b is a UTF-8 trail byte (80..BF)
+     */
+    public static boolean isTrail(int b) {
+        return (b & 0xc0) == 0x80;
+    }
+
+    /**
+     * Returns the length of the code point or ill-formed sequence
+     * which starts at s[i].
+     *
+     * @param s UTF-8 text
+     * @param i start index, must be less than limit
+     * @param limit end of the text
+     * @return n&gt;0 for a well-formed sequence of n bytes,
+     *         or -n for an ill-formed sequence of n bytes which stands for U+FFFD
+     */
+    public static int getSequenceLength(byte[] s, int i, int limit) {
+        int b = s[i] & 0xff;
+        if(b < 0x80) { return 1; }
+        if(b < 0xc2 || b > 0xf4) { return -1; }
+        int length = b < 0xe0 ? 2 : b < 0xf0 ? 3 : 4;
+        // The first trail byte has a narrower range for some lead bytes,
+        // to exclude non-shortest forms, surrogates and code points beyond U+10FFFF.
+        int lower = 0x80, upper = 0xbf;
+        if(b == 0xe0) {
+            lower = 0xa0;
+        } else if(b == 0xed) {
+            upper = 0x9f;
+        } else if(b == 0xf0) {
+            lower = 0x90;
+        } else if(b == 0xf4) {
+            upper = 0x8f;
+        }
+        for(int k = 1; k < length; ++k) {
+            int t;
+            if((i + k) == limit || (t = s[i + k] & 0xff) < lower || t > upper) {
+                return -k;
+            }
+            lower = 0x80;
+            upper = 0xbf;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the code point of the sequence which starts at s[i].
+     *
+     * @param s UTF-8 text
+     * @param i start index
+     * @param length the value returned by {@link #getSequenceLength(byte[], int, int)} for i
+     * @return the code point, or U+FFFD for an ill-formed sequence
+     */
+    public static int getCodePoint(byte[] s, int i, int length) {
+        switch(length) {
+        case 1:
+            return s[i];
+        case 2:
+            return ((s[i] & 0x1f) << 6) | (s[i + 1] & 0x3f);
+        case 3:
+            return ((s[i] & 0xf) << 12) | ((s[i + 1] & 0x3f) << 6) | (s[i + 2] & 0x3f);
+        case 4:
+            return ((s[i] & 7) << 18) | ((s[i + 1] & 0x3f) << 12) |
+                    ((s[i + 2] & 0x3f) << 6) | (s[i + 3] & 0x3f);
+        default:
+            return 0xfffd;
+        }
+    }
+
+    /**
+     * Returns the code point which starts at s[i], or U+FFFD for an ill-formed sequence.
+     */
+    public static int codePointAt(byte[] s, int i, int limit) {
+        return getCodePoint(s, i, getSequenceLength(s, i, limit));
+    }
+
+    /**
+     * Returns the start index of the code point or ill-formed sequence
+     * which ends just before s[i].
+     * Consistent with forward iteration via {@link #getSequenceLength(byte[], int, int)}
+     * when i is at a code point boundary.
+     *
+     * @param s UTF-8 text
+     * @param start start of the text, must be less than i
+     * @param i index after the code point
+     * @return the start index of the previous code point
+     */
+    public static int getPreviousStart(byte[] s, int start, int i) {
+        int j = i - 1;
+        if(!isTrail(s[j])) { return j; }
+        int min = Math.max(start, i - 4);
+        for(int k = j - 1; k >= min; --k) {
+            if(!isTrail(s[k])) {
+                // Does the sequence that starts at this lead byte end at i?
+                int length = getSequenceLength(s, k, i);
+                if(length < 0) { length = -length; }
+                if((k + length) == i) { return k; }
+                break;
+            }
+        }
+        // A lone trail byte.
+        return j;
+    }
+
+    /**
+     * @param c a code point
+     * @return the number of UTF-8 bytes for c
+     */
+    public static int getLength(int c) {
+        return c < 0x80 ? 1 : c < 0x800 ? 2 : c <= 0xffff ? 3 : 4;
+    }
+
+    /**
+     * Appends the UTF-16 form of s[start..limit[ to dest.
+     *
+     * @return dest
+     */
+    public static StringBuilder appendUTF16(byte[] s, int start, int limit, StringBuilder dest) {
+        while(start < limit) {
+            int b = s[start];
+            if(b >= 0) {
+                dest.append((char)b);
+                ++start;
+            } else {
+                int length = getSequenceLength(s, start, limit);
+                dest.appendCodePoint(getCodePoint(s, start, length));
+                start += length > 0 ? length : -length;
+            }
+        }
+        return dest;
+    }
+
+    /**
+     * Returns the start index of the first ill-formed sequence in s[start..limit[,
+     * or limit if the text is well-formed.
+     */
+    public static int spanWellFormed(byte[] s, int start, int limit) {
+        while(start < limit) {
+            if(s[start] >= 0) {
+                ++start;
+            } else {
+                int length = getSequenceLength(s, start, limit);
+                if(length < 0) { break; }
+                start += length;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Returns the number of bytes in the UTF-8 form of s.
+     * Consistent with {@link #appendUTF8(CharSequence, byte[], int)}.
+     */
+    public static int getUTF8Length(CharSequence s) {
+        int length = 0;
+        for(int i = 0; i < s.length();) {
+            int c = Character.codePointAt(s, i);
+            i += Character.charCount(c);
+            length += getLength(c);
+        }
+        return length;
+    }
+
+    /**
+     * Writes the UTF-8 form of s into dest starting at destIndex.
+     * Unpaired surrogates are written as U+FFFD.
+     *
+     * @return the index after the last written byte
+     */
+    public static int appendUTF8(CharSequence s, byte[] dest, int destIndex) {
+        for(int i = 0; i < s.length();) {
+            int c = Character.codePointAt(s, i);
+            i += Character.charCount(c);
+            if(c < 0x80) {
+                dest[destIndex++] = (byte)c;
+            } else if(c < 0x800) {
+                dest[destIndex++] = (byte)(0xc0 | (c >> 6));
+                dest[destIndex++] = (byte)(0x80 | (c & 0x3f));
+            } else if(c <= 0xffff) {
+                if(0xd800 <= c && c <= 0xdfff) { c = 0xfffd; }
+                dest[destIndex++] = (byte)(0xe0 | (c >> 12));
+                dest[destIndex++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+                dest[destIndex++] = (byte)(0x80 | (c & 0x3f));
+            } else {
+                dest[destIndex++] = (byte)(0xf0 | (c >> 18));
+                dest[destIndex++] = (byte)(0x80 | ((c >> 12) & 0x3f));
+                dest[destIndex++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+                dest[destIndex++] = (byte)(0x80 | (c & 0x3f));
+            }
+        }
+        return destIndex;
+    }
+}
@@ -11,10 +11,15 @@ package com.ibm.icu.text;
 
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.ibm.icu.impl.CacheValue;
+import com.ibm.icu.impl.CharArrayCharacterIterator;
 import com.ibm.icu.impl.ICUDebug;
 import com.ibm.icu.util.ICUCloneNotSupportedException;
 import com.ibm.icu.util.ULocale;
@@ -303,6 +308,58 @@ public abstract class BreakIterator implements Cloneable
      */
     public abstract int next();
 
+    /**
+     * {@icu} Advances the iterator forward over several boundaries at once,
+     * storing each boundary position in the boundaries array.
+     * This is equivalent to calling next() repeatedly, and getRuleStatus() after
+     * each call if ruleStatus is not null, but subclasses can implement it
+     * with less overhead per boundary.
+     * <p>
+     * Stops when the boundaries array is full, when the end of the text is reached,
+     * or after storing the first boundary at or after limit.
+     * The current iteration position is then the last stored boundary,
+     * so that calling this function again continues where this call stopped.
+     * For example, to get all of the boundaries in the text:
+     * <pre>
+     * int[] boundaries = new int[100];
+     * bi.first();
+     * int n;
+     * while ((n = bi.next(Integer.MAX_VALUE, boundaries, null)) &gt; 0) {
+     *     // use boundaries[0] .. boundaries[n-1]
+     * }
+     * </pre>
+     * @param limit stop after a boundary at or after this position
+     * @param boundaries receives the boundary positions, starting at index 0
+     * @param ruleStatus if not null, receives the getRuleStatus() value of each boundary;
+     *                   must be at least as long as boundaries
+     * @return the number of boundaries stored; 0 if the iterator was already
+     *         at the end of the text
+     * @throws IllegalArgumentException if ruleStatus is shorter than boundaries
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int next(int limit, int[] boundaries, int[] ruleStatus) {
+        if (ruleStatus != null && ruleStatus.length < boundaries.length) {
+            throw new IllegalArgumentException("ruleStatus is shorter than boundaries");
+        }
+        int count = 0;
+        while (count < boundaries.length) {
+            int pos = next();
+            if (pos == DONE) {
+                break;
+            }
+            boundaries[count] = pos;
+            if (ruleStatus != null) {
+                ruleStatus[count] = getRuleStatus();
+            }
+            ++count;
+            if (pos >= limit) {
+                break;
+            }
+        }
+        return count;
+    }
+
     /**
      * Move the iterator backward one boundary.  The current iteration
      * position is updated to point to the last boundary position before
@@ -515,6 +572,40 @@ public abstract class BreakIterator implements Cloneable
         setText(new StringCharacterIterator(newText));
     }
 
+    /**
+     * Sets the iterator to analyze a new piece of text.  The new
+     * piece of text is passed in as a CharSequence, and the current
+     * iteration position is reset to the beginning of the text.
+     * The characters are copied; later changes to the CharSequence
+     * do not affect this BreakIterator.
+     * @param newText A CharSequence containing the text to analyze with
+     * this BreakIterator.
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void setText(CharSequence newText)
+    {
+        setText(newText.toString());
+    }
+
+    /**
+     * Sets the iterator to analyze a range of a char array.
+     * The array is not copied, and its contents must not be modified
+     * while this BreakIterator is in use.
+     * Boundary positions are array indexes, from start to limit,
+     * and the current iteration position is reset to start.
+     * @param text The array containing the text to analyze.
+     * @param start The index of the first character to analyze.
+     * @param limit The index after the last character to analyze.
+     * @throws IllegalArgumentException if start and limit are not a valid range of the array
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void setText(char[] text, int start, int limit)
+    {
+        setText(new CharArrayCharacterIterator(text, start, limit));
+    }
+
     /**
      * Sets the iterator to analyze a new piece of text.  The
      * BreakIterator is passed a CharacterIterator through which
@@ -555,11 +646,27 @@ public abstract class BreakIterator implements Cloneable
     public static final int KIND_TITLE = 4;
 
     /**
-     * @since ICU 2.8
+     * Maximum number of prototype iterators in the cache, for all locales and kinds together.
+     */
+    private static final int CACHE_CAPACITY = 32;
+
+    /**
+     * Prototype iterators by requested locale and kind, in least-recently-used order.
+     * New instances are clones of the prototypes.
+     * Guarded by synchronizing on the map; the prototypes are cloned outside of the lock.
      */
-    private static final int KIND_COUNT = 5;
+    private static final Map<CacheKey, CacheValue<BreakIterator>> iterCache =
+            new LinkedHashMap<CacheKey, CacheValue<BreakIterator>>(CACHE_CAPACITY * 2, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
 
-    private static final CacheValue<?>[] iterCache = new CacheValue<?>[5];
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheValue<BreakIterator>> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
 
     /**
      * Returns a new instance of BreakIterator that locates word boundaries.
@@ -796,13 +903,12 @@ s     */
      * @stable ICU 3.2
      */
     public static Object registerInstance(BreakIterator iter, ULocale locale, int kind) {
-        // If the registered object matches the one in the cache, then
-        // flush the cached object.
-        if (iterCache[kind] != null) {
-            BreakIteratorCache cache = (BreakIteratorCache) iterCache[kind].get();
-            if (cache != null) {
-                if (cache.getLocale().equals(locale)) {
-                    iterCache[kind] = null;
+        // The registered object may be used for cached locales that fall back to this one,
+        // so flush the cached objects of this kind.
+        synchronized (iterCache) {
+            for (Iterator<CacheKey> it = iterCache.keySet().iterator(); it.hasNext();) {
+                if (it.next().kind == kind) {
+                    it.remove();
                 }
             }
         }
@@ -835,9 +941,7 @@ s     */
             // -- what `kind' and what locale -- so we flush all
             // caches.  This is safe but inefficient if people are
             // actively registering and unregistering.
-            for (int kind=0; kind<KIND_COUNT; ++kind) {
-                iterCache[kind] = null;
-            }
+            flushCache();
             return shim.unregister(key);
         }
         return false;
@@ -857,28 +961,75 @@ s     */
         if (where == null) {
             throw new NullPointerException("Specified locale is null");
         }
-        if (iterCache[kind] != null) {
-            BreakIteratorCache cache = (BreakIteratorCache)iterCache[kind].get();
-            if (cache != null) {
-                if (cache.getLocale().equals(where)) {
-                    return cache.createBreakInstance();
-                }
-            }
+        CacheKey key = new CacheKey(where, kind);
+        CacheValue<BreakIterator> value;
+        synchronized (iterCache) {
+            value = iterCache.get(key);
+        }
+        BreakIterator prototype = value != null ? value.get() : null;
+        if (prototype != null) {
+            cacheHits.incrementAndGet();
+            return (BreakIterator) prototype.clone();
         }
+        cacheMisses.incrementAndGet();
 
         // sigh, all to avoid linking in ICULocaleData...
         BreakIterator result = getShim().createBreakIterator(where, kind);
-
-        BreakIteratorCache cache = new BreakIteratorCache(where, result);
-        iterCache[kind] = CacheValue.getInstance(cache);
         if (result instanceof RuleBasedBreakIterator) {
             RuleBasedBreakIterator rbbi = (RuleBasedBreakIterator)result;
             rbbi.setBreakType(kind);
         }
 
+        value = CacheValue.getInstance((BreakIterator) result.clone());
+        synchronized (iterCache) {
+            iterCache.put(key, value);
+        }
         return result;
     }
 
+    /**
+     * {@icu} Removes all prototype iterators from the cache.
+     * Later requests for BreakIterator instances load the break rules and dictionaries again.
+     *
+     * <p>getXYZInstance() returns clones of cached prototype iterators,
+     * for the most recently used combinations of locale and kind of iterator.
+     * The Java garbage collector may release cached prototypes that are not otherwise used.
+     *
+     * @return the number of removed cache entries
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static int flushCache() {
+        synchronized (iterCache) {
+            int count = iterCache.size();
+            iterCache.clear();
+            return count;
+        }
+    }
+
+    /**
+     * {@icu} Returns how many times an instance was cloned from a cached prototype iterator.
+     * @return the number of cache hits since the class was loaded
+     * @see #flushCache()
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static long getCacheHitCount() {
+        return cacheHits.get();
+    }
+
+    /**
+     * {@icu} Returns how many times an instance was not found in the cache
+     * and had to be created from the break rules.
+     * @return the number of cache misses since the class was loaded
+     * @see #flushCache()
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static long getCacheMissCount() {
+        return cacheMisses.get();
+    }
+
 
     /**
      * Returns a list of locales for which BreakIterators can be used.
@@ -905,22 +1056,27 @@ s     */
         return getShim().getAvailableULocales();
     }
 
-    private static final class BreakIteratorCache {
-
-        private BreakIterator iter;
-        private ULocale where;
+    private static final class CacheKey {
+        final ULocale where;
+        final int kind;
 
-        BreakIteratorCache(ULocale where, BreakIterator iter) {
+        CacheKey(ULocale where, int kind) {
             this.where = where;
-            this.iter = (BreakIterator) iter.clone();
+            this.kind = kind;
         }
 
-        ULocale getLocale() {
-            return where;
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey o = (CacheKey) other;
+            return kind == o.kind && where.equals(o.where);
         }
 
-        BreakIterator createBreakInstance() {
-            return (BreakIterator) iter.clone();
+        @Override
+        public int hashCode() {
+            return where.hashCode() * 37 + kind;
         }
     }
 
@@ -90,7 +90,7 @@ class BurmeseBreakEngine extends DictionaryBreakEngine {
 
     @Override
     public int divideUpDictionaryRange(CharacterIterator fIter, int rangeStart, int rangeEnd,
-            DequeI foundBreaks) {
+            DequeI foundBreaks, Buffers buffers) {
 
 
         if ((rangeEnd - rangeStart) < BURMESE_MIN_WORD) {
@@ -99,10 +99,7 @@ class BurmeseBreakEngine extends DictionaryBreakEngine {
         int wordsFound = 0;
         int wordLength;
         int current;
-        PossibleWord words[] = new PossibleWord[BURMESE_LOOKAHEAD];
-        for (int i = 0; i < BURMESE_LOOKAHEAD; i++) {
-            words[i] = new PossibleWord();
-        }
+        PossibleWord words[] = buffers.getPossibleWords(BURMESE_LOOKAHEAD);
         int uc;
 
         fIter.setIndex(rangeStart);
@@ -215,7 +212,7 @@ class BurmeseBreakEngine extends DictionaryBreakEngine {
 
             // Did we find a word on this iteration? If so, push it on the break stack
             if (wordLength > 0) {
-                foundBreaks.push(Integer.valueOf(current + wordLength));
+                foundBreaks.push(current + wordLength);
             }
         }
 
@@ -11,6 +11,7 @@ package com.ibm.icu.text;
 import java.text.CharacterIterator;
 
 import com.ibm.icu.impl.Assert;
+import com.ibm.icu.impl.CharacterIteration;
 import com.ibm.icu.util.BytesTrie;
 import com.ibm.icu.util.BytesTrie.Result;
 
@@ -42,11 +43,11 @@ class BytesDictionaryMatcher extends DictionaryMatcher {
     }
 
     @Override
-    public int matches(CharacterIterator text_, int maxLength, int[] lengths, int[] count_, int limit, int[] values) {
-        UCharacterIterator text = UCharacterIterator.getInstance(text_);
-        BytesTrie bt = new BytesTrie(characters, 0);
-        int c = text.nextCodePoint();
-        if (c == UCharacterIterator.DONE) {
+    public int matches(CharacterIterator text, int maxLength, int[] lengths, int[] count_, int limit, int[] values,
+            DictionaryBreakEngine.Buffers buffers) {
+        BytesTrie bt = buffers != null ? buffers.getBytesTrie(characters) : new BytesTrie(characters, 0);
+        int c = nextCodePoint(text);
+        if (c == CharacterIteration.DONE32) {
             return 0;
         }
         Result result = bt.first(transform(c));
@@ -73,8 +74,8 @@ class BytesDictionaryMatcher extends DictionaryMatcher {
                 break;
             }
 
-            c = text.nextCodePoint();
-            if (c == UCharacterIterator.DONE) {
+            c = nextCodePoint(text);
+            if (c == CharacterIteration.DONE32) {
                 break;
             }
             ++numChars;
@@ -10,6 +10,7 @@ package com.ibm.icu.text;
 
 import java.text.CharacterIterator;
 
+import com.ibm.icu.impl.CharacterIteration;
 import com.ibm.icu.util.BytesTrie.Result;
 import com.ibm.icu.util.CharsTrie;
 
@@ -21,11 +22,11 @@ class CharsDictionaryMatcher extends DictionaryMatcher {
     }
 
     @Override
-    public int matches(CharacterIterator text_, int maxLength, int[] lengths, int[] count_, int limit, int[] values) {
-        UCharacterIterator text = UCharacterIterator.getInstance(text_);
-        CharsTrie uct = new CharsTrie(characters, 0);
-        int c = text.nextCodePoint();
-        if (c == UCharacterIterator.DONE) {
+    public int matches(CharacterIterator text, int maxLength, int[] lengths, int[] count_, int limit, int[] values,
+            DictionaryBreakEngine.Buffers buffers) {
+        CharsTrie uct = buffers != null ? buffers.getCharsTrie(characters) : new CharsTrie(characters, 0);
+        int c = nextCodePoint(text);
+        if (c == CharacterIteration.DONE32) {
             return 0;
         }
         Result result = uct.firstForCodePoint(c);
@@ -52,8 +53,8 @@ class CharsDictionaryMatcher extends DictionaryMatcher {
             if (numChars >= maxLength) {
                 break;
             }
-            c = text.nextCodePoint();
-            if (c == UCharacterIterator.DONE) {
+            c = nextCodePoint(text);
+            if (c == CharacterIteration.DONE32) {
                 break;
             }
             ++numChars;
@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import com.ibm.icu.util.Freezable;
 
 /**
  * <code>CharsetDetector</code> provides a facility for detecting the
@@ -35,9 +36,15 @@ import java.util.List;
  * in the language are needed.  The detection process will attempt to
  * ignore html or xml style markup that could otherwise obscure the content.
  * <p>
+ * A <code>CharsetDetector</code> holds the state of the current detection,
+ * and is not safe for use by multiple threads. Once configured, it can be
+ * {@link #freeze() frozen}; a frozen detector can be shared by any number of
+ * threads, which pass their input to {@link #detect(byte[], int, int)} or
+ * {@link #detectAll(byte[], int, int)}.
+ * <p>
  * @stable ICU 3.4
  */
-public class CharsetDetector {
+public class CharsetDetector implements Freezable<CharsetDetector> {
 
 //   Question: Should we have getters corresponding to the setters for input text
 //   and declared encoding?
@@ -74,6 +81,7 @@ public class CharsetDetector {
      * @stable ICU 3.4
      */
     public CharsetDetector setDeclaredEncoding(String encoding) {
+        checkFrozen();
         fDeclaredEncoding = encoding;
         return this;
     }
@@ -88,14 +96,137 @@ public class CharsetDetector {
      * @stable ICU 3.4
      */
     public CharsetDetector setText(byte [] in) {
-        fRawInput  = in;
-        fRawLength = in.length;
-        
+        checkFrozen();
+        setRawInput(in, 0, in.length);
         return this;
     }
+
+    private void setRawInput(byte[] in, int offset, int length) {
+        fRawInput  = in;
+        fRawOffset = offset;
+        fRawLength = length;
+        fInputStream = null;
+        fUpdating  = false;
+    }
     
     private static final int kBufSize = 8000;
 
+    /**
+     * Append input text (byte) data whose charset is to be detected.
+     * This allows the detection of the charset of data that arrives in pieces,
+     * for example from a stream that does not support mark() and reset(),
+     * without collecting all of it first.
+     * <p>
+     * The first call after setText() starts a new input text, and following calls
+     * append to it. Only the first {@link #setSampleSize(int) sample size} bytes
+     * are kept; the rest are ignored, so the caller can stop feeding data once
+     * that many bytes have been passed in. detect() and detectAll() may be called
+     * at any time, and look at the data that has been passed in so far.
+     * The matches returned for such input can only convert the kept bytes.
+     *
+     * @param in an array with input text of unknown encoding
+     * @param offset the index of the first byte to append
+     * @param length the number of bytes to append
+     * @return This CharsetDetector
+     * @throws IndexOutOfBoundsException if offset or length are out of bounds
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public CharsetDetector update(byte[] in, int offset, int length) {
+        if (offset < 0 || length < 0 || length > in.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        checkFrozen();
+        int sampleSize = getSampleSize();
+        if (!fUpdating) {
+            // Always use our own buffer, because the previous one may have come from
+            //   the caller, in which case we can't touch it.
+            fRawInput = new byte[Math.min(sampleSize, kBufSize)];
+            fRawOffset = 0;
+            fRawLength = 0;
+            fInputStream = null;
+            fUpdating = true;
+        }
+        if (length > sampleSize - fRawLength) {
+            length = Math.max(sampleSize - fRawLength, 0);
+        }
+        if (length > fRawInput.length - fRawLength) {
+            byte[] newInput = new byte[Math.min(Math.max(2 * fRawInput.length, fRawLength + length), sampleSize)];
+            System.arraycopy(fRawInput, 0, newInput, 0, fRawLength);
+            fRawInput = newInput;
+        }
+        System.arraycopy(in, offset, fRawInput, fRawLength, length);
+        fRawLength += length;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of input bytes that the detection looks at.
+     * This bounds the work of detect() and detectAll() for large inputs,
+     * and is the amount of data that setText(InputStream) reads and update() keeps.
+     * <p>
+     * By default, setText(InputStream) and update() use the first 8000 bytes of the input,
+     * and for a byte array set with setText(byte[]), the statistics for single-byte
+     * charsets use its first 8000 bytes while the other recognizers look at all of it.
+     * Setting a sample size applies it to all of these.
+     *
+     * @param size the maximum number of bytes to examine, at least 1
+     * @return This CharsetDetector
+     * @throws IllegalArgumentException if size is not positive
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public CharsetDetector setSampleSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid sample size: " + size);
+        }
+        checkFrozen();
+        fSampleSize = size;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of input bytes that the detection looks at.
+     *
+     * @return the sample size
+     * @see #setSampleSize(int)
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int getSampleSize() {
+        return fSampleSize > 0 ? fSampleSize : kBufSize;
+    }
+
+    /**
+     * Make detect() return the first match with at least the given confidence,
+     * without running the remaining recognizers.
+     * The UTF-8 and UTF-16/32 recognizers run first, and a byte order mark or
+     * valid UTF-8 with several multi-byte sequences gives them a confidence of 100,
+     * so a threshold of 100 ends the detection early for such input.
+     * The result can differ from the best match of detectAll() if other charsets
+     * match equally well, or, with lower thresholds, better.
+     * detectAll() always runs all recognizers.
+     *
+     * @param confidence the confidence (1..100) for an early return from detect(),
+     *        or 0 to always look for the best match (the default)
+     * @return This CharsetDetector
+     * @throws IllegalArgumentException if confidence is not in 0..100
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public CharsetDetector setEarlyExitConfidence(int confidence) {
+        if (confidence < 0 || confidence > 100) {
+            throw new IllegalArgumentException("Invalid confidence: " + confidence);
+        }
+        checkFrozen();
+        fEarlyExitConfidence = confidence;
+        return this;
+    }
+
     /**
      * Set the input text (byte) data whose charset is to be detected.
      *  <p>
@@ -113,13 +244,17 @@ public class CharsetDetector {
      */
     
     public CharsetDetector setText(InputStream in) throws IOException {
+        checkFrozen();
+        int sampleSize = getSampleSize();
         fInputStream = in;
-        fInputStream.mark(kBufSize);
-        fRawInput = new byte[kBufSize];   // Always make a new buffer because the
+        fInputStream.mark(sampleSize);
+        fRawInput = new byte[sampleSize]; // Always make a new buffer because the
                                           //   previous one may have come from the caller,
                                           //   in which case we can't touch it.
+        fRawOffset = 0;
         fRawLength = 0;
-        int remainingLength = kBufSize;
+        fUpdating  = false;
+        int remainingLength = sampleSize;
         while (remainingLength > 0 ) {
             // read() may give data in smallish chunks, esp. for remote sources.  Hence, this loop.
             int  bytesRead = fInputStream.read(fRawInput, fRawLength, remainingLength);
@@ -155,17 +290,70 @@ public class CharsetDetector {
      * @stable ICU 3.4
      */
     public CharsetMatch detect() {
-//   TODO:  A better implementation would be to copy the detect loop from
-//          detectAll(), and cut it short as soon as a match with a high confidence
-//          is found.  This is something to be done later, after things are otherwise
-//          working.
-        CharsetMatch matches[] = detectAll();
-        
-        if (matches == null || matches.length == 0) {
-            return null;
+        return workspace().detectBest();
+    }
+
+    /**
+     * Return the charset that best matches the given input data,
+     * like setText() followed by detect(), but without changing the
+     * input text of a frozen detector.
+     * <p>
+     * On a frozen detector, this method may be called concurrently from
+     * multiple threads. Each thread uses its own scratch buffers, which are
+     * allocated on its first call and then reused, so that repeated detection
+     * only allocates the returned match. On a detector that is not frozen,
+     * the given data replaces the current input text.
+     * <p>
+     * The returned match refers to the input array, which must not be modified
+     * while the match is used to convert the data.
+     *
+     * @param in an array with input text of unknown encoding
+     * @param offset the index of the first byte of the input text
+     * @param length the number of bytes of input text
+     * @return a CharsetMatch object representing the best matching charset, or
+     *         <code>null</code> if there are no matches.
+     * @throws IndexOutOfBoundsException if offset or length are out of bounds
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public CharsetMatch detect(byte[] in, int offset, int length) {
+        if (offset < 0 || length < 0 || length > in.length - offset) {
+            throw new IndexOutOfBoundsException();
         }
-        
-        return matches[0];
+        CharsetDetector w = workspace();
+        w.setRawInput(in, offset, length);
+        CharsetMatch result = w.detectBest();
+        if (w != this) {
+            w.fRawInput = null;  // Don't keep the caller's data reachable from the thread.
+        }
+        return result;
+    }
+
+    private CharsetMatch detectBest() {
+        CharsetMatch best = null;
+
+        MungeInput();  // Strip html markup, collect byte stats.
+
+        //  The same loop as in detectAll(), but only keep the best match,
+        //    and cut it short if a match reaches the early exit confidence.
+        for (int i = 0; i < ALL_CS_RECOGNIZERS.size(); i++) {
+            CSRecognizerInfo rcinfo = ALL_CS_RECOGNIZERS.get(i);
+            boolean active = (fEnabledRecognizers != null) ? fEnabledRecognizers[i] : rcinfo.isDefaultEnabled;
+            if (active) {
+                CharsetMatch m = rcinfo.recognizer.match(this);
+                if (m != null) {
+                    if (fEarlyExitConfidence > 0 && m.getConfidence() >= fEarlyExitConfidence) {
+                        return m;
+                    }
+                    // Of equally good matches, detectAll() puts the last one first.
+                    if (best == null || m.compareTo(best) >= 0) {
+                        best = m;
+                    }
+                }
+            }
+        }
+        return best;
      }
     
     /**
@@ -184,6 +372,40 @@ public class CharsetDetector {
      * @stable ICU 3.4
      */
     public CharsetMatch[] detectAll() {
+        return workspace().detectMatches();
+    }
+
+    /**
+     * Return an array of all charsets that appear to be plausible
+     * matches with the given input data, like setText() followed by detectAll(),
+     * but without changing the input text of a frozen detector.
+     * <p>
+     * On a frozen detector, this method may be called concurrently from
+     * multiple threads, as described for {@link #detect(byte[], int, int)}.
+     *
+     * @param in an array with input text of unknown encoding
+     * @param offset the index of the first byte of the input text
+     * @param length the number of bytes of input text
+     * @return An array of CharsetMatch objects representing possibly matching charsets.
+     * @throws IndexOutOfBoundsException if offset or length are out of bounds
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public CharsetMatch[] detectAll(byte[] in, int offset, int length) {
+        if (offset < 0 || length < 0 || length > in.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        CharsetDetector w = workspace();
+        w.setRawInput(in, offset, length);
+        CharsetMatch[] result = w.detectMatches();
+        if (w != this) {
+            w.fRawInput = null;  // Don't keep the caller's data reachable from the thread.
+        }
+        return result;
+    }
+
+    private CharsetMatch[] detectMatches() {
         ArrayList<CharsetMatch>         matches = new ArrayList<CharsetMatch>();
         
         MungeInput();  // Strip html markup, collect byte stats.
@@ -231,6 +453,9 @@ public class CharsetDetector {
      * @stable ICU 3.4
      */
     public Reader getReader(InputStream in, String declaredEncoding) {
+        if (isFrozen()) {
+            return cloneAsThawed().getReader(in, declaredEncoding);
+        }
         fDeclaredEncoding = declaredEncoding;
         
         try {
@@ -266,6 +491,9 @@ public class CharsetDetector {
      */
     public String getString(byte[] in, String declaredEncoding)
     {
+        if (isFrozen()) {
+            return cloneAsThawed().getString(in, declaredEncoding);
+        }
         fDeclaredEncoding = declaredEncoding;
        
         try {
@@ -334,6 +562,7 @@ public class CharsetDetector {
      */
     public boolean enableInputFilter(boolean filter)
     {
+        checkFrozen();
         boolean previous = fStripTags;
         
         fStripTags = filter;
@@ -359,9 +588,15 @@ public class CharsetDetector {
         //     discard everything within < brackets >
         //     Count how many total '<' and illegal (nested) '<' occur, so we can make some
         //     guess as to whether the input was actually marked up at all.
+        int sampleSize = getSampleSize();
+        if (fInputBytes.length < sampleSize) {
+            fInputBytes = new byte[sampleSize];
+        }
+        fRawSampleLength = fSampleSize > 0 ? Math.min(fRawLength, fSampleSize) : fRawLength;
+
         if (fStripTags) {
-            for (srci = 0; srci < fRawLength && dsti < fInputBytes.length; srci++) {
-                b = fRawInput[srci];
+            for (srci = 0; srci < fRawLength && dsti < sampleSize; srci++) {
+                b = fRawInput[fRawOffset + srci];
                 if (b == (byte)'<') {
                     if (inMarkup) {
                         badTags++;
@@ -391,21 +626,19 @@ public class CharsetDetector {
                 (fInputLen < 100 && fRawLength>600)) {
             int limit = fRawLength;
             
-            if (limit > kBufSize) {
-                limit = kBufSize;
+            if (limit > sampleSize) {
+                limit = sampleSize;
             }
             
-            for (srci=0; srci<limit; srci++) {
-                fInputBytes[srci] = fRawInput[srci];
-            }
-            fInputLen = srci;
+            System.arraycopy(fRawInput, fRawOffset, fInputBytes, 0, limit);
+            fInputLen = limit;
         }
         
         //
         // Tally up the byte occurence statistics.
         //   These are available for use by the various detectors.
         //
-        Arrays.fill(fByteStats, (short)0);
+        Arrays.fill(fByteStats, 0);
         for (srci=0; srci<fInputLen; srci++) {
             int val = fInputBytes[srci] & 0x00ff;
             fByteStats[val]++;
@@ -430,8 +663,8 @@ public class CharsetDetector {
     
     int         fInputLen;          // Length of the byte data in fInputBytes.
     
-    short       fByteStats[] =      // byte frequency statistics for the input text.
-                   new short[256];  //   Value is percent, not absolute.
+    int         fByteStats[] =      // byte frequency statistics for the input text.
+                   new int[256];    //   Value is percent, not absolute.
                                     //   Value is rounded up, so zero really means zero occurences.
     
     boolean     fC1Bytes =          // True if any bytes in the range 0x80 - 0x9F are in the input;
@@ -444,7 +677,12 @@ public class CharsetDetector {
                                         //  If user gave us a byte array, this is it.
                                         //  If user gave us a stream, it's read to a 
                                         //  buffer here.
+    int                  fRawOffset;    // Index of the first byte of data in fRawInput.
+                                        //  Non-zero only for input passed to detect(byte[], int, int).
     int                  fRawLength;    // Length of data in fRawInput array.
+
+    int                  fRawSampleLength;  // Length of the data in fRawInput that the
+                                            //   recognizers look at, limited by the sample size.
     
     InputStream          fInputStream;  // User's input stream, or null if the user
                                         //   gave us a byte array.
@@ -455,10 +693,23 @@ public class CharsetDetector {
     private boolean      fStripTags =   // If true, setText() will strip tags from input text.
                            false;
 
+    private int          fSampleSize;   // If > 0, the number of input bytes to examine,
+                                        //   set by setSampleSize().
+
+    private int          fEarlyExitConfidence;  // If > 0, detect() returns the first match
+                                                //   with at least this confidence.
+
+    private boolean      fUpdating;     // True if fRawInput is our own buffer
+                                        //   that update() appends to.
+
     private boolean[]    fEnabledRecognizers;   // If not null, active set of charset recognizers had
                                                 // been changed from the default. The array index is
                                                 // corresponding to ALL_RECOGNIZER. See setDetectableCharset().
 
+    private volatile ThreadLocal<CharsetDetector> fWorkspaces;  // Non-null if this detector is frozen.
+                                                // Per-thread thawed copies of this detector,
+                                                // whose scratch state is used for detection.
+
     private static class CSRecognizerInfo {
         CharsetRecognizer recognizer;
         boolean isDefaultEnabled;
@@ -552,6 +803,7 @@ public class CharsetDetector {
      */
     @Deprecated
     public CharsetDetector setDetectableCharset(String encoding, boolean enabled) {
+        checkFrozen();
         int modIdx = -1;
         boolean isDefaultVal = false;
         for (int i = 0; i < ALL_CS_RECOGNIZERS.size(); i++) {
@@ -583,4 +835,90 @@ public class CharsetDetector {
 
         return this;
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public boolean isFrozen() {
+        return fWorkspaces != null;
+    }
+
+    /**
+     * Freeze this detector, so that its settings and input text can no longer
+     * be changed, and make it safe for concurrent use by multiple threads.
+     * Use {@link #detect(byte[], int, int)} and {@link #detectAll(byte[], int, int)}
+     * to detect the charset of input data with a frozen detector.
+     *
+     * @return This CharsetDetector
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public CharsetDetector freeze() {
+        if (fWorkspaces == null) {
+            fWorkspaces = new ThreadLocal<CharsetDetector>() {
+                @Override
+                protected CharsetDetector initialValue() {
+                    return cloneAsThawed();
+                }
+            };
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public CharsetDetector cloneAsThawed() {
+        CharsetDetector result = new CharsetDetector();
+        result.fDeclaredEncoding = fDeclaredEncoding;
+        result.fStripTags = fStripTags;
+        result.fSampleSize = fSampleSize;
+        result.fEarlyExitConfidence = fEarlyExitConfidence;
+        if (fEnabledRecognizers != null) {
+            result.fEnabledRecognizers = fEnabledRecognizers.clone();
+        }
+        if (fUpdating) {
+            // update() appends to its own buffer, which must not be shared.
+            result.fRawInput = fRawInput.clone();
+        } else {
+            result.fRawInput = fRawInput;
+        }
+        result.fRawOffset = fRawOffset;
+        result.fRawLength = fRawLength;
+        result.fInputStream = fInputStream;
+        result.fUpdating = fUpdating;
+        return result;
+    }
+
+    /*
+     * Returns the detector whose scratch state is used for detection:
+     * this one, or for a frozen detector, the calling thread's thawed copy,
+     * set to this detector's input text.
+     */
+    private CharsetDetector workspace() {
+        ThreadLocal<CharsetDetector> workspaces = fWorkspaces;
+        if (workspaces == null) {
+            return this;
+        }
+        CharsetDetector w = workspaces.get();
+        w.setRawInput(fRawInput, fRawOffset, fRawLength);
+        w.fInputStream = fInputStream;
+        return w;
+    }
+
+    private void checkFrozen() {
+        if (isFrozen()) {
+            throw new UnsupportedOperationException("Attempt to modify a frozen CharsetDetector");
+        }
+    }
 }
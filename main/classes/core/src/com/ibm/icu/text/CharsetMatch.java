@@ -48,7 +48,7 @@ public class CharsetMatch implements Comparable<CharsetMatch> {
         InputStream inputStream = fInputStream;
 
         if (inputStream == null) {
-            inputStream = new ByteArrayInputStream(fRawInput, 0, fRawLength);
+            inputStream = new ByteArrayInputStream(fRawInput, fRawOffset, fRawLength);
         }
 
         try {
@@ -114,7 +114,7 @@ public class CharsetMatch implements Comparable<CharsetMatch> {
             if (startSuffix > 0) {
                 name = name.substring(0, startSuffix);
             }
-            result = new String(fRawInput, name);
+            result = new String(fRawInput, fRawOffset, fRawLength, name);
         }
         return result;
 
@@ -201,6 +201,7 @@ public class CharsetMatch implements Comparable<CharsetMatch> {
             // We only want the existing input byte data if it came straight from the user,
             //   not if is just the head of a stream.
             fRawInput    = det.fRawInput;
+            fRawOffset   = det.fRawOffset;
             fRawLength   = det.fRawLength;
         }
         fInputStream = det.fInputStream;
@@ -221,6 +222,7 @@ public class CharsetMatch implements Comparable<CharsetMatch> {
             // We only want the existing input byte data if it came straight from the user,
             //   not if is just the head of a stream.
             fRawInput    = det.fRawInput;
+            fRawOffset   = det.fRawOffset;
             fRawLength   = det.fRawLength;
         }
         fInputStream = det.fInputStream;
@@ -235,6 +237,7 @@ public class CharsetMatch implements Comparable<CharsetMatch> {
     private int                 fConfidence;
     private byte[]              fRawInput = null;     // Original, untouched input bytes.
                                                       //  If user gave us a byte array, this is it.
+    private int                 fRawOffset;           // Index of the first byte of data in fRawInput.
     private int                 fRawLength;           // Length of data in fRawInput array.
 
     private InputStream         fInputStream = null;  // User's input stream, or null if the user
@@ -27,17 +27,19 @@ class CharsetRecog_UTF8 extends CharsetRecognizer {
         int         numValid = 0;
         int         numInvalid = 0;
         byte        input[] = det.fRawInput;
+        int         start = det.fRawOffset;
+        int         limit = start + det.fRawSampleLength;
         int         i;
         int         trailBytes = 0;
         int         confidence;
 
-        if (det.fRawLength >= 3 &&
-                (input[0] & 0xFF) == 0xef && (input[1] & 0xFF) == 0xbb && (input[2] & 0xFF) == 0xbf) {
+        if (det.fRawSampleLength >= 3 &&
+                (input[start] & 0xFF) == 0xef && (input[start+1] & 0xFF) == 0xbb && (input[start+2] & 0xFF) == 0xbf) {
             hasBOM = true;
         }
 
         // Scan for multi-byte sequences
-        for (i=0; i<det.fRawLength; i++) {
+        for (i=start; i<limit; i++) {
             int b = input[i];
             if ((b & 0x80) == 0) {
                 continue;   // ASCII
@@ -58,7 +60,7 @@ class CharsetRecog_UTF8 extends CharsetRecognizer {
             // Verify that we've got the right number of trail bytes in the sequence
             for (;;) {
                 i++;
-                if (i>=det.fRawLength) {
+                if (i>=limit) {
                     break;
                 }
                 b = input[i];
@@ -63,11 +63,12 @@ abstract class CharsetRecog_Unicode extends CharsetRecognizer {
         CharsetMatch match(CharsetDetector det)
         {
             byte[] input = det.fRawInput;
+            int start = det.fRawOffset;
             int confidence = 10;
 
-            int bytesToCheck = Math.min(input.length, 30);
+            int bytesToCheck = Math.min(det.fRawSampleLength, 30);
             for (int charIndex=0; charIndex<bytesToCheck-1; charIndex+=2) {
-                int codeUnit = codeUnit16FromBytes(input[charIndex], input[charIndex + 1]);
+                int codeUnit = codeUnit16FromBytes(input[start+charIndex], input[start+charIndex+1]);
                 if (charIndex == 0 && codeUnit == 0xFEFF) {
                     confidence = 100;
                     break;
@@ -99,12 +100,15 @@ abstract class CharsetRecog_Unicode extends CharsetRecognizer {
         CharsetMatch match(CharsetDetector det)
         {
             byte[] input = det.fRawInput;
+            int start = det.fRawOffset;
             int confidence = 10;
 
-            int bytesToCheck = Math.min(input.length, 30);
+            int bytesToCheck = Math.min(det.fRawSampleLength, 30);
             for (int charIndex=0; charIndex<bytesToCheck-1; charIndex+=2) {
-                int codeUnit = codeUnit16FromBytes(input[charIndex+1], input[charIndex]);
-                if (charIndex == 0 && codeUnit == 0xFEFF) {
+                int codeUnit = codeUnit16FromBytes(input[start+charIndex+1], input[start+charIndex]);
+                if (charIndex == 0 && codeUnit == 0xFEFF
+                        && !(bytesToCheck >= 4 && input[start+2] == 0x00 && input[start+3] == 0x00)) {
+                    // A BOM, unless it is the UTF-32LE BOM FF FE 00 00.
                     confidence = 100;
                     break;
                 }
@@ -134,7 +138,8 @@ abstract class CharsetRecog_Unicode extends CharsetRecognizer {
         CharsetMatch match(CharsetDetector det)
         {
             byte[] input   = det.fRawInput;
-            int limit      = (det.fRawLength / 4) * 4;
+            int start      = det.fRawOffset;
+            int limit      = (det.fRawSampleLength / 4) * 4;
             int numValid   = 0;
             int numInvalid = 0;
             boolean hasBOM = false;
@@ -143,12 +148,12 @@ abstract class CharsetRecog_Unicode extends CharsetRecognizer {
             if (limit==0) {
                 return null;
             }
-            if (getChar(input, 0) == 0x0000FEFF) {
+            if (getChar(input, start) == 0x0000FEFF) {
                 hasBOM = true;
             }
 
             for(int i = 0; i < limit; i += 4) {
-                int ch = getChar(input, i);
+                int ch = getChar(input, start + i);
 
                 if (ch < 0 || ch >= 0x10FFFF || (ch >= 0xD800 && ch <= 0xDFFF)) {
                     numInvalid += 1;
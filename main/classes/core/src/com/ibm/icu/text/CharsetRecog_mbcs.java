@@ -154,11 +154,11 @@ abstract class CharsetRecog_mbcs extends CharsetRecognizer {
          }
 
          int nextByte(CharsetDetector det) {
-             if (nextIndex >= det.fRawLength) {
+             if (nextIndex >= det.fRawSampleLength) {
                  done = true;
                  return -1;
              }
-             int byteValue = det.fRawInput[nextIndex++] & 0x00ff;
+             int byteValue = det.fRawInput[det.fRawOffset + nextIndex++] & 0x00ff;
              return byteValue;
          }
      }
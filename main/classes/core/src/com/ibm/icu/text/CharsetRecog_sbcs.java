@@ -266,15 +266,124 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
     }
 
 
-    int match(CharsetDetector det, int[] ngrams,  byte[] byteMap)
+    /*
+     * Scores the input against several n-gram tables that share one byte map
+     * in a single pass. All of the tables are merged into one open-addressed
+     * hash table that maps each n-gram to a bit mask of the tables containing
+     * it, so each n-gram in the input costs one probe no matter how many
+     * languages are being scored. The confidences are the same as running an
+     * NGramParser over each table in turn.
+     */
+    static class NGramScorer
     {
-        return match (det, ngrams, byteMap, (byte)0x20);
-    }
+        private static final int N_GRAM_MASK = 0xFFFFFF;
 
-    int match(CharsetDetector det, int[] ngrams,  byte[] byteMap, byte spaceChar)
-    {
-        NGramParser parser = new NGramParser(ngrams, byteMap);
-        return parser.parse(det, spaceChar);
+        private final byte[] byteMap;
+        private final int tableCount;
+
+        private final int[] keys;
+        private final int[] masks;
+        private final int shift;
+
+        NGramScorer(byte[] theByteMap, int[]... tables)
+        {
+            if (tables.length > 32) {
+                throw new IllegalArgumentException("Too many n-gram tables: " + tables.length);
+            }
+            byteMap    = theByteMap;
+            tableCount = tables.length;
+
+            int entries = 0;
+            for (int[] table : tables) {
+                entries += table.length;
+            }
+            // Keep the load factor at or below 1/4 so that probe chains stay short.
+            int bits = 4;
+            while ((1 << bits) < entries * 4) {
+                bits += 1;
+            }
+            keys  = new int[1 << bits];
+            masks = new int[1 << bits];
+            shift = 32 - bits;
+
+            for (int t = 0; t < tables.length; t += 1) {
+                for (int ngram : tables[t]) {
+                    int i = slot(ngram);
+                    while (masks[i] != 0 && keys[i] != ngram) {
+                        i = (i + 1) & (keys.length - 1);
+                    }
+                    keys[i]   = ngram;
+                    masks[i] |= 1 << t;
+                }
+            }
+        }
+
+        private int slot(int ngram)
+        {
+            return (ngram * 0x9E3779B1) >>> shift;
+        }
+
+        private int lookup(int ngram)
+        {
+            int i = slot(ngram);
+            int mask;
+            while ((mask = masks[i]) != 0) {
+                if (keys[i] == ngram) {
+                    return mask;
+                }
+                i = (i + 1) & (keys.length - 1);
+            }
+            return 0;
+        }
+
+        /*
+         * Returns one confidence per table, in the order the tables were given
+         * to the constructor.
+         */
+        int[] parse(CharsetDetector det)
+        {
+            return parse(det, (byte)0x20);
+        }
+
+        int[] parse(CharsetDetector det, byte spaceChar)
+        {
+            int[] hitCounts = new int[tableCount];
+            int ngramCount = 0;
+            int ngram = 0;
+            boolean ignoreSpace = false;
+
+            byte[] input = det.fInputBytes;
+            int inputLen = det.fInputLen;
+            for (int i = 0; i < inputLen; i += 1) {
+                byte mb = byteMap[input[i] & 0xFF];
+
+                if (mb != 0) {
+                    if (!(mb == spaceChar && ignoreSpace)) {
+                        ngram = ((ngram << 8) + (mb & 0xFF)) & N_GRAM_MASK;
+                        ngramCount += 1;
+                        for (int mask = lookup(ngram); mask != 0; mask &= mask - 1) {
+                            hitCounts[Integer.numberOfTrailingZeros(mask)] += 1;
+                        }
+                    }
+
+                    ignoreSpace = (mb == spaceChar);
+                }
+            }
+
+            // As in NGramParser, the input is treated as if it ended with a space.
+            ngram = ((ngram << 8) + (spaceChar & 0xFF)) & N_GRAM_MASK;
+            ngramCount += 1;
+            for (int mask = lookup(ngram); mask != 0; mask &= mask - 1) {
+                hitCounts[Integer.numberOfTrailingZeros(mask)] += 1;
+            }
+
+            int[] confidences = hitCounts;
+            for (int t = 0; t < tableCount; t += 1) {
+                double rawPercent = (double) hitCounts[t] / (double) ngramCount;
+                confidences[t] = rawPercent > 0.33 ? 98 : (int) (rawPercent * 300.0);
+            }
+            return confidences;
+        }
     }
 
     int matchIBM420(CharsetDetector det, int[] ngrams,  byte[] byteMap, byte spaceChar){
@@ -291,6 +400,14 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         }
     }
 
+    static int[][] tables(NGramsPlusLang[] ngls) {
+        int[][] tables = new int[ngls.length][];
+        for (int i = 0; i < ngls.length; i += 1) {
+            tables[i] = ngls[i].fNGrams;
+        }
+        return tables;
+    }
+
     static class CharsetRecog_8859_1 extends CharsetRecog_sbcs
     {
         protected static byte[] byteMap = {
@@ -421,6 +538,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
 
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, tables(ngrams_8859_1));
 
         @Override
         public CharsetMatch match(CharsetDetector det)
@@ -428,11 +546,11 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             String name = det.fC1Bytes ? "windows-1252" : "ISO-8859-1";
             int bestConfidenceSoFar = -1;
             String lang = null;
-            for (NGramsPlusLang ngl: ngrams_8859_1) {
-                int confidence = match(det, ngl.fNGrams, byteMap);
-                if (confidence > bestConfidenceSoFar) {
-                    bestConfidenceSoFar = confidence;
-                    lang = ngl.fLang;
+            int[] confidences = scorer.parse(det);
+            for (int i = 0; i < confidences.length; i += 1) {
+                if (confidences[i] > bestConfidenceSoFar) {
+                    bestConfidenceSoFar = confidences[i];
+                    lang = ngrams_8859_1[i].fLang;
                 }
             }
             return bestConfidenceSoFar <= 0 ? null : new CharsetMatch(det, this, bestConfidenceSoFar, name, lang);
@@ -519,17 +637,19 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
                     })
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, tables(ngrams_8859_2));
+
         @Override
         public CharsetMatch match(CharsetDetector det)
         {
             String name = det.fC1Bytes ? "windows-1250" : "ISO-8859-2";
             int bestConfidenceSoFar = -1;
             String lang = null;
-            for (NGramsPlusLang ngl: ngrams_8859_2) {
-                int confidence = match(det, ngl.fNGrams, byteMap);
-                if (confidence > bestConfidenceSoFar) {
-                    bestConfidenceSoFar = confidence;
-                    lang = ngl.fLang;
+            int[] confidences = scorer.parse(det);
+            for (int i = 0; i < confidences.length; i += 1) {
+                if (confidences[i] > bestConfidenceSoFar) {
+                    bestConfidenceSoFar = confidences[i];
+                    lang = ngrams_8859_2[i].fLang;
                 }
             }
             return bestConfidenceSoFar <= 0 ? null : new CharsetMatch(det, this, bestConfidenceSoFar, name, lang);
@@ -597,6 +717,8 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             0xDFDEDB, 0xDFE0D5, 0xDFE0D8, 0xDFE0DE, 0xE0D0D2, 0xE0D5D4, 0xE1E2D0, 0xE1E2D2, 0xE1E2D8, 0xE1EF20, 0xE2D5DB, 0xE2DE20, 0xE2DEE0, 0xE2EC20, 0xE7E2DE, 0xEBE520,
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public String getLanguage()
         {
@@ -606,7 +728,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         @Override
         public CharsetMatch match(CharsetDetector det)
         {
-            int confidence = match(det, ngrams, byteMap);
+            int confidence = scorer.parse(det)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence);
         }
     }
@@ -664,6 +786,8 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             0xE520C7, 0xE5C720, 0xE5C920, 0xE5E620, 0xE620C7, 0xE720C7, 0xE7C720, 0xE8C7E4, 0xE8E620, 0xE920C7, 0xEA20C7, 0xEA20E5, 0xEA20E8, 0xEAC920, 0xEAD120, 0xEAE620,
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public String getLanguage()
         {
@@ -673,7 +797,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         @Override
         public CharsetMatch match(CharsetDetector det)
         {
-            int confidence = match(det, ngrams, byteMap);
+            int confidence = scorer.parse(det)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence);
         }
     }
@@ -731,6 +855,8 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             0xF220EA, 0xF220F0, 0xF220F4, 0xF3E520, 0xF3E720, 0xF3F4EF, 0xF4E120, 0xF4E1E9, 0xF4E7ED, 0xF4E7F2, 0xF4E9EA, 0xF4EF20, 0xF4EFF5, 0xF4F9ED, 0xF9ED20, 0xFEED20,
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public String getLanguage()
         {
@@ -741,7 +867,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         public CharsetMatch match(CharsetDetector det)
         {
             String name = det.fC1Bytes ?  "windows-1253" : "ISO-8859-7";
-            int confidence = match(det, ngrams, byteMap);
+            int confidence = scorer.parse(det)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence, name, "el");
         }
     }
@@ -799,6 +925,8 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             0xED20F9, 0xEEE420, 0xEF20E4, 0xF0E420, 0xF0E920, 0xF0E9ED, 0xF2EC20, 0xF820E4, 0xF8E9ED, 0xF9EC20, 0xFA20E0, 0xFA20E1, 0xFA20E4, 0xFA20EC, 0xFA20EE, 0xFA20F9,
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public String getName()
         {
@@ -815,7 +943,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         public CharsetMatch match(CharsetDetector det)
         {
             String name = det.fC1Bytes ? "windows-1255" : "ISO-8859-8-I";
-            int confidence = match(det, ngrams, byteMap);
+            int confidence = scorer.parse(det)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence, name, "he");
         }
     }
@@ -829,6 +957,8 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             0xEDE9E9, 0xEDE9F0, 0xEDE9F8, 0xEE20E4, 0xEE20ED, 0xEE20FA, 0xEEE120, 0xEEE420, 0xF2E420, 0xF920E4, 0xF920ED, 0xF920FA, 0xF9E420, 0xFAE020, 0xFAE420, 0xFAE5E9,
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public String getLanguage()
         {
@@ -839,7 +969,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         public CharsetMatch match(CharsetDetector det)
         {
             String name = det.fC1Bytes ? "windows-1255" : "ISO-8859-8";
-            int confidence = match(det, ngrams, byteMap);
+            int confidence = scorer.parse(det)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence, name, "he");
 
         }
@@ -898,6 +1028,8 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             0x6E206B, 0x6E6461, 0x6E6465, 0x6E6520, 0x6E6920, 0x6E696E, 0x6EFD20, 0x72696E, 0x72FD6E, 0x766520, 0x796120, 0x796F72, 0xFD6E20, 0xFD6E64, 0xFD6EFD, 0xFDF0FD,
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public String getLanguage()
         {
@@ -908,7 +1040,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         public CharsetMatch match(CharsetDetector det)
         {
             String name = det.fC1Bytes ? "windows-1254" : "ISO-8859-9";
-            int confidence = match(det, ngrams, byteMap);
+            int confidence = scorer.parse(det)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence, name, "tr");
         }
     }
@@ -957,6 +1089,8 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             (byte) 0xF8, (byte) 0xF9, (byte) 0xFA, (byte) 0xFB, (byte) 0xFC, (byte) 0xFD, (byte) 0xFE, (byte) 0xFF,
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public String getName()
         {
@@ -972,7 +1106,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         @Override
         public CharsetMatch match(CharsetDetector det)
         {
-            int confidence = match(det, ngrams, byteMap);
+            int confidence = scorer.parse(det)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence);
         }
     }
@@ -1021,6 +1155,8 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             (byte) 0x20, (byte) 0xF9, (byte) 0x20, (byte) 0xFB, (byte) 0xFC, (byte) 0x20, (byte) 0x20, (byte) 0xFF,
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public String getName()
         {
@@ -1036,7 +1172,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         @Override
         public CharsetMatch match(CharsetDetector det)
         {
-            int confidence = match(det, ngrams, byteMap);
+            int confidence = scorer.parse(det)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence);
         }
     }
@@ -1085,6 +1221,8 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             (byte) 0xD8, (byte) 0xD9, (byte) 0xDA, (byte) 0xDB, (byte) 0xDC, (byte) 0xDD, (byte) 0xDE, (byte) 0xDF,
         };
 
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public String getName()
         {
@@ -1100,7 +1238,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
         @Override
         public CharsetMatch match(CharsetDetector det)
         {
-            int confidence = match(det, ngrams, byteMap);
+            int confidence = scorer.parse(det)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence);
         }
     }
@@ -1146,10 +1284,13 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             0x514540, 0x514671, 0x515155, 0x515540, 0x515740, 0x516840, 0x517140, 0x544041, 0x544045, 0x544140, 0x544540, 0x554041, 0x554042, 0x554045, 0x554054, 0x554056,
             0x554069, 0x564540, 0x574045, 0x584540, 0x585140, 0x585155, 0x625440, 0x684045, 0x685155, 0x695440, 0x714041, 0x714042, 0x714045, 0x714054, 0x714056, 0x714069,
         };
+
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public CharsetMatch match(CharsetDetector det)
         {
-            int confidence = match(det, ngrams, byteMap, (byte)0x40);
+            int confidence = scorer.parse(det, (byte)0x40)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence);
         }
     }
@@ -1167,10 +1308,13 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             0x555151, 0x555158, 0x555168, 0x564045, 0x564055, 0x564071, 0x564240, 0x564540, 0x624540, 0x694045, 0x694055, 0x694071, 0x694540, 0x714140, 0x714540, 0x714651
 
         };
+
+        private static final NGramScorer scorer = new NGramScorer(byteMap, ngrams);
+
         @Override
         public CharsetMatch match(CharsetDetector det)
         {
-            int confidence = match(det, ngrams, byteMap, (byte)0x40);
+            int confidence = scorer.parse(det, (byte)0x40)[0];
             return confidence == 0 ? null : new CharsetMatch(det, this, confidence);
         }
     }
@@ -36,6 +36,7 @@ class CjkBreakEngine extends DictionaryBreakEngine {
     }
 
     private DictionaryMatcher fDictionary = null;
+    private final Normalizer2 fNfkc = Normalizer2.getNFKCInstance();
 
     public CjkBreakEngine(boolean korean) throws IOException {
         super(BreakIterator.KIND_WORD);
@@ -71,8 +72,8 @@ class CjkBreakEngine extends DictionaryBreakEngine {
     private static final int kMaxKatakanaGroupLength = 20;
     private static final int maxSnlp = 255;
     private static final int kint32max = Integer.MAX_VALUE;
+    private static final int katakanaCost[] =  new int[] { 8192, 984, 408, 240, 204, 252, 300, 372, 480 };
     private static int getKatakanaCost(int wordlength) {
-        int katakanaCost[] =  new int[] { 8192, 984, 408, 240, 204, 252, 300, 372, 480 };
         return (wordlength > kMaxKatakanaLength) ? 8192 : katakanaCost[wordlength];
     }
 
@@ -83,40 +84,43 @@ class CjkBreakEngine extends DictionaryBreakEngine {
 
     @Override
     public int divideUpDictionaryRange(CharacterIterator inText, int startPos, int endPos,
-            DequeI foundBreaks) {
+            DequeI foundBreaks, Buffers buffers) {
         if (startPos >= endPos) {
             return 0;
         }
 
-        inText.setIndex(startPos);
-
         int inputLength = endPos - startPos;
-        int[] charPositions = new int[inputLength + 1];
-        StringBuffer s = new StringBuffer("");
+        int[] charPositions;
+        StringBuilder s = buffers.text;
+        s.setLength(0);
         inText.setIndex(startPos);
         while (inText.getIndex() < endPos) {
             s.append(inText.current());
             inText.next();
         }
-        String prenormstr = s.toString();
-        boolean isNormalized = Normalizer.quickCheck(prenormstr, Normalizer.NFKC) == Normalizer.YES ||
-                               Normalizer.isNormalized(prenormstr, Normalizer.NFKC, 0);
+        boolean isNormalized = fNfkc.quickCheck(s) == Normalizer.YES || fNfkc.isNormalized(s);
         CharacterIterator text;
+        int textStart;
         int numChars = 0;
         if (isNormalized) {
-            text = new java.text.StringCharacterIterator(prenormstr);
+            // Match the dictionary words directly in the input text.
+            text = inText;
+            textStart = startPos;
+            charPositions = buffers.charPositions = Buffers.ensureCapacity(buffers.charPositions, inputLength + 1);
             int index = 0;
             charPositions[0] = 0;
-            while (index < prenormstr.length()) {
-                int codepoint = prenormstr.codePointAt(index);
+            while (index < inputLength) {
+                int codepoint = Character.codePointAt(s, index);
                 index += Character.charCount(codepoint);
                 numChars++;
                 charPositions[numChars] = index;
             }
         } else {
+            String prenormstr = s.toString();
             String normStr = Normalizer.normalize(prenormstr, Normalizer.NFKC);
             text = new java.text.StringCharacterIterator(normStr);
-            charPositions = new int[normStr.length() + 1];
+            textStart = 0;
+            charPositions = buffers.charPositions = Buffers.ensureCapacity(buffers.charPositions, normStr.length() + 1);
             Normalizer normalizer = new Normalizer(prenormstr, Normalizer.NFKC, 0);
             int index = 0;
             charPositions[0] = 0;
@@ -130,31 +134,31 @@ class CjkBreakEngine extends DictionaryBreakEngine {
 
         // From here on out, do the algorithm. Note that our indices
         // refer to indices within the normalized string.
-        int[] bestSnlp = new int[numChars + 1];
+        int[] bestSnlp = buffers.bestSnlp = Buffers.ensureCapacity(buffers.bestSnlp, numChars + 1);
         bestSnlp[0] = 0;
         for (int i = 1; i <= numChars; i++) {
             bestSnlp[i] = kint32max;
         }
 
-        int[] prev = new int[numChars + 1];
+        int[] prev = buffers.prev = Buffers.ensureCapacity(buffers.prev, numChars + 1);
         for (int i = 0; i <= numChars; i++) {
             prev[i] = -1;
         }
 
         final int maxWordSize = 20;
-        int values[] = new int[numChars];
-        int lengths[] = new int[numChars];
+        int values[] = buffers.values = Buffers.ensureCapacity(buffers.values, numChars);
+        int lengths[] = buffers.lengths = Buffers.ensureCapacity(buffers.lengths, numChars);
+        int[] count_ = buffers.count;
         // dynamic programming to find the best segmentation
         boolean is_prev_katakana = false;
         for (int i = 0; i < numChars; i++) {
-            text.setIndex(i);
+            text.setIndex(textStart + i);
             if (bestSnlp[i] == kint32max) {
                 continue;
             }
 
             int maxSearchLength = (i + maxWordSize < numChars) ? maxWordSize : (numChars - i);
-            int[] count_ = new int[1];
-            fDictionary.matches(text, maxSearchLength, lengths, count_, maxSearchLength, values);
+            fDictionary.matches(text, maxSearchLength, lengths, count_, maxSearchLength, values, buffers);
             int count = count_[0];
 
             // if there are no single character matches found in the dictionary
@@ -162,7 +166,7 @@ class CjkBreakEngine extends DictionaryBreakEngine {
             // with the highest value possible (i.e. the least likely to occur).
             // Exclude Korean characters from this treatment, as they should be
             // left together by default.
-            text.setIndex(i);  // fDictionary.matches() advances the text position; undo that.
+            text.setIndex(textStart + i);  // fDictionary.matches() advances the text position; undo that.
             if ((count == 0 || lengths[0] != 1) && current32(text) != DONE32 && !fHangulWordSet.contains(current32(text))) {
                 values[count] = maxSnlp;
                 lengths[count] = 1;
@@ -202,7 +206,9 @@ class CjkBreakEngine extends DictionaryBreakEngine {
             is_prev_katakana = is_katakana;
         }
 
-        int t_boundary[] = new int[numChars + 1];
+        inText.setIndex(endPos);
+
+        int t_boundary[] = buffers.boundaries = Buffers.ensureCapacity(buffers.boundaries, numChars + 1);
         int numBreaks = 0;
         if (bestSnlp[numChars] == kint32max) {
             t_boundary[numBreaks] = numChars;
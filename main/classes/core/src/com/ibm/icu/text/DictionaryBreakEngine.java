@@ -12,6 +12,8 @@ import java.text.CharacterIterator;
 import java.util.BitSet;
 
 import com.ibm.icu.impl.CharacterIteration;
+import com.ibm.icu.util.BytesTrie;
+import com.ibm.icu.util.CharsTrie;
 
 abstract class DictionaryBreakEngine implements LanguageBreakEngine {
 
@@ -29,20 +31,26 @@ abstract class DictionaryBreakEngine implements LanguageBreakEngine {
         private int offset;     // Offset in the text of these candidates
         private int mark;       // The preferred candidate's offset
         private int current;    // The candidate we're currently looking at
+        private final Buffers buffers;  // Provides the dictionary trie object
 
-        // Default constructor
-        public PossibleWord() {
+        public PossibleWord(Buffers buffers) {
+            this.buffers = buffers;
             lengths = new int[POSSIBLE_WORD_LIST_MAX];
             count = new int[1]; // count needs to be an array of 1 so that it can be pass as reference
             offset = -1;
         }
 
+        // Forget the candidates, before reusing this object for another range of text
+        void reset() {
+            offset = -1;
+        }
+
         // Fill the list of candidates if needed, select the longest, and return the number found
         public int candidates(CharacterIterator fIter, DictionaryMatcher dict, int rangeEnd) {
             int start = fIter.getIndex();
             if (start != offset) {
                 offset = start;
-                prefix = dict.matches(fIter, rangeEnd - start, lengths, count, lengths.length);
+                prefix = dict.matches(fIter, rangeEnd - start, lengths, count, lengths.length, null, buffers);
                 // Dictionary leaves text after longest prefix, not longest word. Back up.
                 if (count[0] <= 0) {
                     fIter.setIndex(start);
@@ -142,6 +150,10 @@ abstract class DictionaryBreakEngine implements LanguageBreakEngine {
             return data[lastIdx++];
         }
 
+        void removeAllElements() {
+            lastIdx = firstIdx = 4;
+        }
+
         boolean contains(int v) {
             for (int i=lastIdx; i< firstIdx; i++) {
                 if (data[i] == v) {
@@ -152,6 +164,87 @@ abstract class DictionaryBreakEngine implements LanguageBreakEngine {
         }
     }
 
+    /**
+     *  Working storage for the dictionary break engines.
+     *  The engines are shared by the clones of a break iterator, which may be used
+     *  in different threads, so each break iterator has its own Buffers,
+     *  which are reused for each range of dictionary characters.
+     *  For internal use only.
+     * @internal
+     */
+    static final class Buffers {
+        /** Break positions found by the engines, for the break iterator. */
+        final DequeI breaks = new DequeI();
+        /** Output count for DictionaryMatcher.matches(). */
+        final int[] count = new int[1];
+        /** Copy of the range of text being divided up. */
+        final StringBuilder text = new StringBuilder();
+
+        // Arrays for CjkBreakEngine, each at least as long as the range being divided up.
+        int[] charPositions = EMPTY;
+        int[] bestSnlp = EMPTY;
+        int[] prev = EMPTY;
+        int[] values = EMPTY;
+        int[] lengths = EMPTY;
+        int[] boundaries = EMPTY;
+
+        private static final int[] EMPTY = new int[0];
+        private PossibleWord[] words;
+        private BytesTrie bytesTrie;
+        private byte[] bytesTrieData;
+        private CharsTrie charsTrie;
+        private CharSequence charsTrieData;
+
+        /**
+         * Returns PossibleWord objects without candidates,
+         * for the Thai/Lao/Khmer/Burmese word break algorithm.
+         */
+        PossibleWord[] getPossibleWords(int length) {
+            if (words == null || words.length < length) {
+                words = new PossibleWord[length];
+                for (int i = 0; i < length; i++) {
+                    words[i] = new PossibleWord(this);
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    words[i].reset();
+                }
+            }
+            return words;
+        }
+
+        /**
+         * Returns a trie over the given data, reusing the previous one if it was for the same data.
+         * The trie must be reset before use, for example with first().
+         */
+        BytesTrie getBytesTrie(byte[] data) {
+            if (bytesTrieData != data) {
+                bytesTrie = new BytesTrie(data, 0);
+                bytesTrieData = data;
+            }
+            return bytesTrie;
+        }
+
+        /**
+         * Returns a trie over the given data, reusing the previous one if it was for the same data.
+         * The trie must be reset before use, for example with firstForCodePoint().
+         */
+        CharsTrie getCharsTrie(CharSequence data) {
+            if (charsTrieData != data) {
+                charsTrie = new CharsTrie(data, 0);
+                charsTrieData = data;
+            }
+            return charsTrie;
+        }
+
+        /**
+         * Returns the array if it has at least the given length, otherwise a new array.
+         */
+        static int[] ensureCapacity(int[] array, int length) {
+            return array.length >= length ? array : new int[Math.max(length, 2 * array.length)];
+        }
+    }
+
     UnicodeSet fSet = new UnicodeSet();
     private BitSet fTypes = new BitSet(32);
 
@@ -173,7 +266,7 @@ abstract class DictionaryBreakEngine implements LanguageBreakEngine {
 
     @Override
     public int findBreaks(CharacterIterator text, int startPos, int endPos,
-            boolean reverse, int breakType, DequeI foundBreaks) {
+            boolean reverse, int breakType, DequeI foundBreaks, Buffers buffers) {
          int result = 0;
 
          // Find the span of characters included in the set.
@@ -203,7 +296,7 @@ abstract class DictionaryBreakEngine implements LanguageBreakEngine {
             rangeEnd = current;
         }
 
-        result = divideUpDictionaryRange(text, rangeStart, rangeEnd, foundBreaks);
+        result = divideUpDictionaryRange(text, rangeStart, rangeEnd, foundBreaks, buffers);
         text.setIndex(current);
 
         return result;
@@ -222,10 +315,12 @@ abstract class DictionaryBreakEngine implements LanguageBreakEngine {
      * @param rangeEnd The end of the range of dictionary characters
      * @param foundBreaks Output of break positions. Positions are pushed.
      *                    Pre-existing contents of the output stack are unaltered.
+     * @param buffers Working storage, reused instead of allocating for each range
      * @return The number of breaks found
      */
      abstract int divideUpDictionaryRange(CharacterIterator text,
                                           int               rangeStart,
                                           int               rangeEnd,
-                                          DequeI            foundBreaks );
+                                          DequeI            foundBreaks,
+                                          Buffers           buffers );
 }
@@ -10,6 +10,8 @@ package com.ibm.icu.text;
 
 import java.text.CharacterIterator;
 
+import com.ibm.icu.impl.CharacterIteration;
+
 /**
  * The DictionaryMatcher interface is used to allow arbitrary "types" of
  * back-end data structures to be used with the break iteration code.
@@ -25,16 +27,35 @@ abstract class DictionaryMatcher {
      * @param count Filled with the number of elements output in lengths.
      * @param limit The maximum amount of words to output. Must be less than or equal to lengths.length.
      * @param values Filled with the weight values associated with the various words.
+     * @param buffers If not null, provides a trie object that is reused instead of allocating one.
      * @return The number of characters in text that were matched.
      */
     public abstract int matches(CharacterIterator text, int maxLength, int[] lengths,
-            int[] count, int limit, int[] values);
-    
+            int[] count, int limit, int[] values, DictionaryBreakEngine.Buffers buffers);
+
+    public int matches(CharacterIterator text, int maxLength, int[] lengths,
+            int[] count, int limit, int[] values) {
+        return matches(text, maxLength, lengths, count, limit, values, null);
+    }
+
     public int matches(CharacterIterator text, int maxLength, int[] lengths, 
             int[] count, int limit) {
         return matches(text, maxLength, lengths, count, limit, null);
     }
 
+    /**
+     * Returns the code point at the current position and moves the iterator past it,
+     * or returns CharacterIteration.DONE32 at the end of the text.
+     * Like UCharacterIterator.nextCodePoint(), without wrapping the iterator.
+     */
+    static int nextCodePoint(CharacterIterator text) {
+        int c = CharacterIteration.current32(text);
+        if (c != CharacterIteration.DONE32) {
+            CharacterIteration.next32(text);
+        }
+        return c;
+    }
+
     /**
      * @return the kind of dictionary that this matcher is using
      */
@@ -90,7 +90,7 @@ class KhmerBreakEngine extends DictionaryBreakEngine {
     }
 
     public int divideUpDictionaryRange(CharacterIterator fIter, int rangeStart, int rangeEnd, 
-            DequeI foundBreaks) {
+            DequeI foundBreaks, Buffers buffers) {
                
         if ((rangeEnd - rangeStart) < KHMER_MIN_WORD_SPAN) {
             return 0;  // Not enough characters for word
@@ -98,10 +98,7 @@ class KhmerBreakEngine extends DictionaryBreakEngine {
         int wordsFound = 0;
         int wordLength;
         int current;
-        PossibleWord words[] = new PossibleWord[KHMER_LOOKAHEAD];
-        for (int i = 0; i < KHMER_LOOKAHEAD; i++) {
-            words[i] = new PossibleWord();
-        }
+        PossibleWord words[] = buffers.getPossibleWords(KHMER_LOOKAHEAD);
         int uc;
 
         fIter.setIndex(rangeStart);
@@ -215,7 +212,7 @@ class KhmerBreakEngine extends DictionaryBreakEngine {
 
             // Did we find a word on this iteration? If so, push it on the break stack
             if (wordLength > 0) {
-                foundBreaks.push(Integer.valueOf(current + wordLength));
+                foundBreaks.push(current + wordLength);
             }
         }
 
@@ -34,10 +34,12 @@ interface LanguageBreakEngine {
      * @param breakType The kind of break iterator that is wanting to make use
      *  of this engine - character, word, line, sentence
      * @param foundBreaks A Stack that the breaks found will be added to
+     * @param buffers Working storage owned by the calling break iterator
      * @return the number of words found
      */
     int findBreaks(CharacterIterator text, int startPos, int endPos,
-            boolean reverse, int breakType, DictionaryBreakEngine.DequeI foundBreaks);
+            boolean reverse, int breakType, DictionaryBreakEngine.DequeI foundBreaks,
+            DictionaryBreakEngine.Buffers buffers);
 }
     
     
@@ -89,7 +89,7 @@ class LaoBreakEngine extends DictionaryBreakEngine {
     }
 
     public int divideUpDictionaryRange(CharacterIterator fIter, int rangeStart, int rangeEnd,
-            DequeI foundBreaks) {
+            DequeI foundBreaks, Buffers buffers) {
         
         
         if ((rangeEnd - rangeStart) < LAO_MIN_WORD) {
@@ -98,10 +98,7 @@ class LaoBreakEngine extends DictionaryBreakEngine {
         int wordsFound = 0;
         int wordLength;
         int current;
-        PossibleWord words[] = new PossibleWord[LAO_LOOKAHEAD];
-        for (int i = 0; i < LAO_LOOKAHEAD; i++) {
-            words[i] = new PossibleWord();
-        }
+        PossibleWord words[] = buffers.getPossibleWords(LAO_LOOKAHEAD);
         int uc;
 
         fIter.setIndex(rangeStart);
@@ -214,7 +211,7 @@ class LaoBreakEngine extends DictionaryBreakEngine {
 
             // Did we find a word on this iteration? If so, push it on the break stack
             if (wordLength > 0) {
-                foundBreaks.push(Integer.valueOf(current + wordLength));
+                foundBreaks.push(current + wordLength);
             }
         }
 
@@ -11,10 +11,19 @@ package com.ibm.icu.text;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import com.ibm.icu.impl.ICUBinary;
 import com.ibm.icu.impl.Norm2AllModes;
+import com.ibm.icu.impl.ParallelTasks;
+import com.ibm.icu.impl.UTF8;
 import com.ibm.icu.util.ICUUncheckedIOException;
 
 /**
@@ -240,6 +249,89 @@ public abstract class Normalizer2 {
      */
     public abstract StringBuilder normalize(CharSequence src, StringBuilder dest);
 
+    /**
+     * Writes the normalized form of the source string to the destination string
+     * (replacing its contents) and returns the destination string,
+     * normalizing chunks of a large source string in parallel.
+     * The result is the same as with {@link #normalize(CharSequence, StringBuilder)}.
+     *
+     * <p>The source string is split before characters that have a normalization boundary
+     * before them ({@link #hasBoundaryBefore(int)}),
+     * the chunks are normalized by tasks on the executor, and the results are concatenated.
+     * Short strings are normalized in the calling thread.
+     * The source and destination strings must be different objects,
+     * and the source string must not be modified during this call.
+     *
+     * @param src source string
+     * @param dest destination string; its contents is replaced with normalized src
+     * @param executor runs the tasks; if null, then src is normalized in the calling thread
+     * @return dest
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public StringBuilder normalize(final CharSequence src, StringBuilder dest, ExecutorService executor) {
+        int length=src.length();
+        int numChunks=executor==null ? 1 : ParallelTasks.getNumChunks(length, MIN_PARALLEL_CHUNK_LENGTH);
+        if(numChunks<=1) {
+            return normalize(src, dest);
+        }
+        if(dest==src) {
+            throw new IllegalArgumentException();
+        }
+        List<Callable<StringBuilder>> tasks=new ArrayList<Callable<StringBuilder>>(numChunks);
+        int chunkStart=0;
+        for(int i=1; i<=numChunks && chunkStart<length; ++i) {
+            int chunkLimit;
+            if(i==numChunks) {
+                chunkLimit=length;
+            } else {
+                chunkLimit=getNextBoundary(src, Math.max(chunkStart+1, (int)((long)length*i/numChunks)));
+            }
+            final int start=chunkStart, limit=chunkLimit;
+            tasks.add(new Callable<StringBuilder>() {
+                @Override
+                public StringBuilder call() {
+                    return normalize(src.subSequence(start, limit), new StringBuilder(limit-start));
+                }
+            });
+            chunkStart=chunkLimit;
+        }
+        List<StringBuilder> results=ParallelTasks.invokeAll(executor, tasks);
+        int destLength=0;
+        for(StringBuilder result : results) {
+            destLength+=result.length();
+        }
+        dest.setLength(0);
+        dest.ensureCapacity(destLength);
+        for(StringBuilder result : results) {
+            dest.append(result);
+        }
+        return dest;
+    }
+
+    private static final int MIN_PARALLEL_CHUNK_LENGTH=32768;
+
+    /**
+     * Returns the first index at or after i, on a code point boundary,
+     * before which the string can be split for independent normalization,
+     * or s.length() if there is none.
+     */
+    private int getNextBoundary(CharSequence s, int i) {
+        int length=s.length();
+        if(i>0 && i<length &&
+                Character.isLowSurrogate(s.charAt(i)) && Character.isHighSurrogate(s.charAt(i-1))) {
+            ++i;
+        }
+        while(i<length) {
+            int c=Character.codePointAt(s, i);
+            if(hasBoundaryBefore(c)) {
+                break;
+            }
+            i+=Character.charCount(c);
+        }
+        return i;
+    }
+
     /**
      * Writes the normalized form of the source string to the destination Appendable
      * and returns the destination Appendable.
@@ -254,6 +346,440 @@ public abstract class Normalizer2 {
      */
     public abstract Appendable normalize(CharSequence src, Appendable dest);
 
+    /**
+     * Normalizes the source text into a caller-supplied buffer, as much as fits,
+     * like a {@link java.nio.charset.CharsetEncoder}.
+     * The source text is src[position..limit[.
+     *
+     * <p>The text is normalized one chunk at a time; each chunk ends at a normalization boundary.
+     * The normalized form of each chunk is written to dest starting at its position,
+     * and the positions of both buffers are advanced past the chunk and its normalized form.
+     * When the normalized form of the next chunk does not fit into dest,
+     * this method stops before that chunk and returns {@link CoderResult#OVERFLOW}.
+     * The caller can then drain or grow dest and call this method again
+     * to continue with the rest of the source text.
+     * When all of the source text has been normalized, this method returns
+     * {@link CoderResult#UNDERFLOW}.
+     *
+     * <p>The quick check "yes" parts of the source text are copied directly.
+     * Other chunks are normalized via per-thread scratch space,
+     * so that repeated calls do not allocate temporary buffers.
+     * The two buffers must not overlap.
+     *
+     * @param src source text
+     * @param dest destination buffer
+     * @return {@link CoderResult#UNDERFLOW} if all of src was normalized,
+     *         {@link CoderResult#OVERFLOW} if dest is too small for the rest of src
+     * @throws IllegalArgumentException if src and dest are the same object
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public CoderResult normalize(CharBuffer src, CharBuffer dest) {
+        if(src==dest) {
+            throw new IllegalArgumentException();
+        }
+        int srcStart=src.position();
+        int srcLength=src.remaining();
+        Scratch scratch=SCRATCH.get();
+        try {
+            if(src.hasArray()) {
+                int offset=src.arrayOffset()+srcStart;
+                scratch.setText(src.array(), null, offset, srcLength);
+            } else {
+                // CharBuffer.charAt() indexes are relative to the position.
+                scratch.setText(null, src, 0, srcLength);
+            }
+            int destStart=dest.position();
+            if(dest.hasArray()) {
+                int offset=dest.arrayOffset();
+                scratch.setDest(dest.array(), null, offset+destStart, offset+dest.limit());
+            } else {
+                scratch.setDest(null, dest, 0, 0);
+            }
+            int consumed=normalizeToCapacity(scratch);
+            src.position(srcStart+consumed);
+            if(dest.hasArray()) {
+                dest.position(scratch.destIndex-dest.arrayOffset());
+            }
+            return consumed<srcLength ? CoderResult.OVERFLOW : CoderResult.UNDERFLOW;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Writes the normalized form of src[srcStart..srcLimit[ into dest[destStart..destLimit[,
+     * if it fits, and returns the length of the normalized text.
+     * If the return value is greater than destLimit-destStart,
+     * then the caller can retry with at least that much space;
+     * in this case, the contents of dest[destStart..destLimit[ is undefined.
+     * The source and destination ranges must not overlap.
+     * Like {@link #normalize(CharBuffer, CharBuffer)}, this method uses per-thread scratch space
+     * and does not allocate temporary buffers.
+     *
+     * @param src source text
+     * @param srcStart start index of the source text
+     * @param srcLimit limit index of the source text
+     * @param dest destination array
+     * @param destStart start index of the destination range
+     * @param destLimit limit index of the destination range
+     * @return the length of the normalized text
+     * @throws IllegalArgumentException if src and dest are the same array
+     * @throws IndexOutOfBoundsException if a range is out of bounds
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int normalize(char[] src, int srcStart, int srcLimit,
+                         char[] dest, int destStart, int destLimit) {
+        if(src==dest) {
+            throw new IllegalArgumentException();
+        }
+        if(srcStart<0 || srcStart>srcLimit || srcLimit>src.length ||
+                destStart<0 || destStart>destLimit || destLimit>dest.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        Scratch scratch=SCRATCH.get();
+        try {
+            scratch.setText(src, null, srcStart, srcLimit-srcStart);
+            scratch.setDest(dest, null, destStart, destLimit);
+            int consumed=normalizeToCapacity(scratch);
+            int length=scratch.destIndex-destStart;
+            if(consumed<scratch.textLength) {
+                length+=getNormalizedLength(scratch, consumed);
+            }
+            return length;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Normalizes the scratch text one chunk at a time into the scratch destination,
+     * as long as the normalized chunks fit.
+     * Returns the length of the source text that was normalized.
+     */
+    private int normalizeToCapacity(Scratch t) {
+        int start=0;
+        int length=t.textLength;
+        while(start<length) {
+            int capacity=t.capacity();
+            if(capacity==0) {
+                break;
+            }
+            // A chunk that ends at a normalization boundary,
+            // and that is not longer than the capacity if possible.
+            int maxLength=Math.min(capacity, MAX_SCRATCH_LENGTH);
+            t.setWindow(start, length);
+            int limit=length;
+            if(length-start>maxLength) {
+                int boundary=getPreviousBoundary(t, maxLength);
+                limit=start+(boundary>0 ? boundary : getNextBoundary(t, maxLength));
+                t.setWindow(start, limit);
+            }
+            int yesLength=spanQuickCheckYesToBoundary(t);
+            if(yesLength>0) {
+                if(yesLength>capacity) {
+                    break;
+                }
+                t.putText(start, start+yesLength);
+                start+=yesLength;
+                continue;
+            }
+            // Normalize the chunk, or a shorter one if the result does not fit.
+            for(;;) {
+                normalize(t, t.normalized);
+                if(t.normalized.length()<=capacity) {
+                    break;
+                }
+                int boundary=getPreviousBoundary(t, (limit-start)/2);
+                if(boundary==0) {
+                    return start;
+                }
+                limit=start+boundary;
+                t.setWindow(start, limit);
+            }
+            t.putNormalized();
+            start=limit;
+        }
+        return start;
+    }
+
+    /**
+     * Returns the length of the normalized form of the scratch text from start to its end,
+     * without writing it.
+     */
+    private int getNormalizedLength(Scratch t, int start) {
+        int destLength=0;
+        int length=t.textLength;
+        while(start<length) {
+            t.setWindow(start, length);
+            int limit=length;
+            if(length-start>MAX_SCRATCH_LENGTH) {
+                limit=start+getNextBoundary(t, MAX_SCRATCH_LENGTH);
+                t.setWindow(start, limit);
+            }
+            int yesLength=spanQuickCheckYesToBoundary(t);
+            if(yesLength>0) {
+                destLength+=yesLength;
+                start+=yesLength;
+            } else {
+                destLength+=normalize(t, t.normalized).length();
+                start=limit;
+            }
+        }
+        return destLength;
+    }
+
+    /**
+     * Returns the last index at or before i, on a code point boundary,
+     * before which the string can be split for independent normalization,
+     * or 0 if there is none.
+     * Requires i<s.length().
+     */
+    private int getPreviousBoundary(CharSequence s, int i) {
+        if(i>0 && Character.isLowSurrogate(s.charAt(i)) && Character.isHighSurrogate(s.charAt(i-1))) {
+            --i;
+        }
+        while(i>0) {
+            int c=Character.codePointAt(s, i);
+            if(hasBoundaryBefore(c)) {
+                break;
+            }
+            i-=Character.charCount(Character.codePointBefore(s, i));
+        }
+        return i;
+    }
+
+    /**
+     * Limits the chunk length and thus the size of the per-thread scratch space
+     * unless a single segment is longer.
+     */
+    private static final int MAX_SCRATCH_LENGTH=8192;
+
+    private static final ThreadLocal<Scratch> SCRATCH=new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    /**
+     * Per-thread state for normalizing into CharBuffer and char[] destinations.
+     * The CharSequence is a window into the source text,
+     * which is either a char array or another CharSequence.
+     * The destination is either a char array range or a CharBuffer without an accessible array.
+     */
+    private static final class Scratch implements CharSequence {
+        void setText(char[] array, CharSequence seq, int start, int length) {
+            textArray=array;
+            textSeq=seq;
+            textStart=start;
+            textLength=length;
+        }
+
+        /** Sets the window to text[start..limit[. */
+        void setWindow(int start, int limit) {
+            windowStart=textStart+start;
+            windowLength=limit-start;
+        }
+
+        void setDest(char[] array, CharBuffer buffer, int index, int limit) {
+            destArray=array;
+            destBuffer=buffer;
+            destIndex=index;
+            destLimit=limit;
+        }
+
+        int capacity() {
+            return destArray!=null ? destLimit-destIndex : destBuffer.remaining();
+        }
+
+        /** Writes text[start..limit[ to the destination. */
+        void putText(int start, int limit) {
+            int length=limit-start;
+            start+=textStart;
+            if(textArray!=null) {
+                if(destArray!=null) {
+                    System.arraycopy(textArray, start, destArray, destIndex, length);
+                    destIndex+=length;
+                } else {
+                    destBuffer.put(textArray, start, length);
+                }
+            } else {
+                for(int i=0; i<length; ++i) {
+                    char c=textSeq.charAt(start+i);
+                    if(destArray!=null) {
+                        destArray[destIndex++]=c;
+                    } else {
+                        destBuffer.put(c);
+                    }
+                }
+            }
+        }
+
+        /** Writes the normalized chunk to the destination. */
+        void putNormalized() {
+            int length=normalized.length();
+            if(destArray!=null) {
+                normalized.getChars(0, length, destArray, destIndex);
+                destIndex+=length;
+            } else {
+                for(int i=0; i<length; ++i) {
+                    destBuffer.put(normalized.charAt(i));
+                }
+            }
+        }
+
+        /** Drops the references to the caller's buffers, and overly large scratch space. */
+        void release() {
+            textArray=null;
+            textSeq=null;
+            destArray=null;
+            destBuffer=null;
+            if(normalized.capacity()>4*MAX_SCRATCH_LENGTH) {
+                normalized=new StringBuilder();
+            } else {
+                normalized.setLength(0);
+            }
+        }
+
+        @Override
+        public int length() {
+            return windowLength;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if(index<0 || index>=windowLength) {
+                throw new IndexOutOfBoundsException();
+            }
+            index+=windowStart;
+            return textArray!=null ? textArray[index] : textSeq.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if(start<0 || start>end || end>windowLength) {
+                throw new IndexOutOfBoundsException();
+            }
+            if(textArray!=null) {
+                return new String(textArray, windowStart+start, end-start);
+            } else {
+                return textSeq.subSequence(windowStart+start, windowStart+end).toString();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, windowLength).toString();
+        }
+
+        private char[] textArray;
+        private CharSequence textSeq;
+        private int textStart;
+        int textLength;
+        private int windowStart;
+        private int windowLength;
+
+        private char[] destArray;
+        private CharBuffer destBuffer;
+        int destIndex;
+        private int destLimit;
+
+        StringBuilder normalized=new StringBuilder();
+    }
+
+    /**
+     * {@icu} Writes the normalized form of the UTF-8 text src[start..limit[ to dest,
+     * without converting the quick check "yes" prefix to UTF-16.
+     * Ill-formed UTF-8 sequences are replaced with U+FFFD.
+     *
+     * <p>Already-normalized text is checked in a single pass over the bytes
+     * and written with one bulk write, without temporary objects.
+     * Only the rest of the text after the "yes" prefix is normalized via UTF-16.
+     *
+     * @param src UTF-8 source text
+     * @param start start index of the source text
+     * @param limit limit index of the source text
+     * @param dest receives the normalized UTF-8 text
+     * @return the number of bytes written
+     * @throws IllegalArgumentException if the range is out of bounds
+     * @throws ICUUncheckedIOException if writing to dest fails
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int normalizeUTF8(byte[] src, int start, int limit, OutputStream dest) {
+        int prefixLimit=spanQuickCheckYesToBoundaryUTF8(src, start, limit);
+        int length=prefixLimit-start;
+        try {
+            dest.write(src, start, length);
+            if(prefixLimit<limit) {
+                StringBuilder rest=normalizeUTF8ToUTF16(src, prefixLimit, limit);
+                byte[] bytes=new byte[UTF8.getUTF8Length(rest)];
+                UTF8.appendUTF8(rest, bytes, 0);
+                dest.write(bytes);
+                length+=bytes.length;
+            }
+        } catch(IOException e) {
+            throw new ICUUncheckedIOException(e);
+        }
+        return length;
+    }
+
+    /**
+     * {@icu} Writes the normalized form of the UTF-8 text src[start..limit[ into dest,
+     * if it fits, and returns the length of the normalized UTF-8 text.
+     * Ill-formed UTF-8 sequences are replaced with U+FFFD.
+     *
+     * <p>If the normalized text fits into dest.remaining() bytes,
+     * then it is written to dest starting at its position,
+     * and dest's position is advanced past it.
+     * Otherwise the return value is greater than dest.remaining(),
+     * dest is not modified, and the caller can retry with at least that much space.
+     * See {@link #normalizeUTF8(byte[], int, int, OutputStream)}.
+     *
+     * @param src UTF-8 source text
+     * @param start start index of the source text
+     * @param limit limit index of the source text
+     * @param dest destination buffer
+     * @return the length of the normalized UTF-8 text
+     * @throws IllegalArgumentException if the range is out of bounds
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int normalizeUTF8(byte[] src, int start, int limit, ByteBuffer dest) {
+        int prefixLimit=spanQuickCheckYesToBoundaryUTF8(src, start, limit);
+        int length=prefixLimit-start;
+        StringBuilder rest=null;
+        int restLength=0;
+        if(prefixLimit<limit) {
+            rest=normalizeUTF8ToUTF16(src, prefixLimit, limit);
+            restLength=UTF8.getUTF8Length(rest);
+            length+=restLength;
+        }
+        if(length>dest.remaining()) {
+            return length;
+        }
+        dest.put(src, start, prefixLimit-start);
+        if(rest!=null) {
+            if(dest.hasArray()) {
+                int destStart=dest.position();
+                UTF8.appendUTF8(rest, dest.array(), dest.arrayOffset()+destStart);
+                dest.position(destStart+restLength);
+            } else {
+                byte[] bytes=new byte[restLength];
+                UTF8.appendUTF8(rest, bytes, 0);
+                dest.put(bytes);
+            }
+        }
+        return length;
+    }
+
+    private StringBuilder normalizeUTF8ToUTF16(byte[] src, int start, int limit) {
+        StringBuilder s=UTF8.appendUTF16(src, start, limit, new StringBuilder(limit-start));
+        return normalize(s, new StringBuilder(s.length()));
+    }
+
     /**
      * Appends the normalized form of the second string to the first string
      * (merging them at the boundary) and returns the first string.
@@ -354,6 +880,32 @@ public abstract class Normalizer2 {
      */
     public abstract boolean isNormalized(CharSequence s);
 
+    /**
+     * {@icu} Tests if the UTF-8 text s[start..limit[ is normalized.
+     * Like {@link #isNormalized(CharSequence)}, but without converting the text to UTF-16.
+     * Text with ill-formed UTF-8 sequences is not normalized.
+     * For normalized text, this is a single pass over the bytes without temporary objects.
+     *
+     * @param s UTF-8 input text
+     * @param start start index of the input text
+     * @param limit limit index of the input text
+     * @return true if s[start..limit[ is normalized
+     * @throws IllegalArgumentException if the range is out of bounds
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public boolean isNormalizedUTF8(byte[] s, int start, int limit) {
+        int spanLimit=spanQuickCheckYesToBoundaryUTF8(s, start, limit);
+        if(spanLimit==limit) {
+            return true;
+        }
+        if(UTF8.spanWellFormed(s, spanLimit, limit)<limit) {
+            return false;
+        }
+        // The rest is "no" or "maybe": Check it definitively.
+        return isNormalized(UTF8.appendUTF16(s, spanLimit, limit, new StringBuilder(limit-spanLimit)));
+    }
+
     /**
      * Tests if the string is normalized.
      * For the two COMPOSE modes, the result could be "maybe" in cases that
@@ -387,6 +939,67 @@ public abstract class Normalizer2 {
      */
     public abstract int spanQuickCheckYes(CharSequence s);
 
+    /**
+     * Returns the end of the normalized prefix of s like spanQuickCheckYes(),
+     * but ensures that it is at a normalization boundary (if it is not the end of s),
+     * so that the rest of s can be normalized independently.
+     * The span usually ends at a boundary already.
+     */
+    int spanQuickCheckYesToBoundary(CharSequence s) {
+        int spanLength=spanQuickCheckYes(s);
+        if(spanLength<s.length()) {
+            while(spanLength>0 && !hasBoundaryBefore(Character.codePointAt(s, spanLength))) {
+                spanLength-=Character.charCount(Character.codePointBefore(s, spanLength));
+            }
+        }
+        return spanLength;
+    }
+
+    /**
+     * {@icu} Returns the end of the normalized prefix of the UTF-8 text s[start..limit[.
+     * Like {@link #spanQuickCheckYes(CharSequence)}, but with byte indexes
+     * and without converting the text to UTF-16.
+     * The span also ends before an ill-formed UTF-8 sequence.
+     *
+     * @param s UTF-8 input text
+     * @param start start index of the input text
+     * @param limit limit index of the input text
+     * @return "yes" span end index, at least start and at most limit
+     * @throws IllegalArgumentException if the range is out of bounds
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public int spanQuickCheckYesUTF8(byte[] s, int start, int limit) {
+        if(start<0 || start>limit || limit>s.length) {
+            throw new IllegalArgumentException("Illegal range ["+start+", "+limit+")");
+        }
+        // Generic implementation via UTF-16, for normalizers without a UTF-8 quick check.
+        int wellFormedLimit=UTF8.spanWellFormed(s, start, limit);
+        StringBuilder s16=UTF8.appendUTF16(s, start, wellFormedLimit,
+                                           new StringBuilder(wellFormedLimit-start));
+        int spanLength=spanQuickCheckYes(s16);
+        int i=start;
+        for(int j=0; j<spanLength;) {
+            int length=UTF8.getSequenceLength(s, i, wellFormedLimit);
+            j+=length<4 ? 1 : 2;
+            i+=length;
+        }
+        return i;
+    }
+
+    /**
+     * UTF-8 version of spanQuickCheckYesToBoundary().
+     */
+    private int spanQuickCheckYesToBoundaryUTF8(byte[] s, int start, int limit) {
+        int spanLimit=spanQuickCheckYesUTF8(s, start, limit);
+        if(spanLimit<limit) {
+            while(spanLimit>start && !hasBoundaryBefore(UTF8.codePointAt(s, spanLimit, limit))) {
+                spanLimit=UTF8.getPreviousStart(s, start, spanLimit);
+            }
+        }
+        return spanLimit;
+    }
+
     /**
      * Tests if the character always has a normalization boundary before it,
      * regardless of context.
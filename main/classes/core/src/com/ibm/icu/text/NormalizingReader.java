@@ -0,0 +1,213 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.text;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * {@icu} A Reader that normalizes the text of another Reader incrementally.
+ *
+ * <p>The input is read into a buffer and normalized one segment at a time,
+ * where a segment ends before the last character in the buffer that has a
+ * normalization boundary before it ({@link Normalizer2#hasBoundaryBefore(int)}).
+ * The quick check "yes" prefix of each segment is passed through without
+ * an intermediate copy; only the rest of the segment is normalized.
+ *
+ * <p>Memory use is proportional to the buffer size, independent of the input length.
+ * Only text with a run of characters without any boundary that is longer than
+ * the buffer makes the buffer grow.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @see NormalizingWriter
+ * @draft ICU 58
+ * @provisional This API might change or be removed in a future release.
+ */
+public class NormalizingReader extends Reader {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Constructs a NormalizingReader with a default-size buffer.
+     *
+     * @param in the Reader with the input text
+     * @param n2 the normalizer
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public NormalizingReader(Reader in, Normalizer2 n2) {
+        this(in, n2, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a NormalizingReader with an input buffer of the given size.
+     *
+     * @param in the Reader with the input text
+     * @param n2 the normalizer
+     * @param bufferSize the initial size of the input buffer
+     * @throws IllegalArgumentException if bufferSize&lt;=0
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public NormalizingReader(Reader in, Normalizer2 n2, int bufferSize) {
+        super(in);
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be greater than 0");
+        }
+        this.in = in;
+        this.n2 = n2;
+        buffer = new char[bufferSize];
+        segment = CharBuffer.wrap(buffer);
+        normalized = new StringBuilder();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > cbuf.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+        for (;;) {
+            if (start < passLimit) {
+                // Pass through normalized text.
+                int n = Math.min(len, passLimit - start);
+                System.arraycopy(buffer, start, cbuf, off, n);
+                start += n;
+                return n;
+            }
+            int normalizedLength = normalized.length();
+            if (normalizedIndex < normalizedLength) {
+                int n = Math.min(len, normalizedLength - normalizedIndex);
+                normalized.getChars(normalizedIndex, normalizedIndex + n, cbuf, off);
+                normalizedIndex += n;
+                return n;
+            }
+            start = segmentLimit;
+            if (!nextSegment()) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            in.close();
+            buffer = null;
+            segment = null;
+            normalized = null;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Reader closed");
+        }
+    }
+
+    /**
+     * Reads input as necessary, and sets up the next segment for reading.
+     * @return false at the end of the input
+     */
+    private boolean nextSegment() throws IOException {
+        int limit = findSegmentLimit();
+        if (start == limit) {
+            return false;
+        }
+        segment.limit(limit).position(start);
+        int spanLimit = start + n2.spanQuickCheckYesToBoundary(segment);
+        passLimit = spanLimit;
+        segmentLimit = limit;
+        normalized.setLength(0);
+        normalizedIndex = 0;
+        if (spanLimit < limit) {
+            segment.position(spanLimit);
+            n2.normalize(segment, normalized);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the end of a segment of the buffered input that can be normalized
+     * independently of the following text. Reads more input as needed.
+     * Returns start only at the end of the input.
+     */
+    private int findSegmentLimit() throws IOException {
+        for (;;) {
+            if (eof) {
+                return bufferLimit;
+            }
+            // Find the last boundary after start.
+            int p = bufferLimit;
+            if (p > start && Character.isHighSurrogate(buffer[p - 1])) {
+                // Wait for the trail surrogate.
+                --p;
+            }
+            while (p > start) {
+                int c = Character.codePointBefore(buffer, p, start);
+                p -= Character.charCount(c);
+                if (p > start && n2.hasBoundaryBefore(c)) {
+                    return p;
+                }
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Moves the unread input to the start of the buffer,
+     * grows the buffer if it is full, and reads more input.
+     */
+    private void fill() throws IOException {
+        int length = bufferLimit - start;
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, length);
+        } else if (length == buffer.length) {
+            // No boundary in the whole buffer.
+            char[] newBuffer = new char[2 * buffer.length];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+            segment = CharBuffer.wrap(buffer);
+        }
+        start = passLimit = segmentLimit = 0;
+        bufferLimit = length;
+        int n = in.read(buffer, bufferLimit, buffer.length - bufferLimit);
+        if (n < 0) {
+            eof = true;
+        } else {
+            bufferLimit += n;
+        }
+    }
+
+    private final Reader in;
+    private final Normalizer2 n2;
+    private char[] buffer;
+    /** Wraps the buffer, for normalizing segments without copying them. */
+    private CharBuffer segment;
+    /** Start of the unread input in the buffer. */
+    private int start;
+    /** End of the buffered input. */
+    private int bufferLimit;
+    /** End of the current segment's normalized prefix which is passed through. */
+    private int passLimit;
+    /** End of the current segment. */
+    private int segmentLimit;
+    /** The normalized rest of the current segment. */
+    private StringBuilder normalized;
+    private int normalizedIndex;
+    private boolean eof;
+}
@@ -0,0 +1,233 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.text;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * {@icu} A Writer that normalizes text incrementally and writes it to another Writer.
+ *
+ * <p>Written text is collected in an internal buffer.
+ * When the buffer is full, the text up to the last character which has a
+ * normalization boundary before it ({@link Normalizer2#hasBoundaryBefore(int)})
+ * is normalized and written out in one piece.
+ * The quick check "yes" prefix of each such segment is written through without
+ * an intermediate copy; only the rest of the segment is normalized.
+ *
+ * <p>{@link #flush()} writes all of the buffered text up to the last boundary.
+ * Since following text may interact with the text after that boundary,
+ * {@link #finish()} or {@link #close()} normalize and write it at the end of the text.
+ *
+ * <p>Memory use is independent of the text length.
+ * Only text with a run of characters without any boundary that is longer than
+ * the buffer makes the buffer grow.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @see NormalizingReader
+ * @draft ICU 58
+ * @provisional This API might change or be removed in a future release.
+ */
+public class NormalizingWriter extends Writer {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Constructs a NormalizingWriter.
+     *
+     * @param out the Writer which receives the normalized text
+     * @param n2 the normalizer
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public NormalizingWriter(Writer out, Normalizer2 n2) {
+        super(out);
+        this.out = out;
+        this.n2 = n2;
+        buffer = new char[DEFAULT_BUFFER_SIZE];
+        segment = CharBuffer.wrap(buffer);
+        normalized = new StringBuilder();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > cbuf.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureOpen();
+        while (len > 0) {
+            int n = reserve(len);
+            System.arraycopy(cbuf, off, buffer, bufferLimit, n);
+            appended(n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > str.length() - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        ensureOpen();
+        while (len > 0) {
+            int n = reserve(len);
+            str.getChars(off, off + n, buffer, bufferLimit);
+            appended(n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Normalizes and writes the buffered text, without closing the underlying Writer.
+     * Call this at the end of the text when the underlying Writer is to be used further.
+     *
+     * @throws IOException if an I/O error occurs
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public void finish() throws IOException {
+        ensureOpen();
+        writeSegment(bufferLimit);
+    }
+
+    /**
+     * Normalizes and writes the buffered text up to the last normalization boundary,
+     * and flushes the underlying Writer.
+     * Does not write the text after that boundary because it may interact with following text.
+     *
+     * @see #finish()
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (bufferLimit > 0) {
+            writeSegment(findSegmentLimit());
+        }
+        out.flush();
+    }
+
+    /**
+     * Normalizes and writes the buffered text, and closes the underlying Writer.
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            try {
+                finish();
+            } finally {
+                out.close();
+                buffer = null;
+                segment = null;
+                normalized = null;
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Writer closed");
+        }
+    }
+
+    /**
+     * Grows the buffer if it is still full after appended(),
+     * which happens only when it contains no boundary.
+     * @return the number of chars, at most len, that can be appended to the buffer
+     */
+    private int reserve(int len) {
+        if (bufferLimit == buffer.length) {
+            char[] newBuffer = new char[2 * buffer.length];
+            System.arraycopy(buffer, 0, newBuffer, 0, bufferLimit);
+            buffer = newBuffer;
+            segment = CharBuffer.wrap(buffer);
+        }
+        return Math.min(len, buffer.length - bufferLimit);
+    }
+
+    /**
+     * Called after n&gt;0 chars were appended to the buffer.
+     * Writes all of the complete segments when the buffer is full.
+     */
+    private void appended(int n) throws IOException {
+        bufferLimit += n;
+        if (bufferLimit == buffer.length) {
+            writeSegment(findSegmentLimit());
+        }
+    }
+
+    /**
+     * Returns the end of a segment of the buffered text that can be normalized
+     * independently of the following text, or 0 if there is none yet.
+     */
+    private int findSegmentLimit() {
+        // Find the last boundary.
+        int p = bufferLimit;
+        if (Character.isHighSurrogate(buffer[p - 1])) {
+            // Wait for the trail surrogate.
+            --p;
+        }
+        while (p > 0) {
+            int c = Character.codePointBefore(buffer, p, 0);
+            p -= Character.charCount(c);
+            if (p > 0 && n2.hasBoundaryBefore(c)) {
+                return p;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Normalizes and writes buffer[0..limit[, and moves the rest of the buffered text
+     * to the start of the buffer.
+     */
+    private void writeSegment(int limit) throws IOException {
+        if (limit == 0) {
+            return;
+        }
+        segment.limit(limit).position(0);
+        int spanLimit = n2.spanQuickCheckYesToBoundary(segment);
+        out.write(buffer, 0, spanLimit);
+        if (spanLimit < limit) {
+            segment.position(spanLimit);
+            n2.normalize(segment, normalized);
+            int length = normalized.length();
+            int start = 0;
+            while (start < length) {
+                // Reuse the buffered segment as scratch space.
+                int n = Math.min(length - start, limit);
+                normalized.getChars(start, start + n, buffer, 0);
+                out.write(buffer, 0, n);
+                start += n;
+            }
+            normalized.setLength(0);
+        }
+        bufferLimit -= limit;
+        System.arraycopy(buffer, limit, buffer, 0, bufferLimit);
+    }
+
+    private final Writer out;
+    private final Normalizer2 n2;
+    /** Text that has been written to this Writer but not yet to the underlying Writer. */
+    private char[] buffer;
+    private int bufferLimit;
+    /** Wraps the buffer, for normalizing segments without copying them. */
+    private CharBuffer segment;
+    private StringBuilder normalized;
+}
@@ -0,0 +1,170 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import com.ibm.icu.impl.ParallelTasks;
+
+/**
+ * {@icu} Finds all of the boundaries in a large text by splitting it into chunks
+ * that are segmented in parallel.
+ *
+ * <p>The text is split only after a hard line break: LF, CR (but not between CR and LF),
+ * NEL (U+0085), LS (U+2028) or PS (U+2029). The standard character, word, line and sentence
+ * rules always break there, and break iteration does not look back across such a boundary,
+ * so each chunk can be segmented by its own clone of the break iterator.
+ * A split point is used only if the break iterator reports it as a boundary.
+ * The result is the same as from iterating over the whole text with
+ * {@link BreakIterator#first()} and {@link BreakIterator#next()}.
+ *
+ * <p>Only {@link RuleBasedBreakIterator} instances are segmented in parallel.
+ * Other break iterators, such as sentence iterators with exceptions for abbreviations,
+ * and texts without suitable split points are segmented in the calling thread.
+ *
+ * <p>The break iterator is not modified. Each chunk is segmented by a clone of it.
+ *
+ * @draft ICU 58
+ * @provisional This API might change or be removed in a future release.
+ */
+public final class ParallelSegmenter {
+    /**
+     * Minimum number of chars per segmentation task.
+     */
+    private static final int MIN_CHUNK_LENGTH = 0x10000;
+
+    private ParallelSegmenter() {}
+
+    /**
+     * Returns all of the boundaries in the text, in ascending order,
+     * starting with 0 and ending with the length of the text.
+     * Chunks of the text are segmented by tasks run on the executor.
+     *
+     * @param breakIterator the prototype for the break iterators that segment the chunks
+     * @param text the text; it is copied, and must not be modified during this call
+     * @param executor runs the tasks; if null, then the text is segmented in the calling thread
+     * @return the boundary positions
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    public static int[] getBoundaries(BreakIterator breakIterator, CharSequence text,
+            ExecutorService executor) {
+        int length = text.length();
+        char[] chars;
+        if (text instanceof String) {
+            chars = ((String)text).toCharArray();
+        } else {
+            chars = new char[length];
+            for (int i = 0; i < length; ++i) {
+                chars[i] = text.charAt(i);
+            }
+        }
+        BreakIterator bi = (BreakIterator)breakIterator.clone();
+        bi.setText(chars, 0, length);
+        int numChunks = executor != null && breakIterator instanceof RuleBasedBreakIterator ?
+                ParallelTasks.getNumChunks(length, MIN_CHUNK_LENGTH) : 1;
+
+        // Find split points near the even boundaries. A chunk without a split point
+        // before the next boundary is merged with the following one.
+        // The clones are made here, not concurrently in the tasks.
+        List<Chunk> chunks = new ArrayList<Chunk>(numChunks);
+        int chunkStart = 0;
+        for (int i = 1; i < numChunks; ++i) {
+            int boundary = (int)((long)length * i / numChunks);
+            int nextBoundary = (int)((long)length * (i + 1) / numChunks);
+            int split = findSplit(chars, Math.max(boundary, chunkStart + 1), nextBoundary);
+            if (split > chunkStart && bi.isBoundary(split)) {
+                chunks.add(new Chunk((BreakIterator)bi.clone(), chunkStart, split));
+                chunkStart = split;
+            }
+        }
+        if (chunks.isEmpty()) {
+            return new Chunk(bi, 0, length).call();
+        }
+        chunks.add(new Chunk((BreakIterator)bi.clone(), chunkStart, length));
+        List<int[]> results = ParallelTasks.invokeAll(executor, chunks);
+
+        // Each chunk starts with its start position and ends with the first boundary
+        // at or after its limit. Adjacent chunks share one boundary.
+        int total = 1;
+        for (int i = 0; i < chunks.size(); ++i) {
+            int[] boundaries = results.get(i);
+            if (boundaries[boundaries.length - 1] != chunks.get(i).limit) {
+                // Forward iteration did not stop at a split point that isBoundary() accepted.
+                // This does not happen with the standard rules.
+                return new Chunk(bi, 0, length).call();
+            }
+            total += boundaries.length - 1;
+        }
+        int[] merged = new int[total];
+        int count = 0;
+        for (int[] boundaries : results) {
+            int from = count == 0 ? 0 : 1;
+            System.arraycopy(boundaries, from, merged, count, boundaries.length - from);
+            count += boundaries.length - from;
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the first position p with start&lt;=p&lt;limit after a hard line break,
+     * or -1 if there is none. start is greater than 0.
+     */
+    private static int findSplit(char[] chars, int start, int limit) {
+        for (int p = start; p < limit; ++p) {
+            char c = chars[p - 1];
+            if (c == '\n' || c == 0x85 || c == 0x2028 || c == 0x2029 ||
+                    (c == '\r' && chars[p] != '\n')) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Segments one chunk of the text, from its start (a boundary)
+     * to the first boundary at or after its limit.
+     */
+    private static final class Chunk implements Callable<int[]> {
+        Chunk(BreakIterator bi, int start, int limit) {
+            this.bi = bi;
+            this.start = start;
+            this.limit = limit;
+        }
+
+        public int[] call() {
+            if (start == 0) {
+                bi.first();
+            } else {
+                bi.isBoundary(start);
+            }
+            int[] boundaries = new int[64];
+            boundaries[0] = start;
+            int count = 1;
+            int[] buffer = new int[256];
+            int n;
+            while ((n = bi.next(limit, buffer, null)) > 0) {
+                if (count + n > boundaries.length) {
+                    int[] newBoundaries = new int[Math.max(2 * boundaries.length, count + n)];
+                    System.arraycopy(boundaries, 0, newBoundaries, 0, count);
+                    boundaries = newBoundaries;
+                }
+                System.arraycopy(buffer, 0, boundaries, count, n);
+                count += n;
+                if (buffer[n - 1] >= limit) {
+                    break;
+                }
+            }
+            int[] result = new int[count];
+            System.arraycopy(boundaries, 0, result, 0, count);
+            return result;
+        }
+
+        private final BreakIterator bi;
+        final int start;
+        final int limit;
+    }
+}
@@ -23,6 +23,7 @@ import java.text.CharacterIterator;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.ibm.icu.impl.Assert;
+import com.ibm.icu.impl.CharArrayCharacterIterator;
 import com.ibm.icu.impl.CharTrie;
 import com.ibm.icu.impl.CharacterIteration;
 import com.ibm.icu.impl.ICUBinary;
@@ -134,6 +135,12 @@ public class RuleBasedBreakIterator extends BreakIterator {
         if (fText != null) {
             result.fText = (CharacterIterator)(fText.clone());
         }
+        // Clones of a cached prototype may be used in different threads.
+        result.fLookAheadMatches = new LookAheadResults();
+        if (fCachedBreakPositions != null) {
+            result.fCachedBreakPositions = fCachedBreakPositions.clone();
+        }
+        result.fDictionaryBuffers = null;
         return result;
     }
 
@@ -213,6 +220,13 @@ public class RuleBasedBreakIterator extends BreakIterator {
      */
     private CharacterIterator   fText = new java.text.StringCharacterIterator("");
 
+    /*
+     * The text as a char array, indexed like fText, or null.
+     * Set when the text was passed as a String or char array;
+     * the forward state machine then reads the array directly rather than through fText.
+     */
+    private char[]              fTextChars;
+
     /**
      * The rule data for this BreakIterator instance. Package private.
      */
@@ -272,11 +286,28 @@ public class RuleBasedBreakIterator extends BreakIterator {
     private int[] fCachedBreakPositions;
 
     /**
-     * if fCachedBreakPositions is not null, this indicates which item in the
+     * The number of valid entries in fCachedBreakPositions, or 0 if there is no cache.
+     * The array is reused for later ranges of text.
+     */
+    private int fNumCachedBreakPositions;
+
+    /**
+     * if fNumCachedBreakPositions is not 0, this indicates which item in the
      * cache the current iteration position refers to
      */
     private int fPositionInCache;
 
+    /**
+     * Working storage for checkDictionary() and the dictionary break engines,
+     * created when first needed.
+     */
+    private DictionaryBreakEngine.Buffers fDictionaryBuffers;
+
+    /**
+     * The engine that getLanguageBreakEngine() last found in fBreakEngines.
+     */
+    private LanguageBreakEngine fLastBreakEngine;
+
 
     private final ConcurrentHashMap<Integer, LanguageBreakEngine> fBreakEngines =
             new ConcurrentHashMap<Integer, LanguageBreakEngine>();
@@ -285,8 +316,7 @@ public class RuleBasedBreakIterator extends BreakIterator {
      * in text or iteration position.
      */
     private void reset() {
-        fCachedBreakPositions = null;
-        // fNumCachedBreakPositions = 0;
+        fNumCachedBreakPositions = 0;
         fDictionaryCharCount = 0;
         fPositionInCache = 0;
 
@@ -336,7 +366,7 @@ public class RuleBasedBreakIterator extends BreakIterator {
      */
     @Override
     public int first() {
-        fCachedBreakPositions = null;
+        fNumCachedBreakPositions = 0;
         fDictionaryCharCount = 0;
         fPositionInCache = 0;
         fLastRuleStatusIndex  = 0;
@@ -356,7 +386,7 @@ public class RuleBasedBreakIterator extends BreakIterator {
      */
     @Override
     public int last() {
-        fCachedBreakPositions = null;
+        fNumCachedBreakPositions = 0;
         fDictionaryCharCount = 0;
         fPositionInCache = 0;
 
@@ -409,8 +439,8 @@ public class RuleBasedBreakIterator extends BreakIterator {
     public int next() {
         // if we have cached break positions and we're still in the range
         // covered by them, just move one step forward in the cache
-        if (fCachedBreakPositions != null) {
-            if (fPositionInCache < fCachedBreakPositions.length - 1) {
+        if (fNumCachedBreakPositions > 0) {
+            if (fPositionInCache < fNumCachedBreakPositions - 1) {
                 ++fPositionInCache;
                 int pos = fCachedBreakPositions[fPositionInCache];
                 fText.setIndex(pos);
@@ -430,6 +460,62 @@ public class RuleBasedBreakIterator extends BreakIterator {
         return result;
     }
 
+    /**
+     * {@icu} Advances the iterator forward over several boundaries at once.
+     * See {@link BreakIterator#next(int, int[], int[])}.
+     * Runs the state machine and reads the rule status values
+     * in a single loop.
+     * @draft ICU 58
+     * @provisional This API might change or be removed in a future release.
+     */
+    @Override
+    public int next(int limit, int[] boundaries, int[] ruleStatus) {
+        if (ruleStatus != null && ruleStatus.length < boundaries.length) {
+            throw new IllegalArgumentException("ruleStatus is shorter than boundaries");
+        }
+        if (fText == null) {
+            return 0;
+        }
+        short[] fTable = fRData.fFTable;
+        int[] statusTable = fRData.fStatusTable;
+        int capacity = boundaries.length;
+        int count = 0;
+        while (count < capacity) {
+            // Same as next(), but without the virtual calls.
+            int pos;
+            if (fNumCachedBreakPositions > 0 && fPositionInCache < fNumCachedBreakPositions - 1) {
+                pos = fCachedBreakPositions[++fPositionInCache];
+                fText.setIndex(pos);
+            } else {
+                if (fNumCachedBreakPositions > 0) {
+                    reset();
+                }
+                int startPos = fText.getIndex();
+                fDictionaryCharCount = 0;
+                pos = handleNext(fTable);
+                if (fDictionaryCharCount > 0) {
+                    pos = checkDictionary(startPos, pos, false);
+                }
+                if (pos == BreakIterator.DONE) {
+                    break;
+                }
+            }
+            boundaries[count] = pos;
+            if (ruleStatus != null) {
+                if (!fLastStatusIndexValid) {
+                    makeRuleStatusValid();
+                }
+                // The last (largest) of the status values, as in getRuleStatus().
+                ruleStatus[count] = statusTable[fLastRuleStatusIndex + statusTable[fLastRuleStatusIndex]];
+            }
+            ++count;
+            if (pos >= limit) {
+                break;
+            }
+        }
+        return count;
+    }
+
     /**
       *  checkDictionary      This function handles all processing of characters in
       *                       the "dictionary" set. It will determine the appropriate
@@ -461,7 +547,11 @@ public class RuleBasedBreakIterator extends BreakIterator {
 
         int    category;
         int    current;
-        DictionaryBreakEngine.DequeI breaks = new DictionaryBreakEngine.DequeI();
+        if (fDictionaryBuffers == null) {
+            fDictionaryBuffers = new DictionaryBreakEngine.Buffers();
+        }
+        DictionaryBreakEngine.DequeI breaks = fDictionaryBuffers.breaks;
+        breaks.removeAllElements();
         int     foundBreakCount = 0;
         int     c = CharacterIteration.current32(fText);
         category = (short)fRData.fTrie.getCodePointValue(c);
@@ -540,7 +630,8 @@ public class RuleBasedBreakIterator extends BreakIterator {
             // pointer on the other side of its range, ready to search for the next one.
             if (lbe != null) {
                 int startingIdx = fText.getIndex();
-                foundBreakCount += lbe.findBreaks(fText, rangeStart, rangeEnd, false, fBreakType, breaks);
+                foundBreakCount += lbe.findBreaks(fText, rangeStart, rangeEnd, false, fBreakType, breaks,
+                                                  fDictionaryBuffers);
                 assert fText.getIndex() > startingIdx;
             }
 
@@ -564,7 +655,10 @@ public class RuleBasedBreakIterator extends BreakIterator {
             }
 
             // TODO: get rid of this array, use results from the deque directly
-            fCachedBreakPositions = new int[breaks.size()];
+            fNumCachedBreakPositions = breaks.size();
+            if (fCachedBreakPositions == null || fCachedBreakPositions.length < fNumCachedBreakPositions) {
+                fCachedBreakPositions = new int[fNumCachedBreakPositions];
+            }
 
             int i = 0;
             while (breaks.size() > 0) {
@@ -606,7 +700,7 @@ public class RuleBasedBreakIterator extends BreakIterator {
 
         // if we have cached break positions and we're still in the range
         // covered by them, just move one step backward in the cache
-        if (fCachedBreakPositions != null) {
+        if (fNumCachedBreakPositions > 0) {
             if (fPositionInCache > 0) {
                 --fPositionInCache;
                 // If we're at the beginning of the cache, need to reevaluate the
@@ -702,9 +796,9 @@ public class RuleBasedBreakIterator extends BreakIterator {
         // range covered by the cache, then dump the cache and call our
         // inherited following() method.  This will call other methods in this
         // class that may refresh the cache.
-        if (fCachedBreakPositions == null || offset < fCachedBreakPositions[0] ||
-                offset >= fCachedBreakPositions[fCachedBreakPositions.length - 1]) {
-            fCachedBreakPositions = null;
+        if (fNumCachedBreakPositions == 0 || offset < fCachedBreakPositions[0] ||
+                offset >= fCachedBreakPositions[fNumCachedBreakPositions - 1]) {
+            fNumCachedBreakPositions = 0;
             return rulesFollowing(offset);
         }
 
@@ -713,7 +807,7 @@ public class RuleBasedBreakIterator extends BreakIterator {
         // after "offset"
         else {
             fPositionInCache = 0;
-            while (fPositionInCache < fCachedBreakPositions.length
+            while (fPositionInCache < fNumCachedBreakPositions
                    && offset >= fCachedBreakPositions[fPositionInCache])
                 ++fPositionInCache;
             text.setIndex(fCachedBreakPositions[fPositionInCache]);
@@ -817,9 +911,9 @@ public class RuleBasedBreakIterator extends BreakIterator {
         // range covered by the cache, we can just call the inherited routine
         // (which will eventually call other routines in this class that may
         // refresh the cache)
-        if (fCachedBreakPositions == null || offset <= fCachedBreakPositions[0] ||
-                offset > fCachedBreakPositions[fCachedBreakPositions.length - 1]) {
-            fCachedBreakPositions = null;
+        if (fNumCachedBreakPositions == 0 || offset <= fCachedBreakPositions[0] ||
+                offset > fCachedBreakPositions[fNumCachedBreakPositions - 1]) {
+            fNumCachedBreakPositions = 0;
             return rulesPreceding(offset);
         }
 
@@ -828,7 +922,7 @@ public class RuleBasedBreakIterator extends BreakIterator {
         // before "offset"
         else {
             fPositionInCache = 0;
-            while (fPositionInCache < fCachedBreakPositions.length
+            while (fPositionInCache < fNumCachedBreakPositions
                    && offset > fCachedBreakPositions[fPositionInCache])
                 ++fPositionInCache;
             --fPositionInCache;
@@ -1077,10 +1171,24 @@ public class RuleBasedBreakIterator extends BreakIterator {
     @Override
     public void setText(CharacterIterator newText) {
         fText = newText;
+        fTextChars = newText instanceof CharArrayCharacterIterator ?
+                ((CharArrayCharacterIterator)newText).getArray() : null;
         // first() resets the caches
         this.first();
     }
 
+    /**
+     * Set the iterator to analyze a new piece of text.  This function resets
+     * the current iteration position to the beginning of the text.
+     * @param newText A String containing the text to analyze.
+     * @stable ICU 2.0
+     */
+    @Override
+    public void setText(String newText) {
+        setText(new java.text.StringCharacterIterator(newText));
+        fTextChars = newText.toCharArray();
+    }
+
     /**
      * package private
      */
@@ -1106,9 +1214,16 @@ public class RuleBasedBreakIterator extends BreakIterator {
     private LanguageBreakEngine getLanguageBreakEngine(int c) {
 
         // We have a dictionary character.
+        // Usually the engine that handled the previous range handles this one too.
+        LanguageBreakEngine last = fLastBreakEngine;
+        if (last != null && last.handles(c, fBreakType)) {
+            return last;
+        }
+
         // Does an already instantiated break engine handle it?
         for (LanguageBreakEngine candidate : fBreakEngines.values()) {
             if (candidate.handles(c, fBreakType)) {
+                fLastBreakEngine = candidate;
                 return candidate;
             }
         }
@@ -1122,6 +1237,11 @@ public class RuleBasedBreakIterator extends BreakIterator {
         }
 
         LanguageBreakEngine eng = fBreakEngines.get(script);
+        if (eng != null && (fBreakType == KIND_WORD || (script != UScript.HAN && script != UScript.HANGUL))) {
+            // The engine for this script does not handle c. A new engine would not be registered,
+            // and the existing one would be returned, so skip building one (and loading its dictionary).
+            return eng;
+        }
         /*
         if (eng != null && !eng.handles(c, fBreakType)) {
             fUnhandledBreakEngine.handleChar(c, getBreakType());
@@ -1243,6 +1363,9 @@ public class RuleBasedBreakIterator extends BreakIterator {
      * points at the lead surrogate of a supplementary.
      */
     private int handleNext(short stateTable[]) {
+        if (fTextChars != null && !TRACE) {
+            return handleNext(stateTable, fTextChars);
+        }
         if (TRACE) {
             System.out.println("Handle Next   pos      char  state category");
         }
@@ -1406,6 +1529,125 @@ public class RuleBasedBreakIterator extends BreakIterator {
         return result;
     }
 
+    /**
+     * The forward state machine, reading the text from the char array
+     * rather than through fText. Same results as the CharacterIterator version,
+     * which is still used for tracing.
+     *
+     * @param stateTable
+     * @param chars the text, indexed like fText
+     * @return the new iterator position
+     */
+    private int handleNext(short stateTable[], char[] chars) {
+        // No matter what, handleNext alway correctly sets the break tag value.
+        fLastStatusIndexValid = true;
+        fLastRuleStatusIndex  = 0;
+
+        CharacterIterator text = fText;
+        CharTrie trie = fRData.fTrie;
+        int limit = text.getEndIndex();
+
+        // p is the index of the current code point c, and next the index after it.
+        int initialPosition = text.getIndex();
+        if (initialPosition >= limit) {
+            return BreakIterator.DONE;
+        }
+        int p               = initialPosition;
+        int next            = p + 1;
+        int c               = chars[p];
+        if (UTF16.isLeadSurrogate((char)c) && next < limit && UTF16.isTrailSurrogate(chars[next])) {
+            c = Character.toCodePoint((char)c, chars[next++]);
+        }
+        int result          = initialPosition;
+
+        // Set the initial state for the state machine
+        int rowZero         = fRData.getRowIndex(0);
+        int rowLength       = fRData.getRowIndex(1) - rowZero;
+        int state           = START_STATE;
+        int row             = rowZero + state * rowLength;
+        int status          = 0;
+        short category      = 3;
+        int flagsState      = fRData.getStateTableFlags(stateTable);
+        int mode            = RBBI_RUN;
+        if ((flagsState & RBBIDataWrapper.RBBI_BOF_REQUIRED) != 0) {
+            category = 2;
+            mode     = RBBI_START;
+        }
+        fLookAheadMatches.reset();
+
+        // loop until we reach the end of the text or transition to state 0
+        while (state != STOP_STATE) {
+            if (c == DONE32) {
+                // Reached end of input string.
+                if (mode == RBBI_END) {
+                    break;
+                }
+                // Run the loop one last time with the fake end-of-input character category
+                mode = RBBI_END;
+                category = 1;
+            }
+            else if (mode == RBBI_RUN) {
+                category = (short) trie.getCodePointValue(c);
+                if ((category & 0x4000) != 0)  {
+                    fDictionaryCharCount++;
+                    category &= ~0x4000;
+                }
+
+                // Advance to the next character.
+                p = next;
+                if (p < limit) {
+                    c = chars[next++];
+                    if (UTF16.isLeadSurrogate((char)c) && next < limit && UTF16.isTrailSurrogate(chars[next])) {
+                        c = Character.toCodePoint((char)c, chars[next++]);
+                    }
+                } else {
+                    c = DONE32;
+                }
+            }
+            else {
+                mode = RBBI_RUN;
+            }
+
+            // look up a state transition in the state table
+            state = stateTable[row + RBBIDataWrapper.NEXTSTATES + category];
+            row   = rowZero + state * rowLength;
+
+            int completedRule = stateTable[row + RBBIDataWrapper.ACCEPTING];
+            if (completedRule == -1) {
+                // Match found, common case
+                result = p;
+                status = stateTable[row + RBBIDataWrapper.TAGIDX];
+            } else if (completedRule > 0) {
+                // Lookahead match is completed
+                int lookaheadResult = fLookAheadMatches.getPosition(completedRule);
+                if (lookaheadResult >= 0) {
+                    fLastRuleStatusIndex = stateTable[row + RBBIDataWrapper.TAGIDX];
+                    text.setIndex(lookaheadResult);
+                    return lookaheadResult;
+                }
+            }
+
+            int rule =  stateTable[row + RBBIDataWrapper.LOOKAHEAD];
+            if (rule != 0) {
+                // At the position of a '/' in a look-ahead match. Record it.
+                fLookAheadMatches.setPosition(rule, p);
+            }
+        }        // End of state machine main loop
+
+        // If the iterator failed to advance in the match engine force it ahead by one code point.
+        if (result == initialPosition) {
+            result = initialPosition + 1;
+            if (UTF16.isLeadSurrogate(chars[initialPosition]) && result < limit
+                    && UTF16.isTrailSurrogate(chars[result])) {
+                ++result;
+            }
+        }
+        fLastRuleStatusIndex = status;
+        // Leave the iterator at our result position.
+        text.setIndex(result);
+        return result;
+    }
+
     private int handlePrevious(short stateTable[]) {
         if (fText == null || stateTable == null) {
             return 0;
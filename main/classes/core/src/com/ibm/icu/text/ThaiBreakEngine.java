@@ -101,17 +101,14 @@ class ThaiBreakEngine extends DictionaryBreakEngine {
     }
 
     public int divideUpDictionaryRange(CharacterIterator fIter, int rangeStart, int rangeEnd,
-            DequeI foundBreaks) {
+            DequeI foundBreaks, Buffers buffers) {
 
         if ((rangeEnd - rangeStart) < THAI_MIN_WORD_SPAN) {
             return 0;  // Not enough characters for word
         }
         int wordsFound = 0;
         int wordLength;
-        PossibleWord words[] = new PossibleWord[THAI_LOOKAHEAD];
-        for (int i = 0; i < THAI_LOOKAHEAD; i++) {
-            words[i] = new PossibleWord();
-        }
+        PossibleWord words[] = buffers.getPossibleWords(THAI_LOOKAHEAD);
         
         int uc;
         fIter.setIndex(rangeStart);
@@ -259,7 +256,7 @@ class ThaiBreakEngine extends DictionaryBreakEngine {
 
             // Did we find a word on this iteration? If so, push it on the break stack
             if (wordLength > 0) {
-                foundBreaks.push(Integer.valueOf(current + wordLength));
+                foundBreaks.push(current + wordLength);
             }
         }
 
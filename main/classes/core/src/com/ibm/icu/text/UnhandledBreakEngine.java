@@ -17,31 +17,37 @@ import com.ibm.icu.lang.UCharacter;
 import com.ibm.icu.lang.UProperty;
 
 final class UnhandledBreakEngine implements LanguageBreakEngine {
-    // TODO: Use two arrays of UnicodeSet, one with all frozen sets, one with unfrozen.
-    // in handleChar(), update the unfrozen version, clone, freeze, replace the frozen one.
-    private final UnicodeSet[] fHandled = new UnicodeSet[BreakIterator.KIND_TITLE + 1];
+    // This engine is shared by the clones of a break iterator, which may be used in different threads.
+    // The sets are frozen; handleChar() replaces the array rather than modifying a set.
+    private volatile UnicodeSet[] fHandled;
     public UnhandledBreakEngine() {
-        for (int i = 0; i < fHandled.length; i++) {
-            fHandled[i] = new UnicodeSet();
+        UnicodeSet[] handled = new UnicodeSet[BreakIterator.KIND_TITLE + 1];
+        for (int i = 0; i < handled.length; i++) {
+            handled[i] = new UnicodeSet().freeze();
         }
+        fHandled = handled;
     }
     
     public boolean handles(int c, int breakType) {
-        return (breakType >= 0 && breakType < fHandled.length) && 
-                (fHandled[breakType].contains(c));
+        UnicodeSet[] handled = fHandled;
+        return (breakType >= 0 && breakType < handled.length) && 
+                (handled[breakType].contains(c));
     }
 
     public int findBreaks(CharacterIterator text, int startPos, int endPos,
-            boolean reverse, int breakType, DictionaryBreakEngine.DequeI foundBreaks) {
-        if (breakType >= 0 && breakType < fHandled.length) { 
+            boolean reverse, int breakType, DictionaryBreakEngine.DequeI foundBreaks,
+            DictionaryBreakEngine.Buffers buffers) {
+        UnicodeSet[] handled = fHandled;
+        if (breakType >= 0 && breakType < handled.length) { 
+            UnicodeSet set = handled[breakType];
             int c = CharacterIteration.current32(text); 
             if (reverse) { 
-                while (text.getIndex() > startPos && fHandled[breakType].contains(c)) { 
+                while (text.getIndex() > startPos && set.contains(c)) { 
                     CharacterIteration.previous32(text); 
                     c = CharacterIteration.current32(text); 
                 } 
             } else { 
-                while (text.getIndex() < endPos && fHandled[breakType].contains(c)) { 
+                while (text.getIndex() < endPos && set.contains(c)) { 
                     CharacterIteration.next32(text); 
                     c = CharacterIteration.current32(text); 
                 } 
@@ -51,10 +57,13 @@ final class UnhandledBreakEngine implements LanguageBreakEngine {
     }
 
     public synchronized void handleChar(int c, int breakType) {
-        if (breakType >= 0 && breakType < fHandled.length && c != DONE32) {
-            if (!fHandled[breakType].contains(c)) {
+        UnicodeSet[] handled = fHandled;
+        if (breakType >= 0 && breakType < handled.length && c != DONE32) {
+            if (!handled[breakType].contains(c)) {
                 int script = UCharacter.getIntPropertyValue(c, UProperty.SCRIPT);
-                fHandled[breakType].applyIntPropertyValue(UProperty.SCRIPT, script);
+                handled = handled.clone();
+                handled[breakType] = new UnicodeSet().applyIntPropertyValue(UProperty.SCRIPT, script).freeze();
+                fHandled = handled;
             }
         }
     }
@@ -23,8 +23,11 @@ import java.nio.charset.spi.CharsetProvider;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.MissingResourceException;
+import java.util.Random;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
@@ -32,6 +35,7 @@ import com.ibm.icu.charset.CharsetCallback;
 import com.ibm.icu.charset.CharsetDecoderICU;
 import com.ibm.icu.charset.CharsetEncoderICU;
 import com.ibm.icu.charset.CharsetICU;
+import com.ibm.icu.charset.CharsetParallelDecoder;
 import com.ibm.icu.charset.CharsetProviderICU;
 import com.ibm.icu.dev.test.TestFmwk;
 import com.ibm.icu.text.UTF16;
@@ -5874,4 +5878,282 @@ public class TestCharset extends TestFmwk {
             }
         }
     }
+
+    @Test
+    public void TestSharedDataCache() throws CharacterCodingException {
+        CharsetProviderICU provider = new CharsetProviderICU();
+        CharsetProviderICU.flushCache();
+        long hits = CharsetProviderICU.getCacheHitCount();
+        long misses = CharsetProviderICU.getCacheMissCount();
+        // ibm-16684 is an extension-only converter which loads its base table ibm-1390.
+        Charset ext = provider.charsetForName("ibm-16684_P110-2003");
+        if (CharsetProviderICU.getCacheMissCount() != misses + 2) {
+            errln("loading an extension-only converter and its base table should miss the cache twice");
+        }
+        Charset base1 = provider.charsetForName("ibm-1390_P110-2003");
+        Charset base2 = provider.charsetForName("ibm-1390_P110-2003");
+        if (CharsetProviderICU.getCacheHitCount() != hits + 2 ||
+                CharsetProviderICU.getCacheMissCount() != misses + 2) {
+            errln("loading a cached converter should hit the cache");
+        }
+
+        // The extension converter must not have modified the cached base table data.
+        CharsetProviderICU.flushCache();
+        Charset fresh = provider.charsetForName("ibm-1390_P110-2003");
+        String s = "abc\u3000\u4e00\u30a2\uff71\u00e9";
+        ByteBuffer expected = fresh.newEncoder().encode(CharBuffer.wrap(s));
+        if (!expected.equals(base1.newEncoder().encode(CharBuffer.wrap(s)))) {
+            errln("cached base table data differs from freshly loaded data");
+        }
+        if (!s.equals(base1.newDecoder().decode(expected).toString())) {
+            errln("cached base table data does not round-trip");
+        }
+        if (ext.newEncoder().encode(CharBuffer.wrap("\u4e00")).remaining() != 2) {
+            errln("ibm-16684 should encode U+4E00 as two bytes without shift bytes");
+        }
+
+        // Changing the replacement of one Charset's encoder must not affect other Charsets
+        // which share the same table data.
+        CharsetEncoder encoder1 = base1.newEncoder();
+        encoder1.replaceWith(new byte[] { 0x6f });
+        CharsetEncoder encoder2 = base2.newEncoder();
+        encoder2.onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer replaced = encoder2.encode(CharBuffer.wrap("\ud800\udc00"));
+        CharsetEncoder encoder3 = fresh.newEncoder();
+        encoder3.onUnmappableCharacter(CodingErrorAction.REPLACE);
+        if (!replaced.equals(encoder3.encode(CharBuffer.wrap("\ud800\udc00")))) {
+            errln("changing the replacement of one Charset affected another one");
+        }
+    }
+
+    // The large MBCS mapping tables are either copied into arrays or used in place
+    // in the loaded data. Both must give the same results.
+    @Test
+    public void TestZeroCopyTables() throws CharacterCodingException {
+        String[] names = { "ibm-1047_P100-1995", "ibm-1047_P100-1995,swaplfnl", "Shift_JIS", "EUC-KR",
+                "ibm-930_P120-1999", "ibm-930_P120-1999,swaplfnl", "ibm-16684_P110-2003", "EUC-JP", "GB18030" };
+        StringBuilder sb = new StringBuilder();
+        for (int c = 0; c < 0x30000; ++c) {
+            if (c == 0xd800) {
+                c = 0xe000;
+            }
+            sb.appendCodePoint(c);
+        }
+        String s = sb.toString();
+        byte[] allPairs = new byte[2 * 0x10000];
+        for (int i = 0; i < 0x10000; ++i) {
+            allPairs[2 * i] = (byte) (i >> 8);
+            allPairs[2 * i + 1] = (byte) i;
+        }
+        for (int n = 0; n < names.length; ++n) {
+            Charset[] cs = {
+                    CharsetProviderICU.getMBCSCharset(names[n], false),
+                    CharsetProviderICU.getMBCSCharset(names[n], true) };
+            if (cs[0] == null || cs[1] == null) {
+                errln(names[n] + " could not be loaded as an MBCS charset");
+                continue;
+            }
+            UnicodeSet[] sets = { new UnicodeSet(), new UnicodeSet() };
+            ByteBuffer[] encoded = new ByteBuffer[2];
+            String[] decoded = new String[2];
+            String[] decodedPairs = new String[2];
+            for (int i = 0; i < 2; ++i) {
+                ((CharsetICU) cs[i]).getUnicodeSet(sets[i], CharsetICU.ROUNDTRIP_SET);
+                CharsetEncoder encoder = cs[i].newEncoder();
+                encoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+                encoded[i] = encoder.encode(CharBuffer.wrap(s));
+                CharsetDecoder decoder = cs[i].newDecoder();
+                decoder.onMalformedInput(CodingErrorAction.REPLACE);
+                decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+                decoded[i] = decoder.decode(encoded[i].duplicate()).toString();
+                decoder.reset();
+                decodedPairs[i] = decoder.decode(ByteBuffer.wrap(allPairs)).toString();
+            }
+            if (!sets[0].equals(sets[1])) {
+                errln(names[n] + ": the round-trip set differs with zero-copy tables");
+            }
+            if (!encoded[0].equals(encoded[1])) {
+                errln(names[n] + ": encoding differs with zero-copy tables");
+            }
+            if (!decoded[0].equals(decoded[1]) || !decodedPairs[0].equals(decodedPairs[1])) {
+                errln(names[n] + ": decoding differs with zero-copy tables");
+            }
+        }
+    }
+
+    // The converters have fast paths for buffers with backing arrays and bulk paths for
+    // direct buffers. Both must give the same results as each other, also when the
+    // conversion is split into small pieces.
+    @Test
+    public void TestHeapAndDirectBuffers() throws CharacterCodingException {
+        String[] names = { "ISO-8859-7", "windows-1252", "ibm-37", "Shift_JIS", "GBK", "EUC-KR",
+                "UTF-16BE", "UTF-16LE", "UTF-16", "UTF-32BE", "UTF-32LE", "UTF-32" };
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; ++i) {
+            sb.append("abc \u03b1\u03b2\u03b3 \u00e9\u00fc\u20ac \u3042\u4e00\uac00 \ud83d\ude00 xyz\n");
+        }
+        String s = sb.toString();
+        CharsetProviderICU provider = new CharsetProviderICU();
+        for (int n = 0; n < names.length; ++n) {
+            Charset cs = provider.charsetForName(names[n]);
+            CharsetEncoder encoder = cs.newEncoder();
+            encoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer expectedBytes = encoder.encode(CharBuffer.wrap(s));
+            CharsetDecoder decoder = cs.newDecoder();
+            decoder.onMalformedInput(CodingErrorAction.REPLACE);
+            decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+            // append all byte values, for unassigned and illegal sequences
+            ByteBuffer input = ByteBuffer.allocate(expectedBytes.remaining() + 4 * 256);
+            input.put(expectedBytes.duplicate());
+            for (int i = 0; i < 4 * 256; ++i) {
+                input.put((byte) i);
+            }
+            input.flip();
+            String expectedChars = decoder.decode(input.duplicate()).toString();
+            int[] steps = { 1, 3, 17, 1000 };
+            for (int i = 0; i < steps.length; ++i) {
+                for (int direct = 0; direct < 2; ++direct) {
+                    ByteBuffer bytes = encodeInSteps(encoder, s, steps[i], direct != 0);
+                    if (!bytes.equals(expectedBytes)) {
+                        errln(names[n] + ": encoding with steps of " + steps[i]
+                                + (direct != 0 ? " to direct buffers" : " to heap buffers") + " differs");
+                    }
+                    String chars = decodeInSteps(decoder, input, steps[i], direct != 0);
+                    if (!chars.equals(expectedChars)) {
+                        errln(names[n] + ": decoding with steps of " + steps[i]
+                                + (direct != 0 ? " from direct buffers" : " from heap buffers") + " differs");
+                    }
+                }
+            }
+        }
+    }
+
+    // Parallel decoding must give the same results as sequential decoding,
+    // for charsets that are split into chunks as well as for stateful ones.
+    @Test
+    public void TestParallelDecode() throws CharacterCodingException {
+        String[] names = { "UTF-8", "CESU-8", "UTF-16BE", "UTF-16LE", "UTF-32BE", "UTF-32LE",
+                "US-ASCII", "ISO-8859-1", "windows-1252", "EUC-JP", "Shift_JIS", "GBK", "Big5",
+                "GB18030", "EUC-KR", "UTF-16", "UTF-7", "ISO-2022-JP", "ibm-930" };
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4000; ++i) {
+            sb.append("abc \u03b1\u03b2 \u00e9\u20ac \ufeff\u3042\u4e00\uac00 \ud83d\ude00 ").append(i);
+            sb.append(i % 7 == 0 ? "\r\n" : " ");
+        }
+        String s = sb.toString();
+        Random random = new Random(20160809);
+        byte[] noise = new byte[300000];
+        random.nextBytes(noise);
+        for (int i = 0; i < noise.length; i += 1 + random.nextInt(200)) {
+            noise[i] = '\n';
+        }
+        CharsetProviderICU provider = new CharsetProviderICU();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int n = 0; n < names.length; ++n) {
+                Charset cs = provider.charsetForName(names[n]);
+                CharsetEncoder encoder = cs.newEncoder();
+                encoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+                ByteBuffer text = encoder.encode(CharBuffer.wrap(s));
+                // with an odd offset, to test code unit alignment
+                ByteBuffer mixed = ByteBuffer.allocate(1 + text.remaining() + noise.length);
+                mixed.put((byte) 'x').put(text.duplicate()).put(noise).flip();
+                mixed.position(1);
+                ByteBuffer[] inputs = { text, ByteBuffer.wrap(noise), mixed };
+                for (int i = 0; i < inputs.length; ++i) {
+                    CharsetDecoder decoder = cs.newDecoder();
+                    decoder.onMalformedInput(CodingErrorAction.REPLACE);
+                    decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+                    String expected = decoder.decode(inputs[i].duplicate()).toString();
+                    ByteBuffer in = inputs[i].duplicate();
+                    String actual = CharsetParallelDecoder.decode(decoder, in, executor).toString();
+                    if (!actual.equals(expected) || in.hasRemaining()) {
+                        errln(names[n] + ": parallel decoding of input " + i + " differs");
+                    }
+
+                    decoder = cs.newDecoder();
+                    in = inputs[i].duplicate();
+                    String expectedError = null;
+                    try {
+                        decoder.decode(in);
+                    } catch (CharacterCodingException e) {
+                        expectedError = e.toString() + " at " + in.position();
+                    }
+                    in = inputs[i].duplicate();
+                    String actualError = null;
+                    try {
+                        CharsetParallelDecoder.decode(decoder, in, executor);
+                    } catch (CharacterCodingException e) {
+                        actualError = e.toString() + " at " + in.position();
+                    }
+                    if (expectedError == null ? actualError != null : !expectedError.equals(actualError)) {
+                        errln(names[n] + ": parallel decoding of input " + i + " reports " + actualError
+                                + " rather than " + expectedError);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ByteBuffer encodeInSteps(CharsetEncoder encoder, String s, int step, boolean direct) {
+        CharBuffer source = direct ? ByteBuffer.allocateDirect(s.length() * 2).asCharBuffer()
+                : CharBuffer.allocate(s.length());
+        source.put(s).flip();
+        ByteBuffer result = ByteBuffer.allocate(s.length() * 4);
+        ByteBuffer target = direct ? ByteBuffer.allocateDirect(step) : ByteBuffer.allocate(step);
+        encoder.reset();
+        int limit = 0;
+        CoderResult cr;
+        do {
+            limit = Math.min(limit + step, s.length());
+            source.limit(limit);
+            boolean flush = limit == s.length();
+            do {
+                cr = encoder.encode(source, target, flush);
+                target.flip();
+                result.put(target);
+                target.clear();
+            } while (cr.isOverflow());
+        } while (limit < s.length());
+        do {
+            cr = encoder.flush(target);
+            target.flip();
+            result.put(target);
+            target.clear();
+        } while (cr.isOverflow());
+        result.flip();
+        return result;
+    }
+
+    private static String decodeInSteps(CharsetDecoder decoder, ByteBuffer bytes, int step, boolean direct) {
+        ByteBuffer source = direct ? ByteBuffer.allocateDirect(bytes.remaining())
+                : ByteBuffer.allocate(bytes.remaining());
+        source.put(bytes.duplicate()).flip();
+        StringBuilder result = new StringBuilder();
+        CharBuffer target = direct ? ByteBuffer.allocateDirect(step * 2).asCharBuffer() : CharBuffer.allocate(step);
+        decoder.reset();
+        int length = source.limit();
+        int limit = 0;
+        CoderResult cr;
+        do {
+            limit = Math.min(limit + step, length);
+            source.limit(limit);
+            boolean flush = limit == length;
+            do {
+                cr = decoder.decode(source, target, flush);
+                target.flip();
+                result.append(target);
+                target.clear();
+            } while (cr.isOverflow());
+        } while (limit < length);
+        do {
+            cr = decoder.flush(target);
+            target.flip();
+            result.append(target);
+            target.clear();
+        } while (cr.isOverflow());
+        return result.toString();
+    }
 }
@@ -142,6 +142,56 @@ public class TestSelection extends TestFmwk {
         }
     }
     
+    @Test
+    public void TestIncrementalSelection() {
+        List<String> testEncodings = Arrays.asList(
+                "Big5", "EUC-JP", "GB18030", "ISO-8859-1", "ISO-8859-7", "Shift_JIS", "UTF-8", "windows-1252");
+        // Use all charsets for one of the selectors, to have more than one column of masks.
+        CharsetSelector[] selectors = {
+                new CharsetSelector(testEncodings, UnicodeSet.EMPTY, CharsetICU.ROUNDTRIP_SET),
+                new CharsetSelector(new ArrayList<String>(), UnicodeSet.EMPTY, CharsetICU.ROUNDTRIP_SET),
+        };
+        String[] extraTexts = {
+                "\u3053\u308c\u306f\ud840\udc0b\u3067\u3059",  // surrogate pair
+                "abc\ud800",                                   // unpaired lead surrogate at the end
+                "\ud800abc\udc00",                             // unpaired surrogates
+                "\u00e9\u03b1\u00e9\u03b1",
+        };
+        List<String> allTexts = new ArrayList<String>(Arrays.asList(texts));
+        allTexts.addAll(Arrays.asList(extraTexts));
+
+        for (CharsetSelector sel : selectors) {
+            CharsetSelector.Selection selection = sel.newSelection();
+            assertEquals("empty selection", sel.selectForString(""), selection.getCharsets());
+            for (String text : allTexts) {
+                List<String> expected = sel.selectForString(text);
+                for (int split = 0; split <= text.length(); split += Math.max(1, text.length() / 17)) {
+                    selection.reset();
+                    selection.append(text.substring(0, split));
+                    assertEquals("prefix " + split + " of " + text,
+                            sel.selectForString(text.substring(0, split)), selection.getCharsets());
+                    selection.append(text, split, text.length());
+                    assertEquals("split at " + split + " of " + text, expected, selection.getCharsets());
+                }
+            }
+
+            // Appending texts one after the other selects for their concatenation.
+            selection.reset();
+            StringBuilder sb = new StringBuilder();
+            for (String text : extraTexts) {
+                selection.append(text);
+                sb.append(text);
+            }
+            assertEquals("concatenation", sel.selectForString(sb), selection.getCharsets());
+
+            try {
+                selection.append("abc", 2, 4);
+                errln("append() out of bounds should throw an exception");
+            } catch (IndexOutOfBoundsException e) {
+            }
+        }
+    }
+
     private String[] texts = {
             "Cos\'\u00E8 Unicode?\n\nUnicode assegna un numero univoco a ogni carattere,\nindipendentemente dalla piattaforma," +
             "\nindipendentemente dall\'applicazione,\nindipendentemente dalla lingua.\n\nI computer, in buona sostanza," +
@@ -16,11 +16,16 @@ package com.ibm.icu.dev.test.collator;
 
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.MissingResourceException;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
@@ -29,6 +34,7 @@ import com.ibm.icu.impl.Utility;
 import com.ibm.icu.lang.UCharacter;
 import com.ibm.icu.text.CollationElementIterator;
 import com.ibm.icu.text.CollationKey;
+import com.ibm.icu.text.CollationSorter;
 import com.ibm.icu.text.Collator;
 import com.ibm.icu.text.Collator.CollatorFactory;
 import com.ibm.icu.text.RawCollationKey;
@@ -178,6 +184,294 @@ public class CollationAPITest extends TestFmwk {
         }
     }
 
+    /**
+     * Tests that the batch sort key API writes the same keys as getRawCollationKey().
+     */
+    @Test
+    public void TestRawCollationKeys()
+    {
+        String[] sources = {
+            "", "abc", "ABC", "Hello World", "\u00E4b\u00E7", "a\u0308b\u0327",
+            "\u0645\u0631\u062D\u0628\u0627", "\ud800\udc00\u4e00", "abc"
+        };
+        RuleBasedCollator coll = (RuleBasedCollator)Collator.getInstance(ULocale.GERMAN);
+        int[] strengths = { Collator.PRIMARY, Collator.TERTIARY, Collator.IDENTICAL };
+        for (int strength : strengths) {
+            coll.setStrength(strength);
+            int[] offsets = new int[sources.length];
+            RawCollationKey keys = coll.getRawCollationKeys(sources, 1, sources.length, null, offsets);
+            if (offsets[0] != 0 || keys.size != offsets[sources.length - 1]) {
+                errln("getRawCollationKeys() offsets inconsistent with the keys size, strength " + strength);
+            }
+            for (int i = 1; i < sources.length; ++i) {
+                RawCollationKey key = coll.getRawCollationKey(sources[i], null);
+                int start = offsets[i - 1];
+                RawCollationKey batchKey = new RawCollationKey(
+                        Arrays.copyOfRange(keys.bytes, start, offsets[i]), offsets[i] - start);
+                if (!key.equals(batchKey)) {
+                    errln("getRawCollationKeys() key differs from getRawCollationKey() for "
+                          + Utility.hex(sources[i]) + " at strength " + strength);
+                }
+            }
+        }
+        // Reuse an existing, too-small key arena.
+        RawCollationKey keys = new RawCollationKey(1);
+        int[] offsets = new int[sources.length + 1];
+        coll.freeze();
+        if (coll.getRawCollationKeys(Arrays.asList(sources), keys, offsets) != keys ||
+                keys.size != offsets[sources.length] || keys.bytes.length < keys.size) {
+            errln("getRawCollationKeys() did not grow and return the given RawCollationKey");
+        }
+        try {
+            coll.getRawCollationKeys(sources, 0, sources.length, keys, new int[sources.length]);
+            errln("getRawCollationKeys() with too few offsets expected to throw an exception");
+        } catch (IllegalArgumentException e) {
+            logln("PASS: getRawCollationKeys() failed as expected");
+        }
+    }
+
+    /**
+     * Tests that the UTF-8 compare and sort key functions work like the UTF-16 ones
+     * on the equivalent strings, with each maximal subpart of an ill-formed sequence as U+FFFD.
+     */
+    @Test
+    public void TestCompareUTF8()
+    {
+        int[][] utf8 = {
+            { 0x61, 0x80, 0x62 },
+            { 0xc3 },
+            { 0xc3, 0xa4, 0xc3 },
+            { 0xe0, 0x80, 0x80 },
+            { 0xed, 0xa0, 0x80 },
+            { 0xf0, 0x9f, 0x98 },
+            { 0xf4, 0x90, 0x80, 0x80 },
+            { 0xc0, 0xaf, 0x61 },
+            { 0xf0, 0x9f, 0x98, 0x80 },
+            { 0x61, 0xcc, 0x88, 0x62, 0xcc, 0xa7 },
+            { 0x63, 0x68, 0xe2, 0x80, 0x90, 0xef, 0xbf, 0xbe, 0x31, 0x30 }
+        };
+        String[] utf16 = {
+            "a\uFFFDb",
+            "\uFFFD",
+            "\u00E4\uFFFD",
+            "\uFFFD\uFFFD\uFFFD",
+            "\uFFFD\uFFFD\uFFFD",
+            "\uFFFD",
+            "\uFFFD\uFFFD\uFFFD\uFFFD",
+            "\uFFFD\uFFFDa",
+            "\uD83D\uDE00",
+            "a\u0308b\u0327",
+            "ch\u2010\uFFFE10"
+        };
+        String[] others = { "", "a", "\u00E4", "\uFFFD", "\uFFFD\uFFFD", "ch", "c", "\u00E4b\u00E7", "z" };
+        RuleBasedCollator coll = (RuleBasedCollator)Collator.getInstance(new ULocale("cs"));
+        for (int variant = 0; variant < 4; ++variant) {
+            coll.setDecomposition((variant & 1) != 0 ?
+                    Collator.CANONICAL_DECOMPOSITION : Collator.NO_DECOMPOSITION);
+            coll.setStrength((variant & 2) != 0 ? Collator.IDENTICAL : Collator.TERTIARY);
+            coll.setNumericCollation((variant & 2) != 0);
+            for (int i = 0; i < utf8.length; ++i) {
+                // Surround the text with other bytes which must be ignored.
+                byte[] s = new byte[utf8[i].length + 3];
+                s[0] = 0x7a;
+                for (int j = 0; j < utf8[i].length; ++j) {
+                    s[j + 1] = (byte)utf8[i][j];
+                }
+                s[s.length - 2] = (byte)0xc3;
+                s[s.length - 1] = 0x61;
+                int limit = s.length - 2;
+                String s16 = Utility.unescape(utf16[i]);
+                RawCollationKey key = coll.getRawCollationKey(s16, null);
+                RawCollationKey utf8Key = coll.getRawCollationKeyUTF8(s, 1, limit, null);
+                if (!key.equals(utf8Key)) {
+                    errln("getRawCollationKeyUTF8() differs from getRawCollationKey() for "
+                          + utf16[i] + " variant " + variant);
+                }
+                for (int j = 0; j < others.length; ++j) {
+                    String t16 = Utility.unescape(others[j]);
+                    byte[] t;
+                    try {
+                        t = t16.getBytes("UTF-8");
+                    } catch (java.io.UnsupportedEncodingException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    int expected = coll.compare(s16, t16);
+                    int result = coll.compareUTF8(s, 1, limit, t, 0, t.length);
+                    int reverse = coll.compareUTF8(t, 0, t.length, s, 1, limit);
+                    if (result != expected || reverse != -expected) {
+                        errln("compareUTF8(" + utf16[i] + ", " + others[j] + ") = " + result
+                              + " and reversed " + reverse + " but compare() = " + expected
+                              + " variant " + variant);
+                    }
+                }
+            }
+        }
+        byte[] abc = { 0x61, 0x62, 0x63 };
+        try {
+            coll.compareUTF8(abc, 2, 1, abc, 0, 3);
+            errln("compareUTF8() with start > limit expected to throw an exception");
+        } catch (IllegalArgumentException e) {
+            logln("PASS: compareUTF8() failed as expected");
+        }
+        try {
+            coll.getRawCollationKeyUTF8(abc, 0, 4, null);
+            errln("getRawCollationKeyUTF8() with limit > length expected to throw an exception");
+        } catch (IllegalArgumentException e) {
+            logln("PASS: getRawCollationKeyUTF8() failed as expected");
+        }
+    }
+
+    /**
+     * Tests that sort key parts can be compared incrementally
+     * and that they concatenate to the full sort key.
+     */
+    @Test
+    public void TestNextSortKeyPart()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; ++i) {
+            sb.append("a\u00E4B-");
+        }
+        String prefix = Utility.unescape(sb.toString());
+        String s = prefix + "x";
+        String t = prefix + "X";
+        RuleBasedCollator coll = (RuleBasedCollator)Collator.getInstance(ULocale.ENGLISH);
+        coll.setStrength(Collator.IDENTICAL);
+        coll.setAlternateHandlingShifted(true);
+
+        // Parts into a longer array, with a part size that is not a divisor of the key length.
+        byte[] key = coll.getCollationKey(s).toByteArray();
+        byte[] dest = new byte[20];
+        int[] state = { 0, 0 };
+        UCharacterIterator iter = UCharacterIterator.getInstance(s);
+        int keyIndex = 0;
+        for (;;) {
+            Arrays.fill(dest, (byte)0x55);
+            int length = coll.nextSortKeyPart(iter, state, dest, 7);
+            for (int i = 0; i < length; ++i) {
+                if (dest[i] != key[keyIndex + i]) {
+                    errln("nextSortKeyPart() differs from the sort key at index " + (keyIndex + i));
+                    return;
+                }
+            }
+            keyIndex += length;
+            if (length < 7) {
+                for (int i = length; i < 7; ++i) {
+                    if (dest[i] != 0) {
+                        errln("nextSortKeyPart() did not fill the end of the part with 00 bytes");
+                    }
+                }
+                if (dest[7] != 0x55) {
+                    errln("nextSortKeyPart() wrote beyond count bytes");
+                }
+                break;
+            }
+        }
+        if (keyIndex != key.length - 1) {
+            errln("nextSortKeyPart() wrote " + keyIndex + " bytes but the sort key has "
+                  + (key.length - 1) + " bytes before the terminator");
+        }
+        if (coll.nextSortKeyPart(iter, state, dest, 7) != 0) {
+            errln("nextSortKeyPart() after the end of the sort key should return 0");
+        }
+
+        // Incremental comparison: Fetch parts of both keys until they differ.
+        int[] sState = { 0, 0 };
+        int[] tState = { 0, 0 };
+        UCharacterIterator sIter = UCharacterIterator.getInstance(s);
+        UCharacterIterator tIter = UCharacterIterator.getInstance(t);
+        byte[] sPart = new byte[16];
+        byte[] tPart = new byte[16];
+        int order = 0;
+        for (;;) {
+            int sLength = coll.nextSortKeyPart(sIter, sState, sPart, 16);
+            coll.nextSortKeyPart(tIter, tState, tPart, 16);
+            for (int i = 0; i < 16 && order == 0; ++i) {
+                order = (sPart[i] & 0xff) - (tPart[i] & 0xff);
+            }
+            if (order != 0 || sLength < 16) {
+                break;
+            }
+        }
+        if (Integer.signum(order) != coll.compare(s, t)) {
+            errln("incremental nextSortKeyPart() comparison = " + order
+                  + " but compare() = " + coll.compare(s, t));
+        }
+
+        try {
+            coll.nextSortKeyPart(iter, null, dest, 7);
+            errln("nextSortKeyPart() with null state expected to throw an exception");
+        } catch (IllegalArgumentException e) {
+            logln("PASS: nextSortKeyPart() failed as expected");
+        }
+        try {
+            coll.nextSortKeyPart(iter, new int[2], dest, 21);
+            errln("nextSortKeyPart() with count > dest.length expected to throw an exception");
+        } catch (IllegalArgumentException e) {
+            logln("PASS: nextSortKeyPart() failed as expected");
+        }
+    }
+
+    /**
+     * Tests that CollationSorter sorts like Arrays.sort() with the collator,
+     * including the relative order of strings that compare equal.
+     */
+    @Test
+    public void TestCollationSorter()
+    {
+        String[] pieces = { "a", "A", "\u00E4", "b", "-", " ", "\u0308", "ss", "\u4e00", "1", "10" };
+        StringBuilder longPrefix = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            longPrefix.append("xyz");
+        }
+        Random random = new Random(4711);
+        String[] strings = new String[3000];
+        for (int i = 0; i < strings.length; ++i) {
+            StringBuilder sb = new StringBuilder();
+            if (i % 10 == 0) {
+                // Many keys share a long prefix, beyond the radix sort depth limit.
+                sb.append(longPrefix);
+            }
+            int length = random.nextInt(6);
+            for (int j = 0; j < length; ++j) {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+            // Equal strings must stay in their original relative order.
+            strings[i] = (i % 7 == 0) ? new String(sb.toString()) : sb.toString();
+        }
+        RuleBasedCollator coll = (RuleBasedCollator)Collator.getInstance(ULocale.GERMAN);
+        coll.setStrength(Collator.SECONDARY);
+        String[] expected = strings.clone();
+        Arrays.sort(expected, coll);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int frozen = 0; frozen <= 1; ++frozen) {
+                String[] sorted = strings.clone();
+                CollationSorter.sort(sorted, coll);
+                checkSameElements("CollationSorter.sort(array)", expected, sorted);
+                sorted = strings.clone();
+                CollationSorter.sort(sorted, coll, executor);
+                checkSameElements("CollationSorter.sort(array, executor)", expected, sorted);
+                List<String> list = new ArrayList<String>(Arrays.asList(strings));
+                CollationSorter.sort(list, coll, executor);
+                checkSameElements("CollationSorter.sort(list, executor)", expected, list.toArray(new String[0]));
+                coll.freeze();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void checkSameElements(String message, String[] expected, String[] actual) {
+        for (int i = 0; i < expected.length; ++i) {
+            if (expected[i] != actual[i]) {
+                errln(message + " differs from Arrays.sort() at index " + i);
+                return;
+            }
+        }
+    }
+
     void doAssert(boolean conditions, String message) {
         if (!conditions) {
             errln(message);
@@ -3732,4 +3732,55 @@ public class CollationMiscTest extends TestFmwk {
         Collator coll2 = Collator.getInstance(new ULocale("en_US"));
         assertEquals("Unknown collation keyword 'bogus' should be ignored", coll1, coll2);
     }
+
+    // The fast paths for Greek and Cyrillic text must give the same results
+    // as the regular comparison, which is also used for sort keys.
+    @Test
+    public void TestGreekCyrillicFastPath() throws Exception {
+        String[] strings = {
+            "\u03B1\u03B2\u03B3", "\u0391\u03B2\u03B3", "\u03AC\u03B2\u03B3", "\u0386\u03B2",
+            "\u03B1\u0301\u03B2", "\u03C3\u03BF\u03C2", "\u03A3\u039F\u03A3", "\u03CA\u03CC",
+            "\u0390", "\u03C9 1", "\u03C9-2", "\u03C9\u00B73", "\u03C9;", "\u03DC\u03B1",
+            "\u03AC\u03C9\u00B7", "\u03B1\u03C9\u03A7",
+            "\u0430\u0431\u0432", "\u0410\u0431\u0432", "\u0435\u0436", "\u0451\u0436",
+            "\u0401\u0436", "\u0435\u0308\u0436", "\u0439\u043E", "\u0438\u0306\u043E",
+            "\u0456\u0457", "\u0454\u0491", "\u0490\u0430", "\u0433\u0430", "\u045F \u0430",
+            "\u044F 10", "\u044F 9", "\u044F\u2010", "\u044F\u0000", "\u044F\uFFFE\u0430",
+            "\u044Fa", "\u044F\u00E9", "\u0451\u0436\u00B7", "\u0435\u0436\u0437", "\u0430\u03B1", "\u03B1\u0430", "5", ""
+        };
+        RuleBasedCollator[] colls = {
+            (RuleBasedCollator)Collator.getInstance(ULocale.ROOT),
+            (RuleBasedCollator)Collator.getInstance(new ULocale("el")),
+            (RuleBasedCollator)Collator.getInstance(new ULocale("ru")),
+            (RuleBasedCollator)Collator.getInstance(new ULocale("uk")),
+            (RuleBasedCollator)Collator.getInstance(new ULocale("sr")),
+            new RuleBasedCollator("&\u0435<\u0451<<<\u0401 &\u03C9<\u03B1\u0430"),
+        };
+        for (RuleBasedCollator coll : colls) {
+            for (int attr = 0; attr < 9; ++attr) {
+                RuleBasedCollator c = (RuleBasedCollator)coll.clone();
+                switch (attr) {
+                case 1: c.setStrength(Collator.PRIMARY); break;
+                case 2: c.setStrength(Collator.SECONDARY); c.setFrenchCollation(true); break;
+                case 3: c.setStrength(Collator.QUATERNARY); c.setAlternateHandlingShifted(true); break;
+                case 4: c.setUpperCaseFirst(true); break;
+                case 5: c.setCaseLevel(true); c.setStrength(Collator.PRIMARY); break;
+                case 6: c.setReorderCodes(UScript.CYRILLIC, UScript.GREEK); break;
+                case 7: c.setReorderCodes(UScript.GREEK, UScript.CYRILLIC, ReorderCodes.DIGIT); break;
+                case 8: c.setNumericCollation(true); break;
+                }
+                for (String left : strings) {
+                    for (String right : strings) {
+                        int result = c.compare(left, right);
+                        int expected = c.getCollationKey(left).compareTo(c.getCollationKey(right));
+                        if (Integer.signum(result) != Integer.signum(expected)) {
+                            errln("compare(" + Utility.hex(left) + ", " + Utility.hex(right) +
+                                    ")=" + result + " but sort keys compare " + expected +
+                                    " with attributes #" + attr + " of " + c.getLocale(ULocale.ACTUAL_LOCALE));
+                        }
+                    }
+                }
+            }
+        }
+    }
 }
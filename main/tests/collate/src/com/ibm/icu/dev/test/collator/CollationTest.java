@@ -12,8 +12,11 @@
 package com.ibm.icu.dev.test.collator;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -54,6 +57,8 @@ public class CollationTest extends TestFmwk {
     public CollationTest() {
     }
 
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
     // Fields
     Normalizer2 fcd, nfd;
     Collator coll;
@@ -1422,11 +1427,41 @@ public class CollationTest extends TestFmwk {
             return false;
         }
 
-        // No nextSortKeyPart support in ICU4J
-
+        // Check that nextSortKeyPart() makes the same key, with several part sizes.
+        final int[] partSizes = { 32, 3, 1 };
+        for (int psi = 0; psi < partSizes.length; ++psi) {
+            int partSize = partSizes[psi];
+            byte[] parts = getSortKeyParts(s, partSize);
+            if (!Arrays.equals(keyBytes, parts)) {
+                logln(fileTestName);
+                logln(line);
+                logln(printCollationKey(key));
+                errln("Collator(" + norm + ").getCollationKey() != nextSortKeyPart(" + partSize + ")");
+                return false;
+            }
+        }
         return true;
     }
 
+    private byte[] getSortKeyParts(String s, int partSize) {
+        ByteArrayOutputStream dest = new ByteArrayOutputStream();
+        byte[] part = new byte[32];
+        UCharacterIterator iter = UCharacterIterator.getInstance(s);
+        int[] state = { 0, 0 };
+        for (;;) {
+            int partLength = ((RuleBasedCollator)coll).nextSortKeyPart(iter, state, part, partSize);
+            boolean done = partLength < partSize;
+            if (done) {
+                // At the end, append the next byte as well which should be 00.
+                ++partLength;
+            }
+            dest.write(part, 0, partLength);
+            if (done) {
+                return dest.toByteArray();
+            }
+        }
+    }
+
     /**
      * Changes the key to the merged segments of the U+FFFE-separated substrings of s.
      * Leaves key unchanged if s does not contain U+FFFE.
@@ -1527,6 +1562,49 @@ public class CollationTest extends TestFmwk {
             return false;
         }
 
+        // Test again with UTF-8 string inputs,
+        // unless a string contains unpaired surrogates which do not round-trip.
+        byte[] prevUTF8 = prevString.getBytes(UTF_8);
+        byte[] sUTF8 = s.getBytes(UTF_8);
+        if (prevString.equals(new String(prevUTF8, UTF_8)) && s.equals(new String(sUTF8, UTF_8))) {
+            RuleBasedCollator rbc = (RuleBasedCollator)coll;
+            order = rbc.compareUTF8(prevUTF8, 0, prevUTF8.length, sUTF8, 0, sUTF8.length);
+            if (order != expectedOrder) {
+                logln(fileTestName);
+                logln(prevFileLine);
+                logln(fileLine);
+                logln(printCollationKey(prevKey));
+                logln(printCollationKey(key));
+                errln("line " + fileLineNumber
+                        + " Collator(" + norm + ").compareUTF8(previous, current) wrong order: "
+                        + order + " != " + expectedOrder);
+                return false;
+            }
+            order = rbc.compareUTF8(sUTF8, 0, sUTF8.length, prevUTF8, 0, prevUTF8.length);
+            if (order != -expectedOrder) {
+                logln(fileTestName);
+                logln(prevFileLine);
+                logln(fileLine);
+                logln(printCollationKey(prevKey));
+                logln(printCollationKey(key));
+                errln("line " + fileLineNumber
+                        + " Collator(" + norm + ").compareUTF8(current, previous) wrong order: "
+                        + order + " != " + -expectedOrder);
+                return false;
+            }
+            RawCollationKey utf8Key = rbc.getRawCollationKeyUTF8(sUTF8, 0, sUTF8.length, null);
+            byte[] keyBytes = key.toByteArray();
+            if (utf8Key.size != keyBytes.length ||
+                    !Arrays.equals(keyBytes, Arrays.copyOf(utf8Key.bytes, utf8Key.size))) {
+                logln(fileTestName);
+                logln(fileLine);
+                logln(printCollationKey(key));
+                errln("line " + fileLineNumber
+                        + " Collator(" + norm + ").getRawCollationKeyUTF8(current) differs from getCollationKey()");
+                return false;
+            }
+        }
+
         order = prevKey.compareTo(key);
         if (order != expectedOrder) {
             logln(fileTestName);
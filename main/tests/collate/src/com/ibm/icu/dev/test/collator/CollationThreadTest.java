@@ -14,6 +14,7 @@ import java.util.Locale;
 import java.util.Random;
 
 import com.ibm.icu.dev.test.TestFmwk;
+import com.ibm.icu.text.CollationKey;
 import com.ibm.icu.text.Collator;
 
 public class CollationThreadTest extends TestFmwk {
@@ -218,6 +219,42 @@ public class CollationThreadTest extends TestFmwk {
         }
     }
 
+    private static class KeyTest implements Runnable {
+        private Collator collator;
+        private CollationKey[] expected;
+        private String name;
+        private Control control;
+
+        KeyTest(String name, Collator collator, CollationKey[] expected, Control control) {
+            this.name = name;
+            this.collator = collator;
+            this.expected = expected;
+            this.control = control;
+        }
+
+        public void run() {
+            try {
+                synchronized (control) {
+                    while (!control.go()) {
+                        control.wait();
+                    }
+                }
+
+                while (control.go()) {
+                    for (int i = 0; i < threadTestData.length; ++i) {
+                        CollationKey key = collator.getCollationKey(threadTestData[i]);
+                        if (key.compareTo(expected[i]) != 0) {
+                            control.fail(name + ": incorrect key for " + threadTestData[i]);
+                            return;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // die
+            }
+        }
+    }
+
     private void runThreads(Thread[] threads, Control control) {
         for (int i = 0; i < threads.length; ++i) {
             threads[i].start();
@@ -285,4 +322,23 @@ public class CollationThreadTest extends TestFmwk {
 
         runThreads(threads, control);
     }
+
+    @org.junit.Test
+    public void testFrozenCollationKeys() {
+        final Collator theCollator = Collator.getInstance(new Locale("pl", "", ""));
+        CollationKey[] expected = new CollationKey[threadTestData.length];
+        for (int i = 0; i < threadTestData.length; ++i) {
+            expected[i] = theCollator.getCollationKey(threadTestData[i]);
+        }
+        theCollator.freeze();
+        Control control = new Control();
+
+        Thread[] threads = new Thread[10];
+        for (int i = 0; i < threads.length; ++i) {
+            KeyTest test = new KeyTest("Frozen collation key thread " + i, theCollator, expected, control);
+            threads[i] = new Thread(test);
+        }
+
+        runThreads(threads, control);
+    }
 }
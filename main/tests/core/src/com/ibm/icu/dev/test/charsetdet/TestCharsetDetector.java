@@ -1199,6 +1199,199 @@ public class TestCharsetDetector extends TestFmwk
         }   
     }
     
+    @Test
+    public void TestUpdate() throws Exception {
+        String s = "\u3053\u308c\u306f\u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8\u3067\u3059\u3002";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            sb.append(s);
+        }
+        String[] encodings = { "UTF-8", "Shift_JIS", "EUC-JP", "UTF-16LE" };
+        for (String encoding : encodings) {
+            byte[] bytes = sb.toString().getBytes(encoding);
+            CharsetDetector expected = new CharsetDetector();
+            expected.setText(bytes);
+            CharsetMatch expectedMatch = expected.detect();
+
+            // Feed the same bytes in pieces of different lengths.
+            CharsetDetector det = new CharsetDetector();
+            det.setText(new byte[] { 1, 2, 3 });
+            for (int i = 0; i < bytes.length;) {
+                int length = Math.min(1 + i % 97, bytes.length - i);
+                det.update(bytes, i, length);
+                i += length;
+            }
+            CharsetMatch m = det.detect();
+            assertEquals("update() " + encoding, expectedMatch.getName(), m.getName());
+            assertEquals("update() " + encoding + " confidence", expectedMatch.getConfidence(), m.getConfidence());
+            assertEquals("update() " + encoding + " string", expectedMatch.getString(), m.getString());
+        }
+
+        // Only the sample size is kept.
+        byte[] bytes = sb.toString().getBytes("UTF-8");
+        CharsetDetector det = new CharsetDetector();
+        det.setSampleSize(30);
+        det.update(bytes, 0, 20);
+        det.update(bytes, 20, bytes.length - 20);
+        assertEquals("sample of update()", new String(bytes, 0, 30, "UTF-8"), det.detect().getString());
+
+        try {
+            det.update(bytes, bytes.length, 1);
+            errln("update() out of bounds should throw an exception");
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    @Test
+    public void TestSampleSize() throws Exception {
+        CharsetDetector det = new CharsetDetector();
+        assertEquals("default sample size", 8000, det.getSampleSize());
+        try {
+            det.setSampleSize(0);
+            errln("setSampleSize(0) should throw an exception");
+        } catch (IllegalArgumentException e) {
+        }
+
+        // ASCII followed by Shift_JIS text: only a sample that includes the
+        // Shift_JIS part detects it.
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("plain ASCII text ");
+        }
+        for (int i = 0; i < 50; i++) {
+            sb.append("\u3053\u308c\u306f\u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8\u3067\u3059\u3002");
+        }
+        byte[] bytes = sb.toString().getBytes("Shift_JIS");
+        det.setText(bytes);
+        assertEquals("whole text", "Shift_JIS", det.detect().getName());
+        det.setSampleSize(1000);
+        assertNotEquals("ASCII sample", "Shift_JIS", det.detect().getName());
+        det.setSampleSize(2000);
+        assertEquals("sample with Shift_JIS", "Shift_JIS", det.detect().getName());
+
+        det.setSampleSize(1000);
+        det.setText(new ByteArrayInputStream(bytes));
+        assertNotEquals("ASCII sample from a stream", "Shift_JIS", det.detect().getName());
+    }
+
+    @Test
+    public void TestEarlyExit() throws Exception {
+        String s = "Une cha\u00eene de caract\u00e8res fran\u00e7aise, \u00e0 d\u00e9tecter.";
+        String[] encodings = { "UTF-8", "UTF-16BE", "UTF-16LE", "UTF-32BE", "UTF-32LE", "ISO-8859-1" };
+        for (String encoding : encodings) {
+            byte[] bytes = ("\ufeff" + s).getBytes(encoding);
+            CharsetDetector det = new CharsetDetector();
+            det.setText(bytes);
+            CharsetMatch[] all = det.detectAll();
+            CharsetMatch best = det.detect();
+            assertEquals("detect() vs. detectAll() " + encoding, all[0].getName(), best.getName());
+            det.setEarlyExitConfidence(100);
+            CharsetMatch early = det.detect();
+            assertEquals("early exit " + encoding, best.getName(), early.getName());
+            assertEquals("early exit confidence " + encoding, best.getConfidence(), early.getConfidence());
+        }
+
+        CharsetDetector det = new CharsetDetector();
+        det.setText(s.getBytes("ISO-8859-1"));
+        det.setEarlyExitConfidence(1);
+        assertEquals("first match", "UTF-16BE", det.detect().getName());
+        try {
+            det.setEarlyExitConfidence(101);
+            errln("setEarlyExitConfidence(101) should throw an exception");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void TestFrozen() throws Exception {
+        String[] texts = {
+            "\u3053\u308c\u306f\u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8\u3067\u3059\u3002",
+            "Dies ist ein kurzer deutscher Text, der f\u00fcr die Erkennung gen\u00fcgt.",
+            "\u042d\u0442\u043e \u043d\u0435\u0431\u043e\u043b\u044c\u0448\u043e\u0439 \u0442\u0435\u043a\u0441\u0442 \u043d\u0430 \u0440\u0443\u0441\u0441\u043a\u043e\u043c \u044f\u0437\u044b\u043a\u0435.",
+        };
+        String[] encodings = { "Shift_JIS", "ISO-8859-1", "KOI8-R" };
+        final byte[][] inputs = new byte[texts.length][];
+        final int[] offsets = new int[texts.length];
+        final String[] expectedNames = new String[texts.length];
+        final int[] expectedConfidences = new int[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < 20; j++) {
+                sb.append(texts[i]).append(' ');
+            }
+            byte[] bytes = sb.toString().getBytes(encodings[i]);
+            CharsetMatch expected = new CharsetDetector().setText(bytes).detect();
+            expectedNames[i] = expected.getName();
+            expectedConfidences[i] = expected.getConfidence();
+
+            // Surround the text with bytes that would change the result.
+            offsets[i] = 7 * (i + 1);
+            inputs[i] = new byte[offsets[i] + bytes.length + 5];
+            java.util.Arrays.fill(inputs[i], (byte)0xfe);
+            System.arraycopy(bytes, 0, inputs[i], offsets[i], bytes.length);
+        }
+
+        final CharsetDetector det = new CharsetDetector().freeze();
+        assertTrue("frozen", det.isFrozen());
+        for (int i = 0; i < texts.length; i++) {
+            int length = inputs[i].length - offsets[i] - 5;
+            CharsetMatch m = det.detect(inputs[i], offsets[i], length);
+            assertEquals("detect() " + encodings[i], expectedNames[i], m.getName());
+            assertEquals("detect() " + encodings[i] + " confidence", expectedConfidences[i], m.getConfidence());
+            assertEquals("detect() " + encodings[i] + " string",
+                    new String(inputs[i], offsets[i], length, encodings[i]), m.getString());
+            CharsetMatch[] all = det.detectAll(inputs[i], offsets[i], length);
+            assertEquals("detectAll() " + encodings[i], expectedNames[i], all[0].getName());
+        }
+
+        try {
+            det.setText(inputs[0]);
+            errln("setText() on a frozen detector should throw an exception");
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            det.setSampleSize(100);
+            errln("setSampleSize() on a frozen detector should throw an exception");
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            det.detect(inputs[0], 1, inputs[0].length);
+            errln("detect() out of bounds should throw an exception");
+        } catch (IndexOutOfBoundsException e) {
+        }
+        CharsetDetector thawed = det.cloneAsThawed();
+        assertFalse("thawed", thawed.isFrozen());
+        thawed.setText(inputs[0]);
+
+        // Share the frozen detector between threads.
+        final String[] failure = new String[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int first = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int n = 0; n < 300; n++) {
+                        int i = (first + n) % inputs.length;
+                        CharsetMatch m = det.detect(inputs[i], offsets[i], inputs[i].length - offsets[i] - 5);
+                        if (!m.getName().equals(expectedNames[i]) || m.getConfidence() != expectedConfidences[i]) {
+                            synchronized (failure) {
+                                failure[0] = "input " + i + ": " + m.getName() + " " + m.getConfidence();
+                            }
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        synchronized (failure) {
+            assertNull("concurrent detect() mismatch", failure[0]);
+        }
+    }
+
     @Test
     public void TestMultithreaded() {
         String  s = "This is some random plain text to run charset detection on.";
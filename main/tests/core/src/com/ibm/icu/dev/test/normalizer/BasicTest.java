@@ -9,8 +9,20 @@
 
 package com.ibm.icu.dev.test.normalizer;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
 import java.text.StringCharacterIterator;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
@@ -25,6 +37,8 @@ import com.ibm.icu.lang.UProperty;
 import com.ibm.icu.text.FilteredNormalizer2;
 import com.ibm.icu.text.Normalizer;
 import com.ibm.icu.text.Normalizer2;
+import com.ibm.icu.text.NormalizingReader;
+import com.ibm.icu.text.NormalizingWriter;
 import com.ibm.icu.text.UCharacterIterator;
 import com.ibm.icu.text.UTF16;
 import com.ibm.icu.text.UnicodeSet;
@@ -2755,6 +2769,296 @@ public class BasicTest extends TestFmwk {
         assertEquals("normalize()", "a\u0313á\u0313", fn2.normalize("a\u0313a\u0301\u0313"));
     }
 
+    @Test
+    public void TestNormalizeToBuffer() {
+        String[] strings = {
+            "",
+            "abc",
+            "a\u0308bc\u0327",
+            "\u00e4\u00e7xyz\u1e08",
+            "\u0301\u0327abc",
+            "Hello World \u00A0\uFB01 \u2126 \u00C7\u0301 \uAC00\u11A8 \uD835\uDC00\u0308",
+            "\u0f73\u0f75\u0f81"
+        };
+        Normalizer2[] norms = {
+            Normalizer2.getNFCInstance(),
+            Normalizer2.getNFDInstance(),
+            Normalizer2.getNFKCInstance(),
+            Normalizer2.getNFKCCasefoldInstance(),
+            Normalizer2.getInstance(null, "nfc", Normalizer2.Mode.FCD),
+            new FilteredNormalizer2(Normalizer2.getNFCInstance(), new UnicodeSet("[^\u00a0-\u00ff]")),
+            Norm2AllModes.NOOP_NORMALIZER2
+        };
+        for (int ni = 0; ni < norms.length; ++ni) {
+            Normalizer2 n2 = norms[ni];
+            for (int si = 0; si < strings.length; ++si) {
+                String s = Utility.unescape(strings[si]);
+                String expected = n2.normalize(s);
+                String name = "normalizer " + ni + " string " + si;
+
+                // char[] ranges with some padding.
+                char[] src = ("<<" + s + ">>").toCharArray();
+                char[] dest = new char[expected.length() + 4];
+                int length = n2.normalize(src, 2, src.length - 2, dest, 1, dest.length - 1);
+                assertEquals(name + " normalize(char[]) length", expected.length(), length);
+                assertEquals(name + " normalize(char[])", expected, new String(dest, 1, length));
+                if (expected.length() > 0) {
+                    // Overflow: The required length.
+                    length = n2.normalize(src, 2, src.length - 2, dest, 0, expected.length() - 1);
+                    assertEquals(name + " normalize(char[]) overflow length", expected.length(), length);
+                }
+
+                // Heap and direct CharBuffers.
+                for (int direct = 0; direct < 2; ++direct) {
+                    CharBuffer srcBuffer, destBuffer;
+                    if (direct == 0) {
+                        srcBuffer = CharBuffer.wrap(src);
+                        destBuffer = CharBuffer.allocate(expected.length() + 3);
+                    } else {
+                        srcBuffer = ByteBuffer.allocateDirect(2 * src.length).asCharBuffer();
+                        srcBuffer.put(src).flip();
+                        destBuffer = ByteBuffer.allocateDirect(2 * (expected.length() + 3)).asCharBuffer();
+                    }
+                    srcBuffer.position(2).limit(src.length - 2);
+                    destBuffer.put('[');
+                    CoderResult result = n2.normalize(srcBuffer, destBuffer);
+                    assertEquals(name + " normalize(CharBuffer) result", CoderResult.UNDERFLOW, result);
+                    assertEquals(name + " normalize(CharBuffer) src position",
+                            src.length - 2, srcBuffer.position());
+                    destBuffer.flip();
+                    assertEquals(name + " normalize(CharBuffer)", "[" + expected, destBuffer.toString());
+
+                    // Overflow: Normalize into a small buffer and drain it after each call,
+                    // growing it only when no progress can be made.
+                    srcBuffer.position(2);
+                    destBuffer = CharBuffer.allocate(1);
+                    StringBuilder output = new StringBuilder();
+                    do {
+                        int srcPosition = srcBuffer.position();
+                        result = n2.normalize(srcBuffer, destBuffer);
+                        destBuffer.flip();
+                        output.append(destBuffer);
+                        if (result.isOverflow() && srcBuffer.position() == srcPosition) {
+                            destBuffer = CharBuffer.allocate(2 * destBuffer.capacity());
+                        } else {
+                            destBuffer.clear();
+                        }
+                    } while (result.isOverflow());
+                    assertEquals(name + " normalize(CharBuffer) with overflows", expected, output.toString());
+                }
+            }
+        }
+        try {
+            char[] chars = new char[10];
+            Normalizer2.getNFCInstance().normalize(chars, 0, 2, chars, 5, 10);
+            errln("normalize(char[]) with the same array did not throw an exception");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static String[] getStreamingTestStrings() {
+        StringBuilder marks = new StringBuilder("a");
+        for (int i = 0; i < 40; ++i) {
+            marks.append("\u0308\u0327");
+        }
+        return new String[] {
+            "",
+            "abc",
+            "a\u0308bc\u0327 \u00e4\u00e7xyz\u1e08 \u0301\u0327abc",
+            "Hello World \u00A0\uFB01 \u2126 \u00C7\u0301 \uAC00\u11A8\u1100\u1161\u11A8 " +
+                "\uD835\uDC00\u0308\uD834\uDD5E\uD834\uDD65 \u0f73\u0f75\u0f81 \u3055\u3099",
+            marks.toString() + "b\u0301" + marks.toString()
+        };
+    }
+
+    private static Normalizer2[] getStreamingTestNormalizers() {
+        return new Normalizer2[] {
+            Normalizer2.getNFCInstance(),
+            Normalizer2.getNFDInstance(),
+            Normalizer2.getNFKCCasefoldInstance(),
+            Normalizer2.getInstance(null, "nfc", Normalizer2.Mode.FCD),
+            new FilteredNormalizer2(Normalizer2.getNFCInstance(), new UnicodeSet("[^\u00a0-\u00ff]"))
+        };
+    }
+
+    /** Returns at most a few chars per read() call. */
+    private static final class ChunkedReader extends FilterReader {
+        ChunkedReader(Reader in) {
+            super(in);
+        }
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return super.read(cbuf, off, Math.min(len, 1 + (count++ % 5)));
+        }
+        private int count;
+    }
+
+    @Test
+    public void TestNormalizingReader() throws IOException {
+        String[] strings = getStreamingTestStrings();
+        Normalizer2[] norms = getStreamingTestNormalizers();
+        int[] bufferSizes = { 1, 3, 16, 8192 };
+        char[] chars = new char[7];
+        for (int ni = 0; ni < norms.length; ++ni) {
+            for (int si = 0; si < strings.length; ++si) {
+                String s = Utility.unescape(strings[si]);
+                String expected = norms[ni].normalize(s);
+                for (int bi = 0; bi < bufferSizes.length; ++bi) {
+                    NormalizingReader reader = new NormalizingReader(
+                            new ChunkedReader(new StringReader(s)), norms[ni], bufferSizes[bi]);
+                    StringBuilder result = new StringBuilder();
+                    int length;
+                    while ((length = reader.read(chars, 0, 1 + result.length() % chars.length)) >= 0) {
+                        result.append(chars, 0, length);
+                    }
+                    reader.close();
+                    assertEquals("normalizer " + ni + " string " + si + " buffer size " + bufferSizes[bi],
+                            expected, result.toString());
+                }
+            }
+        }
+        try {
+            new NormalizingReader(new StringReader(""), Normalizer2.getNFCInstance(), 0);
+            errln("NormalizingReader with bufferSize 0 did not throw an exception");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void TestNormalizingWriter() throws IOException {
+        String[] strings = getStreamingTestStrings();
+        Normalizer2[] norms = getStreamingTestNormalizers();
+        for (int ni = 0; ni < norms.length; ++ni) {
+            for (int si = 0; si < strings.length; ++si) {
+                String s = Utility.unescape(strings[si]);
+                String expected = norms[ni].normalize(s);
+                StringWriter out = new StringWriter();
+                NormalizingWriter writer = new NormalizingWriter(out, norms[ni]);
+                // Write pieces of varying lengths, also splitting surrogate pairs.
+                char[] chars = s.toCharArray();
+                for (int start = 0, i = 0; start < chars.length; ++i) {
+                    int length = Math.min(1 + i % 4, chars.length - start);
+                    if ((i & 1) == 0) {
+                        writer.write(chars, start, length);
+                    } else {
+                        writer.write(s, start, length);
+                    }
+                    start += length;
+                }
+                // Short text stays in the buffer until it is flushed.
+                assertEquals("normalizer " + ni + " string " + si + " buffered", "", out.toString());
+                writer.flush();
+                writer.finish();
+                assertEquals("normalizer " + ni + " string " + si, expected, out.toString());
+                // The Writer can continue with more text.
+                writer.write(s);
+                writer.close();
+                assertEquals("normalizer " + ni + " string " + si + " twice",
+                        expected + expected, out.toString());
+            }
+
+            // Text that is longer than the buffer, written in small pieces.
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; sb.length() < 50000; ++i) {
+                sb.append(Utility.unescape(strings[i % strings.length]));
+            }
+            String s = sb.toString();
+            StringWriter out = new StringWriter();
+            NormalizingWriter writer = new NormalizingWriter(out, norms[ni]);
+            for (int start = 0, i = 0; start < s.length(); ++i) {
+                int length = Math.min(1 + i % 7, s.length() - start);
+                writer.write(s, start, length);
+                start += length;
+            }
+            writer.close();
+            assertEquals("normalizer " + ni + " long string", norms[ni].normalize(s), out.toString());
+        }
+    }
+
+    @Test
+    public void TestParallelNormalize() {
+        // Make a text that is long enough to be split into chunks,
+        // with long runs without boundaries and with supplementary code points.
+        String[] strings = getStreamingTestStrings();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; sb.length() < 300000; ++i) {
+            sb.append(Utility.unescape(strings[i % strings.length]));
+        }
+        String s = sb.toString();
+        Normalizer2[] norms = getStreamingTestNormalizers();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int ni = 0; ni < norms.length; ++ni) {
+                String expected = norms[ni].normalize(s, new StringBuilder()).toString();
+                StringBuilder dest = new StringBuilder("garbage");
+                assertEquals("normalizer " + ni + " parallel",
+                        expected, norms[ni].normalize(s, dest, executor).toString());
+                assertEquals("normalizer " + ni + " with null executor",
+                        expected, norms[ni].normalize(s, dest, null).toString());
+            }
+            // Short strings are normalized in the calling thread.
+            assertEquals("parallel short string", "\u00e4",
+                    Normalizer2.getNFCInstance().normalize("a\u0308", new StringBuilder(), executor).toString());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void TestNormalizeUTF8() throws IOException {
+        String[] strings = getStreamingTestStrings();
+        Normalizer2[] norms = getStreamingTestNormalizers();
+        for (int ni = 0; ni < norms.length; ++ni) {
+            Normalizer2 n2 = norms[ni];
+            for (int si = 0; si < strings.length; ++si) {
+                String name = "normalizer " + ni + " string " + si;
+                String s = Utility.unescape(strings[si]);
+                // Surround the text with bytes outside of the range.
+                byte[] bytes = ("\u00e4" + s + "\u0301").getBytes("UTF-8");
+                int start = 2;
+                int limit = bytes.length - 2;
+                byte[] expected = n2.normalize(s).getBytes("UTF-8");
+                assertEquals(name + " isNormalizedUTF8()",
+                        n2.isNormalized(s), n2.isNormalizedUTF8(bytes, start, limit));
+                int spanLimit = n2.spanQuickCheckYesUTF8(bytes, start, limit);
+                assertEquals(name + " spanQuickCheckYesUTF8()", n2.spanQuickCheckYes(s),
+                        new String(bytes, start, spanLimit - start, "UTF-8").length());
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertEquals(name + " normalizeUTF8(OutputStream) length",
+                        expected.length, n2.normalizeUTF8(bytes, start, limit, out));
+                assertTrue(name + " normalizeUTF8(OutputStream)", Arrays.equals(expected, out.toByteArray()));
+
+                ByteBuffer dest = ByteBuffer.allocate(expected.length);
+                assertEquals(name + " normalizeUTF8(ByteBuffer) length",
+                        expected.length, n2.normalizeUTF8(bytes, start, limit, dest));
+                assertEquals(name + " normalizeUTF8(ByteBuffer) position", expected.length, dest.position());
+                assertTrue(name + " normalizeUTF8(ByteBuffer)", Arrays.equals(expected, dest.array()));
+                if (expected.length > 0) {
+                    ByteBuffer small = ByteBuffer.allocateDirect(expected.length - 1);
+                    assertEquals(name + " normalizeUTF8(ByteBuffer) overflow length",
+                            expected.length, n2.normalizeUTF8(bytes, start, limit, small));
+                    assertEquals(name + " normalizeUTF8(ByteBuffer) overflow position", 0, small.position());
+                }
+            }
+        }
+
+        // A lone lead byte and a surrogate code point are ill-formed.
+        Normalizer2 nfc = Normalizer2.getNFCInstance();
+        byte[] illFormed = { 0x61, (byte)0xcc, 0x62, (byte)0xed, (byte)0xa0, (byte)0x80, 0x63 };
+        assertFalse("ill-formed isNormalizedUTF8()", nfc.isNormalizedUTF8(illFormed, 0, illFormed.length));
+        assertEquals("ill-formed spanQuickCheckYesUTF8()", 1,
+                nfc.spanQuickCheckYesUTF8(illFormed, 0, illFormed.length));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        nfc.normalizeUTF8(illFormed, 0, illFormed.length, out);
+        assertEquals("ill-formed normalizeUTF8()", "a\ufffdb\ufffd\ufffd\ufffdc", out.toString("UTF-8"));
+        try {
+            nfc.isNormalizedUTF8(illFormed, 3, 2);
+            errln("isNormalizedUTF8() with an illegal range did not throw an exception");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
     @Test
     public void TestGetEasyToUseInstance() {
         // Test input string:
@@ -9,13 +9,20 @@
 package com.ibm.icu.dev.test.rbbi;
 
 import java.text.CharacterIterator;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
 import com.ibm.icu.dev.test.TestFmwk;
 import com.ibm.icu.text.BreakIterator;
+import com.ibm.icu.util.ULocale;
 
 public class BreakIteratorRegTest extends TestFmwk
 {
@@ -99,6 +106,123 @@ public class BreakIteratorRegTest extends TestFmwk
     }
     }
 
+    // Alternating between locales must not evict the cached prototypes,
+    // and each instance must be independent of the others.
+    @Test
+    public void TestPrototypeCache() throws Exception {
+        final ULocale[] locales = { ULocale.JAPANESE, new ULocale("th"), ULocale.ENGLISH, ULocale.CHINESE };
+        final String text = "\u0e20\u0e32\u0e29\u0e32\u0e44\u0e17\u0e22 \u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8 "
+                + "English words, and \u4e2d\u6587\u6587\u672c.";
+        BreakIterator.flushCache();
+        final String[] expected = new String[locales.length];
+        for (int i = 0; i < locales.length; ++i) {
+            BreakIterator bi = BreakIterator.getWordInstance(locales[i]);
+            bi.setText(text);
+            expected[i] = getBoundaries(bi);
+        }
+        // Prototypes may be released by the garbage collector at any time,
+        // so the cache counters are only checked loosely.
+        long hits = BreakIterator.getCacheHitCount();
+        for (int round = 0; round < 3; ++round) {
+            for (int i = 0; i < locales.length; ++i) {
+                BreakIterator bi = BreakIterator.getWordInstance(locales[i]);
+                bi.setText(text);
+                if (!getBoundaries(bi).equals(expected[i])) {
+                    errln("cached word instance for " + locales[i] + " gives different boundaries");
+                }
+            }
+        }
+        if (BreakIterator.getCacheHitCount() <= hits) {
+            errln("alternating between " + locales.length + " locales should hit the cache");
+        }
+
+        // A second lookup returns an independent but equivalent iterator.
+        BreakIterator first = BreakIterator.getWordInstance(locales[0]);
+        BreakIterator second = BreakIterator.getWordInstance(locales[0]);
+        if (first == second) {
+            errln("two lookups returned the same iterator object");
+        }
+        first.setText(text);
+        second.setText("abc def");
+        second.last();
+        if (!getBoundaries(first).equals(expected[0])) {
+            errln("using one word instance affected another one");
+        }
+        second.setText(text);
+        if (!getBoundaries(second).equals(expected[0])) {
+            errln("a second word instance for " + locales[0] + " gives different boundaries");
+        }
+
+        // The least recently used prototypes are evicted once the cache is full.
+        final int capacity = 32;
+        ULocale[] manyLocales = { ULocale.ENGLISH, ULocale.FRENCH, ULocale.GERMAN, ULocale.JAPANESE,
+                ULocale.CHINESE, ULocale.KOREAN, new ULocale("th"), new ULocale("ru") };
+        BreakIterator.flushCache();
+        for (ULocale locale : manyLocales) {
+            BreakIterator.getCharacterInstance(locale);
+            BreakIterator.getWordInstance(locale);
+            BreakIterator.getLineInstance(locale);
+            BreakIterator.getSentenceInstance(locale);
+            BreakIterator.getTitleInstance(locale);
+        }
+        long misses = BreakIterator.getCacheMissCount();
+        BreakIterator.getCharacterInstance(manyLocales[0]);
+        if (BreakIterator.getCacheMissCount() == misses) {
+            errln("the least recently used prototype should have been evicted");
+        }
+        if (BreakIterator.flushCache() != capacity) {
+            errln("the cache should hold at most " + capacity + " prototypes");
+        }
+        for (int i = 0; i < locales.length; ++i) {
+            BreakIterator.getWordInstance(locales[i]);
+        }
+
+        // Clones of the same prototype in several threads at once.
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; ++t) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() {
+                        for (int n = 0; n < 50; ++n) {
+                            int i = n % locales.length;
+                            BreakIterator bi = BreakIterator.getWordInstance(locales[i]);
+                            bi.setText(text);
+                            if (!getBoundaries(bi).equals(expected[i])) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                if (!result.get()) {
+                    errln("word instances used in several threads give different boundaries");
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        if (BreakIterator.flushCache() != locales.length) {
+            errln("flushCache() should remove one entry per locale");
+        }
+        misses = BreakIterator.getCacheMissCount();
+        BreakIterator.getWordInstance(locales[0]);
+        if (BreakIterator.getCacheMissCount() == misses) {
+            errln("flushCache() did not remove the cached prototypes");
+        }
+    }
+
+    private static String getBoundaries(BreakIterator bi) {
+        StringBuilder sb = new StringBuilder();
+        for (int b = bi.first(); b != BreakIterator.DONE; b = bi.next()) {
+            sb.append(b).append(':').append(bi.getRuleStatus()).append(' ');
+        }
+        return sb.toString();
+    }
+
     private void assertEqual(Object lhs, Object rhs, String msg) {
     msg(msg, lhs.equals(rhs) ? LOG : ERR, true, true);
     }
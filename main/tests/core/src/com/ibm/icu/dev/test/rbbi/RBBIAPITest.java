@@ -18,12 +18,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
 import com.ibm.icu.dev.test.TestFmwk;
 import com.ibm.icu.text.BreakIterator;
+import com.ibm.icu.text.ParallelSegmenter;
 import com.ibm.icu.text.RuleBasedBreakIterator;
 import com.ibm.icu.util.ULocale;
 
@@ -475,6 +482,209 @@ public class RBBIAPITest extends com.ibm.icu.dev.test.TestFmwk {
             logln("****selected \"" + selected + "\"");
     }
 
+    // setText(String), setText(CharSequence) and setText(char[], int, int) read the text directly
+    // rather than through a CharacterIterator. The boundaries and rule status values
+    // must be the same as with a CharacterIterator.
+    @Test
+    public void TestSetTextCharArray() {
+        String pool = "aZ9 ,.!?'-\t\r\n\u00e9\u0301\u0e01\u0e32\u0e23\u0e40\u3042\u30ab\u4e00\uac00"
+                + "\ud83d\ude00\ud800\udc00\ud800\udfff\uffff\u200d";
+        Random random = new Random(5);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; ++i) {
+            sb.append(pool.charAt(random.nextInt(pool.length())));
+        }
+        String text = sb.toString();
+        char[] chars = ("xyz" + text + "xy").toCharArray();
+        ULocale[] locales = { ULocale.ENGLISH, new ULocale("th"), ULocale.JAPANESE };
+        for (ULocale locale : locales) {
+            BreakIterator[] bis = {
+                    BreakIterator.getCharacterInstance(locale), BreakIterator.getWordInstance(locale),
+                    BreakIterator.getLineInstance(locale), BreakIterator.getSentenceInstance(locale),
+                    BreakIterator.getTitleInstance(locale) };
+            for (BreakIterator bi : bis) {
+                bi.setText(new StringCharacterIterator(text));
+                String expected = getBoundariesAndStatus(bi, 0);
+                bi.setText(text);
+                assertEquals(locale + " setText(String)", expected, getBoundariesAndStatus(bi, 0));
+                bi.setText(new StringBuilder(text));
+                assertEquals(locale + " setText(CharSequence)", expected, getBoundariesAndStatus(bi, 0));
+                bi.setText(chars, 3, chars.length - 2);
+                assertEquals(locale + " setText(char[])", expected, getBoundariesAndStatus(bi, 3));
+                if (bi.first() != 3 || bi.last() != chars.length - 2) {
+                    errln(locale + " setText(char[]) wrong first() or last()");
+                }
+                BreakIterator clone = (BreakIterator) bi.clone();
+                assertEquals(locale + " setText(char[]) clone", expected, getBoundariesAndStatus(clone, 3));
+            }
+        }
+    }
+
+    @Test
+    public void TestBulkNext() {
+        String text = "The quick (\"brown\") fox can't jump 32.3 feet, right? "
+                + "\u0e20\u0e32\u0e29\u0e32\u0e44\u0e17\u0e22\u0e07\u0e48\u0e32\u0e22\u0e46 "
+                + "\u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8\u3002 \ud83d\ude00 Done.\n";
+        ULocale[] locales = { ULocale.ENGLISH, new ULocale("th"), ULocale.JAPANESE };
+        for (ULocale locale : locales) {
+            BreakIterator[] bis = {
+                    BreakIterator.getCharacterInstance(locale), BreakIterator.getWordInstance(locale),
+                    BreakIterator.getLineInstance(locale), BreakIterator.getSentenceInstance(locale) };
+            for (BreakIterator bi : bis) {
+                bi.setText(text);
+                List<Integer> expected = new ArrayList<Integer>();
+                List<Integer> expectedStatus = new ArrayList<Integer>();
+                for (int b = bi.first(); (b = bi.next()) != BreakIterator.DONE;) {
+                    expected.add(b);
+                    expectedStatus.add(bi.getRuleStatus());
+                }
+                // Small arrays and limits inside the text, to check resuming where the previous call stopped.
+                int[][] sizesAndLimits = { { 1, text.length() }, { 3, text.length() }, { 100, 20 }, { 7, 45 } };
+                for (int[] sizeAndLimit : sizesAndLimits) {
+                    int[] boundaries = new int[sizeAndLimit[0]];
+                    int[] ruleStatus = new int[sizeAndLimit[0]];
+                    int limit = sizeAndLimit[1];
+                    int i = 0;
+                    bi.first();
+                    for (;;) {
+                        int n = bi.next(limit, boundaries, i % 2 == 0 ? ruleStatus : null);
+                        if (n == 0) {
+                            break;
+                        }
+                        boolean withStatus = i % 2 == 0;
+                        for (int j = 0; j < n; ++j, ++i) {
+                            String msg = locale + " boundary " + i + " size " + boundaries.length;
+                            assertEquals(msg, expected.get(i).intValue(), boundaries[j]);
+                            if (withStatus) {
+                                assertEquals(msg + " status", expectedStatus.get(i).intValue(), ruleStatus[j]);
+                            }
+                        }
+                        assertEquals(locale + " current()", boundaries[n - 1], bi.current());
+                        assertEquals(locale + " getRuleStatus()", expectedStatus.get(i - 1).intValue(),
+                                bi.getRuleStatus());
+                        if (n >= 2 && boundaries[n - 2] >= limit) {
+                            errln(locale + " did not stop at the limit " + limit);
+                        }
+                        if (boundaries[n - 1] >= limit) {
+                            limit = text.length();
+                        } else {
+                            assertEquals(locale + " full array", boundaries.length, n);
+                        }
+                    }
+                    assertEquals(locale + " boundary count", expected.size(), i);
+                }
+            }
+        }
+
+        BreakIterator bi = BreakIterator.getWordInstance();
+        bi.setText(text);
+        try {
+            bi.next(text.length(), new int[4], new int[3]);
+            errln("next(limit, int[4], int[3]) should throw an exception");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void TestParallelSegmenter() {
+        // Paragraphs with all of the hard line breaks, and a long run without any
+        // which forces chunks to be merged.
+        String[] separators = { "\n", "\r", "\r\n", "\u0085", "\u2028", "\u2029", "\n\n", "\r\r\n" };
+        String[] phrases = {
+                "The quick (\"brown\") fox can't jump 32.3 feet, right? ",
+                "\u0e20\u0e32\u0e29\u0e32\u0e44\u0e17\u0e22\u0e07\u0e48\u0e32\u0e22\u0e46 ",
+                "\u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8\u3002",
+                "e\u0301 \ud83d\ude00 Mr. Smith said \"Hi.\" ",
+        };
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(20161017);
+        for (int i = 0; sb.length() < 150000; ++i) {
+            sb.append(phrases[random.nextInt(phrases.length)]);
+            if (random.nextInt(4) == 0) {
+                sb.append(separators[random.nextInt(separators.length)]);
+            }
+        }
+        for (int i = 0; i < 2000; ++i) {
+            sb.append(phrases[i % phrases.length]);
+        }
+        sb.append("\r\n");
+        for (int i = 0; sb.length() < 300000; ++i) {
+            sb.append(phrases[i % phrases.length]).append(separators[i % separators.length]);
+        }
+        String text = sb.toString();
+
+        ULocale[] locales = { ULocale.ENGLISH, new ULocale("th"), ULocale.JAPANESE };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (ULocale locale : locales) {
+                BreakIterator[] bis = {
+                        BreakIterator.getCharacterInstance(locale), BreakIterator.getWordInstance(locale),
+                        BreakIterator.getLineInstance(locale), BreakIterator.getSentenceInstance(locale) };
+                for (BreakIterator bi : bis) {
+                    bi.setText("abc");
+                    int current = bi.next();
+                    int[] expected = getAllBoundaries(bi, text);
+                    assertTrue(locale + " parallel = sequential",
+                            Arrays.equals(expected, ParallelSegmenter.getBoundaries(bi, text, executor)));
+                    assertTrue(locale + " null executor",
+                            Arrays.equals(expected, ParallelSegmenter.getBoundaries(bi, text, null)));
+                    assertEquals(locale + " iterator unchanged", current, bi.current());
+                }
+            }
+
+            // Not a RuleBasedBreakIterator: segmented sequentially.
+            BreakIterator bi = BreakIterator.getSentenceInstance(new ULocale("en@ss=standard"));
+            assertTrue("en@ss=standard parallel = sequential",
+                    Arrays.equals(getAllBoundaries(bi, text), ParallelSegmenter.getBoundaries(bi, text, executor)));
+
+            // Custom rules without a break at the line breaks.
+            bi = new RuleBasedBreakIterator("!!forward; [^.]+ [.]?; !!reverse; [.]? [^.]+;");
+            StringBuilder dotted = new StringBuilder(text);
+            for (int i = 40000; i < dotted.length(); i += 40000) {
+                dotted.setCharAt(i, '.');
+            }
+            assertTrue("custom rules parallel = sequential",
+                    Arrays.equals(getAllBoundaries(bi, dotted), ParallelSegmenter.getBoundaries(bi, dotted, executor)));
+
+            bi = BreakIterator.getWordInstance();
+            assertTrue("empty text", Arrays.equals(new int[] { 0 }, ParallelSegmenter.getBoundaries(bi, "", executor)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static int[] getAllBoundaries(BreakIterator bi, CharSequence text) {
+        BreakIterator clone = (BreakIterator) bi.clone();
+        clone.setText(text.toString());
+        List<Integer> boundaries = new ArrayList<Integer>();
+        for (int b = clone.first(); b != BreakIterator.DONE; b = clone.next()) {
+            boundaries.add(b);
+        }
+        int[] result = new int[boundaries.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    // Returns the boundaries, each followed by its rule status, then the results of
+    // following() and preceding() for every offset.
+    private static String getBoundariesAndStatus(BreakIterator bi, int delta) {
+        StringBuilder sb = new StringBuilder();
+        for (int b = bi.first(); b != BreakIterator.DONE; b = bi.next()) {
+            sb.append(b - delta).append(':').append(bi.getRuleStatus()).append(' ');
+        }
+        sb.append('|');
+        int start = bi.first();
+        int end = bi.last();
+        for (int i = start; i < end; i += 7) {
+            int f = bi.following(i);
+            int p = bi.preceding(i + 1);
+            sb.append(f - delta).append(',').append(p - delta).append(',').append(bi.isBoundary(i)).append(' ');
+        }
+        return sb.toString();
+    }
+
     @Test
     public void testGetTitleInstance() {
         BreakIterator bi = BreakIterator.getTitleInstance(new Locale("en", "CA"));
@@ -852,5 +852,66 @@ public class RBBITest extends TestFmwk {
         bi.first();
         assertEquals("Rule chaining test", 3,  bi.next());
          }
+
+    // A break iterator reuses its dictionary work buffers from one range of text to the next.
+    // Check that the results do not depend on what the iterator broke before.
+    @Test
+    public void TestDictionaryBufferReuse() {
+        String[] texts = {
+            // Long Thai, then short Thai
+            "\u0e01\u0e32\u0e23\u0e17\u0e14\u0e25\u0e2d\u0e07\u0e20\u0e32\u0e29\u0e32\u0e44\u0e17\u0e22"
+                + "\u0e2a\u0e33\u0e2b\u0e23\u0e31\u0e1a\u0e01\u0e32\u0e23\u0e41\u0e1a\u0e48\u0e07\u0e04\u0e33",
+            "\u0e20\u0e32\u0e29\u0e32\u0e44\u0e17\u0e22",
+            // Short texts that start with different words at the same offset
+            "\u0e44\u0e01\u0e48\u0e44\u0e02\u0e48",
+            "\u0e44\u0e02\u0e48\u0e44\u0e01\u0e48\u0e44\u0e02\u0e48",
+            // Japanese with kanji, hiragana and katakana, then half-width katakana, which is not NFKC
+            "\u65e5\u672c\u8a9e\u306e\u6587\u7ae0\u3092\u5358\u8a9e\u306b\u5206\u5272\u3059\u308b"
+                + "\u30c6\u30b9\u30c8\u30d7\u30ed\u30b0\u30e9\u30e0\u3067\u3059\u3002",
+            "\uff83\uff7d\uff84\u6587\u7ae0\uff83\uff9e\uff70\uff80",
+            // Supplementary Han, Korean, Lao, Khmer, Myanmar, and mixed short runs
+            "\ud840\udc00\u4e00\ud840\udc01\u4e8c \ud55c\uad6d\uc5b4 \u0e9e\u0eb2\u0eaa\u0eb2\u0ea5\u0eb2\u0ea7 "
+                + "\u1797\u17b6\u179f\u17b6\u1781\u17d2\u1798\u17c2\u179a \u1019\u103c\u1014\u103a\u1019\u102c",
+            "\u0e44\u0e17\u0e22 \u65e5\u672c a \u0e44\u0e17\u0e22\u0e44\u0e17\u0e22 \u30c6\u30b9\u30c8",
+        };
+        ULocale[] locales = { ULocale.ROOT, ULocale.JAPANESE, new ULocale("th") };
+        for (ULocale locale : locales) {
+            BreakIterator[] reused = { BreakIterator.getWordInstance(locale), BreakIterator.getLineInstance(locale) };
+            for (int round = 0; round < 2; ++round) {
+                for (String text : texts) {
+                    BreakIterator[] fresh = {
+                            BreakIterator.getWordInstance(locale), BreakIterator.getLineInstance(locale) };
+                    for (int k = 0; k < fresh.length; ++k) {
+                        fresh[k].setText(text);
+                        reused[k].setText(text);
+                        String expected = forwardBoundaries(fresh[k]);
+                        assertEquals(locale + " reused iterator", expected, forwardBoundaries(reused[k]));
+
+                        // Clone in the middle of the text, then continue with both iterators.
+                        reused[k].following(text.length() / 2);
+                        BreakIterator clone = (BreakIterator) reused[k].clone();
+                        StringBuilder fromOriginal = new StringBuilder();
+                        StringBuilder fromClone = new StringBuilder();
+                        for (int b = reused[k].next(); b != BreakIterator.DONE; b = reused[k].next()) {
+                            fromOriginal.append(b).append(' ');
+                        }
+                        for (int b = clone.next(); b != BreakIterator.DONE; b = clone.next()) {
+                            fromClone.append(b).append(' ');
+                        }
+                        assertEquals(locale + " clone", fromOriginal.toString(), fromClone.toString());
+                        assertTrue(locale + " tail of boundaries", expected.endsWith(fromOriginal.toString()));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String forwardBoundaries(BreakIterator bi) {
+        StringBuilder sb = new StringBuilder();
+        for (int b = bi.first(); b != BreakIterator.DONE; b = bi.next()) {
+            sb.append(b).append(' ');
+        }
+        return sb.toString();
+    }
     }
 
@@ -22,7 +22,21 @@ my @METHODS  = (
 ##               ['TestByteToCharConverter', 'TestByteToCharConverterICU'],
 ##               ['TestCharToByteConverter', 'TestCharToByteConverterICU'],
                  ['TestCharsetDecoder',      'TestCharsetDecoderICU'],
-                 ['TestCharsetEncoder',      'TestCharsetEncoderICU']
+                 ['TestCharsetEncoder',      'TestCharsetEncoderICU'],
+                 ['TestCharsetDecoderICUDirect', 'TestCharsetDecoderICU'],
+                 ['TestCharsetEncoderICUDirect', 'TestCharsetEncoderICU'],
+                 ['TestCharsetDecoderDirect',    'TestCharsetDecoderICUDirect'],
+                 ['TestCharsetEncoderDirect',    'TestCharsetEncoderICUDirect'],
+                 ['TestCharsetDecoderChunked',   'TestCharsetDecoderICUChunked'],
+                 ['TestCharsetEncoderChunked',   'TestCharsetEncoderICUChunked']
+               );
+
+# Methods for the charsets that only ICU supports; see @ICU_OPTIONS.
+my @ICU_METHODS  = (
+                 ['TestCharsetDecoderICUDirect',  'TestCharsetDecoderICU'],
+                 ['TestCharsetEncoderICUDirect',  'TestCharsetEncoderICU'],
+                 ['TestCharsetDecoderICUChunked', 'TestCharsetDecoderICU'],
+                 ['TestCharsetEncoderICUChunked', 'TestCharsetEncoderICU']
                );
 
 # Patterns which define the set of characters used for testing.
@@ -53,8 +67,28 @@ my @OPTIONS = (
                                 [ "french.txt",     "UTF-8",        "UTF-16BE"],
                                 [ "french.txt",     "UTF-8",        "UTF-16LE"],
                                 [ "english.txt",    "UTF-8",        "US-ASCII"],
+                                [ "japanese.txt",   "UTF-8",        "UTF-16"],
+                                [ "japanese.txt",   "UTF-8",        "UTF-32"],
+                                [ "japanese.txt",   "UTF-8",        "ISO-2022-JP"],
+                                [ "korean.txt",     "UTF-8",        "ISO-2022-KR"],
+                                [ "s-chinese.txt",  "UTF-8",        "GB18030"],
                           );
 
+my @ICU_OPTIONS = (
+#                                 src text          src encoding    test encoding
+                                [ "french.txt",     "UTF-8",        "SCSU"],
+                                [ "japanese.txt",   "UTF-8",        "SCSU"],
+                                [ "french.txt",     "UTF-8",        "BOCU-1"],
+                                [ "japanese.txt",   "UTF-8",        "BOCU-1"],
+                                [ "s-chinese.txt",  "UTF-8",        "HZ"],
+                                [ "french.txt",     "UTF-8",        "LMBCS-1"],
+                                [ "japanese.txt",   "UTF-8",        "LMBCS-1"],
+                          );
+
+# The JDK and ICU methods run with the charsets that both support, and the
+# ICU methods alone with the charsets that only ICU supports.
+my @SUITES = ( [\@METHODS, \@OPTIONS], [\@ICU_METHODS, \@ICU_OPTIONS] );
+
 my $CALIBRATE = 2;  # duration in seconds for initial calibration
 my $DURATION  = 10; # duration in seconds for each pass
 my $NUMPASSES = 4;  # number of passes.  If > 1 then the first pass
@@ -101,56 +135,60 @@ EOF
 
     my $raw = "";
 
-    for my $methodPair (@METHODS) {
+    for my $suite (@SUITES) {
+        my ($methods, $options) = @$suite;
 
-        my $testMethod = $methodPair->[0];
-        my $baselineMethod = $methodPair->[1];
+        for my $methodPair (@$methods) {
 
-        print HTML "<P><TABLE $TABLEATTR><TR><TD>\n";
-        print HTML "<P><B>$testMethod vs. $baselineMethod</B></P>\n";
-        
-        print HTML "<P><TABLE $TABLEATTR BGCOLOR=\"#CCFFFF\">\n";
-        print HTML "<TR><TD>Options</TD><TD>$testMethod</TD>";
-        print HTML "<TD>$baselineMethod</TD><TD>Ratio</TD></TR>\n";
-
-        $OUT = '';
-
-        for my $pat (@OPTIONS) {
-            print HTML "<TR><TD>@$pat[0], @$pat[2]</TD>\n";
-
-            out("<P><TABLE $TABLEATTR WIDTH=\"100%\">");
-
-            # measure the test method
-            out("<TR><TD>");
-            print "\n$testMethod [@$pat]\n";
-            my $t = measure2($testMethod, $pat, -$DURATION);
-            out("</TD></TR>");
-            print HTML "<TD>", formatSeconds(4, $t->getMean(), $t->getError);
-            print HTML "/event</TD>\n";
-
-            # measure baseline method
-            out("<TR><TD>");
-            print "\n$baselineMethod [@$pat]\n";
-            my $b = measure2($baselineMethod, $pat, -$DURATION);
-            out("</TD></TR>");
-            print HTML "<TD>", formatSeconds(4, $b->getMean(), $t->getError);
-            print HTML "/event</TD>\n";
-
-            out("</TABLE></P>");
-
-            # output ratio
-            my $r = $t->divide($b);
-            my $mean = $r->getMean() - 1;
-            my $color = $mean < 0 ? "RED" : "BLACK";
-            print HTML "<TD><B><FONT COLOR=\"$color\">", formatPercent(3, $mean, $r->getError);
-            print HTML "</FONT></B></TD></TR>\n";
-        }
+            my $testMethod = $methodPair->[0];
+            my $baselineMethod = $methodPair->[1];
+
+            print HTML "<P><TABLE $TABLEATTR><TR><TD>\n";
+            print HTML "<P><B>$testMethod vs. $baselineMethod</B></P>\n";
+            
+            print HTML "<P><TABLE $TABLEATTR BGCOLOR=\"#CCFFFF\">\n";
+            print HTML "<TR><TD>Options</TD><TD>$testMethod</TD>";
+            print HTML "<TD>$baselineMethod</TD><TD>Ratio</TD></TR>\n";
+
+            $OUT = '';
 
-        print HTML "</TABLE></P>\n";
+            for my $pat (@$options) {
+                print HTML "<TR><TD>@$pat[0], @$pat[2]</TD>\n";
 
-        print HTML "<P>Raw data:</P>\n";
-        print HTML $OUT;
-        print HTML "</TABLE></P>\n";
+                out("<P><TABLE $TABLEATTR WIDTH=\"100%\">");
+
+                # measure the test method
+                out("<TR><TD>");
+                print "\n$testMethod [@$pat]\n";
+                my $t = measure2($testMethod, $pat, -$DURATION);
+                out("</TD></TR>");
+                print HTML "<TD>", formatSeconds(4, $t->getMean(), $t->getError);
+                print HTML "/event</TD>\n";
+
+                # measure baseline method
+                out("<TR><TD>");
+                print "\n$baselineMethod [@$pat]\n";
+                my $b = measure2($baselineMethod, $pat, -$DURATION);
+                out("</TD></TR>");
+                print HTML "<TD>", formatSeconds(4, $b->getMean(), $t->getError);
+                print HTML "/event</TD>\n";
+
+                out("</TABLE></P>");
+
+                # output ratio
+                my $r = $t->divide($b);
+                my $mean = $r->getMean() - 1;
+                my $color = $mean < 0 ? "RED" : "BLACK";
+                print HTML "<TD><B><FONT COLOR=\"$color\">", formatPercent(3, $mean, $r->getError);
+                print HTML "</FONT></B></TD></TR>\n";
+            }
+
+            print HTML "</TABLE></P>\n";
+
+            print HTML "<P>Raw data:</P>\n";
+            print HTML $OUT;
+            print HTML "</TABLE></P>\n";
+        }
     }
 
     print HTML <<EOF;
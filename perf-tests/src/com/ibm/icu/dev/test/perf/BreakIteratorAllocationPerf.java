@@ -0,0 +1,97 @@
+// © 2016 and later: Unicode, Inc. and others.
+// License & terms of use: http://www.unicode.org/copyright.html#License
+package com.ibm.icu.dev.test.perf;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import com.ibm.icu.text.BreakIterator;
+import com.ibm.icu.util.ULocale;
+
+/**
+ * Measures the memory that break iteration allocates, in bytes per MB of text
+ * (1M UTF-16 code units), for dictionary-based segmentation of CJK, Thai, etc.
+ * After warming up, iterating over the same text again should not allocate.
+ *
+ * <p>Usage: java com.ibm.icu.dev.test.perf.BreakIteratorAllocationPerf
+ * [word|line] [locale] file...
+ * <br>Each file is read as UTF-8, for example perf-tests/data/collation/TestNames_Japanese.txt.
+ *
+ * <p>Requires a JVM whose ThreadMXBean implements com.sun.management.ThreadMXBean,
+ * such as HotSpot.
+ */
+public class BreakIteratorAllocationPerf {
+    private static final int WARMUP_PASSES = 5;
+    private static final int PASSES = 5;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BreakIteratorAllocationPerf [word|line] locale file...");
+            return;
+        }
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (!(mx instanceof com.sun.management.ThreadMXBean)) {
+            System.err.println("This JVM does not report allocated bytes per thread.");
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) mx;
+        long threadId = Thread.currentThread().getId();
+        ULocale locale = new ULocale(args[1]);
+
+        for (int i = 2; i < args.length; ++i) {
+            String text = readFile(args[i]);
+            BreakIterator bi = args[0].equals("line") ?
+                    BreakIterator.getLineInstance(locale) : BreakIterator.getWordInstance(locale);
+            bi.setText(text);
+
+            // The first pass also measures loading the rules and dictionaries.
+            long before = allocations.getThreadAllocatedBytes(threadId);
+            int count = countBoundaries(bi);
+            long firstPass = allocations.getThreadAllocatedBytes(threadId) - before;
+            for (int pass = 1; pass < WARMUP_PASSES; ++pass) {
+                countBoundaries(bi);
+            }
+            long min = Long.MAX_VALUE;
+            long nanos = Long.MAX_VALUE;
+            for (int pass = 0; pass < PASSES; ++pass) {
+                long start = System.nanoTime();
+                before = allocations.getThreadAllocatedBytes(threadId);
+                countBoundaries(bi);
+                min = Math.min(min, allocations.getThreadAllocatedBytes(threadId) - before);
+                nanos = Math.min(nanos, System.nanoTime() - start);
+            }
+            double mb = text.length() / (1024.0 * 1024.0);
+            System.out.printf("%s: %d chars, %d boundaries, first pass %.0f KB, "
+                    + "then %.1f KB per MB of text, %.1f ms%n",
+                    args[i], text.length(), count, firstPass / 1024.0,
+                    min / 1024.0 / mb, nanos / 1e6);
+        }
+    }
+
+    private static int countBoundaries(BreakIterator bi) {
+        int count = 0;
+        for (int b = bi.first(); b != BreakIterator.DONE; b = bi.next()) {
+            ++count;
+        }
+        return count;
+    }
+
+    private static String readFile(String fileName) throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(fileName), "UTF-8");
+        try {
+            StringBuilder sb = new StringBuilder();
+            char[] buffer = new char[8192];
+            int length;
+            while ((length = reader.read(buffer)) > 0) {
+                sb.append(buffer, 0, length);
+            }
+            return sb.toString();
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -45,7 +45,10 @@ public class CollationPerformanceTest {
         + "-binsearch                 Binary Search timing test\n"
         + "-keygen                    Sort Key Generation timing test\n"
         + "-qsort                     Quicksort timing test\n"
+        + "-parsort                   CollationSorter (sequential and parallel) vs. Arrays.sort() timing test\n"
         + "-iter                      Iteration Performance Test\n"
+        + "-threads n                 Multi-threaded compare test on one frozen collator, using n threads\n"
+        + "-fastpath                  Compare timing test by fast path (Latin, Greek, Cyrillic or none)\n"
         + "-dump                      Display strings, sort keys and CEs.\n"
         + "-java                      Run test using java.text.Collator.\n";
     
@@ -59,6 +62,7 @@ public class CollationPerformanceTest {
     static StringBuffer temp_opt_iLoopCount = new StringBuffer("1");
     static StringBuffer temp_opt_terse      = new StringBuffer("false");
     static StringBuffer temp_opt_qsort      = new StringBuffer("");
+    static StringBuffer temp_opt_parsort    = new StringBuffer("");
     static StringBuffer temp_opt_binsearch  = new StringBuffer("");
     static StringBuffer temp_opt_icu        = new StringBuffer("true");
     //static StringBuffer opt_win        = new StringBuffer("");      // Run with Windows native functions.
@@ -80,6 +84,8 @@ public class CollationPerformanceTest {
     static StringBuffer temp_opt_itertest   = new StringBuffer("");
     static StringBuffer temp_opt_dump       = new StringBuffer("");
     static StringBuffer temp_opt_java       = new StringBuffer("");
+    static StringBuffer temp_opt_threads    = new StringBuffer("0");
+    static StringBuffer temp_opt_fastpath   = new StringBuffer("");
     
     
     static String   opt_fName      = "";
@@ -91,6 +97,7 @@ public class CollationPerformanceTest {
     static int      opt_iLoopCount = 1;
     static boolean  opt_terse      = false;
     static boolean  opt_qsort      = false;
+    static boolean  opt_parsort    = false;
     static boolean  opt_binsearch  = false;
     static boolean  opt_icu        = true;
     //static boolean  opt_win        = false;      // Run with Windows native functions.
@@ -112,6 +119,8 @@ public class CollationPerformanceTest {
     static boolean  opt_itertest   = false;
     static boolean  opt_dump       = false;
     static boolean  opt_java       = false;
+    static int      opt_threads    = 0;
+    static boolean  opt_fastpath   = false;
 
     static OptionSpec[] options = {
         new OptionSpec("-file", 2, temp_opt_fName),
@@ -119,6 +128,7 @@ public class CollationPerformanceTest {
         //new OptionSpec("-langid", 1, temp_opt_langid),
         new OptionSpec("-rules", 2, temp_opt_rules),
         new OptionSpec("-qsort", 0, temp_opt_qsort),
+        new OptionSpec("-parsort", 0, temp_opt_parsort),
         new OptionSpec("-binsearch", 0, temp_opt_binsearch),
         new OptionSpec("-iter", 0, temp_opt_itertest),
         //new OptionSpec("-win", 0, temp_opt_win),
@@ -144,6 +154,8 @@ public class CollationPerformanceTest {
         new OptionSpec("-help", 0, temp_opt_help),
         new OptionSpec("-?", 0, temp_opt_help),
         new OptionSpec("-java", 0, temp_opt_java),
+        new OptionSpec("-threads", 1, temp_opt_threads),
+        new OptionSpec("-fastpath", 0, temp_opt_fastpath),
     };
     
     static java.text.Collator javaCol = null;
@@ -176,6 +188,10 @@ public class CollationPerformanceTest {
             collPerf.doQSort();
         }
         
+        if (opt_parsort) {
+            collPerf.doParallelSort();
+        }
+        
         if (opt_binsearch) {
             collPerf.doBinarySearch();
         }
@@ -192,6 +208,14 @@ public class CollationPerformanceTest {
             collPerf.doIterTest();
         }
         
+        if (opt_threads > 0) {
+            collPerf.doThreadedCompare();
+        }
+        
+        if (opt_fastpath) {
+            collPerf.doFastPathCompare();
+        }
+        
     }
     
     //Dump file lines, CEs, Sort Keys if requested
@@ -299,6 +323,60 @@ public class CollationPerformanceTest {
         }
     }
     
+    /**---------------------------------------------------------------------------------------
+     *
+     *   doParallelSort()   Sorts the lines with Arrays.sort() and the collator as the
+     *                      Comparator, and with CollationSorter via sort keys,
+     *                      in the calling thread and on a thread pool.
+     *
+     *---------------------------------------------------------------------------------------
+     */
+    void doParallelSort() {
+        RuleBasedCollator coll = (RuleBasedCollator)icuCol.cloneAsThawed().freeze();
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        java.util.concurrent.ExecutorService executor =
+            java.util.concurrent.Executors.newFixedThreadPool(numThreads);
+        String[] expected = null;
+        long[] times = new long[3];
+        try {
+            for (int test = 0; test < times.length; ++test) {
+                callGC();
+                String[] sorted = null;
+                long startTime = System.currentTimeMillis();
+                for (int loops = 0; loops < opt_loopCount; loops++) {
+                    sorted = (String[])tests.clone();
+                    switch (test) {
+                    case 0:
+                        Arrays.sort(sorted, coll);
+                        break;
+                    case 1:
+                        CollationSorter.sort(sorted, coll);
+                        break;
+                    default:
+                        CollationSorter.sort(sorted, coll, executor);
+                        break;
+                    }
+                }
+                times[test] = System.currentTimeMillis() - startTime;
+                if (expected == null) {
+                    expected = sorted;
+                } else if (!Arrays.equals(expected, sorted)) {
+                    System.err.println("Error: CollationSorter result differs from Arrays.sort()");
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        if (!opt_terse) {
+            System.out.println("sort:  " + tests.length + " strings, " + opt_loopCount + " loops");
+            System.out.println("sort:  Arrays.sort(collator)         " + times[0] + " ms");
+            System.out.println("sort:  CollationSorter               " + times[1] + " ms");
+            System.out.println("sort:  CollationSorter, " + numThreads + " thread(s) " + times[2] + " ms");
+        } else {
+            System.out.println(times[0] + ", " + times[1] + ", " + times[2]);
+        }
+    }
+    
     /**---------------------------------------------------------------------------------------
      *
      *    doBinarySearch()    Binary Search timing test.  Each name from the list
@@ -816,6 +894,145 @@ public class CollationPerformanceTest {
         doBackwardIterTest();
     }
     
+    /**---------------------------------------------------------------------------------------
+     *
+     *    doThreadedCompare()   Multi-threaded compare test.  All threads share one frozen
+     *                          collator and compare every line with its neighbors.
+     *                          Runs with a single thread first for reference.
+     *
+     *---------------------------------------------------------------------------------------
+     */
+    void doThreadedCompare() {
+        final Collator frozenCol = icuCol.cloneAsThawed().freeze();
+        long singleTime = runThreadedCompare(frozenCol, 1);
+        long multiTime = runThreadedCompare(frozenCol, opt_threads);
+        // Each thread does the same amount of work.
+        double speedup = (singleTime * opt_threads) / (multiTime + 0.0);
+        if (!opt_terse) {
+            System.out.println("threaded compare:  1 thread " + singleTime + " ms, "
+                               + opt_threads + " threads " + multiTime + " ms");
+            System.out.println("threaded compare:  throughput speedup = " + nf.format(speedup));
+        } else {
+            System.out.println(nf.format(speedup));
+        }
+    }
+
+    long runThreadedCompare(final Collator coll, int numThreads) {
+        callGC();
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; ++t) {
+            threads[t] = new Thread() {
+                public void run() {
+                    int r = 0;
+                    for (int loops = 0; loops < opt_loopCount; loops++) {
+                        for (int j = 1; j < tests.length; j++) {
+                            r += coll.compare(tests[j - 1], tests[j]);
+                            r += coll.compare(tests[j], tests[tests.length - j]);
+                        }
+                    }
+                    if (r == Integer.MIN_VALUE) {
+                        // Use the result so that the loop is not optimized away.
+                        System.out.print("");
+                    }
+                }
+            };
+        }
+        long startTime = System.currentTimeMillis();
+        for (int t = 0; t < numThreads; ++t) {
+            threads[t].start();
+        }
+        try {
+            for (int t = 0; t < numThreads; ++t) {
+                threads[t].join();
+            }
+        } catch (InterruptedException e) {
+            System.err.println("threaded compare interrupted");
+        }
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        if (!opt_terse) {
+            long count = (long)numThreads * opt_loopCount * 2 * (tests.length - 1);
+            int ns = (int)(1000000 * elapsedTime / (count + 0.0));
+            System.out.println("threaded compare:  " + numThreads + " thread(s), total # of string compares = "
+                               + count + ", wall time per compare = " + ns);
+        }
+        return elapsedTime;
+    }
+    
+    /**---------------------------------------------------------------------------------------
+     *
+     *   doFastPathCompare()    Compares adjacent strings, with the time per compare
+     *                          reported separately for the string pairs that start
+     *                          to differ in Latin, Greek, Cyrillic or other text.
+     *                          Those are the RuleBasedCollator fast paths.
+     *
+     *---------------------------------------------------------------------------------------
+     */
+    void doFastPathCompare() {
+        String[] pathNames = { "Latin", "Greek", "Cyrillic", "other" };
+        List<List<String>> pairs = new ArrayList<List<String>>(pathNames.length);
+        for (int p = 0; p < pathNames.length; p++) {
+            pairs.add(new ArrayList<String>());
+        }
+        for (int j = 1; j < tests.length; j++) {
+            String left = tests[j - 1];
+            String right = tests[j];
+            int i = 0;
+            while (i < left.length() && i < right.length() && left.charAt(i) == right.charAt(i)) {
+                i++;
+            }
+            int c = i < left.length() ? left.charAt(i) : -1;
+            int d = i < right.length() ? right.charAt(i) : -1;
+            int p;
+            if (c <= 0x17f && d <= 0x17f) {
+                p = 0;
+            } else if (isFastPathScript(c, 0x370, 0x400) && isFastPathScript(d, 0x370, 0x400)) {
+                p = 1;
+            } else if (isFastPathScript(c, 0x400, 0x460) && isFastPathScript(d, 0x400, 0x460)) {
+                p = 2;
+            } else {
+                p = 3;
+            }
+            pairs.get(p).add(left);
+            pairs.get(p).add(right);
+        }
+        // Warm up all of the paths before timing any of them.
+        for (int j = 1; j < tests.length; j++) {
+            icuCol.compare(tests[j - 1], tests[j]);
+        }
+        for (int p = 0; p < pathNames.length; p++) {
+            String[] pathTests = pairs.get(p).toArray(new String[pairs.get(p).size()]);
+            if (pathTests.length == 0) {
+                continue;
+            }
+            callGC();
+            int r = 0;
+            long startTime = System.currentTimeMillis();
+            for (int loops = 0; loops < opt_loopCount; loops++) {
+                for (int j = 0; j < pathTests.length; j += 2) {
+                    r += icuCol.compare(pathTests[j], pathTests[j + 1]);
+                }
+            }
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            if (r == Integer.MIN_VALUE) {
+                // Use the result so that the loop is not optimized away.
+                System.out.print("");
+            }
+            long count = (long)opt_loopCount * (pathTests.length / 2);
+            int ns = (int)(1000000 * elapsedTime / (count + 0.0));
+            if (!opt_terse) {
+                System.out.println("fast path compare:  " + pathNames[p] + ", total # of string compares = "
+                                   + count + ", time per compare = " + ns);
+            } else {
+                System.out.println(pathNames[p] + " " + ns);
+            }
+        }
+    }
+
+    /** Is c in [start, limit[, ASCII or the end of the string? */
+    private static boolean isFastPathScript(int c, int start, int limit) {
+        return c < 0x80 || (start <= c && c < limit);
+    }
+    
     void setOptions() {
         
         if (opt_java) {
@@ -949,6 +1166,9 @@ public class CollationPerformanceTest {
         if (temp_opt_qsort.toString().equalsIgnoreCase("true")) {
             opt_qsort = true;
         }
+        if (temp_opt_parsort.toString().equalsIgnoreCase("true")) {
+            opt_parsort = true;
+        }
         if (temp_opt_binsearch.toString().equalsIgnoreCase("true")) {
             opt_binsearch = true;
         }
@@ -1001,6 +1221,10 @@ public class CollationPerformanceTest {
         if (temp_opt_java.toString().equalsIgnoreCase("true")) {
             opt_java = true;
         }
+        opt_threads    = Integer.parseInt(temp_opt_threads.toString());
+        if (temp_opt_fastpath.toString().equalsIgnoreCase("true")) {
+            opt_fastpath = true;
+        }
         
         return true;
     }
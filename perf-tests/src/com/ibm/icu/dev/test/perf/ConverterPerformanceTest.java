@@ -18,7 +18,9 @@ import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
+import java.nio.charset.UnsupportedCharsetException;
 
 import com.ibm.icu.charset.CharsetProviderICU;
 
@@ -39,11 +41,21 @@ public class ConverterPerformanceTest extends PerfTest {
             BOMFreeReader reader = new BOMFreeReader(in, encoding);
             unicodeBuffer = readToEOS(reader);
             
-            // use java.nio to convert unicodeBuffer from char[] to byte[] 
+            // use java.nio to convert unicodeBuffer from char[] to byte[] in the charset
+            // under test, so that the decoder tests convert valid input;
+            // characters that the charset cannot represent are substituted
             CharBuffer source = CharBuffer.wrap(unicodeBuffer, 0, unicodeBuffer.length);
-            CharsetEncoder encoder = Charset.forName(encoding).newEncoder();
+            String charsetName = testName != null ? testName : encoding;
+            Charset charset;
+            try {
+                charset = Charset.forName(charsetName);
+            } catch (UnsupportedCharsetException e) {
+                // a charset that only ICU supports, like SCSU or BOCU-1
+                charset = new CharsetProviderICU().charsetForName(charsetName);
+            }
+            CharsetEncoder encoder = charset.newEncoder();
             encoder.onMalformedInput(CodingErrorAction.REPORT);
-            encoder.onUnmappableCharacter(CodingErrorAction.REPORT);
+            encoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
             ByteBuffer target = encoder.encode(source);
             
             // target.array() will probably return what we want, but lets take no chances
@@ -224,6 +236,9 @@ public class ConverterPerformanceTest extends PerfTest {
                 public long getOperationsPerIteration() {
                     return encBuffer.length;
                 }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
             };
         }catch(Exception e){
             e.printStackTrace();
@@ -253,6 +268,9 @@ public class ConverterPerformanceTest extends PerfTest {
                 public long getOperationsPerIteration() {
                     return unicodeBuffer.length;
                 }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
             };
         }catch(Exception e){
             e.printStackTrace();
@@ -282,6 +300,9 @@ public class ConverterPerformanceTest extends PerfTest {
                 public long getOperationsPerIteration() {
                     return encBuffer.length;
                 }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
             };
         }catch(Exception e){
             e.printStackTrace();
@@ -311,6 +332,331 @@ public class ConverterPerformanceTest extends PerfTest {
                 public long getOperationsPerIteration() {
                     return unicodeBuffer.length;
                 }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
+            };
+        }catch(Exception e){
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    // Same as TestCharsetDecoderICU and TestCharsetEncoderICU, but with direct
+    // buffers, to compare their throughput with that of heap buffers.
+    PerfTest.Function TestCharsetDecoderICUDirect() {
+        try{
+            return new PerfTest.Function() {
+                CharBuffer outBuf = ByteBuffer.allocateDirect(unicodeBuffer.length * 2).asCharBuffer();
+                Charset myCharset = new CharsetProviderICU().charsetForName(testName);
+                ByteBuffer srcBuf = (ByteBuffer)ByteBuffer.allocateDirect(encBuffer.length).put(encBuffer).flip();
+                CharsetDecoder decoder = myCharset.newDecoder();
+
+                public void call() {
+                    try{
+                        decoder.decode(srcBuf,outBuf,false);
+                        decoder.reset();
+                        srcBuf.rewind();
+                        outBuf.rewind();
+                    }catch(Exception e){
+                        e.printStackTrace();
+                        throw new RuntimeException(e.getMessage());
+                    }
+                }
+                public long getOperationsPerIteration() {
+                    return encBuffer.length;
+                }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
+            };
+        }catch(Exception e){
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    PerfTest.Function TestCharsetEncoderICUDirect() {
+        try{
+            return new PerfTest.Function() {
+                ByteBuffer outBuf = ByteBuffer.allocateDirect(encBuffer.length);
+                Charset myCharset = new CharsetProviderICU().charsetForName(testName);
+                CharBuffer srcBuf = ByteBuffer.allocateDirect(unicodeBuffer.length * 2).asCharBuffer();
+                CharsetEncoder encoder = myCharset.newEncoder();
+                {
+                    srcBuf.put(unicodeBuffer).flip();
+                }
+
+                public void call() {
+                    try{
+                        encoder.encode(srcBuf,outBuf,false);
+                        encoder.reset();
+                        srcBuf.rewind();
+                        outBuf.rewind();
+                    }catch(Exception e){
+                        e.printStackTrace();
+                        throw new RuntimeException(e.getMessage());
+                    }
+                }
+                public long getOperationsPerIteration() {
+                    return unicodeBuffer.length;
+                }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
+            };
+        }catch(Exception e){
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    // The JDK's charsets with direct buffers, for comparison with
+    // TestCharsetDecoderICUDirect and TestCharsetEncoderICUDirect.
+    PerfTest.Function TestCharsetDecoderDirect() {
+        try{
+            return new PerfTest.Function() {
+                CharBuffer outBuf = ByteBuffer.allocateDirect(unicodeBuffer.length * 2).asCharBuffer();
+                Charset myCharset = Charset.forName(testName);
+                ByteBuffer srcBuf = (ByteBuffer)ByteBuffer.allocateDirect(encBuffer.length).put(encBuffer).flip();
+                CharsetDecoder decoder = myCharset.newDecoder();
+
+                public void call() {
+                    try{
+                        decoder.decode(srcBuf,outBuf,false);
+                        decoder.reset();
+                        srcBuf.rewind();
+                        outBuf.rewind();
+                    }catch(Exception e){
+                        e.printStackTrace();
+                        throw new RuntimeException(e.getMessage());
+                    }
+                }
+                public long getOperationsPerIteration() {
+                    return encBuffer.length;
+                }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
+            };
+        }catch(Exception e){
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    PerfTest.Function TestCharsetEncoderDirect() {
+        try{
+            return new PerfTest.Function() {
+                ByteBuffer outBuf = ByteBuffer.allocateDirect(encBuffer.length);
+                Charset myCharset = Charset.forName(testName);
+                CharBuffer srcBuf = ByteBuffer.allocateDirect(unicodeBuffer.length * 2).asCharBuffer();
+                CharsetEncoder encoder = myCharset.newEncoder();
+                {
+                    srcBuf.put(unicodeBuffer).flip();
+                }
+
+                public void call() {
+                    try{
+                        encoder.encode(srcBuf,outBuf,false);
+                        encoder.reset();
+                        srcBuf.rewind();
+                        outBuf.rewind();
+                    }catch(Exception e){
+                        e.printStackTrace();
+                        throw new RuntimeException(e.getMessage());
+                    }
+                }
+                public long getOperationsPerIteration() {
+                    return unicodeBuffer.length;
+                }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
+            };
+        }catch(Exception e){
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    // Conversion through small buffers that are refilled and drained, the way
+    // InputStreamReader and OutputStreamWriter use the converters. This adds
+    // the cost of the converter state that is carried between calls, and of
+    // characters that are split between buffers. Like a writer, the encoder
+    // substitutes characters that the charset cannot represent, instead of
+    // stopping at the first one.
+    private static final int CHUNK_SIZE = 8192;
+
+    static void decodeInChunks(CharsetDecoder decoder, byte[] src, ByteBuffer in, CharBuffer out) {
+        decoder.reset();
+        in.clear();
+        int srcIndex = 0;
+        boolean endOfInput;
+        do {
+            int length = Math.min(in.remaining(), src.length - srcIndex);
+            in.put(src, srcIndex, length);
+            srcIndex += length;
+            endOfInput = srcIndex == src.length;
+            in.flip();
+            CoderResult cr;
+            while ((cr = decoder.decode(in, out, endOfInput)).isOverflow()) {
+                out.clear();
+            }
+            if (cr.isError()) {
+                throw new IllegalStateException(cr.toString());
+            }
+            in.compact();
+        } while (!endOfInput);
+        while (decoder.flush(out).isOverflow()) {
+            out.clear();
+        }
+        out.clear();
+    }
+
+    static void encodeInChunks(CharsetEncoder encoder, char[] src, CharBuffer in, ByteBuffer out) {
+        encoder.reset();
+        in.clear();
+        int srcIndex = 0;
+        boolean endOfInput;
+        do {
+            int length = Math.min(in.remaining(), src.length - srcIndex);
+            in.put(src, srcIndex, length);
+            srcIndex += length;
+            endOfInput = srcIndex == src.length;
+            in.flip();
+            CoderResult cr;
+            while ((cr = encoder.encode(in, out, endOfInput)).isOverflow()) {
+                out.clear();
+            }
+            if (cr.isError()) {
+                throw new IllegalStateException(cr.toString());
+            }
+            in.compact();
+        } while (!endOfInput);
+        while (encoder.flush(out).isOverflow()) {
+            out.clear();
+        }
+        out.clear();
+    }
+
+    PerfTest.Function TestCharsetDecoderChunked() {
+        try{
+            return new PerfTest.Function() {
+                CharBuffer outBuf = CharBuffer.allocate(CHUNK_SIZE);
+                Charset myCharset = Charset.forName(testName);
+                ByteBuffer srcBuf = ByteBuffer.allocate(CHUNK_SIZE);
+                CharsetDecoder decoder = myCharset.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+                public void call() {
+                    try{
+                        decodeInChunks(decoder, encBuffer, srcBuf, outBuf);
+                    }catch(Exception e){
+                        e.printStackTrace();
+                        throw new RuntimeException(e.getMessage());
+                    }
+                }
+                public long getOperationsPerIteration() {
+                    return encBuffer.length;
+                }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
+            };
+        }catch(Exception e){
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    PerfTest.Function TestCharsetEncoderChunked() {
+        try{
+            return new PerfTest.Function() {
+                ByteBuffer outBuf = ByteBuffer.allocate(CHUNK_SIZE);
+                Charset myCharset = Charset.forName(testName);
+                CharBuffer srcBuf = CharBuffer.allocate(CHUNK_SIZE);
+                CharsetEncoder encoder = myCharset.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+                public void call() {
+                    try{
+                        encodeInChunks(encoder, unicodeBuffer, srcBuf, outBuf);
+                    }catch(Exception e){
+                        e.printStackTrace();
+                        throw new RuntimeException(e.getMessage());
+                    }
+                }
+                public long getOperationsPerIteration() {
+                    return unicodeBuffer.length;
+                }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
+            };
+        }catch(Exception e){
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    PerfTest.Function TestCharsetDecoderICUChunked() {
+        try{
+            return new PerfTest.Function() {
+                CharBuffer outBuf = CharBuffer.allocate(CHUNK_SIZE);
+                Charset myCharset = new CharsetProviderICU().charsetForName(testName);
+                ByteBuffer srcBuf = ByteBuffer.allocate(CHUNK_SIZE);
+                CharsetDecoder decoder = myCharset.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+                public void call() {
+                    try{
+                        decodeInChunks(decoder, encBuffer, srcBuf, outBuf);
+                    }catch(Exception e){
+                        e.printStackTrace();
+                        throw new RuntimeException(e.getMessage());
+                    }
+                }
+                public long getOperationsPerIteration() {
+                    return encBuffer.length;
+                }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
+            };
+        }catch(Exception e){
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    PerfTest.Function TestCharsetEncoderICUChunked() {
+        try{
+            return new PerfTest.Function() {
+                ByteBuffer outBuf = ByteBuffer.allocate(CHUNK_SIZE);
+                Charset myCharset = new CharsetProviderICU().charsetForName(testName);
+                CharBuffer srcBuf = CharBuffer.allocate(CHUNK_SIZE);
+                CharsetEncoder encoder = myCharset.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+                public void call() {
+                    try{
+                        encodeInChunks(encoder, unicodeBuffer, srcBuf, outBuf);
+                    }catch(Exception e){
+                        e.printStackTrace();
+                        throw new RuntimeException(e.getMessage());
+                    }
+                }
+                public long getOperationsPerIteration() {
+                    return unicodeBuffer.length;
+                }
+                public long getBytesPerIteration() {
+                    return encBuffer.length;
+                }
             };
         }catch(Exception e){
             e.printStackTrace();
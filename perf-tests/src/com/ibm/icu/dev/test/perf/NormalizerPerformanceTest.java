@@ -8,7 +8,12 @@
 */
 package com.ibm.icu.dev.test.perf;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 import com.ibm.icu.text.Normalizer;
+import com.ibm.icu.text.Normalizer2;
 
 public class NormalizerPerformanceTest extends PerfTest {
     
@@ -16,6 +21,10 @@ public class NormalizerPerformanceTest extends PerfTest {
     String[] NFCFileLines;
     String[] fileLines;
     
+    // The whole file as one string each, for the parallel normalization tests.
+    String NFDText;
+    String NFCText;
+    ExecutorService executor;
     
     public static void main(String[] args) throws Exception {
         new NormalizerPerformanceTest().run(args);
@@ -25,6 +34,16 @@ public class NormalizerPerformanceTest extends PerfTest {
         fileLines = readLines(fileName, encoding, bulk_mode);
         NFDFileLines = normalizeInput(fileLines, Normalizer.NFD);
         NFCFileLines = normalizeInput(fileLines, Normalizer.NFC);
+        NFDText = joinLines(NFDFileLines);
+        NFCText = joinLines(NFCFileLines);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r);
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
     }
     
     // Test NFC Performance
@@ -82,6 +101,32 @@ public class NormalizerPerformanceTest extends PerfTest {
         };
     }
     
+    // Test NFC Performance on the whole text, sequential vs. split into chunks
+    // that are normalized in parallel
+    PerfTest.Function TestICU_NFC_NFD_Whole_Sequential() {
+        return new PerfTest.Function() {
+            public void call() {
+                Normalizer2.getNFCInstance().normalize(NFDText, new StringBuilder());
+            }
+            
+            public long getOperationsPerIteration() {
+                return NFDText.length();
+            }
+        };
+    }
+    
+    PerfTest.Function TestICU_NFC_NFD_Whole_Parallel() {
+        return new PerfTest.Function() {
+            public void call() {
+                Normalizer2.getNFCInstance().normalize(NFDText, new StringBuilder(), executor);
+            }
+            
+            public long getOperationsPerIteration() {
+                return NFDText.length();
+            }
+        };
+    }
+    
     // Test NFD Performance
     PerfTest.Function TestICU_NFD_NFD_Text() {
         return new PerfTest.Function() {
@@ -137,6 +182,32 @@ public class NormalizerPerformanceTest extends PerfTest {
         };
     }
 
+    // Test NFD Performance on the whole text, sequential vs. split into chunks
+    // that are normalized in parallel
+    PerfTest.Function TestICU_NFD_NFC_Whole_Sequential() {
+        return new PerfTest.Function() {
+            public void call() {
+                Normalizer2.getNFDInstance().normalize(NFCText, new StringBuilder());
+            }
+            
+            public long getOperationsPerIteration() {
+                return NFCText.length();
+            }
+        };
+    }
+    
+    PerfTest.Function TestICU_NFD_NFC_Whole_Parallel() {
+        return new PerfTest.Function() {
+            public void call() {
+                Normalizer2.getNFDInstance().normalize(NFCText, new StringBuilder(), executor);
+            }
+            
+            public long getOperationsPerIteration() {
+                return NFCText.length();
+            }
+        };
+    }
+    
     // Test NFC Performance
     PerfTest.Function TestJDK_NFC_NFD_Text() {
         return new PerfTest.Function() {
@@ -628,6 +699,14 @@ public class NormalizerPerformanceTest extends PerfTest {
     }
     */
     
+    String joinLines(String[] lines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            sb.append(lines[i]).append('\n');
+        }
+        return sb.toString();
+    }
+    
     String[] normalizeInput(String[] src, Normalizer.Mode mode) {
         String[] dest = new String[src.length];
         for (int i = 0; i < src.length; i++) {
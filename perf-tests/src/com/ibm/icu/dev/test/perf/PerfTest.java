@@ -15,6 +15,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PushbackInputStream;
 import java.io.Reader;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -73,6 +74,11 @@ import com.ibm.icu.impl.LocaleUtility;
  *
  * Raw times are given as integer ms, because this is what the system measures.
  *
+ * Lines beginning with '#' are comments with derived figures: the throughput
+ * in MB/s for functions that report their bytes per iteration, and, when the
+ * test runs in a single thread on a VM that can tell, the number of bytes
+ * allocated per iteration.
+ *
  * @author Alan Liu
  * @since ICU 2.4
  */
@@ -234,6 +240,16 @@ public abstract class PerfTest {
             return -1;
         }
 
+        /**
+         * Subclasses may implement this method to return the number of bytes
+         * processed in a single call to this object's call() method. If this
+         * is positive, the throughput in MB/s is reported after each pass as a
+         * comment line. The default implementation returns -1.
+         */
+        public long getBytesPerIteration() {
+            return -1;
+        }
+
         /**
          * Call call() n times in a tight loop and return the elapsed
          * milliseconds. If n is small and call() is fast the return result may
@@ -414,7 +430,11 @@ public abstract class PerfTest {
                     System.out.println("= " + meth + " begin ");
                 }
 
+                long allocated = threads > 1 ? -1 : getAllocatedBytes();
                 t = performLoops(testFunction, loops);
+                if (allocated >= 0) {
+                    allocated = getAllocatedBytes() - allocated;
+                }
                 
                 events = testFunction.getEventsPerIteration();
 
@@ -436,6 +456,15 @@ public abstract class PerfTest {
                     }
                 }
 
+                long bytes = testFunction.getBytesPerIteration();
+                if (bytes > 0 && t > 0) {
+                    double mbPerSecond = (double) bytes * loops * threads / 1000.0 / t;
+                    System.out.println("# " + meth + " " + mbPerSecond + " MB/s");
+                }
+                if (allocated >= 0 && loops > 0) {
+                    System.out.println("# " + meth + " " + (allocated / loops) + " bytes allocated/iteration");
+                }
+
             }
         }
     }
@@ -618,6 +647,37 @@ public abstract class PerfTest {
     }
     
     
+    /*
+     * Returns the number of bytes allocated by the current thread so far, or -1
+     * if the VM does not tell. com.sun.management.ThreadMXBean is used through
+     * reflection, because it is not available on every VM.
+     */
+    private static long getAllocatedBytes() {
+        if (allocatedBytesMethod == null) {
+            return -1;
+        }
+        try {
+            return ((Long) allocatedBytesMethod.invoke(ManagementFactory.getThreadMXBean(),
+                    Long.valueOf(Thread.currentThread().getId()))).longValue();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static final Method allocatedBytesMethod;
+    static {
+        Method m = null;
+        try {
+            Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean");
+            if (beanClass.isInstance(ManagementFactory.getThreadMXBean())) {
+                m = beanClass.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        } catch (Exception e) {
+            // Allocation is not reported.
+        }
+        allocatedBytesMethod = m;
+    }
+
     private long performLoops(Function function, long loops) throws InterruptedException {
         function.init();
         if (threads > 1) {
@@ -24,6 +24,8 @@ public class RBBIPerf extends PerfTest {
 
     String                  dataFileName;
     RuleBasedBreakIterator  bi;
+    RuleBasedBreakIterator  biCharacterIterator;
+    RuleBasedBreakIterator  biCharArray;
     BreakIterator           jdkbi;
     String                  testString;
 
@@ -69,6 +71,11 @@ public class RBBIPerf extends PerfTest {
         }
         if (bi!=null ) {
             bi.setText(testString);
+            // The same text through a CharacterIterator, and in a char array.
+            biCharacterIterator = (RuleBasedBreakIterator)bi.clone();
+            biCharacterIterator.setText(new java.text.StringCharacterIterator(testString));
+            biCharArray = (RuleBasedBreakIterator)bi.clone();
+            biCharArray.setText(testString.toCharArray(), 0, testString.length());
         }
         if (jdkbi != null) {
             jdkbi.setText(testString);   
@@ -113,6 +120,90 @@ public class RBBIPerf extends PerfTest {
     }
     
     
+    /**
+     * Iterates forward over text set with setText(CharacterIterator),
+     * which the state machine reads through the iterator.
+     */
+    PerfTest.Function testRBBINextCharacterIterator() {
+        return createNextFunction(biCharacterIterator);
+    }
+
+    /**
+     * Iterates forward over text set with setText(char[], int, int),
+     * which the state machine reads directly.
+     */
+    PerfTest.Function testRBBINextCharArray() {
+        return createNextFunction(biCharArray);
+    }
+
+    private PerfTest.Function createNextFunction(final RuleBasedBreakIterator it) {
+        return new PerfTest.Function() {
+
+            public void call() {
+                int n = it.first();
+                for (; n != BreakIterator.DONE; n=it.next()) {
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                int count = 0;
+                for (int n=it.first(); n != BreakIterator.DONE; n=it.next()) {
+                    count++;
+                }
+                return count;
+            }
+        };
+    }
+
+
+    /**
+     * Iterates forward with next() and getRuleStatus() for each boundary.
+     */
+    PerfTest.Function testRBBINextStatus() {
+        return new PerfTest.Function() {
+
+            public void call() {
+                int n = bi.first();
+                for (; n != BreakIterator.DONE; n=bi.next()) {
+                    bi.getRuleStatus();
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                int count = 0;
+                for (int n=bi.first(); n != BreakIterator.DONE; n=bi.next()) {
+                    count++;
+                }
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Iterates forward with next(int, int[], int[]), getting the boundaries
+     * and their rule status values in batches.
+     */
+    PerfTest.Function testRBBINextBulk() {
+        return new PerfTest.Function() {
+            final int[] boundaries = new int[256];
+            final int[] ruleStatus = new int[256];
+
+            public void call() {
+                bi.first();
+                while (bi.next(Integer.MAX_VALUE, boundaries, ruleStatus) > 0) {
+                }
+            }
+
+            public long getOperationsPerIteration() {
+                int count = 0;
+                for (int n=bi.first(); n != BreakIterator.DONE; n=bi.next()) {
+                    count++;
+                }
+                return count;
+            }
+        };
+    }
+
     PerfTest.Function testRBBIPrevious() {
         return new PerfTest.Function() {
             